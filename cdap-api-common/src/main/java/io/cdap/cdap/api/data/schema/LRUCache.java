@@ -16,19 +16,16 @@
 
 package io.cdap.cdap.api.data.schema;
 
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.PriorityQueue;
 import java.util.function.Supplier;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 
 /**
- * A basic implementation of LRU cache. It uses a map to store cache values and a priority queue for
- * tracking last used time. The implementation only use pure Java class. Due to the limitation of
- * the Java priority queue of not having support for updating priority without removing/adding
- * element, the implementation is O(n) to the number of entries in the cache, hence it is more small
- * cache (n < 100).
+ * A basic implementation of LRU cache. It uses an access ordered {@link LinkedHashMap} to store
+ * cache values, which evicts the least recently used entry when the maximum size is exceeded. All
+ * operations are O(1). The implementation only use pure Java class.
  *
  * This class is thread safe.
  *
@@ -39,8 +36,6 @@ import javax.annotation.concurrent.ThreadSafe;
 final class LRUCache<K, V> {
 
   private final Map<K, V> entries;
-  private final PriorityQueue<TimedKey<K>> orderedKeys;
-  private final int maxSize;
 
   /**
    * Creates a {@link LRUCache} that caches the given maximum number of entries.
@@ -52,9 +47,12 @@ final class LRUCache<K, V> {
       throw new IllegalArgumentException("Maximum size of LRU Cache must be > 0");
     }
 
-    this.entries = new HashMap<>();
-    this.orderedKeys = new PriorityQueue<>();
-    this.maxSize = maxSize;
+    this.entries = new LinkedHashMap<K, V>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+        return size() > maxSize;
+      }
+    };
   }
 
   /**
@@ -65,39 +63,29 @@ final class LRUCache<K, V> {
    * @return either the existing value or the new value
    */
   synchronized V putIfAbsent(K key, V value) {
-    V oldValue = entries.putIfAbsent(key, value);
+    V oldValue = entries.get(key);
     if (oldValue != null) {
-      orderedKeys.removeIf(k -> k.getKey().equals(key));
-    }
-    orderedKeys.add(new TimedKey<>(key));
-    if (orderedKeys.size() > maxSize) {
-      entries.remove(orderedKeys.remove().getKey());
+      return oldValue;
     }
-    return oldValue == null ? value : oldValue;
+    entries.put(key, value);
+    return value;
   }
 
   /**
-   * Computes and puts a value for a given key in the cache if the key is absent in the cache.
+   * Computes and puts a value for a given key in the cache if the key is absent in the cache. The
+   * value is computed without holding the cache lock, hence the supplier might get called
+   * concurrently for the same key, in which case the first value put in the cache is returned.
    *
    * @param key the key for lookup in the cache
    * @param valueSupplier the supplier of value to put in the cache
    * @return either the existing value or the new value
    */
-  synchronized V computeIfAbsent(K key, Supplier<V> valueSupplier) {
-    V oldValue = entries.get(key);
-    V returnValue;
-    if (oldValue != null) {
-      orderedKeys.removeIf(k -> k.getKey().equals(key));
-      returnValue = oldValue;
-    } else {
-      returnValue = valueSupplier.get();
-      entries.put(key, returnValue);
-    }
-    orderedKeys.add(new TimedKey<>(key));
-    if (orderedKeys.size() > maxSize) {
-      entries.remove(orderedKeys.remove().getKey());
+  V computeIfAbsent(K key, Supplier<V> valueSupplier) {
+    V value = get(key);
+    if (value != null) {
+      return value;
     }
-    return returnValue;
+    return putIfAbsent(key, valueSupplier.get());
   }
 
   /**
@@ -108,10 +96,6 @@ final class LRUCache<K, V> {
    */
   @Nullable
   synchronized V get(K key) {
-    if (entries.containsKey(key)) {
-      orderedKeys.removeIf(k -> k.getKey().equals(key));
-      orderedKeys.add(new TimedKey<>(key));
-    }
     return entries.get(key);
   }
 
@@ -120,31 +104,5 @@ final class LRUCache<K, V> {
    */
   synchronized void clear() {
     entries.clear();
-    orderedKeys.clear();
-  }
-
-  /**
-   * Class for tracking last used time.
-   *
-   * @param <K> type of the key
-   */
-  private static final class TimedKey<K> implements Comparable<TimedKey<K>> {
-
-    private final long time;
-    private final K key;
-
-    TimedKey(K key) {
-      this.time = System.nanoTime();
-      this.key = key;
-    }
-
-    K getKey() {
-      return key;
-    }
-
-    @Override
-    public int compareTo(TimedKey<K> o) {
-      return Long.compare(time, o.time);
-    }
   }
 }
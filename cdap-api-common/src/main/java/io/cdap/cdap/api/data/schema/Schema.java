@@ -236,13 +236,15 @@ public final class Schema implements Serializable {
 
   /**
    * Parse the given JSON representation, as returned by {@link #toString()} into a Schema object.
+   * Parsed schemas are interned through {@link SchemaCache}, hence parsing the same JSON multiple
+   * times usually returns the same instance.
    *
    * @param schemaJson the json representation of the schema
    * @return the json representation parsed into a schema object
    * @throws IOException if there was an exception parsing the schema
    */
   public static Schema parseJson(String schemaJson) throws IOException {
-    return SCHEMA_TYPE_ADAPTER.fromJson(schemaJson);
+    return SchemaCache.parseJson(schemaJson);
   }
 
   /**
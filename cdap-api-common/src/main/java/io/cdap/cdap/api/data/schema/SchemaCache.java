@@ -20,22 +20,26 @@ import io.cdap.cdap.internal.io.SchemaTypeAdapter;
 import java.io.IOException;
 
 /**
- * Class that provides a JVM-singleton schema cache. There are two ways to use it:
+ * Class that provides a JVM-singleton schema cache. Schemas returned by this class are canonical
+ * instances, so that equal schemas obtained through the cache are usually the same object and can
+ * be compared by reference. There are three ways to use it:
  * <ul>
  *   <li>If you already has a schema object, you can deduplicate it using {@link #intern(Schema) method}</li>
  *   <li>If you have a schema hash string and schema JSON representation, use {@link #fromJson(String, String)}
  *   method. This would allow you to skip schema deserialization if schema is already in the cache.
  *   </li>
  *   <li>If you have a top schema JSON previously produced by {@link Schema#toString()} you can use
- *   {@link #parseJson(String)} that will compute a hash out of json. Note that you should not use any modified
- *   (e.g. indented) json as a different hash would be computed and cache slot will be wasted. Also you should use it
- *   only for top level schemas for not to pollute cache.
+ *   {@link #parseJson(String)}, which uses the JSON itself as the cache key. Note that you should not use any
+ *   modified (e.g. indented) json as it would not match the cached entry and a cache slot will be wasted. Also you
+ *   should use it only for top level schemas for not to pollute cache.
  *   </li>
  * </ul>
  */
 public class SchemaCache {
 
-  private static final LRUCache<String, Schema> SCHEMA_CACHE = new LRUCache<>(100);
+  private static final int MAX_SIZE = 1000;
+  private static final LRUCache<String, Schema> SCHEMA_CACHE = new LRUCache<>(MAX_SIZE);
+  private static final LRUCache<String, Schema> JSON_CACHE = new LRUCache<>(MAX_SIZE);
   private static final SchemaTypeAdapter SCHEMA_TYPE_ADAPTER = new SchemaTypeAdapter();
 
   public static final Schema intern(Schema schema) {
@@ -51,4 +55,20 @@ public class SchemaCache {
       }
     });
   }
+
+  /**
+   * Returns the canonical {@link Schema} for the given JSON representation, parsing it only if it
+   * is not in the cache.
+   *
+   * @param json the json representation of the schema
+   * @return the canonical schema object
+   * @throws IOException if there was an exception parsing the schema
+   */
+  public static final Schema parseJson(String json) throws IOException {
+    Schema schema = JSON_CACHE.get(json);
+    if (schema != null) {
+      return schema;
+    }
+    return JSON_CACHE.putIfAbsent(json, intern(SCHEMA_TYPE_ADAPTER.fromJson(json)));
+  }
 }
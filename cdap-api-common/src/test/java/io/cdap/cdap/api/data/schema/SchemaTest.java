@@ -66,4 +66,13 @@ public class SchemaTest {
     Assert.assertNotEquals(namelessRecord1, namelessRecord2);
   }
 
+  @Test
+  public void testParseJsonReturnsCanonicalInstance() throws Exception {
+    Schema schema = createNamelessRecord1();
+    Schema parsed1 = Schema.parseJson(schema.toString());
+    Schema parsed2 = Schema.parseJson(schema.toString());
+    Assert.assertEquals(schema, parsed1);
+    Assert.assertSame(parsed1, parsed2);
+    Assert.assertSame(parsed1, SchemaCache.intern(createNamelessRecord1()));
+  }
 }
@@ -97,6 +97,19 @@ public class PreviewConfigModule extends AbstractModule {
     // Never run master environment-specific hooks on namespace creation as all preview runs happen locally.
     previewCConf.setBoolean(Constants.Namespace.NAMESPACE_CREATION_HOOK_ENABLED, false);
 
+    // Share expanded artifacts and resolved artifact details across the previews run by the same
+    // runner. Each preview still creates its own classloaders from them.
+    long folderCacheSizeMb = cConf.getLong(Constants.Preview.ARTIFACT_FOLDER_CACHE_SIZE_MB, 0L);
+    if (folderCacheSizeMb > 0) {
+      previewCConf.setLong(Constants.AppFabric.ARTIFACT_FOLDER_CACHE_SIZE_MB, folderCacheSizeMb);
+    }
+    long artifactCacheExpirationSecs =
+        cConf.getLong(Constants.Preview.PROGRAM_ARTIFACT_CACHE_EXPIRATION_SECS, 0L);
+    if (artifactCacheExpirationSecs > 0) {
+      previewCConf.setLong(Constants.AppFabric.PROGRAM_ARTIFACT_CACHE_EXPIRATION_SECS,
+          artifactCacheExpirationSecs);
+    }
+
     // Setup Hadoop configuration
     previewHConf = new Configuration(hConf);
     previewHConf.set(MRConfig.FRAMEWORK_NAME, MRConfig.LOCAL_FRAMEWORK_NAME);
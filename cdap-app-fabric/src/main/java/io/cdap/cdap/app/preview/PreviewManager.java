@@ -24,6 +24,8 @@ import io.cdap.cdap.proto.artifact.AppRequest;
 import io.cdap.cdap.proto.id.ApplicationId;
 import io.cdap.cdap.proto.id.NamespaceId;
 import io.cdap.cdap.proto.id.ProgramRunId;
+import java.io.IOException;
+import java.io.Writer;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -72,6 +74,18 @@ public interface PreviewManager {
   Map<String, List<JsonElement>> getData(ApplicationId applicationId, String tracerName)
       throws AccessException;
 
+  /**
+   * Writes the data associated with the preview run as a json object to the given {@link Writer}.
+   * The json object is the same as the {@link Map} returned by {@link #getData(ApplicationId,
+   * String)}, but it is written without holding the whole response in memory.
+   *
+   * @param applicationId the id of the preview application
+   * @param tracerName the name of the tracer used for preview
+   * @param writer the {@link Writer} to write to
+   */
+  void writeData(ApplicationId applicationId, String tracerName, Writer writer)
+      throws AccessException, IOException;
+
   /**
    * Get the run id of the program executed as a part of preview.
    *
@@ -21,9 +21,11 @@ import io.cdap.cdap.app.runtime.ProgramClassLoaderProvider;
 import io.cdap.cdap.app.runtime.ProgramRunner;
 import io.cdap.cdap.common.conf.CConfiguration;
 import io.cdap.cdap.common.lang.FilterClassLoader;
+import io.cdap.cdap.common.lang.jar.ClassLoaderFolder;
 import io.cdap.cdap.internal.app.runtime.ProgramClassLoader;
 import io.cdap.cdap.proto.id.ProgramId;
 import java.io.File;
+import java.io.IOException;
 import java.util.Set;
 import javax.annotation.Nullable;
 import org.apache.twill.filesystem.Location;
@@ -49,17 +51,31 @@ public final class Programs {
   public static Program create(CConfiguration cConf, @Nullable ProgramRunner programRunner,
       ProgramDescriptor programDescriptor,
       Location programJarLocation, File unpackedDir) {
-    ClassLoader parentClassLoader = null;
-    if (programRunner instanceof ProgramClassLoaderProvider) {
-      parentClassLoader = ((ProgramClassLoaderProvider) programRunner).createProgramClassLoaderParent();
-    }
-
-    if (parentClassLoader == null) {
-      parentClassLoader = FilterClassLoader.create(Programs.class.getClassLoader());
-    }
+    return new DefaultProgram(programDescriptor, programJarLocation,
+        createProgramClassLoader(cConf, programRunner, unpackedDir));
+  }
 
+  /**
+   * Creates a {@link Program} that can be executed by the given {@link ProgramRunner} from the
+   * given {@link ClassLoaderFolder}. The {@link ClassLoaderFolder} is closed when the program is
+   * closed.
+   *
+   * @see #create(CConfiguration, ProgramRunner, ProgramDescriptor, Location, File)
+   */
+  public static Program create(CConfiguration cConf, @Nullable ProgramRunner programRunner,
+      ProgramDescriptor programDescriptor,
+      Location programJarLocation, ClassLoaderFolder classLoaderFolder) {
     return new DefaultProgram(programDescriptor, programJarLocation,
-        new ProgramClassLoader(cConf, unpackedDir, parentClassLoader));
+        createProgramClassLoader(cConf, programRunner, classLoaderFolder.getDir())) {
+      @Override
+      public void close() throws IOException {
+        try {
+          super.close();
+        } finally {
+          classLoaderFolder.close();
+        }
+      }
+    };
   }
 
   /**
@@ -126,6 +142,19 @@ public final class Programs {
         "%s is missing in application %s", programId, appSpec.getName());
   }
 
+  private static ProgramClassLoader createProgramClassLoader(CConfiguration cConf,
+      @Nullable ProgramRunner programRunner, File unpackedDir) {
+    ClassLoader parentClassLoader = null;
+    if (programRunner instanceof ProgramClassLoaderProvider) {
+      parentClassLoader = ((ProgramClassLoaderProvider) programRunner).createProgramClassLoaderParent();
+    }
+
+    if (parentClassLoader == null) {
+      parentClassLoader = FilterClassLoader.create(Programs.class.getClassLoader());
+    }
+    return new ProgramClassLoader(cConf, unpackedDir, parentClassLoader);
+  }
+
   private Programs() {
   }
 }
@@ -24,6 +24,8 @@ import io.cdap.cdap.proto.artifact.AppRequest;
 import io.cdap.cdap.proto.id.ApplicationId;
 import io.cdap.cdap.proto.id.ProgramRunId;
 import io.cdap.cdap.proto.security.Principal;
+import java.io.IOException;
+import java.io.Writer;
 import java.util.List;
 import java.util.Map;
 import javax.annotation.Nullable;
@@ -52,6 +54,18 @@ public interface PreviewStore {
    */
   Map<String, List<JsonElement>> get(ApplicationId applicationId, String tracerName);
 
+  /**
+   * Writes the preview data associated with the given application id as a json object to the given
+   * {@link Writer}. The json object is in the same format as the {@link Map} returned by {@link
+   * #get(ApplicationId, String)}.
+   *
+   * @param applicationId the id of the preview for which preview data to be fetched
+   * @param tracerName the name of the tracer used to put the preview data
+   * @param writer the {@link Writer} to write to
+   * @throws IOException if failed to write to the writer
+   */
+  void write(ApplicationId applicationId, String tracerName, Writer writer) throws IOException;
+
   /**
    * Removes the preview data stored by specified application id
    *
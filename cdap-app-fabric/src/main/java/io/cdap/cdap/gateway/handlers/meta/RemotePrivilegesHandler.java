@@ -31,12 +31,15 @@ import io.cdap.cdap.proto.security.Principal;
 import io.cdap.cdap.proto.security.VisibilityRequest;
 import io.cdap.cdap.security.spi.authorization.AccessEnforcer;
 import io.cdap.cdap.security.spi.authorization.PermissionManager;
+import io.cdap.cdap.security.spi.authorization.UnauthorizedException;
 import io.cdap.http.HttpResponder;
 import io.netty.handler.codec.http.FullHttpRequest;
 import io.netty.handler.codec.http.HttpResponseStatus;
 import java.lang.reflect.Type;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 import javax.inject.Inject;
 import javax.ws.rs.POST;
@@ -54,6 +57,8 @@ public class RemotePrivilegesHandler extends AbstractRemoteSystemOpsHandler {
   private static final Logger LOG = LoggerFactory.getLogger(RemotePrivilegesHandler.class);
   private static final Type SET_OF_PERMISSIONS = new TypeLiteral<Set<? extends Permission>>() {
   }.getType();
+  private static final Type LIST_OF_PRIVILEGES = new TypeLiteral<List<AuthorizationPrivilege>>() {
+  }.getType();
   private static final Gson GSON = new GsonBuilder()
       .registerTypeAdapter(EntityId.class, new EntityIdTypeAdapter())
       .registerTypeAdapterFactory(new PermissionAdapterFactory())
@@ -75,20 +80,30 @@ public class RemotePrivilegesHandler extends AbstractRemoteSystemOpsHandler {
         request.content().toString(StandardCharsets.UTF_8),
         AuthorizationPrivilege.class);
     LOG.debug("Enforcing for {}", authorizationPrivilege);
-    Set<Permission> permissions = authorizationPrivilege.getPermissions();
-    if (authorizationPrivilege.getChildEntityType() != null) {
-      //It's expected that we'll always have one, but let's handle generic case
-      for (Permission permission : permissions) {
-        accessEnforcer.enforceOnParent(authorizationPrivilege.getChildEntityType(),
-            authorizationPrivilege.getEntity(),
-            authorizationPrivilege.getPrincipal(), permission);
+    enforce(authorizationPrivilege);
+    responder.sendStatus(HttpResponseStatus.OK);
+  }
+
+  /**
+   * Enforces a list of {@link AuthorizationPrivilege}. Responds with a list of booleans, telling
+   * whether each privilege in the request is authorized.
+   */
+  @POST
+  @Path("/enforceAll")
+  public void enforceAll(FullHttpRequest request, HttpResponder responder) throws Exception {
+    List<AuthorizationPrivilege> authorizationPrivileges = GSON.fromJson(
+        request.content().toString(StandardCharsets.UTF_8), LIST_OF_PRIVILEGES);
+    LOG.debug("Enforcing for {}", authorizationPrivileges);
+    List<Boolean> results = new ArrayList<>(authorizationPrivileges.size());
+    for (AuthorizationPrivilege authorizationPrivilege : authorizationPrivileges) {
+      try {
+        enforce(authorizationPrivilege);
+        results.add(true);
+      } catch (UnauthorizedException e) {
+        results.add(false);
       }
-    } else {
-      accessEnforcer.enforce(authorizationPrivilege.getEntity(),
-          authorizationPrivilege.getPrincipal(),
-          permissions);
     }
-    responder.sendStatus(HttpResponseStatus.OK);
+    responder.sendJson(HttpResponseStatus.OK, GSON.toJson(results));
   }
 
   @POST
@@ -152,4 +167,20 @@ public class RemotePrivilegesHandler extends AbstractRemoteSystemOpsHandler {
     LOG.info("Revoked all actions on {} successfully", entityId);
     responder.sendStatus(HttpResponseStatus.OK);
   }
+
+  private void enforce(AuthorizationPrivilege authorizationPrivilege) throws Exception {
+    Set<Permission> permissions = authorizationPrivilege.getPermissions();
+    if (authorizationPrivilege.getChildEntityType() != null) {
+      //It's expected that we'll always have one, but let's handle generic case
+      for (Permission permission : permissions) {
+        accessEnforcer.enforceOnParent(authorizationPrivilege.getChildEntityType(),
+            authorizationPrivilege.getEntity(),
+            authorizationPrivilege.getPrincipal(), permission);
+      }
+    } else {
+      accessEnforcer.enforce(authorizationPrivilege.getEntity(),
+          authorizationPrivilege.getPrincipal(),
+          permissions);
+    }
+  }
 }
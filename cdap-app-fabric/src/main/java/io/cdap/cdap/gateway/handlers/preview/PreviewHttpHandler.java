@@ -19,7 +19,6 @@ package io.cdap.cdap.gateway.handlers.preview;
 import com.google.common.collect.Lists;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import com.google.gson.JsonElement;
 import com.google.gson.JsonSyntaxException;
 import com.google.gson.reflect.TypeToken;
 import com.google.inject.Inject;
@@ -43,17 +42,26 @@ import io.cdap.cdap.proto.codec.BasicThrowableCodec;
 import io.cdap.cdap.proto.id.ApplicationId;
 import io.cdap.cdap.proto.id.NamespaceId;
 import io.cdap.cdap.proto.id.ProgramRunId;
+import io.cdap.http.ChunkResponder;
 import io.cdap.http.HttpResponder;
 import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
 import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.handler.codec.http.HttpRequest;
 import io.netty.handler.codec.http.HttpResponseStatus;
 import io.netty.handler.codec.http.QueryStringDecoder;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Reader;
+import java.io.Writer;
 import java.lang.reflect.Type;
 import java.nio.charset.StandardCharsets;
-import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
@@ -79,6 +87,7 @@ public class PreviewHttpHandler extends AbstractLogHttpHandler {
       .registerTypeAdapterFactory(new CaseInsensitiveEnumTypeAdapterFactory(true)).create();
   private static final Type STRING_LIST_MAP_TYPE = new TypeToken<Map<String, List<String>>>() {
   }.getType();
+  private static final int DATA_CHUNK_SIZE = 64 * 1024;
 
   private final PreviewManager previewManager;
 
@@ -141,8 +150,7 @@ public class PreviewHttpHandler extends AbstractLogHttpHandler {
       @PathParam("preview-id") String previewId,
       @PathParam("tracer-id") String tracerId) throws Exception {
     ApplicationId previewAppId = validateAndGetAppId(namespaceId, previewId);
-    responder.sendJson(HttpResponseStatus.OK,
-        GSON.toJson(previewManager.getData(previewAppId, tracerId)));
+    sendJsonChunks(responder, writer -> previewManager.writeData(previewAppId, tracerId, writer));
   }
 
   @POST
@@ -168,11 +176,66 @@ public class PreviewHttpHandler extends AbstractLogHttpHandler {
       throw new BadRequestException("Tracer names cannot be empty.");
     }
 
-    Map<String, Map<String, List<JsonElement>>> result = new HashMap<>();
-    for (String tracerName : tracerNames) {
-      result.put(tracerName, previewManager.getData(application, tracerName));
+    sendJsonChunks(responder, writer -> {
+      writer.write('{');
+      String separator = "";
+      for (String tracerName : new LinkedHashSet<>(tracerNames)) {
+        writer.write(separator);
+        writer.write(GSON.toJson(tracerName));
+        writer.write(':');
+        previewManager.writeData(application, tracerName, writer);
+        separator = ",";
+      }
+      writer.write('}');
+    });
+  }
+
+  /**
+   * Sends the json written by the given {@link ChunkWriter} as chunks of the response. The response
+   * is only started when the first chunk is sent, so that errors before that can still be responded
+   * with the proper status. Once started, the response is always closed, also when writing fails.
+   */
+  private void sendJsonChunks(HttpResponder responder, ChunkWriter chunkWriter) throws Exception {
+    OutputStream chunkOutput = new OutputStream() {
+
+      private ChunkResponder chunkResponder;
+
+      @Override
+      public void write(int b) throws IOException {
+        write(new byte[] {(byte) b}, 0, 1);
+      }
+
+      @Override
+      public void write(byte[] b, int off, int len) throws IOException {
+        if (len > 0) {
+          getChunkResponder().sendChunk(Unpooled.copiedBuffer(b, off, len));
+        }
+      }
+
+      @Override
+      public void close() throws IOException {
+        if (chunkResponder != null) {
+          chunkResponder.close();
+        }
+      }
+
+      private ChunkResponder getChunkResponder() {
+        if (chunkResponder == null) {
+          chunkResponder = responder.sendChunkStart(HttpResponseStatus.OK,
+              new DefaultHttpHeaders().set(HttpHeaderNames.CONTENT_TYPE, "application/json"));
+        }
+        return chunkResponder;
+      }
+    };
+    Writer writer = new OutputStreamWriter(new BufferedOutputStream(chunkOutput, DATA_CHUNK_SIZE),
+        StandardCharsets.UTF_8);
+    try {
+      chunkWriter.write(writer);
+      writer.flush();
+    } finally {
+      // Closes the chunk output directly, so that the data buffered by a failed write is not sent
+      chunkOutput.close();
     }
-    responder.sendJson(HttpResponseStatus.OK, GSON.toJson(result));
   }
 
   @GET
@@ -395,4 +458,12 @@ public class PreviewHttpHandler extends AbstractLogHttpHandler {
       return runRecord;
     }
   }
+
+  /**
+   * Writes the json of a chunked response.
+   */
+  private interface ChunkWriter {
+
+    void write(Writer writer) throws Exception;
+  }
 }
@@ -19,6 +19,8 @@ package io.cdap.cdap.internal.app.deploy;
 import com.google.common.base.Joiner;
 import com.google.common.base.Strings;
 import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Sets;
@@ -30,6 +32,7 @@ import com.google.inject.Inject;
 import com.google.inject.name.Named;
 import io.cdap.cdap.api.app.ApplicationSpecification;
 import io.cdap.cdap.api.artifact.ApplicationClass;
+import io.cdap.cdap.api.artifact.ArtifactVersion;
 import io.cdap.cdap.api.common.RuntimeArguments;
 import io.cdap.cdap.api.plugin.Plugin;
 import io.cdap.cdap.app.deploy.ConfigResponse;
@@ -56,6 +59,7 @@ import io.cdap.cdap.common.internal.remote.RemoteClientFactory;
 import io.cdap.cdap.common.io.Locations;
 import io.cdap.cdap.common.lang.jar.BundleJarUtil;
 import io.cdap.cdap.common.lang.jar.ClassLoaderFolder;
+import io.cdap.cdap.common.lang.jar.ClassLoaderFolderCache;
 import io.cdap.cdap.common.utils.DirUtils;
 import io.cdap.cdap.common.utils.HashUtils;
 import io.cdap.cdap.internal.app.deploy.pipeline.AppDeploymentInfo;
@@ -133,6 +137,11 @@ public class InMemoryProgramRunDispatcher implements ProgramRunDispatcher {
   private final boolean artifactsComputeHash;
   private final int artifactsComputeHashTimeBucketDays;
   private final boolean artifactsComputeHashSnapshot;
+  @Nullable
+  private final ClassLoaderFolderCache folderCache;
+  // Details of non-SNAPSHOT artifacts from the local artifact repository
+  @Nullable
+  private final Cache<ArtifactId, ArtifactDetail> artifactDetailCache;
   private RemoteAuthenticator remoteAuthenticator;
   private ProgramRunnerFactory remoteProgramRunnerFactory;
   private String hostname;
@@ -158,6 +167,14 @@ public class InMemoryProgramRunDispatcher implements ProgramRunDispatcher {
         Constants.AppFabric.ARTIFACTS_COMPUTE_HASH_SNAPSHOT);
     this.artifactsComputeHashTimeBucketDays = cConf.getInt(
         Constants.AppFabric.ARTIFACTS_COMPUTE_HASH_TIME_BUCKET_DAYS);
+    this.folderCache = ClassLoaderFolderCache.get(cConf);
+    long artifactCacheExpirationSecs = cConf.getLong(
+        Constants.AppFabric.PROGRAM_ARTIFACT_CACHE_EXPIRATION_SECS, 0L);
+    this.artifactDetailCache = artifactCacheExpirationSecs <= 0 ? null
+        : CacheBuilder.newBuilder()
+            .expireAfterWrite(artifactCacheExpirationSecs, TimeUnit.SECONDS)
+            .maximumSize(cConf.getLong(Constants.AppFabric.PROGRAM_ARTIFACT_CACHE_MAX_SIZE, 1000L))
+            .<ArtifactId, ArtifactDetail>build();
   }
 
   /**
@@ -422,6 +439,13 @@ public class InMemoryProgramRunDispatcher implements ProgramRunDispatcher {
           }
         }
       }
+      if (folderCache != null && !isTetheredRun) {
+        // Use the shared expanded artifact, which is keyed by the checksum of the jar. The snapshot
+        // is expanded, so that the classes always match the program jar of the run.
+        return Programs.create(cConf, programRunner, programDescriptor, programJarLocation,
+            folderCache.getFolder(programJarLocation));
+      }
+
       // Unpack the JAR file
       ClassLoaderFolder classLoaderFolder = BundleJarUtil.prepareClassLoaderFolder(
           programJarLocation,
@@ -440,7 +464,16 @@ public class InMemoryProgramRunDispatcher implements ProgramRunDispatcher {
   protected ArtifactDetail getArtifactDetail(ArtifactId artifactId,
       ArtifactRepository artifactRepository)
       throws Exception {
-    return artifactRepository.getArtifact(Id.Artifact.fromEntityId(artifactId));
+    if (artifactDetailCache == null || artifactRepository != noAuthArtifactRepository
+        || new ArtifactVersion(artifactId.getVersion()).isSnapshot()) {
+      return artifactRepository.getArtifact(Id.Artifact.fromEntityId(artifactId));
+    }
+    ArtifactDetail artifactDetail = artifactDetailCache.getIfPresent(artifactId);
+    if (artifactDetail == null) {
+      artifactDetail = artifactRepository.getArtifact(Id.Artifact.fromEntityId(artifactId));
+      artifactDetailCache.put(artifactId, artifactDetail);
+    }
+    return artifactDetail;
   }
 
   /**
@@ -105,6 +105,8 @@ import io.cdap.cdap.security.spi.authorization.ContextAccessEnforcer;
 import io.cdap.cdap.spi.data.StructuredTableAdmin;
 import io.cdap.cdap.store.DefaultOwnerStore;
 import io.cdap.cdap.store.StoreDefinition;
+import java.io.IOException;
+import java.io.Writer;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.util.List;
@@ -274,6 +276,14 @@ public class DefaultPreviewManager extends AbstractIdleService implements Previe
     return previewStore.get(applicationId, tracerName);
   }
 
+  @Override
+  public void writeData(@Name("applicationId") ApplicationId applicationId, String tracerName,
+      Writer writer) throws AccessException, IOException {
+    accessEnforcer.enforce(applicationId, authenticationContext.getPrincipal(),
+        ApplicationPermission.PREVIEW);
+    previewStore.write(applicationId, tracerName, writer);
+  }
+
   @Override
   public ProgramRunId getRunId(@Name("applicationId") ApplicationId applicationId)
       throws Exception {
@@ -194,6 +194,44 @@ public class PreviewDataSubscriberService extends
     metricsContext.gauge(Constants.Metrics.Preview.RUN_TIME_SECONDS, runTime);
   }
 
+  /**
+   * Emit the time that a preview waited in the queue when a runner picks it up, and the time it
+   * took for the runner to deploy and start the preview when it starts running. A preview is
+   * picked up when the runner reports INIT with a start time, while the stored status is still
+   * WAITING, or INIT without a start time as set by the request queue when the runner polled it.
+   */
+  private void emitLaunchMetrics(@Nullable PreviewStatus existing, PreviewStatus previewStatus,
+      ApplicationId applicationId) {
+    Long startTime = previewStatus.getStartTime();
+    if (startTime == null) {
+      return;
+    }
+    String metricName;
+    long value;
+    if (previewStatus.getStatus() == PreviewStatus.Status.INIT && isWaiting(existing)) {
+      metricName = Constants.Metrics.Preview.QUEUE_WAIT_TIME_MS;
+      value = startTime - previewStatus.getSubmitTime();
+    } else if (previewStatus.getStatus() == PreviewStatus.Status.RUNNING && existing != null
+        && existing.getStatus() == PreviewStatus.Status.INIT && existing.getStartTime() != null) {
+      metricName = Constants.Metrics.Preview.STARTUP_TIME_MS;
+      value = startTime - existing.getStartTime();
+    } else {
+      return;
+    }
+    Map<String, String> tags = ImmutableMap.of(
+        Constants.Metrics.Tag.NAMESPACE, applicationId.getNamespace(),
+        Constants.Metrics.Tag.APP, applicationId.getApplication());
+    metricsCollectionService.getContext(tags).gauge(metricName, Math.max(0L, value));
+  }
+
+  /**
+   * Returns whether the given stored status is of a preview that no runner has started yet.
+   */
+  private static boolean isWaiting(@Nullable PreviewStatus status) {
+    return status == null || status.getStatus() == PreviewStatus.Status.WAITING
+        || (status.getStatus() == PreviewStatus.Status.INIT && status.getStartTime() == null);
+  }
+
   /**
    * The {@link PreviewMessageProcessor} for processing preview data.
    */
@@ -255,6 +293,7 @@ public class PreviewDataSubscriberService extends
         return;
       }
       previewStore.setPreviewStatus(applicationId, payload);
+      emitLaunchMetrics(existing, payload, applicationId);
       if (payload.getStatus().isEndState()) {
         emitRunTimeMetric(payload, applicationId, previewStore.getProgramRunId(applicationId));
       }
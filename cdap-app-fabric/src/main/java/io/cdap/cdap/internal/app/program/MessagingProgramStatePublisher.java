@@ -116,7 +116,9 @@ public class MessagingProgramStatePublisher implements ProgramStatePublisher {
     }
     ProgramRunId programRunId = GSON.fromJson(programRunIdStr, ProgramRunId.class);
     ApplicationId applicationId = programRunId.getParent().getParent();
-    return topicIds.get(Math.abs(applicationId.hashCode()) % topicIds.size());
+    // Take the absolute value after the modulo, so that Integer.MIN_VALUE hash code maps to a
+    // valid partition while keeping the same partition for all other applications
+    return topicIds.get(Math.abs(applicationId.hashCode() % topicIds.size()));
   }
 
   /**
@@ -26,6 +26,7 @@ import io.cdap.cdap.common.lang.DirectoryClassLoader;
 import io.cdap.cdap.common.lang.FilterClassLoader;
 import io.cdap.cdap.common.lang.jar.BundleJarUtil;
 import io.cdap.cdap.common.lang.jar.ClassLoaderFolder;
+import io.cdap.cdap.common.lang.jar.ClassLoaderFolderCache;
 import io.cdap.cdap.common.utils.DirUtils;
 import io.cdap.cdap.internal.app.runtime.ProgramClassLoader;
 import io.cdap.cdap.internal.app.runtime.ProgramRuntimeProviderLoader;
@@ -33,6 +34,7 @@ import io.cdap.cdap.proto.ProgramType;
 import io.cdap.cdap.security.impersonation.EntityImpersonator;
 import java.io.Closeable;
 import java.io.File;
+import java.io.IOException;
 import java.util.Iterator;
 import javax.annotation.Nullable;
 import org.apache.twill.filesystem.Location;
@@ -51,6 +53,8 @@ final class ArtifactClassLoaderFactory {
   @Nullable
   private final ProgramRuntimeProviderLoader programRuntimeProviderLoader;
   private final File tmpDir;
+  @Nullable
+  private final ClassLoaderFolderCache folderCache;
 
   @VisibleForTesting
   ArtifactClassLoaderFactory(CConfiguration cConf) {
@@ -63,6 +67,7 @@ final class ArtifactClassLoaderFactory {
     this.programRuntimeProviderLoader = programRuntimeProviderLoader;
     this.tmpDir = new File(cConf.get(Constants.CFG_LOCAL_DATA_DIR),
         cConf.get(Constants.AppFabric.TEMP_DIR)).getAbsoluteFile();
+    this.folderCache = ClassLoaderFolderCache.get(cConf);
   }
 
   /**
@@ -121,8 +126,7 @@ final class ArtifactClassLoaderFactory {
       EntityImpersonator entityImpersonator) {
     try {
       ClassLoaderFolder classLoaderFolder = entityImpersonator.impersonate(
-          () -> BundleJarUtil.prepareClassLoaderFolder(artifactLocation,
-              () -> DirUtils.createTempDir(tmpDir)));
+          () -> prepareClassLoaderFolder(artifactLocation));
 
       CloseableClassLoader classLoader = createClassLoader(classLoaderFolder.getDir());
       return new CloseableClassLoader(classLoader, () -> {
@@ -156,8 +160,7 @@ final class ArtifactClassLoaderFactory {
 
     try {
       ClassLoaderFolder classLoaderFolder = entityImpersonator.impersonate(
-          () -> BundleJarUtil.prepareClassLoaderFolder(artifactLocation,
-              () -> DirUtils.createTempDir(tmpDir)));
+          () -> prepareClassLoaderFolder(artifactLocation));
 
       CloseableClassLoader parentClassLoader = createClassLoader(artifactLocations,
           entityImpersonator);
@@ -170,4 +173,17 @@ final class ArtifactClassLoaderFactory {
       throw Throwables.propagate(e);
     }
   }
+
+  /**
+   * Prepares the {@link ClassLoaderFolder} for the given artifact, from the expanded artifact cache
+   * if it is enabled.
+   */
+  private ClassLoaderFolder prepareClassLoaderFolder(Location artifactLocation)
+      throws IOException {
+    if (folderCache != null) {
+      return folderCache.getFolder(artifactLocation);
+    }
+    return BundleJarUtil.prepareClassLoaderFolder(artifactLocation,
+        () -> DirUtils.createTempDir(tmpDir));
+  }
 }
@@ -18,6 +18,8 @@ package io.cdap.cdap.internal.app.runtime.artifact;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
@@ -72,16 +74,20 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.Spliterators;
 import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BinaryOperator;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -176,6 +182,7 @@ import org.apache.twill.filesystem.LocationFactory;
 public class ArtifactStore {
 
   private static final String ARTIFACTS_PATH = "artifacts";
+  private static final int PLUGIN_CATALOG_MAX_SIZE = 10000;
 
   private static final Gson GSON = new GsonBuilder()
       .registerTypeAdapter(Schema.class, new SchemaTypeAdapter())
@@ -189,6 +196,10 @@ public class ArtifactStore {
   private final Impersonator impersonator;
   private final Set<String> requirementBlacklist;
   private final TransactionRunner transactionRunner;
+  // Catalog of plugins by parent artifact range, plugin type and name. Guarded by itself for writes.
+  private final boolean pluginCatalogEnabled;
+  private final Cache<PluginCatalogKey, PluginCatalogEntry> pluginCatalog;
+  private final AtomicLong pluginCatalogGeneration;
 
   @Inject
   ArtifactStore(CConfiguration cConf,
@@ -203,6 +214,17 @@ public class ArtifactStore {
         new HashSet<>(cConf.getTrimmedStringCollection(Constants.REQUIREMENTS_DATASET_TYPE_EXCLUDE))
             .stream().map(String::toLowerCase).collect(Collectors.toSet());
     this.transactionRunner = transactionRunner;
+    // Artifacts can be modified by other processes, which don't invalidate the catalog, hence it is
+    // disabled by default and entries expire so that such changes are eventually picked up.
+    // Modifications done through this instance invalidate the catalog.
+    long catalogExpirationSecs = cConf.getLong(
+        Constants.AppFabric.ARTIFACT_PLUGIN_CATALOG_EXPIRATION_SECS);
+    this.pluginCatalogEnabled = catalogExpirationSecs > 0;
+    this.pluginCatalog = CacheBuilder.newBuilder()
+        .maximumSize(pluginCatalogEnabled ? PLUGIN_CATALOG_MAX_SIZE : 0)
+        .expireAfterWrite(Math.max(catalogExpirationSecs, 0), TimeUnit.SECONDS)
+        .build();
+    this.pluginCatalogGeneration = new AtomicLong();
   }
 
   /**
@@ -228,6 +250,22 @@ public class ArtifactStore {
     }, IOException.class);
   }
 
+  /**
+   * Get the number of artifacts in the given namespace. Note that existence of the namespace is not
+   * checked.
+   *
+   * @param namespace the namespace to count artifacts in
+   * @return the number of artifacts in the given namespace
+   * @throws IOException if there was an exception reading the artifact information from the
+   *     metastore
+   */
+  public long getArtifactCount(NamespaceId namespace) throws IOException {
+    return TransactionRunners.run(transactionRunner, context -> {
+      StructuredTable table = getTable(context, StoreDefinition.ArtifactStore.ARTIFACT_DATA_TABLE);
+      return table.count(Collections.singleton(createArtifactScanRange(namespace)));
+    }, IOException.class);
+  }
+
   /**
    * Get all artifacts that match artifacts in the given ranges.
    *
@@ -613,67 +651,32 @@ public class ArtifactStore {
       ArtifactSortOrder order)
       throws IOException, ArtifactNotFoundException, PluginNotExistsException {
 
-    SortedMap<ArtifactDescriptor, PluginClass> result = TransactionRunners.run(transactionRunner,
-        context -> {
-          StructuredTable artifactDataTable = getTable(context,
-              StoreDefinition.ArtifactStore.ARTIFACT_DATA_TABLE);
-          List<ArtifactDetail> parentArtifactDetails = getArtifacts(artifactDataTable,
-              parentArtifactRange,
-              Integer.MAX_VALUE, null);
-
-          if (parentArtifactDetails.isEmpty()) {
-            throw new ArtifactNotFoundException(parentArtifactRange.getNamespace(),
-                parentArtifactRange.getName());
-          }
-
-          SortedMap<ArtifactDescriptor, PluginClass> plugins = order == ArtifactSortOrder.DESC
-              ? new TreeMap<>(Collections.reverseOrder()) :
-              new TreeMap<>();
-
-          List<Id.Artifact> parentArtifacts = new ArrayList<>();
-          for (ArtifactDetail parentArtifactDetail : parentArtifactDetails) {
-            parentArtifacts.add(
-                Id.Artifact.from(Id.Namespace.from(parentArtifactRange.getNamespace()),
-                    parentArtifactDetail.getDescriptor().getArtifactId()));
-
-            Set<PluginClass> parentPlugins = parentArtifactDetail.getMeta().getClasses()
-                .getPlugins();
-            for (PluginClass pluginClass : parentPlugins) {
-              if (pluginClass.getName().equals(name) && pluginClass.getType().equals(type)
-                  && isAllowed(pluginClass)) {
-                plugins.put(parentArtifactDetail.getDescriptor(), pluginClass);
-                break;
-              }
-            }
-          }
-
-          // Add all plugins that extends from the given set of parents
-          StructuredTable pluginTable = getTable(context,
-              StoreDefinition.ArtifactStore.PLUGIN_DATA_TABLE);
-          PluginKeyPrefix pluginKey = new PluginKeyPrefix(parentArtifactRange.getNamespace(),
-              parentArtifactRange.getName(), type, name);
-          try (CloseableIterator<StructuredRow> iterator =
-              pluginTable.scan(Range.singleton(pluginKey.keys), Integer.MAX_VALUE)) {
-            addPluginsInRangeToMap(namespace, parentArtifacts, iterator, plugins, pluginRange,
-                limit);
-          }
-
-          // Add all universal plugins
-          StructuredTable uniPluginTable = getTable(context,
-              StoreDefinition.ArtifactStore.UNIV_PLUGIN_DATA_TABLE);
-          for (String ns : Arrays.asList(namespace.getNamespace(),
-              NamespaceId.SYSTEM.getNamespace())) {
-            UniversalPluginKeyPrefix universalPluginKey = new UniversalPluginKeyPrefix(ns, type,
-                name);
-            try (CloseableIterator<StructuredRow> iterator =
-                uniPluginTable.scan(Range.singleton(universalPluginKey.keys), Integer.MAX_VALUE)) {
-              addPluginsInRangeToMap(namespace, parentArtifacts, iterator, plugins, pluginRange,
-                  limit);
-            }
-          }
+    // if predicate is null,
+    // filter out plugins whose artifacts are not in the system namespace and not in this namespace
+    Predicate<io.cdap.cdap.proto.id.ArtifactId> range = pluginRange != null
+        ? pluginRange
+        : input -> NamespaceId.SYSTEM.equals(input.getParent()) || input.getParent()
+            .equals(namespace);
 
-          return Collections.unmodifiableSortedMap(plugins);
-        }, IOException.class, ArtifactNotFoundException.class);
+    PluginCatalogKey key = new PluginCatalogKey(namespace, parentArtifactRange, type, name);
+    // Without the catalog, only the plugin rows in the range are decoded
+    PluginCatalogEntry catalogEntry = pluginCatalogEnabled
+        ? getPluginCatalogEntry(key)
+        : TransactionRunners.run(transactionRunner,
+            context -> {
+              return loadPluginCatalogEntry(context, key, range);
+            },
+            IOException.class, ArtifactNotFoundException.class);
+
+    SortedMap<ArtifactDescriptor, PluginClass> plugins = order == ArtifactSortOrder.DESC
+        ? new TreeMap<>(Collections.reverseOrder()) :
+        new TreeMap<>();
+    plugins.putAll(catalogEntry.parentPlugins);
+
+    // Add all plugins and universal plugins that extends from the given set of parents
+    addPluginsInRangeToMap(catalogEntry.parentArtifacts, catalogEntry.plugins.iterator(), plugins,
+        range, limit);
+    SortedMap<ArtifactDescriptor, PluginClass> result = Collections.unmodifiableSortedMap(plugins);
 
     if (result.isEmpty()) {
       throw new PluginNotExistsException(new NamespaceId(parentArtifactRange.getNamespace()), type,
@@ -720,6 +723,7 @@ public class ArtifactStore {
           .build();
       artifactDataTable.upsert(fields);
     }, ArtifactNotFoundException.class, IOException.class);
+    invalidatePluginCatalog();
   }
 
   /**
@@ -788,6 +792,7 @@ public class ArtifactStore {
         // write artifact metadata
         writeMeta(context, artifactId, data);
       });
+      invalidatePluginCatalog();
 
       return new ArtifactDetail(new ArtifactDescriptor(artifactId.getNamespace().getId(),
           artifactId.toArtifactId(), destination), artifactMeta);
@@ -841,6 +846,7 @@ public class ArtifactStore {
           GSON.fromJson(optional.get().getString(StoreDefinition.ArtifactStore.ARTIFACT_DATA_FIELD),
               ArtifactData.class));
     }, IOException.class, ArtifactNotFoundException.class);
+    invalidatePluginCatalog();
   }
 
   /**
@@ -901,6 +907,7 @@ public class ArtifactStore {
         }
       }
     }, IOException.class);
+    invalidatePluginCatalog();
   }
 
   private void deleteRangeFromTable(StructuredTable table, Range range) throws IOException {
@@ -1151,32 +1158,23 @@ public class ArtifactStore {
     return null;
   }
 
-  private void addPluginsInRangeToMap(final NamespaceId namespace,
-      List<Id.Artifact> parentArtifacts,
-      Iterator<StructuredRow> iterator,
+  private void addPluginsInRangeToMap(List<Id.Artifact> parentArtifacts,
+      Iterator<PluginEntry> iterator,
       SortedMap<ArtifactDescriptor, PluginClass> plugins,
-      @Nullable Predicate<io.cdap.cdap.proto.id.ArtifactId> range,
+      Predicate<io.cdap.cdap.proto.id.ArtifactId> range,
       int limit) {
-    // if predicate is null,
-    // filter out plugins whose artifacts are not in the system namespace and not in this namespace
-    range = range != null
-        ? range
-        : input -> NamespaceId.SYSTEM.equals(input.getParent()) || input.getParent()
-            .equals(namespace);
-
     while (iterator.hasNext()) {
-      StructuredRow row = iterator.next();
-      ImmutablePair<ArtifactDescriptor, PluginData> pluginPair = getPlugin(row, range);
-      if (pluginPair == null) {
+      PluginEntry entry = iterator.next();
+      if (!range.test(entry.artifactId)) {
         continue;
       }
 
-      PluginData pluginData = pluginPair.getSecond();
+      PluginData pluginData = entry.pluginData;
       // filter out plugins that don't extend this version of the parent artifact
       for (Id.Artifact parentArtifactId : parentArtifacts) {
         if (pluginData.isUsableBy(parentArtifactId.toEntityId()) && isAllowed(
             pluginData.pluginClass)) {
-          plugins.put(pluginPair.getFirst(), pluginData.pluginClass);
+          plugins.put(entry.descriptor, pluginData.pluginClass);
           break;
         }
       }
@@ -1186,9 +1184,126 @@ public class ArtifactStore {
     }
   }
 
+  /**
+   * Returns the {@link PluginCatalogEntry} for the given key from the plugin catalog, loading it
+   * from the tables if it is not cached.
+   */
+  private PluginCatalogEntry getPluginCatalogEntry(PluginCatalogKey key)
+      throws IOException, ArtifactNotFoundException {
+    PluginCatalogEntry entry = pluginCatalog.getIfPresent(key);
+    if (entry != null) {
+      return entry;
+    }
+
+    long generation = pluginCatalogGeneration.get();
+    entry = TransactionRunners.run(transactionRunner,
+        context -> {
+          return loadPluginCatalogEntry(context, key, artifactId -> true);
+        },
+        IOException.class, ArtifactNotFoundException.class);
+
+    // Only cache the entry if there was no modification since the loading started,
+    // otherwise the entry can contain data from before the modification.
+    synchronized (pluginCatalog) {
+      if (generation == pluginCatalogGeneration.get()) {
+        pluginCatalog.put(key, entry);
+      }
+    }
+    return entry;
+  }
+
+  /**
+   * Invalidates the plugin catalog. It must be called after every modification of the artifact
+   * tables is committed.
+   */
+  private void invalidatePluginCatalog() {
+    synchronized (pluginCatalog) {
+      pluginCatalogGeneration.incrementAndGet();
+      pluginCatalog.invalidateAll();
+    }
+  }
+
+  /**
+   * Loads the {@link PluginCatalogEntry} for the given key from the tables. Plugin rows of
+   * artifacts that don't pass the given filter are skipped without being decoded.
+   */
+  private PluginCatalogEntry loadPluginCatalogEntry(StructuredTableContext context,
+      PluginCatalogKey key, Predicate<io.cdap.cdap.proto.id.ArtifactId> pluginFilter)
+      throws IOException, ArtifactNotFoundException {
+    ArtifactRange parentArtifactRange = key.parentArtifactRange;
+    StructuredTable artifactDataTable = getTable(context,
+        StoreDefinition.ArtifactStore.ARTIFACT_DATA_TABLE);
+    List<ArtifactDetail> parentArtifactDetails = getArtifacts(artifactDataTable,
+        parentArtifactRange, Integer.MAX_VALUE, null);
+
+    if (parentArtifactDetails.isEmpty()) {
+      throw new ArtifactNotFoundException(parentArtifactRange.getNamespace(),
+          parentArtifactRange.getName());
+    }
+
+    Map<ArtifactDescriptor, PluginClass> parentPlugins = new HashMap<>();
+    List<Id.Artifact> parentArtifacts = new ArrayList<>();
+    for (ArtifactDetail parentArtifactDetail : parentArtifactDetails) {
+      parentArtifacts.add(
+          Id.Artifact.from(Id.Namespace.from(parentArtifactRange.getNamespace()),
+              parentArtifactDetail.getDescriptor().getArtifactId()));
+
+      Set<PluginClass> pluginClasses = parentArtifactDetail.getMeta().getClasses()
+          .getPlugins();
+      for (PluginClass pluginClass : pluginClasses) {
+        if (pluginClass.getName().equals(key.name) && pluginClass.getType().equals(key.type)
+            && isAllowed(pluginClass)) {
+          parentPlugins.put(parentArtifactDetail.getDescriptor(), pluginClass);
+          break;
+        }
+      }
+    }
+
+    // Collect all plugins of the given type and name that extend from the parent artifact
+    List<PluginEntry> plugins = new ArrayList<>();
+    StructuredTable pluginTable = getTable(context,
+        StoreDefinition.ArtifactStore.PLUGIN_DATA_TABLE);
+    PluginKeyPrefix pluginKey = new PluginKeyPrefix(parentArtifactRange.getNamespace(),
+        parentArtifactRange.getName(), key.type, key.name);
+    try (CloseableIterator<StructuredRow> iterator =
+        pluginTable.scan(Range.singleton(pluginKey.keys), Integer.MAX_VALUE)) {
+      iterator.forEachRemaining(row -> addPlugin(row, pluginFilter, plugins));
+    }
+
+    // Collect all universal plugins
+    StructuredTable uniPluginTable = getTable(context,
+        StoreDefinition.ArtifactStore.UNIV_PLUGIN_DATA_TABLE);
+    for (String ns : Arrays.asList(key.namespace.getNamespace(),
+        NamespaceId.SYSTEM.getNamespace())) {
+      UniversalPluginKeyPrefix universalPluginKey = new UniversalPluginKeyPrefix(ns, key.type,
+          key.name);
+      try (CloseableIterator<StructuredRow> iterator =
+          uniPluginTable.scan(Range.singleton(universalPluginKey.keys), Integer.MAX_VALUE)) {
+        iterator.forEachRemaining(row -> addPlugin(row, pluginFilter, plugins));
+      }
+    }
+
+    return new PluginCatalogEntry(parentArtifacts, parentPlugins, plugins);
+  }
+
+  private void addPlugin(StructuredRow row, Predicate<io.cdap.cdap.proto.id.ArtifactId> range,
+      List<PluginEntry> plugins) {
+    PluginEntry entry = readPlugin(row, range);
+    if (entry != null) {
+      plugins.add(entry);
+    }
+  }
+
   @Nullable
   private ImmutablePair<ArtifactDescriptor, PluginData> getPlugin(StructuredRow row,
       Predicate<io.cdap.cdap.proto.id.ArtifactId> range) {
+    PluginEntry entry = readPlugin(row, range);
+    return entry == null ? null : ImmutablePair.of(entry.descriptor, entry.pluginData);
+  }
+
+  @Nullable
+  private PluginEntry readPlugin(StructuredRow row,
+      Predicate<io.cdap.cdap.proto.id.ArtifactId> range) {
     // column is the artifact namespace, name, and version. value is the serialized PluginData
     Id.Namespace artifactNamespace =
         Id.Namespace.from(row.getString(StoreDefinition.ArtifactStore.ARTIFACT_NAMESPACE_FIELD));
@@ -1203,11 +1318,11 @@ public class ArtifactStore {
     PluginData pluginData = GSON.fromJson(
         row.getString(StoreDefinition.ArtifactStore.PLUGIN_DATA_FIELD),
         PluginData.class);
-    return ImmutablePair.of(new ArtifactDescriptor(
-        artifactId.getNamespace().getId(),
+    ArtifactDescriptor descriptor = new ArtifactDescriptor(artifactId.getNamespace().getId(),
         artifactId.toArtifactId(),
         Locations.getLocationFromAbsolutePath(locationFactory,
-            pluginData.getArtifactLocationPath())), pluginData);
+            pluginData.getArtifactLocationPath()));
+    return new PluginEntry(artifactId.toEntityId(), descriptor, pluginData);
   }
 
   private Range createArtifactScanRange(NamespaceId namespace) {
@@ -1427,6 +1542,83 @@ public class ArtifactStore {
     }
   }
 
+  /**
+   * Key of the plugin catalog.
+   */
+  private static final class PluginCatalogKey {
+
+    private final NamespaceId namespace;
+    private final ArtifactRange parentArtifactRange;
+    private final String type;
+    private final String name;
+
+    private PluginCatalogKey(NamespaceId namespace, ArtifactRange parentArtifactRange, String type,
+        String name) {
+      this.namespace = namespace;
+      this.parentArtifactRange = parentArtifactRange;
+      this.type = type;
+      this.name = name;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      PluginCatalogKey that = (PluginCatalogKey) o;
+      return namespace.equals(that.namespace)
+          && parentArtifactRange.equals(that.parentArtifactRange)
+          && type.equals(that.type)
+          && name.equals(that.name);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(namespace, parentArtifactRange, type, name);
+    }
+  }
+
+  /**
+   * Value of the plugin catalog. It contains the parent artifacts in the range, the matching
+   * plugins in the parent artifacts and all the decoded plugin rows of the given type and name, in
+   * the order of the table scans. Filtering by plugin range and limit is done on each lookup. When
+   * the catalog is disabled, an entry is loaded for a single lookup and only has the plugin rows in
+   * the plugin range of that lookup.
+   */
+  private static final class PluginCatalogEntry {
+
+    private final List<Id.Artifact> parentArtifacts;
+    private final Map<ArtifactDescriptor, PluginClass> parentPlugins;
+    private final List<PluginEntry> plugins;
+
+    private PluginCatalogEntry(List<Id.Artifact> parentArtifacts,
+        Map<ArtifactDescriptor, PluginClass> parentPlugins, List<PluginEntry> plugins) {
+      this.parentArtifacts = Collections.unmodifiableList(parentArtifacts);
+      this.parentPlugins = Collections.unmodifiableMap(parentPlugins);
+      this.plugins = Collections.unmodifiableList(plugins);
+    }
+  }
+
+  /**
+   * A decoded row of the plugin or the universal plugin table.
+   */
+  private static final class PluginEntry {
+
+    private final io.cdap.cdap.proto.id.ArtifactId artifactId;
+    private final ArtifactDescriptor descriptor;
+    private final PluginData pluginData;
+
+    private PluginEntry(io.cdap.cdap.proto.id.ArtifactId artifactId,
+        ArtifactDescriptor descriptor, PluginData pluginData) {
+      this.artifactId = artifactId;
+      this.descriptor = descriptor;
+      this.pluginData = pluginData;
+    }
+  }
+
   // Data that will be stored for an application class.
   private static class AppData {
 
@@ -70,6 +70,15 @@ public final class MonitorSchemas {
 
       public static final Schema SCHEMA = loadSchema(MonitorSchemas.V2.MonitorRequest.class);
     }
+
+    /**
+     * Contains schema for monitor request that carries messages of multiple topics.
+     */
+    public static final class MultiTopicMonitorRequest {
+
+      public static final Schema SCHEMA = loadSchema(
+          MonitorSchemas.V2.MultiTopicMonitorRequest.class);
+    }
   }
 
   /**
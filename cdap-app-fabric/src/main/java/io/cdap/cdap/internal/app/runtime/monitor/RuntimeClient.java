@@ -16,6 +16,7 @@
 
 package io.cdap.cdap.internal.app.runtime.monitor;
 
+import com.google.common.base.Splitter;
 import com.google.common.io.ByteStreams;
 import com.google.common.net.HttpHeaders;
 import com.google.gson.Gson;
@@ -48,9 +49,12 @@ import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import java.util.function.LongConsumer;
 import java.util.zip.GZIPOutputStream;
+import javax.annotation.Nullable;
 import javax.ws.rs.core.MediaType;
 import org.apache.avro.Schema;
 import org.apache.avro.io.Encoder;
@@ -86,6 +90,18 @@ public class RuntimeClient {
         || schema.getElementType().getType() != Schema.Type.BYTES) {
       throw new IllegalStateException("MonitorRequest schema should be an array of bytes");
     }
+    schema = MonitorSchemas.V2.MultiTopicMonitorRequest.SCHEMA;
+    if (schema == null) {
+      throw new IllegalStateException("Missing MultiTopicMonitorRequest schema");
+    }
+    if (schema.getType() != Schema.Type.ARRAY
+        || schema.getElementType().getType() != Schema.Type.RECORD
+        || schema.getElementType().getField("topic").schema().getType() != Schema.Type.STRING
+        || schema.getElementType().getField("messages").schema().getElementType().getType()
+        != Schema.Type.BYTES) {
+      throw new IllegalStateException(
+          "MultiTopicMonitorRequest schema should be an array of topic and messages records");
+    }
     this.stopFuture = new CompletableFuture<>();
   }
 
@@ -108,25 +124,63 @@ public class RuntimeClient {
       throw new IllegalArgumentException("Only topic in the system namespace is supported");
     }
 
-    String path = String.format("%s/apps/%s/versions/%s/%s/%s/runs/%s/topics/%s",
-        programRunId.getNamespace(),
-        programRunId.getApplication(),
-        programRunId.getVersion(),
-        programRunId.getType().getCategoryName(),
-        programRunId.getProgram(),
-        programRunId.getRun(),
-        topicId.getTopic());
+    String path = String.format("%s/topics/%s", getRunPath(programRunId), topicId.getTopic());
+    sendMessages(programRunId, path, encoder -> writeMessages(messages, encoder), null);
+  }
 
-    // Stream out the messages
+  /**
+   * Sends messages to multiple TMS system topics from the given program run in one request.
+   *
+   * @param programRunId the program run id of the program run
+   * @param messages the messages to send for each topic. The namespace of each topic must be
+   *     {@link NamespaceId#SYSTEM}
+   * @param processedTopics called with each topic whose messages were processed by the server,
+   *     also when the request failed for a later topic
+   * @throws IOException if failed to send all the given messages
+   * @throws BadRequestException if the server denial the request due to bad request
+   * @throws GoneException if the run already finished
+   * @throws ServiceUnavailableException if the server is not available
+   */
+  public void sendMessages(ProgramRunId programRunId, Map<TopicId, Iterator<Message>> messages,
+      Consumer<TopicId> processedTopics)
+      throws IOException, BadRequestException, GoneException, NotFoundException {
+
+    for (TopicId topicId : messages.keySet()) {
+      if (!NamespaceId.SYSTEM.equals(topicId.getNamespaceId())) {
+        throw new IllegalArgumentException("Only topic in the system namespace is supported");
+      }
+    }
+
+    String path = String.format("%s/topics", getRunPath(programRunId));
+    sendMessages(programRunId, path, encoder -> writeTopicMessages(messages, encoder),
+        topic -> processedTopics.accept(NamespaceId.SYSTEM.topic(topic)));
+  }
+
+  /**
+   * Streams out the messages written by the given {@link MessagesWriter} to the given path.
+   *
+   * @param processedTopics if not {@code null}, called with each topic listed in the {@link
+   *     RuntimeHandler#PROCESSED_TOPICS_HEADER} response header
+   */
+  private void sendMessages(ProgramRunId programRunId, String path, MessagesWriter writer,
+      @Nullable Consumer<String> processedTopics)
+      throws IOException, BadRequestException, GoneException, NotFoundException {
     HttpURLConnection urlConn = remoteClient.openConnection(HttpMethod.POST, path);
     try {
       urlConn.setChunkedStreamingMode(CHUNK_SIZE);
       urlConn.setRequestProperty(HttpHeaders.CONTENT_TYPE, "avro/binary");
 
       try (OutputStream os = openOutputStream(urlConn)) {
-        writeMessages(messages, EncoderFactory.get().directBinaryEncoder(os, null));
+        writer.write(EncoderFactory.get().directBinaryEncoder(os, null));
       }
 
+      String topics = processedTopics == null
+          ? null : urlConn.getHeaderField(RuntimeHandler.PROCESSED_TOPICS_HEADER);
+      if (topics != null) {
+        for (String topic : Splitter.on(',').omitEmptyStrings().split(topics)) {
+          processedTopics.accept(topic);
+        }
+      }
       throwIfError(programRunId, urlConn);
       try (Reader reader = new InputStreamReader(urlConn.getInputStream(),
           StandardCharsets.UTF_8)) {
@@ -140,6 +194,19 @@ public class RuntimeClient {
     }
   }
 
+  /**
+   * Returns the request path for the given program run.
+   */
+  private String getRunPath(ProgramRunId programRunId) {
+    return String.format("%s/apps/%s/versions/%s/%s/%s/runs/%s",
+        programRunId.getNamespace(),
+        programRunId.getApplication(),
+        programRunId.getVersion(),
+        programRunId.getType().getCategoryName(),
+        programRunId.getProgram(),
+        programRunId.getRun());
+  }
+
   /**
    * Sets the consumer to run on the program being requested to stop.
    *
@@ -163,13 +230,7 @@ public class RuntimeClient {
    * @throws ServiceUnavailableException if the service is not available
    */
   public void uploadSparkEventLogs(ProgramRunId programRunId, File eventFile) throws IOException {
-    String path = String.format("%s/apps/%s/versions/%s/%s/%s/runs/%s/spark-event-logs/%s",
-        programRunId.getNamespace(),
-        programRunId.getApplication(),
-        programRunId.getVersion(),
-        programRunId.getType().getCategoryName(),
-        programRunId.getProgram(),
-        programRunId.getRun(),
+    String path = String.format("%s/spark-event-logs/%s", getRunPath(programRunId),
         eventFile.getName());
 
     // Stream out the messages
@@ -296,6 +357,24 @@ public class RuntimeClient {
     encoder.writeArrayEnd();
   }
 
+  /**
+   * Streaming encode the given messages of each topic based on the schema as defined by the {@link
+   * MonitorSchemas.V2.MultiTopicMonitorRequest}. Each topic is written as one array block of the
+   * outer array, followed by its messages as in {@link #writeMessages(Iterator, Encoder)}.
+   */
+  private void writeTopicMessages(Map<TopicId, Iterator<Message>> messages, Encoder encoder)
+      throws IOException {
+    encoder.writeArrayStart();
+    for (Map.Entry<TopicId, Iterator<Message>> entry : messages.entrySet()) {
+      encoder.setItemCount(1);
+      encoder.startItem();
+      encoder.writeString(entry.getKey().getTopic());
+      writeMessages(entry.getValue(), encoder);
+      encoder.flush();
+    }
+    encoder.writeArrayEnd();
+  }
+
   /**
    * Encodes and writes all the payloads as one avro array block.
    */
@@ -306,4 +385,12 @@ public class RuntimeClient {
       encoder.writeBytes(payload);
     }
   }
+
+  /**
+   * Writes the request body with an {@link Encoder}.
+   */
+  private interface MessagesWriter {
+
+    void write(Encoder encoder) throws IOException;
+  }
 }
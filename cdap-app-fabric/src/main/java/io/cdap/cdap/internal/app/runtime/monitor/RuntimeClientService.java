@@ -52,15 +52,18 @@ import io.cdap.cdap.proto.id.ProgramRunId;
 import io.cdap.cdap.proto.id.TopicId;
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.Spliterators;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.LongConsumer;
 import java.util.regex.Pattern;
@@ -89,7 +92,10 @@ public class RuntimeClientService extends AbstractRetryableScheduledService {
   private final long gracefulShutdownMillis;
   private final ProgramRunId programRunId;
   private final RuntimeClient runtimeClient;
-  private final int fetchLimit;
+  private final int minFetchLimit;
+  private final int maxFetchLimit;
+  private final boolean multiTopicRelay;
+  private final long maxRequestBytes;
   private final AtomicLong programFinishTime;
 
   @Inject
@@ -108,7 +114,11 @@ public class RuntimeClientService extends AbstractRetryableScheduledService {
         Constants.RuntimeMonitor.GRACEFUL_SHUTDOWN_MS);
     this.programRunId = programRunId;
     this.runtimeClient = runtimeClient;
-    this.fetchLimit = cConf.getInt(Constants.RuntimeMonitor.BATCH_SIZE);
+    this.minFetchLimit = cConf.getInt(Constants.RuntimeMonitor.BATCH_SIZE);
+    this.maxFetchLimit = Math.max(minFetchLimit,
+        cConf.getInt(Constants.RuntimeMonitor.MAX_BATCH_SIZE, minFetchLimit));
+    this.multiTopicRelay = cConf.getBoolean(Constants.RuntimeMonitor.MULTI_TOPIC_RELAY_ENABLED);
+    this.maxRequestBytes = RuntimeHandler.getMaxMultiTopicRequestBytes(cConf);
     this.programFinishTime = new AtomicLong(-1L);
     this.topicRelayers = RuntimeMonitors.createTopicNameList(cConf)
         .stream()
@@ -119,10 +129,7 @@ public class RuntimeClientService extends AbstractRetryableScheduledService {
 
   @Override
   protected long runTask() throws Exception {
-    long nextPollDelay = pollTimeMillis;
-    for (TopicRelayer topicRelayer : topicRelayers) {
-      nextPollDelay = Math.min(nextPollDelay, topicRelayer.publishMessages());
-    }
+    long nextPollDelay = multiTopicRelay ? relayMessages() : publishMessages();
 
     // If we got the program finished state, determine when to shutdown
     if (getProgramFinishTime() > 0) {
@@ -146,6 +153,87 @@ public class RuntimeClientService extends AbstractRetryableScheduledService {
     return nextPollDelay;
   }
 
+  /**
+   * Fetches and publishes messages of each topic with a separate request.
+   *
+   * @return delay in milliseconds till the next poll
+   */
+  private long publishMessages() throws Exception {
+    long nextPollDelay = pollTimeMillis;
+    for (TopicRelayer topicRelayer : topicRelayers) {
+      nextPollDelay = Math.min(nextPollDelay, topicRelayer.publishMessages());
+    }
+    return nextPollDelay;
+  }
+
+  /**
+   * Fetches messages from all topics that are due for polling and publishes them with one request.
+   * Topics that would make the request larger than the maximum request size are published with a
+   * separate request each. If publishing fails, the fetch position is still advanced for the topics
+   * that were published, so that their messages are not published again on retry.
+   *
+   * @return delay in milliseconds till the next poll
+   */
+  private long relayMessages() throws Exception {
+    long nextPollDelay = pollTimeMillis;
+    Map<TopicRelayer, FetchedMessages> fetched = new LinkedHashMap<>();
+    Map<TopicId, Iterator<Message>> messages = new LinkedHashMap<>();
+    Map<TopicId, Iterator<Message>> separateMessages = new LinkedHashMap<>();
+    List<TopicRelayer> consumed = new ArrayList<>();
+    long requestBytes = 0L;
+    for (TopicRelayer topicRelayer : topicRelayers) {
+      long delay = topicRelayer.getPublishDelay();
+      if (delay > 0) {
+        nextPollDelay = Math.min(nextPollDelay, delay);
+        continue;
+      }
+      FetchedMessages topicMessages = topicRelayer.fetchMessages();
+      fetched.put(topicRelayer, topicMessages);
+      if (topicMessages.getMessages().isEmpty()) {
+        continue;
+      }
+      Iterator<Message> iterator = topicRelayer.prepareRelay(topicMessages.getMessages());
+      if (iterator == null) {
+        // Send an empty iterator to serve as the heartbeat.
+        consumed.add(topicRelayer);
+        messages.put(topicRelayer.getTopicId(), Collections.emptyIterator());
+        continue;
+      }
+      long topicBytes = topicMessages.getEncodedSize(topicRelayer.getTopicId());
+      if (requestBytes + topicBytes > maxRequestBytes) {
+        separateMessages.put(topicRelayer.getTopicId(), iterator);
+      } else {
+        requestBytes += topicBytes;
+        messages.put(topicRelayer.getTopicId(), iterator);
+      }
+    }
+
+    Set<TopicId> published = new HashSet<>();
+    try {
+      if (!messages.isEmpty()) {
+        runtimeClient.sendMessages(programRunId, messages, published::add);
+      }
+      for (Map.Entry<TopicId, Iterator<Message>> entry : separateMessages.entrySet()) {
+        runtimeClient.sendMessages(programRunId, entry.getKey(), entry.getValue());
+        published.add(entry.getKey());
+      }
+    } catch (Exception e) {
+      // Messages that were consumed by the relayer or published shouldn't be fetched again
+      for (Map.Entry<TopicRelayer, FetchedMessages> entry : fetched.entrySet()) {
+        TopicRelayer topicRelayer = entry.getKey();
+        if (consumed.contains(topicRelayer) || published.contains(topicRelayer.getTopicId())) {
+          topicRelayer.completeFetch(entry.getValue());
+        }
+      }
+      throw e;
+    }
+
+    for (Map.Entry<TopicRelayer, FetchedMessages> entry : fetched.entrySet()) {
+      nextPollDelay = Math.min(nextPollDelay, entry.getKey().completeFetch(entry.getValue()));
+    }
+    return nextPollDelay;
+  }
+
   @Override
   protected boolean shouldRetry(Exception e) {
     OUTAGE_LOG.warn("Failed to send runtime status. Will be retried.", e);
@@ -249,12 +337,14 @@ public class RuntimeClientService extends AbstractRetryableScheduledService {
     private String lastMessageId;
     private long nextPublishTimeMillis;
     private int totalPublished;
+    private int fetchLimit;
 
     TopicRelayer(TopicId topicId, long pollTimeMillis,
         @Nullable MetricsMessageAggregator messageAggregator) {
       this.pollTimeMillis = pollTimeMillis;
       this.topicId = topicId;
       this.messageAggregator = messageAggregator;
+      this.fetchLimit = minFetchLimit;
     }
 
     public TopicId getTopicId() {
@@ -274,56 +364,98 @@ public class RuntimeClientService extends AbstractRetryableScheduledService {
      */
     long publishMessages()
         throws TopicNotFoundException, IOException, BadRequestException, GoneException, NotFoundException {
-      long currentTimeMillis = System.currentTimeMillis();
+      long delay = getPublishDelay();
+      if (delay > 0) {
+        return delay;
+      }
+
+      FetchedMessages fetched = fetchMessages();
+      if (!fetched.getMessages().isEmpty()) {
+        processMessages(fetched.getMessages().iterator());
+      }
+      return completeFetch(fetched);
+    }
 
+    /**
+     * Returns the delay in milliseconds till the next poll of this topic is due.
+     */
+    long getPublishDelay() {
       // Not to publish more than necessary in one topic.
       // This method might get called more than once even before the next publish time is hit.
-      if (currentTimeMillis < nextPublishTimeMillis) {
-        return nextPublishTimeMillis - currentTimeMillis;
-      }
+      return Math.max(0L, nextPublishTimeMillis - System.currentTimeMillis());
+    }
 
+    /**
+     * Fetches the next batch of messages after the last published message from the {@link
+     * MessagingContext}.
+     *
+     * @throws TopicNotFoundException if the TMS topic to fetch from does not exist
+     * @throws IOException if failed to read from TMS
+     */
+    FetchedMessages fetchMessages() throws TopicNotFoundException, IOException {
       try (CloseableIterator<Message> iterator = messagingContext.getMessageFetcher()
           .fetch(topicId.getNamespace(),
               topicId.getTopic(),
               fetchLimit,
               lastMessageId)) {
-        Iterator<Message> messageIterator = iterator;
+        int[] fetchCount = new int[1];
+        Iterator<Message> messageIterator = new AbstractIterator<Message>() {
+          @Override
+          protected Message computeNext() {
+            if (!iterator.hasNext()) {
+              return endOfData();
+            }
+            fetchCount[0]++;
+            return iterator.next();
+          }
+        };
         if (messageAggregator != null) {
-          messageIterator = messageAggregator.aggregate(iterator);
+          messageIterator = messageAggregator.aggregate(messageIterator);
         }
-        AtomicInteger messageCount = new AtomicInteger();
-        if (messageIterator.hasNext()) {
-          String[] messageId = new String[1];
-          Iterator<Message> finalMessageIterator = messageIterator;
-          processMessages(new AbstractIterator<Message>() {
-            @Override
-            protected Message computeNext() {
-              if (!finalMessageIterator.hasNext()) {
-                return endOfData();
-              }
-              Message message = finalMessageIterator.next();
-              messageId[0] = message.getId();
-              messageCount.incrementAndGet();
-              return message;
-            }
-          });
+        List<Message> messages = new ArrayList<>();
+        messageIterator.forEachRemaining(messages::add);
+        return new FetchedMessages(messages, fetchCount[0]);
+      }
+    }
 
-          // Update the lastMessageId if sendMessages succeeded
-          lastMessageId = messageId[0] == null ? lastMessageId : messageId[0];
-          totalPublished += messageCount.get();
-          progressLog.trace("Processed in total {} messages on topic {}",
-              totalPublished, topicId);
-        }
+    /**
+     * Returns the messages to publish through the {@link RuntimeClient} for the given fetched
+     * messages, or {@code null} if the messages are consumed by this relayer instead.
+     */
+    @Nullable
+    protected Iterator<Message> prepareRelay(List<Message> messages) {
+      return messages.iterator();
+    }
 
-        // If we fetched all messages, then delay the next poll by pollTimeMillis.
-        // Otherwise, try to poll again immediately.
-        nextPublishTimeMillis = System.currentTimeMillis();
-        if (messageCount.get() >= fetchLimit) {
-          return 0L;
-        }
-        nextPublishTimeMillis += pollTimeMillis;
-        return pollTimeMillis;
+    /**
+     * Updates the fetch position after the given messages are published and adapts the fetch size
+     * to the backlog of the topic.
+     *
+     * @return delay in milliseconds till the next poll
+     */
+    long completeFetch(FetchedMessages fetched) {
+      List<Message> messages = fetched.getMessages();
+      if (!messages.isEmpty()) {
+        String messageId = messages.get(messages.size() - 1).getId();
+        lastMessageId = messageId == null ? lastMessageId : messageId;
+        totalPublished += messages.size();
+        progressLog.trace("Processed in total {} messages on topic {}",
+            totalPublished, topicId);
+      }
+
+      // If the fetch is full, there are more messages to fetch, hence poll again immediately with
+      // a larger fetch size. Otherwise, delay the next poll by pollTimeMillis and shrink the fetch
+      // size if it is mostly unused.
+      nextPublishTimeMillis = System.currentTimeMillis();
+      if (fetched.getFetchCount() >= fetchLimit) {
+        fetchLimit = (int) Math.min(maxFetchLimit, fetchLimit * 2L);
+        return 0L;
+      }
+      if (fetched.getFetchCount() < fetchLimit / 2) {
+        fetchLimit = Math.max(minFetchLimit, fetchLimit / 2);
       }
+      nextPublishTimeMillis += pollTimeMillis;
+      return pollTimeMillis;
     }
 
     /**
@@ -411,24 +543,8 @@ public class RuntimeClientService extends AbstractRetryableScheduledService {
               false)
           .collect(Collectors.toList());
 
-      if (programFinishTime.get() == -1L) {
-        long finishTime = findProgramFinishTime(message);
-        if (finishTime >= 0) {
-          detectedProgramFinish = true;
-          LOG.trace("Detected program {} finish time {} in topic {}",
-              programRunId, finishTime,
-              topicId.getTopic());
-        }
-        programFinishTime.compareAndSet(-1L, finishTime);
-      }
-      if (detectedProgramFinish) {
-        // Buffer the program state messages and don't publish them until the end
-        // Otherwise, once we publish, the deprovisioner will kick in and delete the cluster
-        // which could result in losing the last set of messages for some topics.
-        // Since we already consumed the incoming Iterator, the next fetch offset is being updated.
-        // This is to avoid fetching duplicate messages.
-        lastProgramStateMessages.addAll(message);
-
+      Iterator<Message> relayIterator = prepareRelay(message);
+      if (relayIterator == null) {
         // Send an empty iterator to serve as the heartbeat.
         try {
           super.processMessages(Collections.emptyIterator());
@@ -438,8 +554,33 @@ public class RuntimeClientService extends AbstractRetryableScheduledService {
         }
       } else {
         // If the program is not yet finished, just publish the messages
-        super.processMessages(message.iterator());
+        super.processMessages(relayIterator);
+      }
+    }
+
+    @Nullable
+    @Override
+    protected Iterator<Message> prepareRelay(List<Message> messages) {
+      if (programFinishTime.get() == -1L) {
+        long finishTime = findProgramFinishTime(messages);
+        if (finishTime >= 0) {
+          detectedProgramFinish = true;
+          LOG.trace("Detected program {} finish time {} in topic {}",
+              programRunId, finishTime,
+              topicId.getTopic());
+        }
+        programFinishTime.compareAndSet(-1L, finishTime);
+      }
+      if (!detectedProgramFinish) {
+        return messages.iterator();
       }
+      // Buffer the program state messages and don't publish them until the end
+      // Otherwise, once we publish, the deprovisioner will kick in and delete the cluster
+      // which could result in losing the last set of messages for some topics.
+      // Since the messages are consumed here, the next fetch offset is being updated.
+      // This is to avoid fetching duplicate messages.
+      lastProgramStateMessages.addAll(messages);
+      return null;
     }
 
     @Override
@@ -520,4 +661,40 @@ public class RuntimeClientService extends AbstractRetryableScheduledService {
       return -1L;
     }
   }
+
+  /**
+   * The messages fetched from a topic, together with the number of messages fetched from TMS
+   * before aggregation.
+   */
+  private static final class FetchedMessages {
+
+    private final List<Message> messages;
+    private final int fetchCount;
+
+    FetchedMessages(List<Message> messages, int fetchCount) {
+      this.messages = messages;
+      this.fetchCount = fetchCount;
+    }
+
+    List<Message> getMessages() {
+      return messages;
+    }
+
+    int getFetchCount() {
+      return fetchCount;
+    }
+
+    /**
+     * Returns an upper bound of the size in bytes of the messages when encoded for the given topic
+     * in a multi-topic request.
+     */
+    long getEncodedSize(TopicId topicId) {
+      // Each length prefix and array block header takes at most 10 bytes
+      long size = topicId.getTopic().length() * 3L + 20;
+      for (Message message : messages) {
+        size += message.getPayload().length + 10;
+      }
+      return size;
+    }
+  }
 }
@@ -18,7 +18,6 @@ package io.cdap.cdap.internal.app.runtime.monitor;
 
 import com.google.common.io.Closeables;
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.google.inject.Inject;
 import io.cdap.cdap.api.common.Bytes;
 import io.cdap.cdap.api.messaging.MessagingContext;
@@ -43,7 +42,9 @@ import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufInputStream;
 import io.netty.buffer.CompositeByteBuf;
 import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
 import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
 import io.netty.handler.codec.http.HttpRequest;
 import io.netty.handler.codec.http.HttpResponseStatus;
 import java.io.EOFException;
@@ -52,10 +53,13 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
@@ -77,6 +81,13 @@ import org.slf4j.LoggerFactory;
 public class RuntimeHandler extends AbstractHttpHandler {
 
   private static final Logger LOG = LoggerFactory.getLogger(RuntimeHandler.class);
+  private static final Gson GSON = new Gson();
+
+  /**
+   * Response header of a multi-topic request listing the topics whose messages were processed,
+   * also when processing a later topic failed.
+   */
+  static final String PROCESSED_TOPICS_HEADER = "X-Processed-Topics";
 
   private final MessagingContext messagingContext;
   private final RuntimeRequestValidator requestValidator;
@@ -85,6 +96,7 @@ public class RuntimeHandler extends AbstractHttpHandler {
   private final boolean eventLogsEnabled;
   private final Location eventLogsBaseLocation;
   private final Set<String> allowedTopics;
+  private final long maxMultiTopicRequestBytes;
 
   @Inject
   RuntimeHandler(CConfiguration cConf, MessagingService messagingService,
@@ -98,6 +110,14 @@ public class RuntimeHandler extends AbstractHttpHandler {
     this.eventLogsBaseLocation = locationFactory.create(
         cConf.get(Constants.AppFabric.SPARK_EVENT_LOGS_DIR));
     this.allowedTopics = new HashSet<>(RuntimeMonitors.createTopicNameList(cConf));
+    this.maxMultiTopicRequestBytes = getMaxMultiTopicRequestBytes(cConf);
+  }
+
+  /**
+   * Returns the maximum size in bytes of the body of a multi-topic request.
+   */
+  static long getMaxMultiTopicRequestBytes(CConfiguration cConf) {
+    return cConf.getLong(Constants.RuntimeMonitor.MULTI_TOPIC_MAX_REQUEST_SIZE_MB) * 1024 * 1024;
   }
 
   @Override
@@ -113,6 +133,18 @@ public class RuntimeHandler extends AbstractHttpHandler {
         || schema.getElementType().getType() != Schema.Type.BYTES) {
       throw new IllegalStateException("MonitorRequest schema should be an array of bytes");
     }
+    schema = MonitorSchemas.V2.MultiTopicMonitorRequest.SCHEMA;
+    if (schema == null) {
+      throw new IllegalStateException("Missing MultiTopicMonitorRequest schema");
+    }
+    if (schema.getType() != Schema.Type.ARRAY
+        || schema.getElementType().getType() != Schema.Type.RECORD
+        || schema.getElementType().getField("topic").schema().getType() != Schema.Type.STRING
+        || schema.getElementType().getField("messages").schema().getElementType().getType()
+        != Schema.Type.BYTES) {
+      throw new IllegalStateException(
+          "MultiTopicMonitorRequest schema should be an array of topic and messages records");
+    }
 
     if (eventLogsEnabled) {
       try {
@@ -154,18 +186,52 @@ public class RuntimeHandler extends AbstractHttpHandler {
     }
 
     TopicId topicId = NamespaceId.SYSTEM.topic(topic);
-    if (topic.startsWith(logsTopicPrefix)) {
-      return new MessageBodyConsumer(topicId, logProcessor::process, programRunInfo);
+    return new MessageBodyConsumer(topicId, createPayloadProcessor(topicId), programRunInfo);
+  }
+
+  /**
+   * Handles call for writing to multiple TMS topics from the program runtime for a given program
+   * run in one request. The POST body is an avro array of topic and messages records as defined by
+   * {@link MonitorSchemas.V2.MultiTopicMonitorRequest}.
+   */
+  @Path("/topics")
+  @POST
+  public BodyConsumer writeMultiTopicMessages(HttpRequest request, HttpResponder responder,
+      @PathParam("namespace") String namespace,
+      @PathParam("app") String app,
+      @PathParam("version") String version,
+      @PathParam("program-type") String programType,
+      @PathParam("program") String program,
+      @PathParam("run") String run) throws Exception {
+
+    if (!"avro/binary".equals(request.headers().get(HttpHeaderNames.CONTENT_TYPE))) {
+      throw new BadRequestException("Only avro/binary content type is supported.");
     }
 
-    return new MessageBodyConsumer(topicId, payloads -> {
+    ApplicationId appId = new NamespaceId(namespace).app(app, version);
+    ProgramRunId programRunId = new ProgramRunId(appId,
+        ProgramType.valueOfCategoryName(programType, BadRequestException::new),
+        program, run);
+    ProgramRunInfo programRunInfo = requestValidator.getProgramRunStatus(programRunId, request);
+
+    return new MultiTopicBodyConsumer(programRunId, programRunInfo);
+  }
+
+  /**
+   * Creates a {@link PayloadProcessor} for writing payloads to the given topic.
+   */
+  private PayloadProcessor createPayloadProcessor(TopicId topicId) {
+    if (topicId.getTopic().startsWith(logsTopicPrefix)) {
+      return logProcessor::process;
+    }
+    return payloads -> {
       try {
         messagingContext.getDirectMessagePublisher().publish(topicId.getNamespace(),
             topicId.getTopic(), payloads);
       } catch (TopicNotFoundException e) {
         throw new BadRequestException(e);
       }
-    }, programRunInfo);
+    };
   }
 
   /**
@@ -252,8 +318,6 @@ public class RuntimeHandler extends AbstractHttpHandler {
     private ByteBuffer payload;
     private long items;
     private final ProgramRunInfo programRunInfo;
-    private static final Gson GSON = new GsonBuilder()
-        .create();
 
     MessageBodyConsumer(TopicId topicId, PayloadProcessor payloadProcessor,
         ProgramRunInfo programRunInfo) {
@@ -358,6 +422,132 @@ public class RuntimeHandler extends AbstractHttpHandler {
     }
   }
 
+  /**
+   * A {@link BodyConsumer} to consume request from program runtime for writing messages to
+   * multiple TMS topics. The request body is buffered up to a maximum size and decoded once fully
+   * received, so that all topics can be validated before any message is written. Topics are then
+   * processed in order, and the topics processed before a failure are returned in the {@link
+   * #PROCESSED_TOPICS_HEADER} header, so that the client does not send them again.
+   */
+  private final class MultiTopicBodyConsumer extends BodyConsumer {
+
+    private final ProgramRunId programRunId;
+    private final ProgramRunInfo programRunInfo;
+    private final CompositeByteBuf buffer;
+    private boolean tooLarge;
+
+    MultiTopicBodyConsumer(ProgramRunId programRunId, ProgramRunInfo programRunInfo) {
+      this.programRunId = programRunId;
+      this.programRunInfo = programRunInfo;
+      this.buffer = Unpooled.compositeBuffer(Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void chunk(ByteBuf request, HttpResponder responder) {
+      if (tooLarge) {
+        return;
+      }
+      if (buffer.readableBytes() + (long) request.readableBytes() > maxMultiTopicRequestBytes) {
+        // Drop what is buffered and ignore the rest of the body, which is rejected once finished
+        tooLarge = true;
+        buffer.removeComponents(0, buffer.numComponents());
+        return;
+      }
+      buffer.addComponent(true, request.retain());
+    }
+
+    @Override
+    public void finished(HttpResponder responder) {
+      try {
+        if (tooLarge) {
+          responder.sendString(HttpResponseStatus.REQUEST_ENTITY_TOO_LARGE,
+              "Request body exceeds the maximum size of " + maxMultiTopicRequestBytes + " bytes");
+          return;
+        }
+        Map<TopicId, List<byte[]>> topicPayloads;
+        try {
+          topicPayloads = decode();
+        } catch (IOException e) {
+          responder.sendString(HttpResponseStatus.BAD_REQUEST,
+              "Failed to decode request due to exception " + e.getMessage());
+          return;
+        }
+        for (TopicId topicId : topicPayloads.keySet()) {
+          if (!allowedTopics.contains(topicId.getTopic())) {
+            responder.sendString(HttpResponseStatus.FORBIDDEN,
+                "Access denied for topic " + topicId.getTopic());
+            return;
+          }
+        }
+        List<String> processedTopics = new ArrayList<>();
+        try {
+          for (Map.Entry<TopicId, List<byte[]>> entry : topicPayloads.entrySet()) {
+            // A topic without messages only serves as a heartbeat
+            if (!entry.getValue().isEmpty()) {
+              createPayloadProcessor(entry.getKey()).process(entry.getValue().iterator());
+            }
+            processedTopics.add(entry.getKey().getTopic());
+          }
+          HttpHeaders headers = createHeaders(processedTopics)
+              .set(HttpHeaderNames.CONTENT_TYPE, "application/json");
+          responder.sendString(HttpResponseStatus.OK,
+              GSON.toJson(programRunInfo, ProgramRunInfo.class), headers);
+        } catch (BadRequestException e) {
+          responder.sendString(HttpResponseStatus.BAD_REQUEST, e.getMessage(),
+              createHeaders(processedTopics));
+        } catch (UnauthorizedException e) {
+          responder.sendString(HttpResponseStatus.FORBIDDEN, e.getMessage(),
+              createHeaders(processedTopics));
+        } catch (IOException | AccessException e) {
+          responder.sendString(HttpResponseStatus.SERVICE_UNAVAILABLE,
+              "Failed to process all messages due to " + e.getMessage(),
+              createHeaders(processedTopics));
+        }
+      } finally {
+        buffer.release();
+      }
+    }
+
+    @Override
+    public void handleError(Throwable cause) {
+      LOG.error("Exception raised when processing message body for publishing from program run {}",
+          programRunId, cause);
+      if (buffer.refCnt() > 0) {
+        buffer.release();
+      }
+    }
+
+    private HttpHeaders createHeaders(List<String> processedTopics) {
+      return new DefaultHttpHeaders().set(PROCESSED_TOPICS_HEADER,
+          String.join(",", processedTopics));
+    }
+
+    /**
+     * Decodes the payloads of each topic in the buffered request body.
+     */
+    private Map<TopicId, List<byte[]>> decode() throws IOException {
+      Map<TopicId, List<byte[]>> topicPayloads = new LinkedHashMap<>();
+      try (InputStream is = new ByteBufInputStream(buffer)) {
+        Decoder decoder = DecoderFactory.get().directBinaryDecoder(is, null);
+        ByteBuffer payload = null;
+        for (long topics = decoder.readArrayStart(); topics > 0; topics = decoder.arrayNext()) {
+          for (long i = 0; i < topics; i++) {
+            TopicId topicId = NamespaceId.SYSTEM.topic(decoder.readString());
+            List<byte[]> payloads = topicPayloads.computeIfAbsent(topicId,
+                k -> new ArrayList<>());
+            for (long items = decoder.readArrayStart(); items > 0; items = decoder.arrayNext()) {
+              for (long j = 0; j < items; j++) {
+                payload = decoder.readBytes(payload);
+                payloads.add(Bytes.toBytes(payload));
+              }
+            }
+          }
+        }
+      }
+      return topicPayloads;
+    }
+  }
+
   /**
    * An {@link InputStream} that delegates all operations to another {@link InputStream}.
    */
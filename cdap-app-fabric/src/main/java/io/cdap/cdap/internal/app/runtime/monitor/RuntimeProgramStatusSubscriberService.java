@@ -62,6 +62,8 @@ public class RuntimeProgramStatusSubscriberService extends AbstractNotificationS
   private static final Gson GSON = ApplicationSpecificationAdapter.addTypeAdapters(
       new GsonBuilder()).create();
 
+  private final CConfiguration cConf;
+
   @Inject
   RuntimeProgramStatusSubscriberService(CConfiguration cConf, MessagingService messagingService,
       MetricsCollectionService metricsCollectionService,
@@ -71,6 +73,7 @@ public class RuntimeProgramStatusSubscriberService extends AbstractNotificationS
         cConf.getInt(Constants.AppFabric.STATUS_EVENT_FETCH_SIZE),
         cConf.getLong(Constants.AppFabric.STATUS_EVENT_POLL_DELAY_MILLIS),
         messagingService, metricsCollectionService, transactionRunner);
+    this.cConf = cConf;
   }
 
   @Nullable
@@ -198,7 +201,7 @@ public class RuntimeProgramStatusSubscriberService extends AbstractNotificationS
    * Returns an instance of {@link AppMetadataStore}.
    */
   private AppMetadataStore getAppMetadataStore(StructuredTableContext context) {
-    return AppMetadataStore.create(context);
+    return AppMetadataStore.create(context, cConf);
   }
 
   /**
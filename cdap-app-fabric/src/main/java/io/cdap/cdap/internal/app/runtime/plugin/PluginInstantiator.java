@@ -50,6 +50,7 @@ import io.cdap.cdap.common.lang.CombineClassLoader;
 import io.cdap.cdap.common.lang.InstantiatorFactory;
 import io.cdap.cdap.common.lang.jar.BundleJarUtil;
 import io.cdap.cdap.common.lang.jar.ClassLoaderFolder;
+import io.cdap.cdap.common.lang.jar.ClassLoaderFolderCache;
 import io.cdap.cdap.common.utils.DirUtils;
 import io.cdap.cdap.internal.app.runtime.artifact.Artifacts;
 import io.cdap.cdap.internal.lang.FieldVisitor;
@@ -74,7 +75,9 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
@@ -110,6 +113,10 @@ public class PluginInstantiator implements Closeable {
   private final LoadingCache<ClassLoaderKey, PluginClassLoader> classLoaders;
   private final InstantiatorFactory instantiatorFactory;
   private final File tmpDir;
+  @Nullable
+  private final ClassLoaderFolderCache folderCache;
+  // Folders acquired from the folderCache, to be released on close
+  private final Queue<ClassLoaderFolder> cachedFolders;
   private final File pluginDir;
   private final ClassLoader parentClassLoader;
   private final boolean ownedParentClassLoader;
@@ -127,6 +134,8 @@ public class PluginInstantiator implements Closeable {
 
     this.pluginDir = pluginDir;
     this.tmpDir = DirUtils.createTempDir(tmpDir);
+    this.folderCache = ClassLoaderFolderCache.get(cConf);
+    this.cachedFolders = new ConcurrentLinkedQueue<>();
     this.classLoaders = CacheBuilder.newBuilder()
         .removalListener(new ClassLoaderRemovalListener())
         .build(new ClassLoaderCacheLoader());
@@ -516,6 +525,11 @@ public class PluginInstantiator implements Closeable {
   public void close() throws IOException {
     // Cleanup the ClassLoader cache and the temporary directory for the expanded plugin jar.
     classLoaders.invalidateAll();
+    ClassLoaderFolder folder = cachedFolders.poll();
+    while (folder != null) {
+      Closeables.closeQuietly(folder);
+      folder = cachedFolders.poll();
+    }
     if (ownedParentClassLoader) {
       Closeables.closeQuietly((Closeable) parentClassLoader);
     }
@@ -573,8 +587,14 @@ public class PluginInstantiator implements Closeable {
     @Override
     public PluginClassLoader load(ClassLoaderKey key) throws Exception {
       File artifact = new File(pluginDir, Artifacts.getFileName(key.artifact));
-      ClassLoaderFolder classLoaderFolder = BundleJarUtil.prepareClassLoaderFolder(
-          Locations.toLocation(artifact), () -> DirUtils.createTempDir(tmpDir));
+      ClassLoaderFolder classLoaderFolder;
+      if (folderCache == null) {
+        classLoaderFolder = BundleJarUtil.prepareClassLoaderFolder(
+            Locations.toLocation(artifact), () -> DirUtils.createTempDir(tmpDir));
+      } else {
+        classLoaderFolder = folderCache.getFolder(Locations.toLocation(artifact));
+        cachedFolders.add(classLoaderFolder);
+      }
 
       Iterator<ArtifactId> parentIter = key.parents.iterator();
       if (!parentIter.hasNext()) {
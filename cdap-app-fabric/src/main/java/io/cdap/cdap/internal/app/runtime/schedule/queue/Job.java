@@ -113,5 +113,12 @@ public interface Job {
    */
   @Nullable
   Long getDeleteTimeMillis();
+
+  /**
+   * @return the time at which the launch of this job should be retried, if it was not admitted
+   *     for launching, or null otherwise
+   */
+  @Nullable
+  Long getLaunchRetryTimeMillis();
 }
 
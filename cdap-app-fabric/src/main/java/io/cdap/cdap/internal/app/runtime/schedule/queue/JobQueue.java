@@ -21,6 +21,7 @@ import io.cdap.cdap.internal.app.runtime.schedule.ProgramScheduleRecord;
 import io.cdap.cdap.proto.Notification;
 import io.cdap.cdap.proto.id.ScheduleId;
 import java.io.IOException;
+import java.util.List;
 import javax.annotation.Nullable;
 
 /**
@@ -54,6 +55,16 @@ public interface JobQueue {
    */
   Job transitState(Job job, Job.State state) throws IllegalArgumentException, IOException;
 
+  /**
+   * Records the time at which the launch of a job in the {@link Job.State#PENDING_LAUNCH} state
+   * should be retried, so that the launch is retried even if the scheduler restarts before then.
+   *
+   * @param job the job that was not admitted for launching
+   * @param retryTimeMillis the time at which the launch should be retried
+   * @return the new Job
+   */
+  Job delayLaunch(Job job, long retryTimeMillis) throws IOException;
+
   /**
    * Adds the given notification to jobs for the given schedule.
    *
@@ -63,6 +74,17 @@ public interface JobQueue {
   void addNotification(ProgramScheduleRecord schedule, Notification notification)
       throws IOException;
 
+  /**
+   * Adds the given notifications to jobs for the given schedule, in order. This has the same
+   * effect as calling {@link #addNotification(ProgramScheduleRecord, Notification)} for each of the
+   * notifications, but reads the jobs of the schedule once and writes each affected job once.
+   *
+   * @param schedule the schedule for which jobs will be update
+   * @param notifications the new notifications to update the schedule jobs with
+   */
+  void addNotifications(ProgramScheduleRecord schedule, List<Notification> notifications)
+      throws IOException;
+
   /**
    * Marks all jobs associated with the given schedule Id for deletion, recording the time of
    * deletion.
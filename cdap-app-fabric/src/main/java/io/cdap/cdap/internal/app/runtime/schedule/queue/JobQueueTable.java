@@ -141,17 +141,37 @@ public class JobQueueTable implements JobQueue {
     return newJob;
   }
 
+  @Override
+  public Job delayLaunch(Job job, long retryTimeMillis) throws IOException {
+    Preconditions.checkArgument(job.getState() == Job.State.PENDING_LAUNCH,
+        "Only a job in state %s can be delayed, but job %s is in state %s.",
+        Job.State.PENDING_LAUNCH, job.getJobKey(), job.getState());
+    SimpleJob newJob = new SimpleJob(job.getSchedule(), job.getGenerationId(),
+        job.getCreationTime(), job.getNotifications(), job.getState(),
+        job.getScheduleLastUpdatedTime());
+    newJob.setLaunchRetryTime(retryTimeMillis);
+    writeJob(newJob);
+    return newJob;
+  }
+
   @Override
   public void addNotification(ProgramScheduleRecord record, Notification notification)
       throws IOException {
-    boolean jobExists = false;
+    addNotifications(record, Collections.singletonList(notification));
+  }
+
+  @Override
+  public void addNotifications(ProgramScheduleRecord record, List<Notification> notifications)
+      throws IOException {
     ProgramSchedule schedule = record.getSchedule();
 
     // Only add notifications for enabled schedules
-    if (record.getMeta().getStatus() != ProgramScheduleStatus.SCHEDULED) {
+    if (record.getMeta().getStatus() != ProgramScheduleStatus.SCHEDULED
+        || notifications.isEmpty()) {
       return;
     }
 
+    Job pendingJob = null;
     int nextGenerationId = 0;
     try (CloseableIterator<Job> jobs = getJobsForSchedule(schedule.getScheduleId())) {
       while (jobs.hasNext()) {
@@ -159,7 +179,7 @@ public class JobQueueTable implements JobQueue {
         if (job.getGenerationId() >= nextGenerationId) {
           nextGenerationId = job.getGenerationId() + 1;
         }
-        if (job.getState() == Job.State.PENDING_TRIGGER) {
+        if (pendingJob == null && job.getState() == Job.State.PENDING_TRIGGER) {
           // only update the job's notifications if it is in PENDING_TRIGGER, so as to avoid conflict with the
           // ConstraintCheckerService
           if (job.isToBeDeleted()) {
@@ -175,25 +195,36 @@ public class JobQueueTable implements JobQueue {
             // job has timed out; mark it obsolete
             writeJobObsolete(job, System.currentTimeMillis());
           } else {
-            jobExists = true;
-            addNotification(job, notification);
-            break;
+            pendingJob = job;
           }
         }
       }
     }
-    // if no job exists for the scheduleId, add a new job with the first notification
-    if (!jobExists) {
-      List<Notification> notifications = Collections.singletonList(notification);
-      Job.State jobState = isTriggerSatisfied(schedule, notifications)
-          ? Job.State.PENDING_CONSTRAINT : Job.State.PENDING_TRIGGER;
-      writeJob(new SimpleJob(schedule, nextGenerationId, System.currentTimeMillis(), notifications,
-          jobState,
-          record.getMeta().getLastUpdated()));
+
+    // Apply the notifications in memory and only write a job when its trigger is satisfied,
+    // since no more notifications can be added to it after that
+    for (Notification notification : notifications) {
+      if (pendingJob == null) {
+        // if no job exists for the scheduleId, add a new job with the first notification
+        List<Notification> jobNotifications = Collections.singletonList(notification);
+        Job.State jobState = isTriggerSatisfied(schedule, jobNotifications)
+            ? Job.State.PENDING_CONSTRAINT : Job.State.PENDING_TRIGGER;
+        pendingJob = new SimpleJob(schedule, nextGenerationId++, System.currentTimeMillis(),
+            jobNotifications, jobState, record.getMeta().getLastUpdated());
+      } else {
+        pendingJob = addNotification(pendingJob, notification);
+      }
+      if (pendingJob.getState() != Job.State.PENDING_TRIGGER) {
+        writeJob(pendingJob);
+        pendingJob = null;
+      }
+    }
+    if (pendingJob != null) {
+      writeJob(pendingJob);
     }
   }
 
-  private void addNotification(Job job, Notification notification) throws IOException {
+  private Job addNotification(Job job, Notification notification) {
     List<Notification> notifications = new ArrayList<>(job.getNotifications());
     notifications.add(notification);
 
@@ -202,10 +233,9 @@ public class JobQueueTable implements JobQueue {
       newState = Job.State.PENDING_CONSTRAINT;
       job.getState().checkTransition(newState);
     }
-    Job newJob = new SimpleJob(job.getSchedule(), job.getGenerationId(), job.getCreationTime(),
+    return new SimpleJob(job.getSchedule(), job.getGenerationId(), job.getCreationTime(),
         notifications, newState,
         job.getScheduleLastUpdatedTime());
-    writeJob(newJob);
   }
 
   private boolean isTriggerSatisfied(ProgramSchedule schedule, List<Notification> notifications) {
@@ -21,6 +21,7 @@ import com.google.common.collect.ImmutableList;
 import io.cdap.cdap.internal.app.runtime.schedule.ProgramSchedule;
 import io.cdap.cdap.proto.Notification;
 import java.util.List;
+import javax.annotation.Nullable;
 
 /**
  * Simple implementation of {@link Job}.
@@ -34,6 +35,7 @@ public final class SimpleJob implements Job {
   private final State state;
   private final long scheduleLastUpdatedTime;
   private Long deleteTimeMillis;
+  private Long launchRetryTimeMillis;
 
   /**
    * @param scheduleLastUpdatedTime the last modification time of the schedule, at the time this
@@ -103,14 +105,15 @@ public final class SimpleJob implements Job {
         && Objects.equal(this.notifications, that.notifications)
         && Objects.equal(this.state, that.state)
         && Objects.equal(this.scheduleLastUpdatedTime, that.scheduleLastUpdatedTime)
-        && Objects.equal(this.deleteTimeMillis, that.deleteTimeMillis);
+        && Objects.equal(this.deleteTimeMillis, that.deleteTimeMillis)
+        && Objects.equal(this.launchRetryTimeMillis, that.launchRetryTimeMillis);
   }
 
   @Override
   public int hashCode() {
     return Objects.hashCode(schedule, creationTime, jobKey, notifications, state,
         scheduleLastUpdatedTime,
-        deleteTimeMillis);
+        deleteTimeMillis, launchRetryTimeMillis);
   }
 
   @Override
@@ -123,6 +126,7 @@ public final class SimpleJob implements Job {
         .add("state", state)
         .add("scheduleLastUpdatedTime", scheduleLastUpdatedTime)
         .add("deleteTimeMillis", deleteTimeMillis)
+        .add("launchRetryTimeMillis", launchRetryTimeMillis)
         .toString();
   }
 
@@ -136,6 +140,16 @@ public final class SimpleJob implements Job {
     return deleteTimeMillis;
   }
 
+  @Nullable
+  @Override
+  public Long getLaunchRetryTimeMillis() {
+    return launchRetryTimeMillis;
+  }
+
+  void setLaunchRetryTime(long timestamp) {
+    this.launchRetryTimeMillis = timestamp;
+  }
+
   void setToBeDeleted(long timestamp) {
     this.deleteTimeMillis = timestamp;
   }
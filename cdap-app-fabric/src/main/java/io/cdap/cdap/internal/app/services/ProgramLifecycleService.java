@@ -27,6 +27,7 @@ import io.cdap.cdap.api.annotation.Name;
 import io.cdap.cdap.api.app.ApplicationSpecification;
 import io.cdap.cdap.api.artifact.ApplicationClass;
 import io.cdap.cdap.api.plugin.Plugin;
+import io.cdap.cdap.api.schedule.TriggeringScheduleInfo;
 import io.cdap.cdap.app.guice.ClusterMode;
 import io.cdap.cdap.app.program.ProgramDescriptor;
 import io.cdap.cdap.app.runtime.LogLevelUpdater;
@@ -57,6 +58,7 @@ import io.cdap.cdap.internal.app.runtime.ProgramOptionConstants;
 import io.cdap.cdap.internal.app.runtime.SimpleProgramOptions;
 import io.cdap.cdap.internal.app.runtime.SystemArguments;
 import io.cdap.cdap.internal.app.runtime.artifact.ArtifactRepository;
+import io.cdap.cdap.internal.app.runtime.schedule.trigger.TriggerInfos;
 import io.cdap.cdap.internal.app.store.AppMetadataStore;
 import io.cdap.cdap.internal.app.store.ApplicationMeta;
 import io.cdap.cdap.internal.app.store.RunRecordDetail;
@@ -82,6 +84,7 @@ import io.cdap.cdap.proto.id.ProfileId;
 import io.cdap.cdap.proto.id.ProgramId;
 import io.cdap.cdap.proto.id.ProgramReference;
 import io.cdap.cdap.proto.id.ProgramRunId;
+import io.cdap.cdap.proto.id.ScheduleId;
 import io.cdap.cdap.proto.profile.Profile;
 import io.cdap.cdap.proto.provisioner.ProvisionerDetail;
 import io.cdap.cdap.proto.security.AccessPermission;
@@ -107,6 +110,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -730,17 +734,32 @@ public class ProgramLifecycleService {
     checkCapability(programDescriptor);
 
     ProgramRunId programRunId = programId.run(runId);
+    // Fair queuing of launches is by namespace and profile. Launches triggered by schedules are kept
+    // in the launch queue by schedule and retried by the scheduler, while interactive launches are
+    // rejected right away if there is no capacity.
+    ProfileId profileId = SystemArguments.getProfileIdForProgram(programId, userArgs);
+    TriggeringScheduleInfo scheduleInfo = TriggerInfos.getTriggeringScheduleInfo(sysArgs);
+    ScheduleId scheduleId = scheduleInfo == null
+        ? null : programId.getParent().schedule(scheduleInfo.getName());
     RunRecordMonitorService.Counter counter = runRecordMonitorService.addRequestAndGetCount(
-        programRunId);
+        programRunId, programId.getNamespace() + ":" + profileId.getScopedName(), scheduleId);
 
     boolean done = false;
     try {
+      if (counter.getQueuePosition() > 0) {
+        // The scheduler retries the launch, hence the run is not recorded as rejected
+        String msg = String.format("Program %s is waiting in the launch queue%s", programId,
+            getLaunchQueueMessage(counter));
+        LOG.debug(msg);
+        throw new TooManyRequestsException(msg);
+      }
+
       if (maxConcurrentRuns >= 0
           && maxConcurrentRuns < counter.getLaunchingCount() + counter.getRunningCount()) {
         String msg =
             String.format(
-                "Program %s cannot start because the maximum of %d outstanding runs is allowed",
-                programId, maxConcurrentRuns);
+                "Program %s cannot start because the maximum of %d outstanding runs is allowed%s",
+                programId, maxConcurrentRuns, getLaunchQueueMessage(counter));
         LOG.info(msg);
 
         TooManyRequestsException e = new TooManyRequestsException(msg);
@@ -750,7 +769,8 @@ public class ProgramLifecycleService {
 
       if (maxConcurrentLaunching >= 0 && maxConcurrentLaunching < counter.getLaunchingCount()) {
         String msg = String.format("Program %s cannot start because the maximum of %d concurrent "
-            + "provisioning/starting runs is allowed", programId, maxConcurrentLaunching);
+            + "provisioning/starting runs is allowed%s", programId, maxConcurrentLaunching,
+            getLaunchQueueMessage(counter));
         LOG.info(msg);
 
         TooManyRequestsException e = new TooManyRequestsException(msg);
@@ -772,6 +792,24 @@ public class ProgramLifecycleService {
     return runId;
   }
 
+  /**
+   * Returns the launch queue position and estimated wait time of a queued launch, or the number of
+   * queued launches and the estimated wait time for a launch slot of a rejected launch.
+   */
+  private String getLaunchQueueMessage(RunRecordMonitorService.Counter counter) {
+    String msg = counter.getQueuePosition() > 0
+        ? String.format(" at position %d of %d", counter.getQueuePosition(),
+            counter.getQueuedCount())
+        : String.format(", with %d launches waiting in the launch queue",
+            counter.getQueuedCount());
+    if (counter.getEstimatedWaitMillis() < 0) {
+      return msg;
+    }
+    return String.format("%s %s an estimated wait of %d seconds", msg,
+        counter.getQueuePosition() > 0 ? "with" : "and",
+        TimeUnit.MILLISECONDS.toSeconds(counter.getEstimatedWaitMillis()));
+  }
+
   @VisibleForTesting
   ProgramOptions createProgramOptions(ProgramId programId, Map<String, String> userArgs,
       Map<String, String> sysArgs,
@@ -144,12 +144,14 @@ public class ProgramNotificationSubscriberService extends AbstractIdleService {
     List<Service> children = new ArrayList<>();
     String topicPrefix = cConf.get(Constants.AppFabric.PROGRAM_STATUS_EVENT_TOPIC);
     int numPartitions = cConf.getInt(Constants.AppFabric.PROGRAM_STATUS_EVENT_NUM_PARTITIONS);
-    // Add bare one - we always listen to it
-    children.add(createChildService("program.status", topicPrefix));
+    // Add bare one - we always listen to it. It is also the only one that recovers active runs on
+    // start up, since the recovery doesn't depend on the topic.
+    children.add(createChildService("program.status", topicPrefix, true));
     // If number of partitions is more than 1 - create partitioned services
     if (numPartitions > 1) {
       IntStream.range(0, numPartitions)
-          .forEach(i -> children.add(createChildService("program.status." + i, topicPrefix + i)));
+          .forEach(i -> children.add(
+              createChildService("program.status." + i, topicPrefix + i, false)));
     }
     delegate = new CompositeService(children);
 
@@ -167,7 +169,7 @@ public class ProgramNotificationSubscriberService extends AbstractIdleService {
   }
 
   private ProgramNotificationSingleTopicSubscriberService createChildService(
-      String name, String topicName) {
+      String name, String topicName, boolean recoverActiveRuns) {
     return new ProgramNotificationSingleTopicSubscriberService(
         messagingService,
         cConf,
@@ -181,6 +183,7 @@ public class ProgramNotificationSubscriberService extends AbstractIdleService {
         runRecordMonitorService,
         name,
         topicName,
+        recoverActiveRuns,
         programCompletionNotifiers);
   }
 }
@@ -216,13 +219,16 @@ class ProgramNotificationSingleTopicSubscriberService
   private final ProgramLifecycleService programLifecycleService;
   private final ProvisioningService provisioningService;
   private final ProgramStateWriter programStateWriter;
-  private final Queue<Runnable> tasks;
+  private final Queue<ImmutablePair<String, Runnable>> tasks;
   private final MetricsCollectionService metricsCollectionService;
   private Set<ProgramCompletionNotifier> programCompletionNotifiers;
   private final CConfiguration cConf;
   private final Store store;
   private final RunRecordMonitorService runRecordMonitorService;
   private final boolean checkTxSeparation;
+  private final boolean recoverActiveRuns;
+  private final int taskThreads;
+  private ShardedTaskExecutor taskExecutor;
 
   ProgramNotificationSingleTopicSubscriberService(
       MessagingService messagingService,
@@ -237,6 +243,7 @@ class ProgramNotificationSingleTopicSubscriberService
       RunRecordMonitorService runRecordMonitorService,
       String name,
       String topicName,
+      boolean recoverActiveRuns,
       Set<ProgramCompletionNotifier> programCompletionNotifiers) {
     super(
         name,
@@ -260,6 +267,8 @@ class ProgramNotificationSingleTopicSubscriberService
     this.runRecordMonitorService = runRecordMonitorService;
     this.cConf = cConf;
     this.store = store;
+    this.recoverActiveRuns = recoverActiveRuns;
+    this.taskThreads = cConf.getInt(Constants.AppFabric.PROGRAM_STATUS_EVENT_TASK_THREADS, 0);
 
     // If number of partitions equals 1, DB deadlock cannot happen as a result of concurrent
     // modifications to
@@ -273,6 +282,16 @@ class ProgramNotificationSingleTopicSubscriberService
   protected void doStartUp() throws Exception {
     super.doStartUp();
 
+    if (taskThreads > 0) {
+      taskExecutor = new ShardedTaskExecutor(getServiceName(), taskThreads,
+          RetryStrategies.fromConfiguration(cConf,
+              Constants.AppFabric.PROGRAM_STATUS_EVENT_TASK_RETRY_PREFIX));
+    }
+
+    if (!recoverActiveRuns) {
+      return;
+    }
+
     int batchSize = cConf.getInt(Constants.RuntimeMonitor.INIT_BATCH_SIZE);
     RetryStrategy retryStrategy =
         RetryStrategies.fromConfiguration(cConf, Constants.Service.RUNTIME_MONITOR_RETRY_PREFIX);
@@ -316,6 +335,18 @@ class ProgramNotificationSingleTopicSubscriberService
         e -> true);
   }
 
+  @Override
+  protected void doShutdown() throws Exception {
+    super.doShutdown();
+    if (taskExecutor != null) {
+      // The messages of the queued tasks are already committed, so give them time to run. Runs whose
+      // tasks are discarded are recovered as active runs on the next start.
+      taskExecutor.shutdown(
+          cConf.getLong(Constants.AppFabric.PROGRAM_STATUS_EVENT_TASK_SHUTDOWN_TIMEOUT_SECONDS, 60L),
+          TimeUnit.SECONDS);
+    }
+  }
+
   @Nullable
   @Override
   protected String loadMessageId(StructuredTableContext context)
@@ -354,7 +385,7 @@ class ProgramNotificationSingleTopicSubscriberService
       Iterator<ImmutablePair<String, Notification>> messages)
       throws Exception {
     ProgramHeartbeatTable heartbeatDataset = new ProgramHeartbeatTable(structuredTableContext);
-    List<Runnable> tasks = new LinkedList<>();
+    List<ImmutablePair<String, Runnable>> tasks = new LinkedList<>();
     while (messages.hasNext()) {
       ImmutablePair<String, Notification> messagePair = messages.next();
       List<Runnable> runnables =
@@ -363,7 +394,9 @@ class ProgramNotificationSingleTopicSubscriberService
               messagePair.getFirst().getBytes(StandardCharsets.UTF_8),
               messagePair.getSecond(),
               structuredTableContext);
-      tasks.addAll(runnables);
+      String programRun =
+          messagePair.getSecond().getProperties().get(ProgramOptionConstants.PROGRAM_RUN_ID);
+      runnables.forEach(runnable -> tasks.add(ImmutablePair.of(programRun, runnable)));
     }
 
     // Only add post processing tasks if all messages are processed. If there is exception in the
@@ -372,11 +405,21 @@ class ProgramNotificationSingleTopicSubscriberService
     this.tasks.addAll(tasks);
   }
 
+  /**
+   * Runs the tasks of the processed messages. If task threads are configured, tasks are sharded by
+   * program run to the task executor, so that fetching and processing the next batch of messages
+   * doesn't wait for them, while tasks of the same run still execute in order. Failed tasks are
+   * retried before later tasks of the same run.
+   */
   @Override
   protected void postProcess() {
-    Runnable task = tasks.poll();
+    ImmutablePair<String, Runnable> task = tasks.poll();
     while (task != null) {
-      task.run();
+      if (taskExecutor == null) {
+        task.getSecond().run();
+      } else {
+        taskExecutor.execute(task.getFirst() == null ? "" : task.getFirst(), task.getSecond());
+      }
       task = tasks.poll();
     }
   }
@@ -399,7 +442,7 @@ class ProgramNotificationSingleTopicSubscriberService
       Notification notification,
       StructuredTableContext context)
       throws Exception {
-    AppMetadataStore appMetadataStore = AppMetadataStore.create(context);
+    AppMetadataStore appMetadataStore = AppMetadataStore.create(context, cConf);
     Map<String, String> properties = notification.getProperties();
     // Required parameters
     String programRun = properties.get(ProgramOptionConstants.PROGRAM_RUN_ID);
@@ -1183,7 +1226,7 @@ class ProgramNotificationSingleTopicSubscriberService
 
   /** Returns an instance of {@link AppMetadataStore}. */
   private AppMetadataStore getAppMetadataStore(StructuredTableContext context) {
-    return AppMetadataStore.create(context);
+    return AppMetadataStore.create(context, cConf);
   }
 
   private Map<String, String> getAdditionalTagsForProgramMetrics(
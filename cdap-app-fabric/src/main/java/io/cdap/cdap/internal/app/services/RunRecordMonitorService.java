@@ -16,6 +16,7 @@
 
 package io.cdap.cdap.internal.app.services;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.util.concurrent.AbstractScheduledService;
 import com.google.inject.Inject;
 import io.cdap.cdap.api.metrics.MetricsCollectionService;
@@ -26,14 +27,19 @@ import io.cdap.cdap.common.conf.Constants;
 import io.cdap.cdap.proto.ProgramRunStatus;
 import io.cdap.cdap.proto.ProgramType;
 import io.cdap.cdap.proto.id.ProgramRunId;
+import io.cdap.cdap.proto.id.ScheduleId;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Executors;
 import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
 import org.apache.twill.common.Threads;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -42,10 +48,20 @@ import org.slf4j.LoggerFactory;
  * Maintain and return total number of launching and running run-records. This class is used by
  * flow-control mechanism for launch requests. It also has a cleanup mechanism to automatically
  * remove old (i.e., configurable) entries from the counter as a safe-guard mechanism.
+ *
+ * <p>Launches triggered by schedules that exceed the flow control limits are recorded in a launch
+ * queue by their schedule and rejected without waiting, so that the scheduler can retry them later.
+ * Queued schedules are admitted round robin across the queue keys (namespace and profile) and FIFO
+ * within a key, so that a burst of launches from one namespace doesn't starve the others.
+ * Interactive launches never queue and are admitted before queued ones as long as there is
+ * capacity.</p>
  */
 public class RunRecordMonitorService extends AbstractScheduledService {
 
   private static final Logger LOG = LoggerFactory.getLogger(RunRecordMonitorService.class);
+  // A queued schedule that is not retried within this many retry delays is removed from the queue,
+  // since its job might have timed out or been deleted
+  private static final int WAITING_EXPIRY_RETRY_DELAYS = 6;
 
   /**
    * Contains ProgramRunIds of runs that have been accepted, but have not been added to metadata
@@ -59,6 +75,16 @@ public class RunRecordMonitorService extends AbstractScheduledService {
   private final CConfiguration cConf;
   private final MetricsCollectionService metricsCollectionService;
   private final int maxConcurrentRuns;
+  private final int maxConcurrentLaunching;
+  private final long waitingExpiryMillis;
+
+  /**
+   * Schedules waiting for launch capacity with the time they were last retried, by queue key. The
+   * order of the keys is the round robin order. It also guards the admission of launch requests.
+   */
+  private final LinkedHashMap<String, LinkedHashMap<ScheduleId, Long>> waitingQueues;
+  // Moving average of the time runs stay in launching state, for estimating the wait time
+  private volatile long averageLaunchMillis;
   private ScheduledExecutorService executor;
 
   @Inject
@@ -75,6 +101,10 @@ public class RunRecordMonitorService extends AbstractScheduledService {
             128, Comparator.comparingLong(o -> RunIds.getTime(o.getRun(), TimeUnit.MILLISECONDS)));
     this.ageThresholdSec = cConf.getLong(Constants.AppFabric.MONITOR_RECORD_AGE_THRESHOLD_SECONDS);
     this.maxConcurrentRuns = cConf.getInt(Constants.AppFabric.MAX_CONCURRENT_RUNS);
+    this.maxConcurrentLaunching = cConf.getInt(Constants.AppFabric.MAX_CONCURRENT_LAUNCHING);
+    this.waitingExpiryMillis = WAITING_EXPIRY_RETRY_DELAYS * TimeUnit.SECONDS.toMillis(
+        cConf.getLong(Constants.AppFabric.LAUNCH_QUEUE_RETRY_DELAY_SECONDS));
+    this.waitingQueues = new LinkedHashMap<>();
   }
 
   @Override
@@ -116,20 +146,54 @@ public class RunRecordMonitorService extends AbstractScheduledService {
    * @return total number of launching and running program runs.
    */
   public Counter addRequestAndGetCount(ProgramRunId programRunId) throws Exception {
+    return addRequestAndGetCount(programRunId, programRunId.getNamespace(), null);
+  }
+
+  /**
+   * Add a new in-flight launch request and return total number of launching and running programs.
+   * A request triggered by a schedule is only added if its schedule is within the launch capacity
+   * in the launch queue. Otherwise, the schedule is kept in the launch queue, the request is not
+   * added and the returned {@link Counter} carries the queue position, so that the caller can reject
+   * the request and retry it later. An interactive request is always added. This method never
+   * blocks.
+   *
+   * @param programRunId run id associated with the launch request
+   * @param queueKey the key for fair queuing among scheduled requests
+   * @param scheduleId the schedule that triggered the request, or {@code null} for an interactive
+   *     request
+   * @return total number of launching and running program runs.
+   */
+  public Counter addRequestAndGetCount(ProgramRunId programRunId, String queueKey,
+      @Nullable ScheduleId scheduleId) throws Exception {
     if (RunIds.getTime(programRunId.getRun(), TimeUnit.MILLISECONDS) == -1) {
       throw new Exception("None time-based UUIDs are not supported");
     }
 
     int launchingCount;
+    int queuePosition = 0;
+    int queuedCount;
 
-    launchingCount = addRequest(programRunId);
+    synchronized (waitingQueues) {
+      if (scheduleId != null) {
+        queuePosition = admitWaiting(scheduleId, queueKey);
+      }
+      launchingCount = queuePosition > 0 ? launchingQueue.size() : addRequest(programRunId);
+      queuedCount = getQueuedCount();
+    }
     int runningCount = getProgramsRunningCount();
 
-    LOG.info(
-        "Counter has {} concurrent launching and {} running programs.",
-        launchingCount,
-        runningCount);
-    return new Counter(launchingCount, runningCount);
+    if (queuePosition > 0) {
+      LOG.debug("Request with runId {} is at position {} of the launch queue.", programRunId,
+          queuePosition);
+    } else {
+      LOG.info(
+          "Counter has {} concurrent launching and {} running programs.",
+          launchingCount,
+          runningCount);
+    }
+    // A request that is not queued waits for the next launch slot if it is rejected
+    return new Counter(launchingCount, runningCount, queuePosition, queuedCount,
+        estimateWaitMillis(Math.max(1, queuePosition)));
   }
 
   /**
@@ -164,6 +228,7 @@ public class RunRecordMonitorService extends AbstractScheduledService {
           programRunId,
           launchingQueue.size());
       emitMetrics(Constants.Metrics.FlowControl.LAUNCHING_COUNT, launchingQueue.size());
+      updateAverageLaunchTime(programRunId);
     }
 
     if (emitRunningChange) {
@@ -171,6 +236,130 @@ public class RunRecordMonitorService extends AbstractScheduledService {
     }
   }
 
+  /**
+   * Returns the number of schedules waiting in the launch queue.
+   */
+  @VisibleForTesting
+  int getQueuedCount() {
+    synchronized (waitingQueues) {
+      return waitingQueues.values().stream().mapToInt(Map::size).sum();
+    }
+  }
+
+  /**
+   * Records a retry of the given schedule in the launch queue and admits it if its position is
+   * within the launch capacity. Must be called with the lock on {@link #waitingQueues}.
+   *
+   * @return 0 if the schedule is admitted, otherwise its 1-based position in the launch queue
+   */
+  private int admitWaiting(ScheduleId scheduleId, String queueKey) {
+    long now = System.currentTimeMillis();
+    boolean changed = expireWaiting(now);
+    LinkedHashMap<ScheduleId, Long> queue =
+        waitingQueues.computeIfAbsent(queueKey, k -> new LinkedHashMap<>());
+    // Updating the retry time of a waiting schedule keeps its position
+    changed |= queue.put(scheduleId, now) == null;
+
+    int position = getQueuePosition(scheduleId, queueKey);
+    if (position <= getLaunchCapacity()) {
+      queue.remove(scheduleId);
+      waitingQueues.remove(queueKey);
+      if (!queue.isEmpty()) {
+        // Move the key to the end for round robin
+        waitingQueues.put(queueKey, queue);
+      }
+      position = 0;
+      changed = true;
+    }
+    if (changed) {
+      emitMetrics(Constants.Metrics.FlowControl.QUEUED_COUNT, getQueuedCount());
+    }
+    return position;
+  }
+
+  /**
+   * Removes schedules that were not retried in time from the launch queue.
+   *
+   * @return whether any schedule was removed
+   */
+  private boolean expireWaiting(long now) {
+    boolean removed = false;
+    Iterator<LinkedHashMap<ScheduleId, Long>> queues = waitingQueues.values().iterator();
+    while (queues.hasNext()) {
+      LinkedHashMap<ScheduleId, Long> queue = queues.next();
+      removed |= queue.values().removeIf(retryTime -> retryTime + waitingExpiryMillis < now);
+      if (queue.isEmpty()) {
+        queues.remove();
+      }
+    }
+    return removed;
+  }
+
+  /**
+   * Returns the 1-based position of a waiting schedule in the admission order, where each round
+   * admits one schedule from every key in order.
+   */
+  private int getQueuePosition(ScheduleId scheduleId, String queueKey) {
+    int index = 0;
+    for (ScheduleId waiting : waitingQueues.get(queueKey).keySet()) {
+      if (waiting.equals(scheduleId)) {
+        break;
+      }
+      index++;
+    }
+    int position = 0;
+    boolean beforeKey = true;
+    for (Map.Entry<String, LinkedHashMap<ScheduleId, Long>> queue : waitingQueues.entrySet()) {
+      if (queue.getKey().equals(queueKey)) {
+        beforeKey = false;
+        continue;
+      }
+      position += Math.min(queue.getValue().size(), beforeKey ? index + 1 : index);
+    }
+    return position + index + 1;
+  }
+
+  /**
+   * Returns the number of launch requests that can be added without exceeding the flow control
+   * limits.
+   */
+  private int getLaunchCapacity() {
+    int launchingCount = launchingQueue.size();
+    int capacity = Integer.MAX_VALUE;
+    if (maxConcurrentLaunching >= 0) {
+      capacity = maxConcurrentLaunching - launchingCount;
+    }
+    if (maxConcurrentRuns >= 0) {
+      capacity = Math.min(capacity,
+          maxConcurrentRuns - launchingCount - getProgramsRunningCount());
+    }
+    return capacity;
+  }
+
+  private void updateAverageLaunchTime(ProgramRunId programRunId) {
+    long startTime = RunIds.getTime(programRunId.getRun(), TimeUnit.MILLISECONDS);
+    long launchMillis = System.currentTimeMillis() - startTime;
+    if (startTime < 0 || launchMillis < 0) {
+      return;
+    }
+    long average = averageLaunchMillis;
+    averageLaunchMillis = average == 0 ? launchMillis : (average * 4 + launchMillis) / 5;
+  }
+
+  /**
+   * Returns the estimated wait time for a request at the given queue position, or {@code -1} if
+   * unknown.
+   */
+  private long estimateWaitMillis(int queuePosition) {
+    long average = averageLaunchMillis;
+    if (queuePosition <= 0 || average <= 0) {
+      return -1L;
+    }
+    // Launch slots are released at about the rate of launches finishing
+    int slots = maxConcurrentLaunching > 0 ? maxConcurrentLaunching : 1;
+    return (queuePosition + slots - 1) / slots * average;
+  }
+
   private void emitMetrics(String metricName, long value) {
     metricsCollectionService.getContext(Collections.emptyMap()).gauge(metricName, value);
   }
@@ -256,9 +445,30 @@ public class RunRecordMonitorService extends AbstractScheduledService {
      */
     private final int runningCount;
 
-    Counter(int launchingCount, int runningCount) {
+    /**
+     * Position of the program in the launch queue if the request was not added, or 0 if it was
+     * added.
+     */
+    private final int queuePosition;
+
+    /**
+     * Total number of schedules waiting in the launch queue.
+     */
+    private final int queuedCount;
+
+    /**
+     * Estimated wait time in milliseconds at the queue position, or for the next launch slot if the
+     * request was added, or -1 if unknown.
+     */
+    private final long estimatedWaitMillis;
+
+    Counter(int launchingCount, int runningCount, int queuePosition, int queuedCount,
+        long estimatedWaitMillis) {
       this.launchingCount = launchingCount;
       this.runningCount = runningCount;
+      this.queuePosition = queuePosition;
+      this.queuedCount = queuedCount;
+      this.estimatedWaitMillis = estimatedWaitMillis;
     }
 
     public int getLaunchingCount() {
@@ -268,5 +478,17 @@ public class RunRecordMonitorService extends AbstractScheduledService {
     public int getRunningCount() {
       return runningCount;
     }
+
+    public int getQueuePosition() {
+      return queuePosition;
+    }
+
+    public int getQueuedCount() {
+      return queuedCount;
+    }
+
+    public long getEstimatedWaitMillis() {
+      return estimatedWaitMillis;
+    }
   }
 }
@@ -0,0 +1,111 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.internal.app.services;
+
+import io.cdap.cdap.common.service.Retries;
+import io.cdap.cdap.common.service.RetryStrategy;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.apache.twill.common.Threads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executes tasks on a fixed number of single threaded executors, sharded by a key, so that tasks of
+ * the same key are executed in submission order. A task that fails with a
+ * {@link io.cdap.cdap.api.retry.RetryableException}, such as a
+ * {@link io.cdap.cdap.common.ServiceUnavailableException}, is retried with the given
+ * {@link RetryStrategy} before the next task of its shard runs. Other failures are not retried,
+ * since tasks such as starting or provisioning a program run are not idempotent.
+ */
+final class ShardedTaskExecutor {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ShardedTaskExecutor.class);
+  private static final long SHUTDOWN_LOG_INTERVAL_SECONDS = 30L;
+
+  private final String name;
+  private final RetryStrategy retryStrategy;
+  private final List<ExecutorService> executors;
+
+  ShardedTaskExecutor(String name, int shards, RetryStrategy retryStrategy) {
+    this.name = name;
+    this.retryStrategy = retryStrategy;
+    this.executors = IntStream.range(0, shards)
+        .mapToObj(i -> Executors.newSingleThreadExecutor(
+            Threads.createDaemonThreadFactory(name + "-task-" + i)))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Submits a task to the shard of the given key.
+   */
+  void execute(String key, Runnable task) {
+    executors.get(Math.floorMod(key.hashCode(), executors.size())).execute(() -> {
+      try {
+        Retries.runWithRetries(task::run, retryStrategy, Retries.DEFAULT_PREDICATE);
+      } catch (Exception e) {
+        LOG.error("Failed to run task of {} for {} after retries", name, key, e);
+      }
+    });
+  }
+
+  /**
+   * Stops accepting tasks and waits up to the given timeout for all submitted tasks to finish,
+   * including the ones that are still queued. Tasks that haven't finished by then are interrupted
+   * and the queued ones are discarded.
+   *
+   * @return {@code true} if all tasks finished within the timeout
+   * @throws InterruptedException if interrupted while waiting, in which case the running tasks are
+   *     interrupted and the queued ones are discarded
+   */
+  boolean shutdown(long timeout, TimeUnit unit) throws InterruptedException {
+    executors.forEach(ExecutorService::shutdown);
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    try {
+      for (ExecutorService executor : executors) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0
+            && !executor.awaitTermination(
+                Math.min(remaining, TimeUnit.SECONDS.toNanos(SHUTDOWN_LOG_INTERVAL_SECONDS)),
+                TimeUnit.NANOSECONDS)) {
+          LOG.info("Waiting for the tasks of {} to finish", name);
+        }
+      }
+    } catch (InterruptedException e) {
+      executors.forEach(ExecutorService::shutdownNow);
+      throw e;
+    }
+
+    int discarded = 0;
+    boolean terminated = true;
+    for (ExecutorService executor : executors) {
+      if (!executor.isTerminated()) {
+        terminated = false;
+        discarded += executor.shutdownNow().size();
+      }
+    }
+    if (!terminated) {
+      LOG.warn("Tasks of {} did not finish within {} {}. Interrupted the running tasks and "
+          + "discarded {} queued tasks", name, timeout, unit.name().toLowerCase(), discarded);
+    }
+    return terminated;
+  }
+}
@@ -31,12 +31,14 @@ import io.cdap.cdap.api.artifact.ArtifactId;
 import io.cdap.cdap.api.common.Bytes;
 import io.cdap.cdap.api.dataset.lib.AbstractCloseableIterator;
 import io.cdap.cdap.api.dataset.lib.CloseableIterator;
+import io.cdap.cdap.api.metrics.MetricsCollector;
 import io.cdap.cdap.api.workflow.WorkflowToken;
 import io.cdap.cdap.app.store.ApplicationFilter;
 import io.cdap.cdap.app.store.ScanApplicationsRequest;
 import io.cdap.cdap.common.BadRequestException;
 import io.cdap.cdap.common.ConflictException;
 import io.cdap.cdap.common.app.RunIds;
+import io.cdap.cdap.common.conf.CConfiguration;
 import io.cdap.cdap.common.conf.Constants;
 import io.cdap.cdap.internal.app.ApplicationSpecificationAdapter;
 import io.cdap.cdap.internal.app.runtime.ProgramOptionConstants;
@@ -136,6 +138,7 @@ public class AppMetadataStore {
   private static final String TYPE_COUNT = "runRecordCount";
   private static final String TYPE_RUN_RECORD_UPGRADE_COUNT = "runRecordUpgradeCount";
   private static final String SMALLEST_POSSIBLE_STRING = "";
+  private static final ApplicationMetaCache APPLICATION_META_CACHE = new ApplicationMetaCache();
 
   private static final Map<ProgramRunStatus, String> STATUS_TYPE_MAP = ImmutableMap.<ProgramRunStatus, String>builder()
       .put(ProgramRunStatus.PENDING, TYPE_RUN_RECORD_ACTIVE)
@@ -150,6 +153,9 @@ public class AppMetadataStore {
       .build();
 
   private final StructuredTableContext context;
+  @Nullable
+  private final MetricsCollector cacheMetricsCollector;
+  private final boolean binaryRunRecords;
   private StructuredTable applicationSpecificationTable;
   private StructuredTable applicationEditTable;
   private StructuredTable workflowNodeStateTable;
@@ -162,11 +168,43 @@ public class AppMetadataStore {
    * Static method for creating an instance of {@link AppMetadataStore}.
    */
   public static AppMetadataStore create(StructuredTableContext context) {
-    return new AppMetadataStore(context);
+    return new AppMetadataStore(context, null, false);
+  }
+
+  /**
+   * Static method for creating an instance of {@link AppMetadataStore} that writes run records in
+   * the format configured by {@link Constants.AppFabric#RUN_RECORDS_BINARY_FORMAT_ENABLED}.
+   */
+  public static AppMetadataStore create(StructuredTableContext context, CConfiguration cConf) {
+    return create(context, null, cConf);
+  }
+
+  /**
+   * Static method for creating an instance of {@link AppMetadataStore} that emits hit and miss
+   * metrics of the process wide cache of deserialized application specifications to the given
+   * {@link MetricsCollector}.
+   */
+  public static AppMetadataStore create(StructuredTableContext context,
+      @Nullable MetricsCollector cacheMetricsCollector) {
+    return new AppMetadataStore(context, cacheMetricsCollector, false);
+  }
+
+  /**
+   * Static method for creating an instance of {@link AppMetadataStore} that emits cache metrics to
+   * the given {@link MetricsCollector} and writes run records in the format configured by
+   * {@link Constants.AppFabric#RUN_RECORDS_BINARY_FORMAT_ENABLED}.
+   */
+  public static AppMetadataStore create(StructuredTableContext context,
+      @Nullable MetricsCollector cacheMetricsCollector, CConfiguration cConf) {
+    return new AppMetadataStore(context, cacheMetricsCollector,
+        cConf.getBoolean(Constants.AppFabric.RUN_RECORDS_BINARY_FORMAT_ENABLED, false));
   }
 
-  private AppMetadataStore(StructuredTableContext context) {
+  private AppMetadataStore(StructuredTableContext context,
+      @Nullable MetricsCollector cacheMetricsCollector, boolean binaryRunRecords) {
     this.context = context;
+    this.cacheMetricsCollector = cacheMetricsCollector;
+    this.binaryRunRecords = binaryRunRecords;
   }
 
   private StructuredTable getApplicationSpecificationTable() {
@@ -347,7 +385,7 @@ public class AppMetadataStore {
       boolean keepScanning = true;
       while (iterator.hasNext() && keepScanning && limit > 0) {
         StructuredRow row = iterator.next();
-        AppScanEntry scanEntry = new AppScanEntry(row);
+        AppScanEntry scanEntry = new AppScanEntry(row, cacheMetricsCollector);
         if (scanEntryPredicate.test(scanEntry)) {
           keepScanning = func.apply(scanEntry);
           limit--;
@@ -622,7 +660,8 @@ public class AppMetadataStore {
       fields.add(Fields.booleanField(StoreDefinition.AppMetadataStore.LATEST_FIELD, false));
       getApplicationSpecificationTable().upsert(fields);
     }
-    // Add a new version of the app
+    // Add a new version of the app and drop cached entries of the versions it supersedes
+    APPLICATION_META_CACHE.invalidate(id.getNamespace(), id.getApplication());
     writeApplication(id.getNamespace(), id.getApplication(), id.getVersion(), appMeta.getSpec(),
         appMeta.getChange(),
         appMeta.getSourceControlMeta());
@@ -675,16 +714,19 @@ public class AppMetadataStore {
       throws IOException {
     List<Field<?>> fields = getApplicationPrimaryKeys(namespaceId, appId, versionId);
     getApplicationSpecificationTable().delete(fields);
+    APPLICATION_META_CACHE.invalidate(new ApplicationId(namespaceId, appId, versionId));
   }
 
   public void deleteApplication(ApplicationReference appRef) throws IOException {
     getApplicationEditTable().delete(getNamespaceApplicationKeys(appRef));
     getApplicationSpecificationTable().deleteAll(getNamespaceAndApplicationRange(appRef));
+    APPLICATION_META_CACHE.invalidate(appRef.getNamespace(), appRef.getApplication());
   }
 
   public void deleteApplications(String namespaceId)
       throws IOException {
     getApplicationSpecificationTable().deleteAll(getNamespaceRange(namespaceId));
+    APPLICATION_META_CACHE.invalidate(namespaceId);
   }
 
   public void updateAppSpec(ApplicationId appId, ApplicationSpecification spec) throws IOException {
@@ -704,6 +746,7 @@ public class AppMetadataStore {
     ApplicationMeta updated = new ApplicationMeta(existing.getId(), spec, null);
     updateApplicationSerialized(appId.getNamespace(), appId.getApplication(), appId.getVersion(),
         GSON.toJson(updated));
+    APPLICATION_META_CACHE.invalidate(appId);
   }
 
   /**
@@ -779,10 +822,8 @@ public class AppMetadataStore {
       // Update the parent Workflow run record by adding node id and program run id in the properties
       Map<String, String> properties = new HashMap<>(record.getProperties());
       properties.put(workflowNodeId, programRunId.getRun());
-      writeToStructuredTableWithPrimaryKeys(
-          runRecordFields,
-          RunRecordDetail.builder(record).setProperties(properties).setSourceId(sourceId).build(),
-          getRunRecordsTable(), StoreDefinition.AppMetadataStore.RUN_RECORD_DATA);
+      writeRunRecord(runRecordFields,
+          RunRecordDetail.builder(record).setProperties(properties).setSourceId(sourceId).build());
     }
   }
 
@@ -912,8 +953,7 @@ public class AppMetadataStore {
         .setCluster(cluster)
         .setSourceId(sourceId)
         .build();
-    writeToStructuredTableWithPrimaryKeys(
-        key, meta, getRunRecordsTable(), StoreDefinition.AppMetadataStore.RUN_RECORD_DATA);
+    writeRunRecord(key, meta);
     LOG.trace("Recorded {} for program {}", ProgramRunClusterStatus.PROVISIONED,
         existing.getProgramRunId());
     return meta;
@@ -957,8 +997,7 @@ public class AppMetadataStore {
         .setCluster(cluster)
         .setSourceId(sourceId)
         .build();
-    writeToStructuredTableWithPrimaryKeys(
-        key, meta, getRunRecordsTable(), StoreDefinition.AppMetadataStore.RUN_RECORD_DATA);
+    writeRunRecord(key, meta);
     LOG.trace("Recorded {} for program {}", ProgramRunClusterStatus.DEPROVISIONING,
         existing.getProgramRunId());
     return meta;
@@ -1003,8 +1042,7 @@ public class AppMetadataStore {
         .setCluster(cluster)
         .setSourceId(sourceId)
         .build();
-    writeToStructuredTableWithPrimaryKeys(
-        key, meta, getRunRecordsTable(), StoreDefinition.AppMetadataStore.RUN_RECORD_DATA);
+    writeRunRecord(key, meta);
     LOG.trace("Recorded {} for program {}", ProgramRunClusterStatus.DEPROVISIONED,
         existing.getProgramRunId());
     return meta;
@@ -1048,8 +1086,7 @@ public class AppMetadataStore {
         .setCluster(cluster)
         .setSourceId(sourceId)
         .build();
-    writeToStructuredTableWithPrimaryKeys(
-        key, meta, getRunRecordsTable(), StoreDefinition.AppMetadataStore.RUN_RECORD_DATA);
+    writeRunRecord(key, meta);
     LOG.trace("Recorded {} for program {}", ProgramRunClusterStatus.ORPHANED,
         existing.getProgramRunId());
     return meta;
@@ -1107,8 +1144,7 @@ public class AppMetadataStore {
       throws IOException {
     List<Field<?>> fields = getProgramRunInvertedTimeKey(typeRunRecordCompleted,
         meta.getProgramRunId(), meta.getStartTs());
-    writeToStructuredTableWithPrimaryKeys(fields, meta, getRunRecordsTable(),
-        StoreDefinition.AppMetadataStore.RUN_RECORD_DATA);
+    writeRunRecord(fields, meta);
     List<Field<?>> countKey = getProgramCountPrimaryKeys(TYPE_COUNT,
         meta.getProgramRunId().getParent());
     getProgramCountsTable().increment(countKey, StoreDefinition.AppMetadataStore.COUNTS, 1L);
@@ -1162,8 +1198,7 @@ public class AppMetadataStore {
         .setTwillRunId(twillRunId)
         .setSourceId(sourceId)
         .build();
-    writeToStructuredTableWithPrimaryKeys(
-        key, meta, getRunRecordsTable(), StoreDefinition.AppMetadataStore.RUN_RECORD_DATA);
+    writeRunRecord(key, meta);
     LOG.trace("Recorded {} for program {}", ProgramRunStatus.STARTING, existing.getProgramRunId());
     return meta;
   }
@@ -1215,8 +1250,7 @@ public class AppMetadataStore {
         .setTwillRunId(twillRunId)
         .setSourceId(sourceId)
         .build();
-    writeToStructuredTableWithPrimaryKeys(
-        key, meta, getRunRecordsTable(), StoreDefinition.AppMetadataStore.RUN_RECORD_DATA);
+    writeRunRecord(key, meta);
     LOG.trace("Recorded {} for program {}", ProgramRunStatus.RUNNING, existing.getProgramRunId());
     return meta;
   }
@@ -1301,8 +1335,7 @@ public class AppMetadataStore {
       }
     }
     RunRecordDetail meta = builder.build();
-    writeToStructuredTableWithPrimaryKeys(
-        key, meta, getRunRecordsTable(), StoreDefinition.AppMetadataStore.RUN_RECORD_DATA);
+    writeRunRecord(key, meta);
     LOG.trace("Recorded {} for program {}", toStatus, existing.getProgramRunId());
     return meta;
   }
@@ -1357,8 +1390,7 @@ public class AppMetadataStore {
         .setTerminateTs(terminateTsSecs)
         .setSourceId(sourceId)
         .build();
-    writeToStructuredTableWithPrimaryKeys(
-        key, meta, getRunRecordsTable(), StoreDefinition.AppMetadataStore.RUN_RECORD_DATA);
+    writeRunRecord(key, meta);
     LOG.trace("Recorded {} for program {}", ProgramRunStatus.STOPPING, existing.getProgramRunId());
     return meta;
   }
@@ -1411,8 +1443,7 @@ public class AppMetadataStore {
         .setStatus(runStatus)
         .setSourceId(sourceId)
         .build();
-    writeToStructuredTableWithPrimaryKeys(
-        key, meta, getRunRecordsTable(), StoreDefinition.AppMetadataStore.RUN_RECORD_DATA);
+    writeRunRecord(key, meta);
     LOG.trace("Recorded {} for program {}", runStatus, existing.getProgramRunId());
     return meta;
   }
@@ -2503,9 +2534,9 @@ public class AppMetadataStore {
     String changeSummary = row.getString(StoreDefinition.AppMetadataStore.CHANGE_SUMMARY_FIELD);
     Long creationTimeMillis = row.getLong(StoreDefinition.AppMetadataStore.CREATION_TIME_FIELD);
     Boolean latest = row.getBoolean(StoreDefinition.AppMetadataStore.LATEST_FIELD);
-    ApplicationMeta meta = GSON.fromJson(
+    ApplicationMeta meta = decodeApplicationData(getApplicationIdFromRow(row),
         row.getString(StoreDefinition.AppMetadataStore.APPLICATION_DATA_FIELD),
-        ApplicationMeta.class);
+        cacheMetricsCollector);
     SourceControlMeta sourceControl = GSON.fromJson(
         row.getString(StoreDefinition.AppMetadataStore.SOURCE_CONTROL_META),
         SourceControlMeta.class);
@@ -2521,12 +2552,40 @@ public class AppMetadataStore {
     return new ApplicationMeta(id, spec, changeDetail, sourceControl);
   }
 
+  /**
+   * Decodes the serialized {@link ApplicationMeta} of an application, using the process wide cache
+   * to avoid parsing the same application specification again.
+   */
+  private static ApplicationMeta decodeApplicationData(ApplicationId appId, String json,
+      @Nullable MetricsCollector cacheMetricsCollector) {
+    return APPLICATION_META_CACHE.get(appId, json,
+        data -> GSON.fromJson(data, ApplicationMeta.class), cacheMetricsCollector);
+  }
+
   private void writeToStructuredTableWithPrimaryKeys(
       List<Field<?>> keys, Object data, StructuredTable table, String field) throws IOException {
     keys.add(Fields.stringField(field, GSON.toJson(data)));
     table.upsert(keys);
   }
 
+  /**
+   * Writes a run record either in the compact binary encoding or, if the binary format is not
+   * enabled, in the JSON form that older versions read. The column of the other format is cleared
+   * so that a row never carries a stale copy.
+   */
+  private void writeRunRecord(List<Field<?>> keys, RunRecordDetail meta) throws IOException {
+    if (binaryRunRecords) {
+      keys.add(Fields.stringField(StoreDefinition.AppMetadataStore.RUN_RECORD_DATA, null));
+      keys.add(Fields.bytesField(StoreDefinition.AppMetadataStore.RUN_RECORD_BINARY_DATA,
+          RunRecordDetailCodec.encode(meta)));
+    } else {
+      keys.add(Fields.stringField(StoreDefinition.AppMetadataStore.RUN_RECORD_DATA,
+          GSON.toJson(meta)));
+      keys.add(Fields.bytesField(StoreDefinition.AppMetadataStore.RUN_RECORD_BINARY_DATA, null));
+    }
+    getRunRecordsTable().upsert(keys);
+  }
+
   private List<Field<?>> getRunRecordStatusPrefix(String status) {
     List<Field<?>> fields = new ArrayList<>();
     fields.add(Fields.stringField(StoreDefinition.AppMetadataStore.RUN_STATUS, status));
@@ -2597,14 +2656,11 @@ public class AppMetadataStore {
   }
 
   private static RunRecordDetail deserializeRunRecordMeta(StructuredRow row) {
-    RunRecordDetail existing =
-        GSON.fromJson(row.getString(StoreDefinition.AppMetadataStore.RUN_RECORD_DATA),
-            RunRecordDetail.class);
-    return RunRecordDetail.builder(existing)
-        .setProgramRunId(
-            getProgramIdFromRunRecordsPrimaryKeys(new ArrayList<>(row.getPrimaryKeys())).run(
-                existing.getPid()))
-        .build();
+    byte[] binary = row.getBytes(StoreDefinition.AppMetadataStore.RUN_RECORD_BINARY_DATA);
+    return RunRecordDetailCodec.decode(
+        getProgramIdFromRunRecordsPrimaryKeys(new ArrayList<>(row.getPrimaryKeys())),
+        row.getString(StoreDefinition.AppMetadataStore.RUN_FIELD), binary,
+        binary == null ? row.getString(StoreDefinition.AppMetadataStore.RUN_RECORD_DATA) : null);
   }
 
   private static ProgramId getProgramIdFromRunRecordsPrimaryKeys(List<Field<?>> primaryKeys) {
@@ -2740,9 +2796,12 @@ public class AppMetadataStore {
     private final ChangeDetail changeDetail;
     @Nullable
     private final SourceControlMeta sourceControlMeta;
+    @Nullable
+    private final MetricsCollector cacheMetricsCollector;
 
-    private AppScanEntry(StructuredRow row) {
+    private AppScanEntry(StructuredRow row, @Nullable MetricsCollector cacheMetricsCollector) {
       this.appId = getApplicationIdFromRow(row);
+      this.cacheMetricsCollector = cacheMetricsCollector;
       this.rawAppMeta = row.getString(StoreDefinition.AppMetadataStore.APPLICATION_DATA_FIELD);
       String author = row.getString(StoreDefinition.AppMetadataStore.AUTHOR_FIELD);
       String changeSummary = row.getString(StoreDefinition.AppMetadataStore.CHANGE_SUMMARY_FIELD);
@@ -2771,7 +2830,7 @@ public class AppMetadataStore {
       if (meta != null) {
         return meta;
       }
-      ApplicationMeta tempMeta = GSON.fromJson(rawAppMeta, ApplicationMeta.class);
+      ApplicationMeta tempMeta = decodeApplicationData(appId, rawAppMeta, cacheMetricsCollector);
       appMeta = meta = new ApplicationMeta(tempMeta.getId(), tempMeta.getSpec(), changeDetail,
           sourceControlMeta);
       return meta;
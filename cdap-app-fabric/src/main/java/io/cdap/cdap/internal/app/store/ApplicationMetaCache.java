@@ -0,0 +1,247 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.internal.app.store;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.Weigher;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import io.cdap.cdap.api.app.ApplicationSpecification;
+import io.cdap.cdap.api.app.ProgramType;
+import io.cdap.cdap.api.mapreduce.MapReduceSpecification;
+import io.cdap.cdap.api.metrics.MetricsCollector;
+import io.cdap.cdap.api.plugin.Plugin;
+import io.cdap.cdap.api.service.ServiceSpecification;
+import io.cdap.cdap.api.spark.SparkSpecification;
+import io.cdap.cdap.api.worker.WorkerSpecification;
+import io.cdap.cdap.api.workflow.WorkflowSpecification;
+import io.cdap.cdap.common.conf.Constants;
+import io.cdap.cdap.internal.app.ForwardingApplicationSpecification;
+import io.cdap.cdap.internal.dataset.DatasetCreationSpec;
+import io.cdap.cdap.internal.schedule.ScheduleCreationSpec;
+import io.cdap.cdap.proto.id.ApplicationId;
+import io.cdap.cdap.proto.id.ApplicationReference;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+
+/**
+ * A process wide cache of deserialized {@link ApplicationMeta}, to avoid parsing large application
+ * specification JSON on every read. Entries are keyed by the application id and carry a 128 bits
+ * hash of the serialized application data, so a cached entry is only returned when the stored JSON
+ * is identical, no matter which process wrote it. Invalidation on writes only serves to release
+ * memory early.
+ *
+ * <p>Every call returns a new {@link ApplicationMeta}, with an unmodifiable view of the cached
+ * {@link ApplicationSpecification}, so callers cannot change what other callers see.</p>
+ */
+final class ApplicationMetaCache {
+
+  // Maximum total length of the JSON of the cached entries
+  private static final long MAX_WEIGHT = 64L * 1024 * 1024;
+
+  private final Cache<ApplicationId, Entry> cache;
+  // Cached application versions of each application, for invalidating an application or namespace
+  // without going through all entries
+  private final ConcurrentMap<ApplicationReference, Set<ApplicationId>> index;
+
+  ApplicationMetaCache() {
+    this(MAX_WEIGHT);
+  }
+
+  ApplicationMetaCache(long maxWeight) {
+    this.index = new ConcurrentHashMap<>();
+    this.cache = CacheBuilder.newBuilder()
+        .maximumWeight(maxWeight)
+        .weigher((Weigher<ApplicationId, Entry>) (key, value) -> value.length)
+        .<ApplicationId, Entry>removalListener(notification -> {
+          if (notification.getCause() != RemovalCause.REPLACED) {
+            removeFromIndex(notification.getKey());
+          }
+        })
+        .build();
+  }
+
+  /**
+   * Returns the {@link ApplicationMeta} for the given serialized application data, decoding it with
+   * the given decoder if it is not in the cache.
+   *
+   * @param metricsCollector the collector for emitting cache hit and miss metrics, or {@code null}
+   *     to not emit metrics
+   */
+  ApplicationMeta get(ApplicationId appId, String json, Function<String, ApplicationMeta> decoder,
+      @Nullable MetricsCollector metricsCollector) {
+    HashCode hash = Hashing.murmur3_128().hashString(json);
+    Entry entry = cache.getIfPresent(appId);
+    if (entry != null && entry.matches(hash, json.length())) {
+      emit(metricsCollector, Constants.Metrics.AppMetadataStore.APP_SPEC_CACHE_HIT);
+      return entry.copyMeta();
+    }
+    emit(metricsCollector, Constants.Metrics.AppMetadataStore.APP_SPEC_CACHE_MISS);
+
+    ApplicationMeta meta = decoder.apply(json);
+    entry = new Entry(hash, json.length(), meta);
+    index.compute(appId.getAppReference(), (ref, appIds) -> {
+      Set<ApplicationId> result = appIds == null ? new HashSet<>() : appIds;
+      result.add(appId);
+      return result;
+    });
+    cache.put(appId, entry);
+    return entry.copyMeta();
+  }
+
+  /**
+   * Removes all cached entries of the given application.
+   */
+  void invalidate(String namespace, String application) {
+    Set<ApplicationId> appIds = index.remove(new ApplicationReference(namespace, application));
+    if (appIds != null) {
+      cache.invalidateAll(appIds);
+    }
+  }
+
+  /**
+   * Removes all cached entries of the given application version.
+   */
+  void invalidate(ApplicationId appId) {
+    cache.invalidate(appId);
+  }
+
+  /**
+   * Removes all cached entries of applications in the given namespace.
+   */
+  void invalidate(String namespace) {
+    for (ApplicationReference appRef : index.keySet()) {
+      if (appRef.getNamespace().equals(namespace)) {
+        invalidate(namespace, appRef.getApplication());
+      }
+    }
+  }
+
+  private void removeFromIndex(ApplicationId appId) {
+    index.computeIfPresent(appId.getAppReference(), (ref, appIds) -> {
+      // The application version might have been cached again after the removed entry
+      if (cache.getIfPresent(appId) == null) {
+        appIds.remove(appId);
+      }
+      return appIds.isEmpty() ? null : appIds;
+    });
+  }
+
+  private static void emit(@Nullable MetricsCollector metricsCollector, String metricName) {
+    if (metricsCollector != null) {
+      metricsCollector.increment(metricName, 1L);
+    }
+  }
+
+  /**
+   * A cached {@link ApplicationMeta} with the hash and length of the data it was decoded from.
+   */
+  private static final class Entry {
+
+    private final HashCode hash;
+    private final int length;
+    private final ApplicationMeta meta;
+
+    private Entry(HashCode hash, int length, ApplicationMeta meta) {
+      this.hash = hash;
+      this.length = length;
+      ApplicationSpecification spec = meta.getSpec();
+      this.meta = new ApplicationMeta(meta.getId(),
+          spec == null ? null : new UnmodifiableApplicationSpecification(spec),
+          meta.getChange(), meta.getSourceControlMeta());
+    }
+
+    boolean matches(HashCode hash, int length) {
+      return this.length == length && this.hash.equals(hash);
+    }
+
+    ApplicationMeta copyMeta() {
+      return new ApplicationMeta(meta.getId(), meta.getSpec(), meta.getChange(),
+          meta.getSourceControlMeta());
+    }
+  }
+
+  /**
+   * An {@link ApplicationSpecification} that does not allow modifying the collections of the
+   * cached specification.
+   */
+  private static final class UnmodifiableApplicationSpecification
+      extends ForwardingApplicationSpecification {
+
+    private UnmodifiableApplicationSpecification(ApplicationSpecification delegate) {
+      super(delegate);
+    }
+
+    @Override
+    public Map<String, MapReduceSpecification> getMapReduce() {
+      return Collections.unmodifiableMap(super.getMapReduce());
+    }
+
+    @Override
+    public Map<String, SparkSpecification> getSpark() {
+      return Collections.unmodifiableMap(super.getSpark());
+    }
+
+    @Override
+    public Map<String, WorkflowSpecification> getWorkflows() {
+      return Collections.unmodifiableMap(super.getWorkflows());
+    }
+
+    @Override
+    public Map<String, String> getDatasetModules() {
+      return Collections.unmodifiableMap(super.getDatasetModules());
+    }
+
+    @Override
+    public Map<String, DatasetCreationSpec> getDatasets() {
+      return Collections.unmodifiableMap(super.getDatasets());
+    }
+
+    @Override
+    public Map<String, ServiceSpecification> getServices() {
+      return Collections.unmodifiableMap(super.getServices());
+    }
+
+    @Override
+    public Map<String, WorkerSpecification> getWorkers() {
+      return Collections.unmodifiableMap(super.getWorkers());
+    }
+
+    @Override
+    public Map<String, ScheduleCreationSpec> getProgramSchedules() {
+      return Collections.unmodifiableMap(super.getProgramSchedules());
+    }
+
+    @Override
+    public Map<String, Plugin> getPlugins() {
+      return Collections.unmodifiableMap(super.getPlugins());
+    }
+
+    @Override
+    public Set<String> getProgramsByType(ProgramType programType) {
+      return Collections.unmodifiableSet(super.getProgramsByType(programType));
+    }
+  }
+}
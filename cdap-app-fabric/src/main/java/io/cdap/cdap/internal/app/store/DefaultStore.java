@@ -29,6 +29,8 @@ import io.cdap.cdap.api.artifact.ArtifactId;
 import io.cdap.cdap.api.dataset.DatasetManagementException;
 import io.cdap.cdap.api.dataset.DatasetProperties;
 import io.cdap.cdap.api.dataset.table.Table;
+import io.cdap.cdap.api.metrics.MetricsCollectionService;
+import io.cdap.cdap.api.metrics.MetricsCollector;
 import io.cdap.cdap.api.service.ServiceSpecification;
 import io.cdap.cdap.api.worker.WorkerSpecification;
 import io.cdap.cdap.api.workflow.WorkflowActionNode;
@@ -42,6 +44,8 @@ import io.cdap.cdap.common.ApplicationNotFoundException;
 import io.cdap.cdap.common.ConflictException;
 import io.cdap.cdap.common.NotFoundException;
 import io.cdap.cdap.common.ProgramNotFoundException;
+import io.cdap.cdap.common.conf.CConfiguration;
+import io.cdap.cdap.common.conf.Constants;
 import io.cdap.cdap.data2.dataset2.DatasetFramework;
 import io.cdap.cdap.internal.app.ForwardingApplicationSpecification;
 import io.cdap.cdap.internal.app.store.state.AppStateKey;
@@ -114,6 +118,10 @@ public class DefaultStore implements Store {
 
   private final TransactionRunner transactionRunner;
   private final int maxReorderBatch;
+  @Nullable
+  private volatile MetricsCollector appCacheMetricsCollector;
+  @Nullable
+  private volatile CConfiguration cConf;
 
   @Inject
   public DefaultStore(TransactionRunner transactionRunner) {
@@ -126,6 +134,17 @@ public class DefaultStore implements Store {
     this.maxReorderBatch = maxReorderBatch;
   }
 
+  @Inject(optional = true)
+  void setMetricsCollectionService(MetricsCollectionService metricsCollectionService) {
+    this.appCacheMetricsCollector = metricsCollectionService.getContext(
+        Constants.Metrics.STORAGE_METRICS_TAGS);
+  }
+
+  @Inject(optional = true)
+  void setCConfiguration(CConfiguration cConf) {
+    this.cConf = cConf;
+  }
+
   /**
    * Adds datasets and types to the given {@link DatasetFramework} used by app mds.
    *
@@ -140,7 +159,9 @@ public class DefaultStore implements Store {
   }
 
   private AppMetadataStore getAppMetadataStore(StructuredTableContext context) {
-    return AppMetadataStore.create(context);
+    CConfiguration cConf = this.cConf;
+    return cConf == null ? AppMetadataStore.create(context, appCacheMetricsCollector)
+        : AppMetadataStore.create(context, appCacheMetricsCollector, cConf);
   }
 
   private WorkflowTable getWorkflowTable(StructuredTableContext context)
@@ -16,9 +16,11 @@
 package io.cdap.cdap.internal.app.store.preview;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.Hashing;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
 import com.google.inject.Inject;
 import com.google.inject.name.Named;
 import io.cdap.cdap.api.common.Bytes;
@@ -47,10 +49,14 @@ import io.cdap.cdap.proto.id.NamespaceId;
 import io.cdap.cdap.proto.id.ProgramRunId;
 import io.cdap.cdap.proto.security.Principal;
 import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import javax.annotation.Nullable;
@@ -60,17 +66,41 @@ import javax.annotation.Nullable;
  */
 public class DefaultPreviewStore implements PreviewStore {
 
+  private static final Gson GSON = new GsonBuilder()
+      .registerTypeAdapter(Schema.class, new SchemaTypeAdapter())
+      .registerTypeAdapter(StructuredRecord.class, new PreviewJsonSerializer())
+      .registerTypeAdapter(EntityId.class, new EntityIdTypeAdapter())
+      .registerTypeAdapter(BasicThrowable.class, new BasicThrowableCodec())
+      .create();
+
   private static final DatasetId PREVIEW_TABLE_ID = NamespaceId.SYSTEM.dataset("preview.table");
   private static final DatasetId PREVIEW_QUEUE_TABLE_ID = NamespaceId.SYSTEM.dataset(
       "preview.queue.table");
   private static final byte[] DATA_ROW_KEY_PREFIX = Bytes.toBytes("dr");
   private static final byte[] META_ROW_KEY_PREFIX = Bytes.toBytes("mr");
+  private static final byte[] SCHEMA_ROW_KEY_PREFIX = Bytes.toBytes("sr");
   private static final byte[] TRACER = Bytes.toBytes("t");
   private static final byte[] PROPERTY = Bytes.toBytes("p");
   private static final byte[] VALUE = Bytes.toBytes("v");
+  private static final byte[] SCHEMA = Bytes.toBytes("sc");
   private static final byte[] RUN = Bytes.toBytes("r");
   private static final byte[] STATUS = Bytes.toBytes("s");
   private static final byte[] POLLERINFO = Bytes.toBytes("i");
+  /*
+   * A traced structured record is serialized as a json object with the schema and the fields. The
+   * schema is the same for most records of a tracer, hence it is stored once per preview in a
+   * schema row, and the data row only keeps the fields and the schema id. The data rows are keyed
+   * by property, so that the values of a property are scanned together.
+   * |--------------------------------------|-----------|-------------|--------------|-----------|
+   * |                                      | t(TRACER) | p(PROPERTY) |   v(VALUE)   | sc(SCHEMA)|
+   * |--------------------------------------|-----------|-------------|--------------|-----------|
+   * |<dr><ns><appid><tracer><prop><counter>|tracer name|property name|value / fields| schema id |
+   * |--------------------------------------|-----------|-------------|--------------|-----------|
+   * |<sr><ns><appid><schema id>            |           |             | schema JSON  |           |
+   * |--------------------------------------|-----------|-------------|--------------|-----------|
+   */
+  private static final String RECORD_SCHEMA = "schema";
+  private static final String RECORD_FIELDS = "fields";
   /*
    * Row storing the preview requests waiting for execution
    * |------------------------------------|--------------------|-----------------|
@@ -86,6 +116,8 @@ public class DefaultPreviewStore implements PreviewStore {
   private static final byte[] PRINCIPAL = Bytes.toBytes("p");
 
   private final AtomicLong counter = new AtomicLong(0L);
+  // The ids of the schemas stored for each preview, in hex
+  private final Map<ApplicationId, Set<String>> storedSchemas = new ConcurrentHashMap<>();
 
   private final LevelDBTableCore previewTable;
   private final LevelDBTableCore previewQueueTable;
@@ -107,16 +139,22 @@ public class DefaultPreviewStore implements PreviewStore {
   @Override
   public void put(ApplicationId applicationId, String tracerName, String propertyName,
       Object value) {
-    // PreviewStore is a singleton and we have to create gson for each operation since gson is not thread safe.
-    Gson gson = new GsonBuilder().registerTypeAdapter(Schema.class, new SchemaTypeAdapter())
-        .registerTypeAdapter(StructuredRecord.class, new PreviewJsonSerializer()).create();
     MDSKey mdsKey = getPreviewRowKeyBuilder(DATA_ROW_KEY_PREFIX, applicationId)
-        .add(tracerName).add(counter.getAndIncrement()).build();
+        .add(tracerName).add(propertyName).add(counter.getAndIncrement()).build();
 
     try {
+      JsonElement json = GSON.toJsonTree(value);
       previewTable.putDefaultVersion(mdsKey.getKey(), TRACER, Bytes.toBytes(tracerName));
       previewTable.putDefaultVersion(mdsKey.getKey(), PROPERTY, Bytes.toBytes(propertyName));
-      previewTable.putDefaultVersion(mdsKey.getKey(), VALUE, Bytes.toBytes(gson.toJson(value)));
+      if (isRecord(json)) {
+        JsonObject record = json.getAsJsonObject();
+        byte[] schemaId = putSchema(applicationId, GSON.toJson(record.get(RECORD_SCHEMA)));
+        previewTable.putDefaultVersion(mdsKey.getKey(), VALUE,
+            Bytes.toBytes(GSON.toJson(record.get(RECORD_FIELDS))));
+        previewTable.putDefaultVersion(mdsKey.getKey(), SCHEMA, schemaId);
+      } else {
+        previewTable.putDefaultVersion(mdsKey.getKey(), VALUE, Bytes.toBytes(GSON.toJson(json)));
+      }
     } catch (IOException e) {
       String message = String.format(
           "Error while putting property '%s' for application '%s' and tracer '%s' in"
@@ -127,30 +165,124 @@ public class DefaultPreviewStore implements PreviewStore {
 
   @Override
   public Map<String, List<JsonElement>> get(ApplicationId applicationId, String tracerName) {
-    // PreviewStore is a singleton and we have to create gson for each operation since gson is not thread safe.
-    Gson gson = new GsonBuilder().registerTypeAdapter(Schema.class, new SchemaTypeAdapter())
-        .create();
+    Map<String, List<JsonElement>> result = new HashMap<>();
+    try {
+      scanData(applicationId, tracerName, new HashMap<>(),
+          (propertyName, value) -> result.computeIfAbsent(propertyName, k -> new ArrayList<>())
+              .add(GSON.fromJson(value, JsonElement.class)));
+    } catch (IOException e) {
+      String message = String.format(
+          "Error while reading preview data for application '%s' and tracer '%s'.",
+          applicationId, tracerName);
+      throw new RuntimeException(message, e);
+    }
+    return result;
+  }
+
+  @Override
+  public void write(ApplicationId applicationId, String tracerName,
+      Writer writer) throws IOException {
+    // The rows of each property are together in the table, hence the values are written to the
+    // writer in a single scan as they are read. The stored values are json already, hence they are
+    // copied to the writer without parsing.
+    String[] currentProperty = {null};
+    writer.write('{');
+    scanData(applicationId, tracerName, new HashMap<>(), (propertyName, value) -> {
+      if (propertyName.equals(currentProperty[0])) {
+        writer.write(',');
+      } else {
+        if (currentProperty[0] != null) {
+          writer.write("],");
+        }
+        writer.write(GSON.toJson(propertyName));
+        writer.write(':');
+        writer.write('[');
+        currentProperty[0] = propertyName;
+      }
+      writer.write(value);
+    });
+    if (currentProperty[0] != null) {
+      writer.write(']');
+    }
+    writer.write('}');
+  }
+
+  /**
+   * Scans the preview data of the given tracer and passes each value in json to the given visitor
+   * as it is read. The values of each property are passed together.
+   *
+   * @param schemas the schemas already read, keyed by the schema id in hex
+   */
+  private void scanData(ApplicationId applicationId, String tracerName,
+      Map<String, String> schemas, DataVisitor visitor) throws IOException {
     byte[] startRowKey = getPreviewRowKeyBuilder(DATA_ROW_KEY_PREFIX, applicationId)
         .add(tracerName).build().getKey();
     byte[] stopRowKey = new MDSKey(Bytes.stopKeyForPrefix(startRowKey)).getKey();
-
-    Map<String, List<JsonElement>> result = new HashMap<>();
     try (Scanner scanner = previewTable.scan(startRowKey, stopRowKey, null, null, null)) {
       Row indexRow;
       while ((indexRow = scanner.next()) != null) {
         Map<byte[], byte[]> columns = indexRow.getColumns();
-        String propertyName = Bytes.toString(columns.get(PROPERTY));
-        JsonElement value = gson.fromJson(Bytes.toString(columns.get(VALUE)), JsonElement.class);
-        List<JsonElement> values = result.computeIfAbsent(propertyName, k -> new ArrayList<>());
-        values.add(value);
+        String rowPropertyName = Bytes.toString(columns.get(PROPERTY));
+        String value = Bytes.toString(columns.get(VALUE));
+        byte[] schemaId = columns.get(SCHEMA);
+        if (schemaId != null) {
+          String schema = schemas.get(Bytes.toHexString(schemaId));
+          if (schema == null) {
+            schema = getSchema(applicationId, schemaId);
+            schemas.put(Bytes.toHexString(schemaId), schema);
+          }
+          value = String.format("{\"%s\":%s,\"%s\":%s}",
+              RECORD_SCHEMA, schema, RECORD_FIELDS, value);
+        }
+        visitor.visit(rowPropertyName, value);
       }
-    } catch (IOException e) {
-      String message = String.format(
-          "Error while reading preview data for application '%s' and tracer '%s'.",
-          applicationId, tracerName);
-      throw new RuntimeException(message, e);
     }
-    return result;
+  }
+
+  /**
+   * Returns whether the given json is a {@link StructuredRecord} serialized by the {@link
+   * PreviewJsonSerializer}.
+   */
+  private boolean isRecord(JsonElement json) {
+    if (!json.isJsonObject()) {
+      return false;
+    }
+    JsonObject object = json.getAsJsonObject();
+    return object.entrySet().size() == 2 && object.has(RECORD_SCHEMA) && object.has(RECORD_FIELDS);
+  }
+
+  /**
+   * Stores the given schema if it is not stored for the preview yet.
+   *
+   * @return the id of the schema
+   */
+  private byte[] putSchema(ApplicationId applicationId, String schema) throws IOException {
+    byte[] schemaId = Hashing.md5().hashString(schema, StandardCharsets.UTF_8).asBytes();
+    Set<String> schemaIds = storedSchemas.computeIfAbsent(applicationId,
+        k -> ConcurrentHashMap.newKeySet());
+    String schemaIdHex = Bytes.toHexString(schemaId);
+    if (schemaIds.add(schemaIdHex)) {
+      byte[] rowKey = getPreviewRowKeyBuilder(SCHEMA_ROW_KEY_PREFIX, applicationId)
+          .add(schemaId).build().getKey();
+      try {
+        previewTable.putDefaultVersion(rowKey, VALUE, Bytes.toBytes(schema));
+      } catch (IOException e) {
+        schemaIds.remove(schemaIdHex);
+        throw e;
+      }
+    }
+    return schemaId;
+  }
+
+  private String getSchema(ApplicationId applicationId, byte[] schemaId) throws IOException {
+    byte[] rowKey = getPreviewRowKeyBuilder(SCHEMA_ROW_KEY_PREFIX, applicationId)
+        .add(schemaId).build().getKey();
+    byte[] schema = previewTable.getDefaultVersion(rowKey, VALUE);
+    if (schema == null) {
+      throw new IOException(String.format("Missing schema %s for application '%s'.",
+          Bytes.toHexString(schemaId), applicationId));
+    }
+    return Bytes.toString(schema);
   }
 
   private void removePreviewData(byte[] prefix, ApplicationId applicationId) {
@@ -170,20 +302,20 @@ public class DefaultPreviewStore implements PreviewStore {
     removeFromWaitingState(applicationId);
     // remove actual preview user data
     removePreviewData(DATA_ROW_KEY_PREFIX, applicationId);
+    // remove the schemas of the preview user data
+    storedSchemas.remove(applicationId);
+    removePreviewData(SCHEMA_ROW_KEY_PREFIX, applicationId);
     // remove preview metadata such as status, appid, pollerinfo
     removePreviewData(META_ROW_KEY_PREFIX, applicationId);
   }
 
   @Override
   public void setProgramId(ProgramRunId programRunId) {
-    // PreviewStore is a singleton and we have to create gson for each operation since gson is not thread safe.
-    Gson gson = new GsonBuilder().registerTypeAdapter(EntityId.class, new EntityIdTypeAdapter())
-        .create();
     MDSKey mdsKey = getPreviewRowKeyBuilder(META_ROW_KEY_PREFIX,
         programRunId.getParent().getParent()).build();
     try {
       previewTable.putDefaultVersion(mdsKey.getKey(), RUN,
-          Bytes.toBytes(gson.toJson(programRunId)));
+          Bytes.toBytes(GSON.toJson(programRunId)));
     } catch (IOException e) {
       throw new RuntimeException(String.format("Failed to put %s into preview store", programRunId),
           e);
@@ -192,9 +324,6 @@ public class DefaultPreviewStore implements PreviewStore {
 
   @Override
   public ProgramRunId getProgramRunId(ApplicationId applicationId) {
-    // PreviewStore is a singleton and we have to create gson for each operation since gson is not thread safe.
-    Gson gson = new GsonBuilder().registerTypeAdapter(EntityId.class, new EntityIdTypeAdapter())
-        .create();
     MDSKey mdsKey = getPreviewRowKeyBuilder(META_ROW_KEY_PREFIX, applicationId).build();
 
     byte[] runId = null;
@@ -206,22 +335,19 @@ public class DefaultPreviewStore implements PreviewStore {
           String.format("Failed to get program run id for preview %s", applicationId), e);
     }
     if (runId != null) {
-      return gson.fromJson(Bytes.toString(runId), ProgramRunId.class);
+      return GSON.fromJson(Bytes.toString(runId), ProgramRunId.class);
     }
     return null;
   }
 
   @Override
   public void setPreviewStatus(ApplicationId applicationId, PreviewStatus previewStatus) {
-    // PreviewStore is a singleton and we have to create gson for each operation since gson is not thread safe.
-    Gson gson = new GsonBuilder().registerTypeAdapter(BasicThrowable.class,
-        new BasicThrowableCodec()).create();
     MDSKey mdsKey = getPreviewRowKeyBuilder(META_ROW_KEY_PREFIX, applicationId).build();
     try {
       previewTable.putDefaultVersion(mdsKey.getKey(), STATUS,
-          Bytes.toBytes(gson.toJson(previewStatus)));
+          Bytes.toBytes(GSON.toJson(previewStatus)));
       previewTable.putDefaultVersion(mdsKey.getKey(), APPID,
-          Bytes.toBytes(gson.toJson(applicationId)));
+          Bytes.toBytes(GSON.toJson(applicationId)));
     } catch (IOException e) {
       throw new RuntimeException(String.format("Failed to put preview status %s for preview %s",
           previewStatus, applicationId), e);
@@ -230,9 +356,6 @@ public class DefaultPreviewStore implements PreviewStore {
 
   @Override
   public PreviewStatus getPreviewStatus(ApplicationId applicationId) {
-    // PreviewStore is a singleton and we have to create gson for each operation since gson is not thread safe.
-    Gson gson = new GsonBuilder().registerTypeAdapter(BasicThrowable.class,
-        new BasicThrowableCodec()).create();
     MDSKey mdsKey = getPreviewRowKeyBuilder(META_ROW_KEY_PREFIX, applicationId).build();
 
     byte[] status = null;
@@ -244,7 +367,7 @@ public class DefaultPreviewStore implements PreviewStore {
     }
 
     if (status != null) {
-      return gson.fromJson(Bytes.toString(status), PreviewStatus.class);
+      return GSON.fromJson(Bytes.toString(status), PreviewStatus.class);
     }
 
     return null;
@@ -253,9 +376,6 @@ public class DefaultPreviewStore implements PreviewStore {
   @Override
   public void add(ApplicationId applicationId, AppRequest appRequest,
       @Nullable Principal principal) {
-    // PreviewStore is a singleton and we have to create gson for each operation since gson is not thread safe.
-    Gson gson = new GsonBuilder().registerTypeAdapter(Schema.class, new SchemaTypeAdapter())
-        .create();
     long timeInSeconds = RunIds.getTime(applicationId.getApplication(), TimeUnit.SECONDS);
     MDSKey mdsKey = new MDSKey.Builder()
         .add(WAITING)
@@ -266,11 +386,11 @@ public class DefaultPreviewStore implements PreviewStore {
 
     try {
       previewQueueTable.putDefaultVersion(mdsKey.getKey(), APPID,
-          Bytes.toBytes(gson.toJson(applicationId)));
+          Bytes.toBytes(GSON.toJson(applicationId)));
       previewQueueTable.putDefaultVersion(mdsKey.getKey(), CONFIG,
-          Bytes.toBytes(gson.toJson(appRequest)));
+          Bytes.toBytes(GSON.toJson(appRequest)));
       previewQueueTable.putDefaultVersion(mdsKey.getKey(), PRINCIPAL,
-          Bytes.toBytes(gson.toJson(principal)));
+          Bytes.toBytes(GSON.toJson(principal)));
       long submitTimeInMillis = RunIds.getTime(applicationId.getApplication(),
           TimeUnit.MILLISECONDS);
       setPreviewStatus(applicationId,
@@ -307,9 +427,6 @@ public class DefaultPreviewStore implements PreviewStore {
 
   @Override
   public List<PreviewRequest> getAllInWaitingState() {
-    // PreviewStore is a singleton and we have to create gson for each operation since gson is not thread safe.
-    Gson gson = new GsonBuilder().registerTypeAdapter(Schema.class, new SchemaTypeAdapter())
-        .create();
     byte[] startRowKey = new MDSKey.Builder().add(WAITING).build().getKey();
     byte[] stopRowKey = new MDSKey(Bytes.stopKeyForPrefix(startRowKey)).getKey();
 
@@ -318,10 +435,10 @@ public class DefaultPreviewStore implements PreviewStore {
       Row indexRow;
       while ((indexRow = scanner.next()) != null) {
         Map<byte[], byte[]> columns = indexRow.getColumns();
-        AppRequest request = gson.fromJson(Bytes.toString(columns.get(CONFIG)), AppRequest.class);
-        ApplicationId applicationId = gson.fromJson(Bytes.toString(columns.get(APPID)),
+        AppRequest request = GSON.fromJson(Bytes.toString(columns.get(CONFIG)), AppRequest.class);
+        ApplicationId applicationId = GSON.fromJson(Bytes.toString(columns.get(APPID)),
             ApplicationId.class);
-        Principal principal = gson.fromJson(Bytes.toString(columns.get(PRINCIPAL)),
+        Principal principal = GSON.fromJson(Bytes.toString(columns.get(PRINCIPAL)),
             Principal.class);
         result.add(new PreviewRequest(applicationId, request, principal));
       }
@@ -355,9 +472,6 @@ public class DefaultPreviewStore implements PreviewStore {
   }
 
   private void setPollerinfo(ApplicationId applicationId, byte[] pollerInfo) {
-    // PreviewStore is a singleton and we have to create gson for each operation since gson is not thread safe.
-    Gson gson = new GsonBuilder().registerTypeAdapter(Schema.class, new SchemaTypeAdapter())
-        .create();
     MDSKey mdsKey = getPreviewRowKeyBuilder(META_ROW_KEY_PREFIX, applicationId).build();
 
     try {
@@ -365,7 +479,7 @@ public class DefaultPreviewStore implements PreviewStore {
     } catch (IOException e) {
       String msg = String.format(
           "Error while setting the poller information %s for waiting preview application %s.",
-          gson.toJson(pollerInfo), applicationId);
+          GSON.toJson(pollerInfo), applicationId);
       throw new RuntimeException(msg, e);
     }
   }
@@ -390,8 +504,6 @@ public class DefaultPreviewStore implements PreviewStore {
 
   @Override
   public void deleteExpiredData(long ttlInSeconds) {
-    Gson gson = new GsonBuilder().registerTypeAdapter(EntityId.class, new EntityIdTypeAdapter())
-        .create();
     byte[] startRowKey = new MDSKey.Builder().add(META_ROW_KEY_PREFIX).build().getKey();
     byte[] stopRowKey = new MDSKey(Bytes.stopKeyForPrefix(startRowKey)).getKey();
 
@@ -405,7 +517,7 @@ public class DefaultPreviewStore implements PreviewStore {
           continue;
         }
 
-        ApplicationId applicationId = gson.fromJson(applicationIdGson, ApplicationId.class);
+        ApplicationId applicationId = GSON.fromJson(applicationIdGson, ApplicationId.class);
         long applicationSubmitTime = RunIds.getTime(applicationId.getApplication(),
             TimeUnit.SECONDS);
         if ((currentTimeInSeconds - applicationSubmitTime) > ttlInSeconds) {
@@ -426,9 +538,18 @@ public class DefaultPreviewStore implements PreviewStore {
 
   @VisibleForTesting
   void clear() throws IOException {
+    storedSchemas.clear();
     service.dropTable(PREVIEW_TABLE_ID.getDataset());
     service.ensureTableExists(PREVIEW_TABLE_ID.getDataset());
     service.dropTable(PREVIEW_QUEUE_TABLE_ID.getDataset());
     service.ensureTableExists(PREVIEW_QUEUE_TABLE_ID.getDataset());
   }
+
+  /**
+   * Visitor of the preview data values of a tracer.
+   */
+  private interface DataVisitor {
+
+    void visit(String propertyName, String value) throws IOException;
+  }
 }
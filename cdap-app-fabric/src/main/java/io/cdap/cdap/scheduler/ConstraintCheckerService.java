@@ -23,11 +23,13 @@ import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
+import com.google.inject.Singleton;
 import io.cdap.cdap.api.dataset.lib.CloseableIterator;
 import io.cdap.cdap.api.metrics.MetricsCollectionService;
 import io.cdap.cdap.api.metrics.MetricsContext;
 import io.cdap.cdap.app.store.Store;
 import io.cdap.cdap.common.ConflictException;
+import io.cdap.cdap.common.TooManyRequestsException;
 import io.cdap.cdap.common.conf.CConfiguration;
 import io.cdap.cdap.common.conf.Constants;
 import io.cdap.cdap.common.namespace.NamespaceQueryAdmin;
@@ -37,6 +39,7 @@ import io.cdap.cdap.internal.app.runtime.schedule.constraint.CheckableConstraint
 import io.cdap.cdap.internal.app.runtime.schedule.constraint.ConstraintContext;
 import io.cdap.cdap.internal.app.runtime.schedule.constraint.ConstraintResult;
 import io.cdap.cdap.internal.app.runtime.schedule.queue.Job;
+import io.cdap.cdap.internal.app.runtime.schedule.queue.JobKey;
 import io.cdap.cdap.internal.app.runtime.schedule.queue.JobQueue;
 import io.cdap.cdap.internal.app.runtime.schedule.queue.JobQueueTable;
 import io.cdap.cdap.internal.app.runtime.schedule.store.Schedulers;
@@ -44,25 +47,54 @@ import io.cdap.cdap.internal.app.services.ProgramLifecycleService;
 import io.cdap.cdap.internal.app.services.PropertiesResolver;
 import io.cdap.cdap.internal.schedule.constraint.Constraint;
 import io.cdap.cdap.proto.id.NamespaceId;
+import io.cdap.cdap.proto.id.ProgramId;
 import io.cdap.cdap.spi.data.transaction.TransactionException;
 import io.cdap.cdap.spi.data.transaction.TransactionRunner;
 import io.cdap.cdap.spi.data.transaction.TransactionRunners;
 import java.io.IOException;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Polls the JobQueue, checks the jobs for constraint satisfaction, and launches them.
+ *
+ * <p>Each partition of the JobQueue is handled by its own thread. Jobs with unsatisfied
+ * constraints are kept in a {@link TimerWheel} until the time their constraints could be satisfied,
+ * or until a run of the scheduled program finished, so that the constraints are not checked again
+ * before that. The JobQueue is only scanned on startup, when new notifications were added to it,
+ * and periodically to pick up other modifications. The JobQueue remains the source of truth, and the
+ * timer wheels are rebuilt from it when the service restarts.</p>
+ *
+ * <p>A job whose launch is not admitted by the launch flow control stays in the PENDING_LAUNCH state
+ * and is launched again after a delay, without blocking the launch of other jobs. The time of the
+ * retry is stored with the job, so that the retry is picked up by the scan of the JobQueue after
+ * the scheduler restarts.</p>
  */
+@Singleton
 class ConstraintCheckerService extends AbstractIdleService {
 
   private static final Logger LOG = LoggerFactory.getLogger(ConstraintCheckerService.class);
+  private static final long TIMER_WHEEL_TICK_MILLIS = 1000L;
+  private static final int TIMER_WHEEL_SIZE = 64;
 
   private final Store store;
   private final ProgramLifecycleService lifecycleService;
@@ -73,6 +105,7 @@ class ConstraintCheckerService extends AbstractIdleService {
   private ScheduleTaskRunner taskRunner;
   private ListeningExecutorService taskExecutorService;
   private volatile boolean stopping;
+  private volatile List<ConstraintCheckerThread> checkerThreads;
   private MetricsCollectionService metricsCollectionService;
 
   @Inject
@@ -101,9 +134,15 @@ class ConstraintCheckerService extends AbstractIdleService {
         namespaceQueryAdmin, cConf);
 
     int numPartitions = cConf.getInt(Constants.Scheduler.JOB_QUEUE_NUM_PARTITIONS);
+    long scanIntervalMillis = TimeUnit.SECONDS.toMillis(
+        cConf.getLong(Constants.Scheduler.JOB_QUEUE_SCAN_INTERVAL_SECS));
+    List<ConstraintCheckerThread> threads = new ArrayList<>();
     for (int partition = 0; partition < numPartitions; partition++) {
-      taskExecutorService.submit(new ConstraintCheckerThread(partition));
+      ConstraintCheckerThread thread = new ConstraintCheckerThread(partition, scanIntervalMillis);
+      threads.add(thread);
+      taskExecutorService.submit(thread);
     }
+    checkerThreads = Collections.unmodifiableList(threads);
     LOG.info("Started ConstraintCheckerService. state: " + state());
   }
 
@@ -125,20 +164,71 @@ class ConstraintCheckerService extends AbstractIdleService {
     LOG.info("Stopped ConstraintCheckerService.");
   }
 
+  /**
+   * Notifies that jobs in the JobQueue were added or updated, so that the JobQueue is scanned for
+   * them.
+   */
+  void jobsUpdated() {
+    List<ConstraintCheckerThread> threads = checkerThreads;
+    if (threads != null) {
+      threads.forEach(ConstraintCheckerThread::requestScan);
+    }
+  }
+
+  /**
+   * Notifies that a run of the given program finished, so that the jobs waiting on constraints
+   * that depend on the runs of the program are checked again.
+   */
+  void programRunFinished(ProgramId programId) {
+    List<ConstraintCheckerThread> threads = checkerThreads;
+    if (threads != null) {
+      threads.forEach(thread -> thread.programRunFinished(programId));
+    }
+  }
+
   private class ConstraintCheckerThread implements Runnable {
 
     private final RetryStrategy scheduleStrategy;
     private final int partition;
+    private final long scanIntervalMillis;
     private final Deque<Job> readyJobs = new ArrayDeque<>();
+    private final Semaphore wakeup = new Semaphore(0);
+    private final AtomicBoolean scanRequested = new AtomicBoolean(true);
+    private final Queue<ProgramId> finishedPrograms = new ConcurrentLinkedQueue<>();
+    // Jobs with unsatisfied constraints, with the time they should be checked again
+    private final TimerWheel<JobKey> waitingJobs;
+    // The program of each job in waitingJobs
+    private final Map<JobKey, ProgramId> waitingJobPrograms = new HashMap<>();
+    // Jobs that were not admitted for launching, in the order of their retry time
+    private final Queue<Job> delayedJobs = new PriorityQueue<>(
+        Comparator.comparingLong(Job::getLaunchRetryTimeMillis));
+    private final Set<JobKey> delayedJobKeys = new HashSet<>();
+    private final long launchRetryDelayMillis;
     private Job lastConsumed;
+    private long nextScanTime;
     private int failureCount;
 
-    ConstraintCheckerThread(int partition) {
+    ConstraintCheckerThread(int partition, long scanIntervalMillis) {
       // TODO: [CDAP-11370] Need to be configured in cdap-default.xml. Retry with delay ranging from 0.1s to 30s
       scheduleStrategy =
           io.cdap.cdap.common.service.RetryStrategies.exponentialDelay(100, 30000,
               TimeUnit.MILLISECONDS);
       this.partition = partition;
+      this.scanIntervalMillis = scanIntervalMillis;
+      this.launchRetryDelayMillis = TimeUnit.SECONDS.toMillis(
+          cConf.getLong(Constants.AppFabric.LAUNCH_QUEUE_RETRY_DELAY_SECONDS));
+      this.waitingJobs = new TimerWheel<>(TIMER_WHEEL_TICK_MILLIS, TIMER_WHEEL_SIZE,
+          System.currentTimeMillis());
+    }
+
+    void requestScan() {
+      scanRequested.set(true);
+      wakeup.release();
+    }
+
+    void programRunFinished(ProgramId programId) {
+      finishedPrograms.add(programId);
+      wakeup.release();
     }
 
     @Override
@@ -150,8 +240,9 @@ class ConstraintCheckerService extends AbstractIdleService {
           long sleepTime = checkJobQueue();
           // Don't sleep if sleepTime returned is 0
           if (sleepTime > 0) {
-            TimeUnit.MILLISECONDS.sleep(sleepTime);
+            wakeup.tryAcquire(sleepTime, TimeUnit.MILLISECONDS);
           }
+          wakeup.drainPermits();
         } catch (InterruptedException e) {
           // sleep is interrupted, just exit without doing anything
         }
@@ -164,13 +255,28 @@ class ConstraintCheckerService extends AbstractIdleService {
      * @return sleep time in milliseconds before next fetch
      */
     private long checkJobQueue() {
-      boolean emptyFetch = false;
+      boolean scanCompleted = true;
+      long now = System.currentTimeMillis();
       try {
-        emptyFetch = TransactionRunners.run(transactionRunner, context -> {
-          return checkJobConstraints(JobQueueTable.getJobQueue(context, cConf));
-        });
+        wakeFinishedProgramJobs(now);
 
-        // run any ready jobs
+        // Continue a scan that ran out of time, or start a new one if needed
+        if (lastConsumed != null || scanRequested.getAndSet(false) || now >= nextScanTime) {
+          if (lastConsumed == null) {
+            nextScanTime = now + scanIntervalMillis;
+          }
+          scanCompleted = TransactionRunners.run(transactionRunner, context -> {
+            return checkJobConstraints(JobQueueTable.getJobQueue(context, cConf));
+          });
+        }
+        checkWaitingJobs();
+
+        // run any ready jobs, including the delayed ones that are due
+        while (!delayedJobs.isEmpty() && delayedJobs.peek().getLaunchRetryTimeMillis() <= now) {
+          Job job = delayedJobs.poll();
+          delayedJobKeys.remove(job.getJobKey());
+          readyJobs.add(job);
+        }
         runReadyJobs();
         failureCount = 0;
       } catch (Exception e) {
@@ -183,33 +289,100 @@ class ConstraintCheckerService extends AbstractIdleService {
         // Exponential strategy doesn't use the time component, so doesn't matter what we passed in as startTime
         return scheduleStrategy.nextRetry(failureCount, 0);
       }
+      if (!scanCompleted || !readyJobs.isEmpty()) {
+        return 0L;
+      }
 
-      // Sleep for 2 seconds if there's no jobs in the queue
-      return emptyFetch && readyJobs.isEmpty() ? 2000L : 0L;
+      // Sleep until the next scan, or until the next tick of the timer wheel if there are waiting jobs
+      long sleepTime = Math.max(1L, nextScanTime - System.currentTimeMillis());
+      if (!delayedJobs.isEmpty()) {
+        long retryTime = delayedJobs.peek().getLaunchRetryTimeMillis();
+        sleepTime = Math.min(sleepTime, Math.max(1L, retryTime - System.currentTimeMillis()));
+      }
+      return waitingJobs.size() > 0 ? Math.min(TIMER_WHEEL_TICK_MILLIS, sleepTime) : sleepTime;
     }
 
-    private boolean checkJobConstraints(JobQueue jobQueue) throws IOException {
-      boolean emptyScan = true;
+    /**
+     * Makes the waiting jobs of programs that had a run finished due for checking.
+     */
+    private void wakeFinishedProgramJobs(long now) {
+      ProgramId programId = finishedPrograms.poll();
+      while (programId != null) {
+        for (Map.Entry<JobKey, ProgramId> entry : waitingJobPrograms.entrySet()) {
+          if (entry.getValue().equals(programId)) {
+            waitingJobs.add(entry.getKey(), now);
+          }
+        }
+        programId = finishedPrograms.poll();
+      }
+    }
 
+    /**
+     * Checks the waiting jobs that are due by reading them from the JobQueue.
+     */
+    private void checkWaitingJobs() throws Exception {
+      long now = System.currentTimeMillis();
+      List<JobKey> dueJobs = waitingJobs.advance(now);
+      if (dueJobs.isEmpty()) {
+        return;
+      }
+      try {
+        TransactionRunners.run(transactionRunner, context -> {
+          JobQueue jobQueue = JobQueueTable.getJobQueue(context, cConf);
+          for (JobKey jobKey : dueJobs) {
+            waitingJobPrograms.remove(jobKey);
+            Job job = jobQueue.getJob(jobKey);
+            if (job != null) {
+              checkAndUpdateJob(jobQueue, job, now);
+            }
+          }
+        }, IOException.class);
+      } catch (Exception e) {
+        // Check them again in the next run
+        for (JobKey jobKey : dueJobs) {
+          if (waitingJobs.getDueTime(jobKey) == null) {
+            waitingJobs.add(jobKey, now);
+          }
+        }
+        throw e;
+      }
+    }
+
+    private boolean checkJobConstraints(JobQueue jobQueue) throws IOException {
       try (CloseableIterator<Job> jobQueueIter = jobQueue.getJobs(partition, lastConsumed)) {
         Stopwatch stopWatch = new Stopwatch().start();
         // limit the batches of the scan to 1000ms
         while (!stopping && stopWatch.elapsedMillis() < 1000) {
           if (!jobQueueIter.hasNext()) {
             lastConsumed = null;
-            return emptyScan;
+            return true;
           }
           Job job = jobQueueIter.next();
           lastConsumed = job;
-          emptyScan = false;
-          checkAndUpdateJob(jobQueue, job);
+          checkAndUpdateJob(jobQueue, job, System.currentTimeMillis());
         }
       }
-      return emptyScan;
+      return false;
     }
 
-    private void checkAndUpdateJob(JobQueue jobQueue, Job job) throws IOException {
-      long now = System.currentTimeMillis();
+    private void checkAndUpdateJob(JobQueue jobQueue, Job job, long now) throws IOException {
+      JobKey jobKey = job.getJobKey();
+      if (!job.isToBeDeleted() && job.getState() == Job.State.PENDING_CONSTRAINT) {
+        Long dueTime = waitingJobs.getDueTime(jobKey);
+        if (dueTime != null && dueTime > now) {
+          // The constraints can't be satisfied yet
+          return;
+        }
+      }
+      forgetWaitingJob(jobKey);
+
+      if (job.getState() == Job.State.PENDING_LAUNCH && job.getLaunchRetryTimeMillis() != null) {
+        // A job that was not admitted for launching. The launcher deletes it if needed.
+        if (delayedJobKeys.add(jobKey)) {
+          delayedJobs.add(job);
+        }
+        return;
+      }
       if (job.isToBeDeleted()) {
         // only delete jobs that are pending trigger or pending constraint. If pending launch, the launcher will delete
         if ((job.getState() == Job.State.PENDING_CONSTRAINT
@@ -236,8 +409,14 @@ class ConstraintCheckerService extends AbstractIdleService {
       if (job.getState() != Job.State.PENDING_CONSTRAINT) {
         return;
       }
-      ConstraintResult.SatisfiedState satisfiedState = constraintsSatisfied(job, now);
+      ConstraintResult constraintResult = constraintsSatisfied(job, now);
+      ConstraintResult.SatisfiedState satisfiedState = constraintResult.getSatisfiedState();
       if (satisfiedState == ConstraintResult.SatisfiedState.NOT_SATISFIED) {
+        // Check again when the constraints could be satisfied, or when the job times out
+        long timeoutTime = job.getCreationTime() + job.getSchedule().getTimeoutMillis()
+            + 2 * Schedulers.SUBSCRIBER_TX_TIMEOUT_MILLIS;
+        waitingJobs.add(jobKey, Math.min(constraintResult.getNextCheckTime(), timeoutTime));
+        waitingJobPrograms.put(jobKey, job.getSchedule().getProgramId());
         return;
       }
       if (satisfiedState == ConstraintResult.SatisfiedState.NEVER_SATISFIED) {
@@ -248,14 +427,23 @@ class ConstraintCheckerService extends AbstractIdleService {
       readyJobs.add(job);
     }
 
+    private void forgetWaitingJob(JobKey jobKey) {
+      if (waitingJobs.remove(jobKey)) {
+        waitingJobPrograms.remove(jobKey);
+      }
+    }
+
     private void runReadyJobs() {
       final Iterator<Job> readyJobsIter = readyJobs.iterator();
       while (readyJobsIter.hasNext() && !stopping) {
         final Job job = readyJobsIter.next();
         try {
-          TransactionRunners.run(transactionRunner, context -> {
-            runReadyJob(JobQueueTable.getJobQueue(context, cConf), job);
+          Job delayedJob = TransactionRunners.run(transactionRunner, context -> {
+            return runReadyJob(JobQueueTable.getJobQueue(context, cConf), job);
           }, TransactionException.class);
+          if (delayedJob != null && delayedJobKeys.add(delayedJob.getJobKey())) {
+            delayedJobs.add(delayedJob);
+          }
         } catch (TransactionException e) {
           LOG.warn("Failed to run program {} in schedule {}. Skip running this program.",
               job.getSchedule().getProgramId(), job.getSchedule().getName(), e);
@@ -264,14 +452,15 @@ class ConstraintCheckerService extends AbstractIdleService {
       }
     }
 
-    // return whether or not the job should be removed from the readyJobs in-memory Deque
-    private boolean runReadyJob(JobQueue jobQueue, Job job) throws IOException {
+    // return the job if it was kept in PENDING_LAUNCH state for launching it again later
+    @Nullable
+    private Job runReadyJob(JobQueue jobQueue, Job job) throws IOException {
       // We should check the stored job's state (whether it actually is PENDING_LAUNCH), because
       // the schedule could have gotten deleted in the meantime or the transaction that marked it as PENDING_LAUNCH
       // may have failed / rolled back.
       Job storedJob = jobQueue.getJob(job.getJobKey());
       if (storedJob == null) {
-        return true;
+        return null;
       }
       if (storedJob.isToBeDeleted() || storedJob.getState() != Job.State.PENDING_LAUNCH) {
         // If the storedJob.isToBeDeleted(), that means the schedule was deleted/updated before the state transition
@@ -281,13 +470,26 @@ class ConstraintCheckerService extends AbstractIdleService {
         // The storedJob state could be something other than PENDING_LAUNCH, if the transaction aborted after added
         // the job to readyJobs (in-memory queue)
         jobQueue.deleteJob(job);
-        return true;
+        return null;
       }
 
       try {
         taskRunner.launch(job);
         emitScheduleJobSuccessAndLatencyMetric(job.getSchedule().getScheduleId().getApplication(),
             job.getSchedule().getName(), job.getCreationTime());
+      } catch (TooManyRequestsException e) {
+        if (System.currentTimeMillis() - job.getCreationTime()
+            < job.getSchedule().getTimeoutMillis()) {
+          // Keep the job in PENDING_LAUNCH state and launch it again later, instead of waiting for
+          // launch capacity in this transaction
+          LOG.debug("Delaying job {}: {}", job.getJobKey(), e.getMessage());
+          return jobQueue.delayLaunch(storedJob,
+              System.currentTimeMillis() + launchRetryDelayMillis);
+        }
+        LOG.error("Skip job {} because it was not admitted before its timeout of {} ms: {}",
+            job.getJobKey(), job.getSchedule().getTimeoutMillis(), e.getMessage());
+        emitScheduleJobFailureMetric(job.getSchedule().getScheduleId().getApplication(),
+            job.getSchedule().getName());
       } catch (ConflictException e) {
         LOG.error("Skip job {} because it was rejected while launching: {}", job.getJobKey(),
             e.getMessage());
@@ -303,11 +505,18 @@ class ConstraintCheckerService extends AbstractIdleService {
       // this should not have a conflict, because any updates to the job will first check to make sure that
       // it is not PENDING_LAUNCH
       jobQueue.deleteJob(job);
-      return true;
+      return null;
     }
 
-    private ConstraintResult.SatisfiedState constraintsSatisfied(Job job, long now) {
-      ConstraintResult.SatisfiedState satisfiedState = ConstraintResult.SatisfiedState.SATISFIED;
+    /**
+     * Checks the constraints of the given job.
+     *
+     * @return {@link ConstraintResult#NEVER_SATISFIED} if any constraint is never satisfied, the
+     *     unsatisfied result with the earliest next check time if any constraint is not satisfied,
+     *     or {@link ConstraintResult#SATISFIED} otherwise
+     */
+    private ConstraintResult constraintsSatisfied(Job job, long now) {
+      ConstraintResult constraintResult = ConstraintResult.SATISFIED;
 
       ConstraintContext constraintContext = new ConstraintContext(job, now, store);
       for (Constraint constraint : job.getSchedule().getConstraints()) {
@@ -322,13 +531,15 @@ class ConstraintCheckerService extends AbstractIdleService {
         ConstraintResult result = abstractConstraint.check(job.getSchedule(), constraintContext);
         if (result.getSatisfiedState() == ConstraintResult.NEVER_SATISFIED.getSatisfiedState()) {
           // if any of the constraints are NEVER_SATISFIED, return NEVER_SATISFIED
-          return ConstraintResult.NEVER_SATISFIED.getSatisfiedState();
+          return ConstraintResult.NEVER_SATISFIED;
         }
-        if (result.getSatisfiedState() == ConstraintResult.SatisfiedState.NOT_SATISFIED) {
-          satisfiedState = ConstraintResult.SatisfiedState.NOT_SATISFIED;
+        if (result.getSatisfiedState() == ConstraintResult.SatisfiedState.NOT_SATISFIED
+            && (constraintResult.getNextCheckTime() == null
+            || result.getNextCheckTime() < constraintResult.getNextCheckTime())) {
+          constraintResult = result;
         }
       }
-      return satisfiedState;
+      return constraintResult;
     }
 
     private void emitScheduleJobSuccessAndLatencyMetric(String application, String schedule,
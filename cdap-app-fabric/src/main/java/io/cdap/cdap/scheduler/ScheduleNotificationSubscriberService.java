@@ -16,7 +16,9 @@
 
 package io.cdap.cdap.scheduler;
 
+import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ListMultimap;
 import com.google.common.util.concurrent.AbstractIdleService;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.Service;
@@ -48,9 +50,14 @@ import io.cdap.cdap.spi.data.StructuredTableContext;
 import io.cdap.cdap.spi.data.transaction.TransactionRunner;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -72,16 +79,19 @@ public class ScheduleNotificationSubscriberService extends AbstractIdleService {
   private final CConfiguration cConf;
   private final MessagingService messagingService;
   private final MetricsCollectionService metricsCollectionService;
+  private final ConstraintCheckerService constraintCheckerService;
   private final List<Service> subscriberServices;
   private ScheduledExecutorService subscriberExecutor;
 
   @Inject
   ScheduleNotificationSubscriberService(CConfiguration cConf, MessagingService messagingService,
       MetricsCollectionService metricsCollectionService,
+      ConstraintCheckerService constraintCheckerService,
       TransactionRunner transactionRunner) {
     this.cConf = cConf;
     this.messagingService = messagingService;
     this.metricsCollectionService = metricsCollectionService;
+    this.constraintCheckerService = constraintCheckerService;
     this.subscriberServices = Arrays.asList(new SchedulerEventSubscriberService(transactionRunner),
         new DataEventSubscriberService(transactionRunner),
         new ProgramStatusEventSubscriberService(transactionRunner));
@@ -128,6 +138,15 @@ public class ScheduleNotificationSubscriberService extends AbstractIdleService {
   private abstract class AbstractSchedulerSubscriberService extends
       AbstractNotificationSubscriberService {
 
+    // Notifications of the batch being processed, grouped by schedule
+    private final Map<ScheduleId, ProgramScheduleRecord> batchSchedules = new LinkedHashMap<>();
+    private final ListMultimap<ScheduleId, Notification> batchNotifications =
+        ArrayListMultimap.create();
+    // Schedules found by trigger key in the batch being processed
+    private final Map<String, Collection<ProgramScheduleRecord>> batchTriggerSchedules =
+        new HashMap<>();
+    private boolean jobQueueUpdated;
+
     AbstractSchedulerSubscriberService(String name, String topic, int fetchSize,
         TransactionRunner transactionRunner) {
       super(name, cConf, topic, fetchSize,
@@ -153,8 +172,30 @@ public class ScheduleNotificationSubscriberService extends AbstractIdleService {
       ProgramScheduleStoreDataset scheduleStore = getScheduleStore(structuredTableContext);
       JobQueueTable jobQueue = getJobQueue(structuredTableContext);
 
+      // The processing can be retried with the same messages if the transaction failed
+      batchSchedules.clear();
+      batchNotifications.clear();
+      batchTriggerSchedules.clear();
       while (messages.hasNext()) {
-        processNotification(scheduleStore, jobQueue, messages.next().getSecond());
+        processNotification(scheduleStore, messages.next().getSecond());
+      }
+
+      // Apply all notifications of the same schedule to the job queue at once
+      for (Map.Entry<ScheduleId, ProgramScheduleRecord> entry : batchSchedules.entrySet()) {
+        addNotifications(jobQueue, entry.getValue(), batchNotifications.get(entry.getKey()));
+        jobQueueUpdated = true;
+      }
+      batchSchedules.clear();
+      batchNotifications.clear();
+      batchTriggerSchedules.clear();
+    }
+
+    @Override
+    protected void postProcess() {
+      // Let the constraint checker pick up the jobs after the transaction is committed
+      if (jobQueueUpdated) {
+        jobQueueUpdated = false;
+        constraintCheckerService.jobsUpdated();
       }
     }
 
@@ -163,11 +204,45 @@ public class ScheduleNotificationSubscriberService extends AbstractIdleService {
       return subscriberExecutor;
     }
 
+    /**
+     * Adds a {@link Notification} to the jobs of the given schedule. The notifications are added to
+     * the job queue after all the notifications of the batch are processed.
+     */
+    protected void addNotification(ProgramScheduleRecord schedule, Notification notification) {
+      ScheduleId scheduleId = schedule.getSchedule().getScheduleId();
+      if (!batchSchedules.containsKey(scheduleId)) {
+        batchSchedules.put(scheduleId, schedule);
+      }
+      batchNotifications.put(scheduleId, notification);
+    }
+
+    /**
+     * Adds the notifications of a batch to the jobs of the given schedule in the job queue.
+     */
+    protected void addNotifications(JobQueueTable jobQueue, ProgramScheduleRecord schedule,
+        List<Notification> notifications) throws IOException {
+      jobQueue.addNotifications(schedule, notifications);
+    }
+
+    /**
+     * Finds all schedules that have a trigger with the given trigger key. Results are reused
+     * within the same batch, since events of a batch usually come from a few sources.
+     */
+    protected Collection<ProgramScheduleRecord> findSchedules(
+        ProgramScheduleStoreDataset scheduleStore, String triggerKey) throws IOException {
+      Collection<ProgramScheduleRecord> schedules = batchTriggerSchedules.get(triggerKey);
+      if (schedules == null) {
+        schedules = scheduleStore.findSchedules(triggerKey);
+        batchTriggerSchedules.put(triggerKey, schedules);
+      }
+      return schedules;
+    }
+
     /**
      * Processes a single {@link Notification}.
      */
     protected abstract void processNotification(ProgramScheduleStoreDataset scheduleStore,
-        JobQueueTable jobQueue, Notification notification) throws IOException;
+        Notification notification) throws IOException;
 
     private JobQueueTable getJobQueue(StructuredTableContext context) {
       return JobQueueTable.getJobQueue(context, cConf);
@@ -191,7 +266,7 @@ public class ScheduleNotificationSubscriberService extends AbstractIdleService {
 
     @Override
     protected void processNotification(ProgramScheduleStoreDataset scheduleStore,
-        JobQueueTable jobQueue, Notification notification) throws IOException {
+        Notification notification) throws IOException {
       Map<String, String> properties = notification.getProperties();
       String scheduleIdString = properties.get(ProgramOptionConstants.SCHEDULE_ID);
       if (scheduleIdString == null) {
@@ -216,12 +291,18 @@ public class ScheduleNotificationSubscriberService extends AbstractIdleService {
             scheduleId, notification);
         return;
       }
+      addNotification(record, notification);
+    }
+
+    @Override
+    protected void addNotifications(JobQueueTable jobQueue, ProgramScheduleRecord schedule,
+        List<Notification> notifications) throws IOException {
       try {
-        jobQueue.addNotification(record, notification);
+        super.addNotifications(jobQueue, schedule, notifications);
       } catch (Exception e) {
         emitScheduleJobNotificationFailureMetrics(
-            record.getSchedule().getScheduleId().getApplication(),
-            record.getSchedule().getScheduleId().getSchedule());
+            schedule.getSchedule().getScheduleId().getApplication(),
+            schedule.getSchedule().getScheduleId().getSchedule());
         throw e;
       }
     }
@@ -250,15 +331,15 @@ public class ScheduleNotificationSubscriberService extends AbstractIdleService {
 
     @Override
     protected void processNotification(ProgramScheduleStoreDataset scheduleStore,
-        JobQueueTable jobQueue, Notification notification) throws IOException {
+        Notification notification) throws IOException {
       String datasetIdString = notification.getProperties().get(Notification.DATASET_ID);
       if (datasetIdString == null) {
         return;
       }
       DatasetId datasetId = DatasetId.fromString(datasetIdString);
       for (ProgramScheduleRecord schedule :
-          scheduleStore.findSchedules(Schedulers.triggerKeyForPartition(datasetId))) {
-        jobQueue.addNotification(schedule, notification);
+          findSchedules(scheduleStore, Schedulers.triggerKeyForPartition(datasetId))) {
+        addNotification(schedule, notification);
       }
     }
   }
@@ -269,6 +350,8 @@ public class ScheduleNotificationSubscriberService extends AbstractIdleService {
   private final class ProgramStatusEventSubscriberService extends
       AbstractSchedulerSubscriberService {
 
+    private final Set<ProgramId> finishedPrograms = new HashSet<>();
+
     ProgramStatusEventSubscriberService(TransactionRunner transactionRunner) {
       // Fetch transactionally since publishing from AppMetadataStore is transactional.
       super("scheduler.program.event",
@@ -278,7 +361,7 @@ public class ScheduleNotificationSubscriberService extends AbstractIdleService {
 
     @Override
     protected void processNotification(ProgramScheduleStoreDataset scheduleStore,
-        JobQueueTable jobQueue, Notification notification) throws IOException {
+        Notification notification) throws IOException {
       String programRunIdString = notification.getProperties()
           .get(ProgramOptionConstants.PROGRAM_RUN_ID);
       String programRunStatusString = notification.getProperties()
@@ -300,13 +383,24 @@ public class ScheduleNotificationSubscriberService extends AbstractIdleService {
 
       ProgramRunId programRunId = GSON.fromJson(programRunIdString, ProgramRunId.class);
       ProgramId programId = programRunId.getParent();
+      if (ProgramRunStatus.isEndState(programRunStatusString)) {
+        finishedPrograms.add(programId);
+      }
       String triggerKeyForProgramStatus = Schedulers.triggerKeyForProgramStatus(programId,
           programStatus);
 
-      for (ProgramScheduleRecord schedule : scheduleStore.findSchedules(
+      for (ProgramScheduleRecord schedule : findSchedules(scheduleStore,
           triggerKeyForProgramStatus)) {
-        jobQueue.addNotification(schedule, notification);
+        addNotification(schedule, notification);
       }
     }
+
+    @Override
+    protected void postProcess() {
+      super.postProcess();
+      // Constraints on the runs of the finished programs may be satisfied now
+      finishedPrograms.forEach(constraintCheckerService::programRunFinished);
+      finishedPrograms.clear();
+    }
   }
 }
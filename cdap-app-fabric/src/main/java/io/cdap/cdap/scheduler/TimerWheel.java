@@ -0,0 +1,192 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.scheduler;
+
+import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
+
+/**
+ * A hierarchical timer wheel that keeps keys until their due time. Level {@code n} of the wheel
+ * has buckets spanning {@code tickMillis * wheelSize^n} milliseconds, hence adding, removing and
+ * advancing the wheel are all constant time regardless of how far in the future the due times are.
+ * Keys in a higher level bucket are cascaded to the lower levels when the wheel advances into the
+ * time range of the bucket. Levels are created on demand.
+ *
+ * <p>This class is not thread safe.</p>
+ *
+ * @param <T> type of the keys
+ */
+final class TimerWheel<T> {
+
+  private final long tickMillis;
+  private final int wheelSize;
+  private final Map<T, Long> dueTicks;
+  private final List<List<Set<T>>> levels;
+  private final Set<T> expired;
+  private long currentTick;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param tickMillis the time resolution of the wheel in milliseconds
+   * @param wheelSize number of buckets in each level of the wheel
+   * @param startTimeMillis the current time in milliseconds
+   */
+  TimerWheel(long tickMillis, int wheelSize, long startTimeMillis) {
+    Preconditions.checkArgument(tickMillis > 0, "Tick must be positive.");
+    Preconditions.checkArgument(wheelSize > 1, "Wheel size must be larger than one.");
+    this.tickMillis = tickMillis;
+    this.wheelSize = wheelSize;
+    this.dueTicks = new HashMap<>();
+    this.levels = new ArrayList<>();
+    this.expired = new LinkedHashSet<>();
+    this.currentTick = startTimeMillis / tickMillis;
+  }
+
+  /**
+   * Adds a key to the wheel, replacing the due time if the key is already in the wheel. A key with
+   * a due time that is not in the future is returned by the next call to {@link #advance(long)}.
+   */
+  void add(T key, long dueTimeMillis) {
+    remove(key);
+    long dueTick = (dueTimeMillis + tickMillis - 1) / tickMillis;
+    dueTicks.put(key, dueTick);
+    insert(key, dueTick);
+  }
+
+  /**
+   * Removes a key from the wheel.
+   *
+   * @return {@code true} if the key was in the wheel
+   */
+  boolean remove(T key) {
+    Long dueTick = dueTicks.remove(key);
+    if (dueTick == null) {
+      return false;
+    }
+    if (!expired.remove(key)) {
+      int level = getLevel(dueTick);
+      levels.get(level).get(getBucket(dueTick, level)).remove(key);
+    }
+    return true;
+  }
+
+  /**
+   * Returns the due time of the given key in milliseconds rounded up to the tick of the wheel, or
+   * {@code null} if the key is not in the wheel.
+   */
+  @Nullable
+  Long getDueTime(T key) {
+    Long dueTick = dueTicks.get(key);
+    return dueTick == null ? null : dueTick * tickMillis;
+  }
+
+  /**
+   * Returns the number of keys in the wheel.
+   */
+  int size() {
+    return dueTicks.size();
+  }
+
+  /**
+   * Advances the wheel to the given time and removes all keys that are due.
+   *
+   * @param nowMillis the current time in milliseconds
+   * @return the keys that are due
+   */
+  List<T> advance(long nowMillis) {
+    long nowTick = nowMillis / tickMillis;
+    if (dueTicks.size() == expired.size()) {
+      // Nothing in the buckets, just jump ahead
+      currentTick = Math.max(currentTick, nowTick);
+    }
+    while (currentTick < nowTick) {
+      currentTick++;
+      // Cascade from the highest level, so that keys can go down multiple levels in one tick
+      long span = 1;
+      int level = 0;
+      while (level + 1 < levels.size() && currentTick % (span * wheelSize) == 0) {
+        span *= wheelSize;
+        level++;
+      }
+      for (; level > 0; level--) {
+        Set<T> bucket = levels.get(level).get(getBucket(currentTick, level));
+        List<T> keys = new ArrayList<>(bucket);
+        bucket.clear();
+        for (T key : keys) {
+          insert(key, dueTicks.get(key));
+        }
+      }
+      if (!levels.isEmpty()) {
+        Set<T> bucket = levels.get(0).get(getBucket(currentTick, 0));
+        expired.addAll(bucket);
+        bucket.clear();
+      }
+    }
+
+    List<T> result = new ArrayList<>(expired);
+    for (T key : result) {
+      dueTicks.remove(key);
+    }
+    expired.clear();
+    return result;
+  }
+
+  private void insert(T key, long dueTick) {
+    if (dueTick <= currentTick) {
+      expired.add(key);
+      return;
+    }
+    int level = getLevel(dueTick);
+    while (levels.size() <= level) {
+      List<Set<T>> buckets = new ArrayList<>(wheelSize);
+      for (int i = 0; i < wheelSize; i++) {
+        buckets.add(new LinkedHashSet<>());
+      }
+      levels.add(buckets);
+    }
+    levels.get(level).get(getBucket(dueTick, level)).add(key);
+  }
+
+  /**
+   * Returns the lowest level that has the current tick and the given due tick in the same round of
+   * the next level, so that the bucket is visited by the wheel before the due tick.
+   */
+  private int getLevel(long dueTick) {
+    int level = 0;
+    long span = wheelSize;
+    while (dueTick / span != currentTick / span) {
+      level++;
+      span *= wheelSize;
+    }
+    return level;
+  }
+
+  private int getBucket(long tick, int level) {
+    long span = 1;
+    for (int i = 0; i < level; i++) {
+      span *= wheelSize;
+    }
+    return (int) ((tick / span) % wheelSize);
+  }
+}
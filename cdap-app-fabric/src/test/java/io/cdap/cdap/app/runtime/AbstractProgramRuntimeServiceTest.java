@@ -16,7 +16,9 @@
 
 package io.cdap.cdap.app.runtime;
 
+import com.google.common.base.Charsets;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.io.Files;
 import com.google.common.util.concurrent.AbstractExecutionThreadService;
 import com.google.common.util.concurrent.AbstractIdleService;
 import com.google.common.util.concurrent.Service;
@@ -33,10 +35,12 @@ import io.cdap.cdap.common.id.Id;
 import io.cdap.cdap.common.internal.remote.DefaultInternalAuthenticator;
 import io.cdap.cdap.common.internal.remote.RemoteClientFactory;
 import io.cdap.cdap.common.io.Locations;
+import io.cdap.cdap.common.lang.jar.BundleJarUtil;
 import io.cdap.cdap.common.utils.Tasks;
 import io.cdap.cdap.internal.app.deploy.InMemoryProgramRunDispatcher;
 import io.cdap.cdap.internal.app.deploy.ProgramRunDispatcherFactory;
 import io.cdap.cdap.internal.app.runtime.BasicArguments;
+import io.cdap.cdap.internal.app.runtime.ProgramClassLoader;
 import io.cdap.cdap.internal.app.runtime.ProgramControllerServiceAdapter;
 import io.cdap.cdap.internal.app.runtime.ProgramOptionConstants;
 import io.cdap.cdap.internal.app.runtime.SimpleProgramOptions;
@@ -304,6 +308,58 @@ public class AbstractProgramRuntimeServiceTest {
     }
   }
 
+  @Test (timeout = 10000)
+  public void testDispatchWithFolderCache() throws Exception {
+    cConf.set(Constants.CFG_LOCAL_DATA_DIR, TEMP_FOLDER.newFolder().getAbsolutePath());
+    cConf.setLong(Constants.AppFabric.ARTIFACT_FOLDER_CACHE_SIZE_MB, 64L);
+    File cacheDir = new File(cConf.get(Constants.CFG_LOCAL_DATA_DIR),
+                             cConf.get(Constants.AppFabric.ARTIFACT_FOLDER_CACHE_DIR));
+
+    File jarDir = TEMP_FOLDER.newFolder();
+    Files.write("content", new File(jarDir, "lib.jar"), Charsets.UTF_8);
+    File artifactJar = new File(TEMP_FOLDER.newFolder(), "artifact.jar");
+    BundleJarUtil.createJar(jarDir, artifactJar);
+
+    // Records the program jar and the classloader directory of each run
+    List<Location> jarLocations = Collections.synchronizedList(new ArrayList<>());
+    List<File> classLoaderDirs = Collections.synchronizedList(new ArrayList<>());
+    ProgramRunnerFactory runnerFactory = programType -> (program, options) -> {
+      jarLocations.add(program.getJarLocation());
+      classLoaderDirs.add(((ProgramClassLoader) program.getClassLoader()).getDir());
+      Service service = new FastService();
+      ProgramController controller = new ProgramControllerServiceAdapter(service, program.getId().run(RunIds.generate()));
+      service.start();
+      return controller;
+    };
+
+    Program program = createDummyProgram();
+    InMemoryProgramRunDispatcher launchDispatcher =
+      new TestProgramRunDispatcher(cConf, runnerFactory, Locations.toLocation(artifactJar));
+    ProgramRuntimeService runtimeService = new TestProgramRuntimeService(cConf, runnerFactory, null, launchDispatcher);
+    runtimeService.startAndWait();
+    try {
+      ProgramDescriptor descriptor = new ProgramDescriptor(program.getId(), null,
+                                                           NamespaceId.DEFAULT.artifact("test", "1.0"));
+      for (int i = 0; i < 2; i++) {
+        ProgramController controller = runtimeService.run(descriptor, new SimpleProgramOptions(program.getId()),
+                                                          RunIds.generate()).getController();
+        Tasks.waitFor(ProgramController.State.COMPLETED, controller::getState,
+                      5, TimeUnit.SECONDS, 100, TimeUnit.MILLISECONDS);
+      }
+    } finally {
+      runtimeService.stopAndWait();
+    }
+
+    // Each run has its own snapshot of the jar, while both runs share the expanded directory in the cache
+    Assert.assertEquals(2, jarLocations.size());
+    for (Location jarLocation : jarLocations) {
+      Assert.assertNotEquals(artifactJar.toURI(), jarLocation.toURI());
+    }
+    Assert.assertEquals(classLoaderDirs.get(0), classLoaderDirs.get(1));
+    Assert.assertEquals(cacheDir.getAbsoluteFile(), classLoaderDirs.get(0).getParentFile());
+    Assert.assertTrue(new File(classLoaderDirs.get(0), "lib.jar").isFile());
+  }
+
   private ProgramRunnerFactory createProgramRunnerFactory() {
     return createProgramRunnerFactory(new HashMap<>());
   }
@@ -486,6 +542,7 @@ public class AbstractProgramRuntimeServiceTest {
 
     private final Program program;
     private final boolean tetheredRun;
+    private final Location artifactLocation;
 
     public TestProgramRunDispatcher(CConfiguration cConf, ProgramRunnerFactory programRunnerFactory,
                                     Program program, LocationFactory locationFactory,
@@ -500,12 +557,28 @@ public class AbstractProgramRuntimeServiceTest {
       super(cConf, programRunnerFactory, null, locationFactory, remoteClientFactory, null, null);
       this.program = program;
       this.tetheredRun = tetheredRun;
+      this.artifactLocation = null;
+    }
+
+    /**
+     * Creates a dispatcher that creates the program from the given artifact jar.
+     */
+    public TestProgramRunDispatcher(CConfiguration cConf, ProgramRunnerFactory programRunnerFactory,
+                                    Location artifactLocation) {
+      super(cConf, programRunnerFactory, null, null, null, null, null);
+      this.program = null;
+      this.tetheredRun = false;
+      this.artifactLocation = artifactLocation;
     }
 
     @Override
     protected Program createProgram(CConfiguration cConf, ProgramRunner programRunner,
                                     ProgramDescriptor programDescriptor,
-                                    ArtifactDetail artifactDetail, File tempDir, boolean isTethered) {
+                                    ArtifactDetail artifactDetail, File tempDir, boolean isTethered)
+      throws IOException {
+      if (artifactLocation != null) {
+        return super.createProgram(cConf, programRunner, programDescriptor, artifactDetail, tempDir, isTethered);
+      }
       if (program == null) {
         throw new IllegalArgumentException("No program is available");
       }
@@ -517,8 +590,8 @@ public class AbstractProgramRuntimeServiceTest {
       throws IOException {
       io.cdap.cdap.api.artifact.ArtifactId id = new io.cdap.cdap.api.artifact.ArtifactId(
         "dummy", new ArtifactVersion("1.0"), ArtifactScope.USER);
-      return new ArtifactDetail(new ArtifactDescriptor(NamespaceId.DEFAULT.getNamespace(),
-                                                       id, Locations.toLocation(TEMP_FOLDER.newFile())),
+      Location location = artifactLocation == null ? Locations.toLocation(TEMP_FOLDER.newFile()) : artifactLocation;
+      return new ArtifactDetail(new ArtifactDescriptor(NamespaceId.DEFAULT.getNamespace(), id, location),
                                 new ArtifactMeta(ArtifactClasses.builder().build()));
     }
 
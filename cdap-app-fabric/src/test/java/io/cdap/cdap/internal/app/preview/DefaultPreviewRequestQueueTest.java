@@ -42,6 +42,7 @@ import io.cdap.cdap.proto.id.ProgramId;
 import io.cdap.cdap.proto.id.ProgramRunId;
 import io.cdap.cdap.proto.security.Credential;
 import io.cdap.cdap.proto.security.Principal;
+import java.io.Writer;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -95,6 +96,11 @@ public class DefaultPreviewRequestQueueTest {
       return null;
     }
 
+    @Override
+    public void write(ApplicationId applicationId, String tracerName, Writer writer) {
+
+    }
+
     @Override
     public void remove(ApplicationId applicationId) {
 
@@ -0,0 +1,140 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.internal.app.preview;
+
+import com.google.gson.Gson;
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Scopes;
+import io.cdap.cdap.api.artifact.ArtifactSummary;
+import io.cdap.cdap.api.common.Bytes;
+import io.cdap.cdap.api.metrics.MetricsCollectionService;
+import io.cdap.cdap.api.metrics.MetricsContext;
+import io.cdap.cdap.app.preview.PreviewConfigModule;
+import io.cdap.cdap.app.preview.PreviewMessage;
+import io.cdap.cdap.app.preview.PreviewRequest;
+import io.cdap.cdap.app.preview.PreviewStatus;
+import io.cdap.cdap.app.store.preview.PreviewStore;
+import io.cdap.cdap.common.app.RunIds;
+import io.cdap.cdap.common.conf.CConfiguration;
+import io.cdap.cdap.common.conf.Constants;
+import io.cdap.cdap.common.conf.SConfiguration;
+import io.cdap.cdap.common.utils.ImmutablePair;
+import io.cdap.cdap.internal.AppFabricTestHelper;
+import io.cdap.cdap.internal.app.store.preview.DefaultPreviewStore;
+import io.cdap.cdap.messaging.MessagingService;
+import io.cdap.cdap.proto.ProgramType;
+import io.cdap.cdap.proto.artifact.AppRequest;
+import io.cdap.cdap.proto.artifact.preview.PreviewConfig;
+import io.cdap.cdap.proto.id.ApplicationId;
+import io.cdap.cdap.spi.data.transaction.TransactionRunner;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.apache.hadoop.conf.Configuration;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+
+/**
+ * Tests for {@link PreviewDataSubscriberService}.
+ */
+public class PreviewDataSubscriberServiceTest {
+
+  @ClassRule
+  public static final TemporaryFolder TEMP_FOLDER = new TemporaryFolder();
+
+  private static final Gson GSON = new Gson();
+
+  private static Injector injector;
+
+  @BeforeClass
+  public static void beforeClass() throws Exception {
+    CConfiguration cConf = CConfiguration.create();
+    cConf.set(Constants.CFG_LOCAL_DATA_DIR, TEMP_FOLDER.newFolder().getAbsolutePath());
+
+    injector = Guice.createInjector(
+      new PreviewConfigModule(cConf, new Configuration(), SConfiguration.create()),
+      new AbstractModule() {
+        @Override
+        protected void configure() {
+          bind(PreviewStore.class).to(DefaultPreviewStore.class).in(Scopes.SINGLETON);
+        }
+      }
+    );
+  }
+
+  @AfterClass
+  public static void tearDown() {
+    AppFabricTestHelper.shutdown();
+  }
+
+  @Test
+  public void testLaunchMetrics() throws Exception {
+    MetricsContext metricsContext = Mockito.mock(MetricsContext.class);
+    MetricsCollectionService metricsCollectionService = Mockito.mock(MetricsCollectionService.class);
+    Mockito.when(metricsCollectionService.getContext(Mockito.anyMap())).thenReturn(metricsContext);
+
+    PreviewStore previewStore = injector.getInstance(PreviewStore.class);
+    DefaultPreviewRequestQueue requestQueue = injector.getInstance(DefaultPreviewRequestQueue.class);
+    PreviewDataSubscriberService subscriberService = new PreviewDataSubscriberService(
+      CConfiguration.create(), Mockito.mock(MessagingService.class), metricsCollectionService, previewStore,
+      Mockito.mock(TransactionRunner.class));
+
+    PreviewConfig previewConfig = new PreviewConfig("WordCount", ProgramType.WORKFLOW, null, null);
+    AppRequest<?> appRequest = new AppRequest<>(new ArtifactSummary("test", "1.0"), null, previewConfig);
+    ApplicationId appId = new ApplicationId("default", RunIds.generate().getId());
+    requestQueue.add(new PreviewRequest(appId, appRequest, null));
+
+    // Polling the request marks it as INIT without a start time
+    Assert.assertTrue(requestQueue.poll(Bytes.toBytes("runner-1")).isPresent());
+    PreviewStatus polled = previewStore.getPreviewStatus(appId);
+    Assert.assertNotNull(polled);
+    Assert.assertEquals(PreviewStatus.Status.INIT, polled.getStatus());
+    Assert.assertNull(polled.getStartTime());
+
+    // The runner then reports INIT with the start time, which is when the preview left the queue
+    long submitTime = RunIds.getTime(appId.getApplication(), TimeUnit.MILLISECONDS);
+    long startTime = System.currentTimeMillis();
+    processStatus(subscriberService, appId,
+                  new PreviewStatus(PreviewStatus.Status.INIT, submitTime, null, startTime, null));
+    Mockito.verify(metricsContext).gauge(Constants.Metrics.Preview.QUEUE_WAIT_TIME_MS,
+                                         Math.max(0L, startTime - submitTime));
+    Mockito.verify(metricsContext, Mockito.never()).gauge(Mockito.eq(Constants.Metrics.Preview.STARTUP_TIME_MS),
+                                                          Mockito.anyLong());
+
+    // Repeated INIT doesn't emit the queue wait time again, while RUNNING emits the startup time
+    processStatus(subscriberService, appId,
+                  new PreviewStatus(PreviewStatus.Status.INIT, submitTime, null, startTime, null));
+    processStatus(subscriberService, appId,
+                  new PreviewStatus(PreviewStatus.Status.RUNNING, submitTime, null, startTime + 1000L, null));
+    Mockito.verify(metricsContext).gauge(Mockito.eq(Constants.Metrics.Preview.QUEUE_WAIT_TIME_MS),
+                                         Mockito.anyLong());
+    Mockito.verify(metricsContext).gauge(Constants.Metrics.Preview.STARTUP_TIME_MS, 1000L);
+  }
+
+  private void processStatus(PreviewDataSubscriberService subscriberService, ApplicationId appId,
+                             PreviewStatus status) throws Exception {
+    PreviewMessage message = new PreviewMessage(PreviewMessage.Type.STATUS, appId, GSON.toJsonTree(status));
+    subscriberService.processMessages(null, Collections.singletonList(
+      new ImmutablePair<>(RunIds.generate().getId(), message)).iterator());
+  }
+}
@@ -104,6 +104,7 @@ public abstract class ArtifactStoreTest {
 
     // no artifacts in a namespace should return an empty collection
     Assert.assertTrue(artifactStore.getArtifacts(namespace).isEmpty());
+    Assert.assertEquals(0, artifactStore.getArtifactCount(namespace));
     // no artifacts in range should return an empty collection
     ArtifactRange range = new ArtifactRange(
       namespace.getNamespace(), "something", new ArtifactVersion("1.0.0"), new ArtifactVersion("2.0.0"));
@@ -390,6 +391,8 @@ public abstract class ArtifactStoreTest {
       assertEqual(artifact1, meta1, contents1, namespace1Artifacts.get(0));
       Assert.assertEquals(1, namespace2Artifacts.size());
       assertEqual(artifact2, meta2, contents2, namespace2Artifacts.get(0));
+      Assert.assertEquals(1, artifactStore.getArtifactCount(namespace1.toEntityId()));
+      Assert.assertEquals(1, artifactStore.getArtifactCount(namespace2.toEntityId()));
     } finally {
       artifactStore.clear(namespace1.toEntityId());
       artifactStore.clear(namespace2.toEntityId());
@@ -1509,6 +1512,52 @@ public abstract class ArtifactStoreTest {
   }
 
 
+  @Test
+  public void testPluginLookupAfterModification() throws Exception {
+    Id.Artifact parentArtifactId = Id.Artifact.from(Id.Namespace.DEFAULT, "parent", "1.0.0");
+    writeArtifact(parentArtifactId, new ArtifactMeta(ArtifactClasses.builder().build()), "content");
+    ArtifactRange parentArtifacts = new ArtifactRange(
+      NamespaceId.DEFAULT.getNamespace(), "parent", new ArtifactVersion("1.0.0"), new ArtifactVersion("2.0.0"));
+    PluginClass pluginClass = PluginClass.builder().setName("plugin").setType("atype").setDescription("")
+      .setClassName("c.c.c.plugin").setConfigFieldName("cfg")
+      .setProperties(ImmutableMap.of()).build();
+    ArtifactMeta pluginMeta = new ArtifactMeta(ArtifactClasses.builder().addPlugin(pluginClass).build(),
+                                               ImmutableSet.of(parentArtifacts));
+
+    Id.Artifact plugins1 = Id.Artifact.from(Id.Namespace.DEFAULT, "plugins", "1.0.0");
+    writeArtifact(plugins1, pluginMeta, "plugins1");
+    Assert.assertEquals(Collections.singletonList(plugins1.toArtifactId()), getPluginArtifacts(parentArtifactId));
+
+    // Repeated lookup should give the same result
+    Assert.assertEquals(Collections.singletonList(plugins1.toArtifactId()), getPluginArtifacts(parentArtifactId));
+
+    // A new plugin artifact should be visible right away
+    Id.Artifact plugins2 = Id.Artifact.from(Id.Namespace.DEFAULT, "plugins", "2.0.0");
+    writeArtifact(plugins2, pluginMeta, "plugins2");
+    Assert.assertEquals(Arrays.asList(plugins1.toArtifactId(), plugins2.toArtifactId()),
+                        getPluginArtifacts(parentArtifactId));
+
+    // A deleted plugin artifact should be gone right away
+    artifactStore.delete(plugins1);
+    Assert.assertEquals(Collections.singletonList(plugins2.toArtifactId()), getPluginArtifacts(parentArtifactId));
+
+    // So should be the parent artifact
+    artifactStore.delete(parentArtifactId);
+    try {
+      getPluginArtifacts(parentArtifactId);
+      Assert.fail("Expected ArtifactNotFoundException");
+    } catch (ArtifactNotFoundException e) {
+      // expected
+    }
+  }
+
+  private List<io.cdap.cdap.api.artifact.ArtifactId> getPluginArtifacts(Id.Artifact parentArtifactId)
+    throws Exception {
+    return artifactStore.getPluginClasses(NamespaceId.DEFAULT, parentArtifactId, "atype", "plugin", null,
+                                          Integer.MAX_VALUE, ArtifactSortOrder.UNORDERED)
+      .keySet().stream().map(ArtifactDescriptor::getArtifactId).collect(Collectors.toList());
+  }
+
   private void assertEqual(Id.Artifact expectedId, ArtifactMeta expectedMeta,
                            String expectedContents, ArtifactDetail actual) throws IOException {
     Assert.assertEquals(expectedId.getName(), actual.getDescriptor().getArtifactId().getName());
@@ -1526,11 +1575,16 @@ public abstract class ArtifactStoreTest {
 
   private void writeArtifact(Id.Artifact artifactId, ArtifactMeta meta, String contents)
     throws ArtifactAlreadyExistsException, IOException, WriteConflictException {
+    writeArtifact(artifactStore, artifactId, meta, contents);
+  }
+
+  protected static void writeArtifact(ArtifactStore store, Id.Artifact artifactId, ArtifactMeta meta, String contents)
+    throws ArtifactAlreadyExistsException, IOException, WriteConflictException {
 
     File artifactFile = TEMP_FOLDER.newFile();
     Files.write(artifactFile.toPath(), Bytes.toBytes(contents));
 
-    artifactStore.write(artifactId, meta, artifactFile,
+    store.write(artifactId, meta, artifactFile,
                         new EntityImpersonator(artifactId.toEntityId(),
                                                new DefaultImpersonator(CConfiguration.create(), null)));
   }
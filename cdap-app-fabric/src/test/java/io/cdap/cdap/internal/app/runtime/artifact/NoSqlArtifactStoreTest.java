@@ -38,6 +38,8 @@ public class NoSqlArtifactStoreTest extends ArtifactStoreTest {
     // any plugin which requires transaction will be excluded
     cConf.set(Constants.REQUIREMENTS_DATASET_TYPE_EXCLUDE, Joiner.on(",").join(Table.TYPE, KeyValueTable.TYPE));
     cConf.set(Constants.Dataset.DATA_STORAGE_IMPLEMENTATION, Constants.Dataset.DATA_STORAGE_NOSQL);
+    // The catalog is disabled by default, run the same tests with it enabled
+    cConf.setLong(Constants.AppFabric.ARTIFACT_PLUGIN_CATALOG_EXPIRATION_SECS, 60L);
     Injector injector = AppFabricTestHelper.getInjector(cConf);
     TransactionRunner transactionRunner = injector.getInstance(TransactionRunner.class);
     artifactStore = new ArtifactStore(cConf,
@@ -17,13 +17,23 @@
 package io.cdap.cdap.internal.app.runtime.artifact;
 
 import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.inject.Injector;
+import io.cdap.cdap.api.artifact.ArtifactClasses;
+import io.cdap.cdap.api.artifact.ArtifactId;
+import io.cdap.cdap.api.artifact.ArtifactRange;
+import io.cdap.cdap.api.artifact.ArtifactVersion;
 import io.cdap.cdap.api.dataset.lib.KeyValueTable;
 import io.cdap.cdap.api.dataset.table.Table;
+import io.cdap.cdap.api.plugin.PluginClass;
 import io.cdap.cdap.common.conf.CConfiguration;
 import io.cdap.cdap.common.conf.Constants;
+import io.cdap.cdap.common.id.Id;
 import io.cdap.cdap.common.namespace.NamespacePathLocator;
 import io.cdap.cdap.internal.AppFabricTestHelper;
+import io.cdap.cdap.proto.artifact.ArtifactSortOrder;
+import io.cdap.cdap.proto.id.NamespaceId;
 import io.cdap.cdap.security.impersonation.Impersonator;
 import io.cdap.cdap.spi.data.StructuredTableAdmin;
 import io.cdap.cdap.spi.data.sql.PostgresInstantiator;
@@ -31,13 +41,23 @@ import io.cdap.cdap.spi.data.transaction.TransactionRunner;
 import io.cdap.cdap.store.StoreDefinition;
 import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 import org.apache.twill.filesystem.LocationFactory;
 import org.junit.AfterClass;
+import org.junit.Assert;
 import org.junit.BeforeClass;
+import org.junit.Test;
 
 public class SqlArtifactStoreTest extends ArtifactStoreTest {
 
   private static EmbeddedPostgres pg;
+  // Another instance on the same tables, like the artifact store of another process
+  private static ArtifactStore otherArtifactStore;
 
   @BeforeClass
   public static void setup() throws Exception {
@@ -54,9 +74,49 @@ public class SqlArtifactStoreTest extends ArtifactStoreTest {
                                       injector.getInstance(LocationFactory.class),
                                       injector.getInstance(Impersonator.class),
                                       transactionRunner);
+    otherArtifactStore = new ArtifactStore(cConf,
+                                           injector.getInstance(NamespacePathLocator.class),
+                                           injector.getInstance(LocationFactory.class),
+                                           injector.getInstance(Impersonator.class),
+                                           transactionRunner);
     StoreDefinition.ArtifactStore.create(injector.getInstance(StructuredTableAdmin.class));
   }
 
+  @Test
+  public void testPluginLookupWithoutCatalog() throws Exception {
+    Id.Artifact parentArtifactId = Id.Artifact.from(Id.Namespace.DEFAULT, "parent", "1.0.0");
+    writeArtifact(artifactStore, parentArtifactId, new ArtifactMeta(ArtifactClasses.builder().build()), "content");
+    ArtifactRange parentArtifacts = new ArtifactRange(
+      NamespaceId.DEFAULT.getNamespace(), "parent", new ArtifactVersion("1.0.0"), new ArtifactVersion("2.0.0"));
+    PluginClass pluginClass = PluginClass.builder().setName("plugin").setType("atype").setDescription("")
+      .setClassName("c.c.c.plugin").setConfigFieldName("cfg")
+      .setProperties(ImmutableMap.of()).build();
+    ArtifactMeta pluginMeta = new ArtifactMeta(ArtifactClasses.builder().addPlugin(pluginClass).build(),
+                                               ImmutableSet.of(parentArtifacts));
+    Id.Artifact plugins1 = Id.Artifact.from(Id.Namespace.DEFAULT, "plugins", "1.0.0");
+    writeArtifact(artifactStore, plugins1, pluginMeta, "plugins1");
+    Assert.assertEquals(Collections.singletonList(plugins1.toArtifactId()),
+                        getPluginArtifacts(parentArtifactId, null));
+
+    // The catalog is disabled by default, so artifacts added by other instances are visible right away
+    Id.Artifact plugins2 = Id.Artifact.from(Id.Namespace.DEFAULT, "plugins", "2.0.0");
+    writeArtifact(otherArtifactStore, plugins2, pluginMeta, "plugins2");
+    Assert.assertEquals(Arrays.asList(plugins1.toArtifactId(), plugins2.toArtifactId()),
+                        getPluginArtifacts(parentArtifactId, null));
+
+    // Only the plugins in the plugin range are returned
+    Assert.assertEquals(Collections.singletonList(plugins2.toArtifactId()),
+                        getPluginArtifacts(parentArtifactId, artifactId -> "2.0.0".equals(artifactId.getVersion())));
+  }
+
+  private List<ArtifactId> getPluginArtifacts(Id.Artifact parentArtifactId,
+                                              @Nullable Predicate<io.cdap.cdap.proto.id.ArtifactId> pluginRange)
+    throws Exception {
+    return artifactStore.getPluginClasses(NamespaceId.DEFAULT, parentArtifactId, "atype", "plugin", pluginRange,
+                                          Integer.MAX_VALUE, ArtifactSortOrder.UNORDERED)
+      .keySet().stream().map(ArtifactDescriptor::getArtifactId).collect(Collectors.toList());
+  }
+
   @AfterClass
   public static void afterClass() throws IOException {
     pg.close();
@@ -27,6 +27,7 @@ import io.cdap.cdap.api.messaging.Message;
 import io.cdap.cdap.api.messaging.MessagingContext;
 import io.cdap.cdap.api.metrics.MetricsCollectionService;
 import io.cdap.cdap.app.guice.RuntimeServerModule;
+import io.cdap.cdap.common.BadRequestException;
 import io.cdap.cdap.common.app.RunIds;
 import io.cdap.cdap.common.conf.CConfiguration;
 import io.cdap.cdap.common.conf.Constants;
@@ -45,6 +46,7 @@ import io.cdap.cdap.proto.id.TopicId;
 import io.cdap.cdap.security.auth.context.AuthenticationContextModules;
 import io.cdap.cdap.security.authorization.AuthorizationEnforcementModule;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
@@ -52,7 +54,13 @@ import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
@@ -106,6 +114,7 @@ public class RuntimeClientServerTest {
     cConf.set(Constants.CFG_LOCAL_DATA_DIR, TEMP_FOLDER.newFolder().getAbsolutePath());
     cConf.setBoolean(Constants.RuntimeMonitor.COMPRESSION_ENABLED, compression);
     cConf.setBoolean(Constants.AppFabric.SPARK_EVENT_LOGS_ENABLED, true);
+    cConf.setInt(Constants.RuntimeMonitor.MULTI_TOPIC_MAX_REQUEST_SIZE_MB, 1);
     cConf.set(TEST_TOPIC_KEY, TEST_TOPIC);
     cConf.set(Constants.RuntimeMonitor.TOPICS_CONFIGS, Constants.Logging.TMS_TOPIC_PREFIX + ":1," + TEST_TOPIC_KEY);
 
@@ -219,6 +228,78 @@ public class RuntimeClientServerTest {
     Assert.assertEquals(expected, logEntries);
   }
 
+  @Test
+  public void testMultiTopicMessage() throws Exception {
+    ProgramRunId programRunId = NamespaceId.DEFAULT.app("app").workflow("workflow").run(RunIds.generate());
+    TopicId topicId = NamespaceId.SYSTEM.topic(TEST_TOPIC);
+    TopicId logTopicId = NamespaceId.SYSTEM.topic(cConf.get(Constants.Logging.TMS_TOPIC_PREFIX) + "0");
+
+    // Generate a mix of large and small messages, so that the topic spans multiple chunks
+    List<Message> messages = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      messages.add(createMessage(i + 1));
+      messages.add(createMessage(i + RuntimeClient.CHUNK_SIZE));
+    }
+    List<Message> logMessages = IntStream.range(0, 10).mapToObj(this::createMessage).collect(Collectors.toList());
+
+    // Both topics are sent in one request
+    Map<TopicId, Iterator<Message>> topicMessages = new LinkedHashMap<>();
+    topicMessages.put(topicId, messages.iterator());
+    topicMessages.put(logTopicId, logMessages.iterator());
+    Set<TopicId> processedTopics = new HashSet<>();
+    runtimeClient.sendMessages(programRunId, topicMessages, processedTopics::add);
+
+    assertMessages(topicId, messages);
+    Assert.assertEquals(logMessages.stream().map(Message::getPayloadAsString).collect(Collectors.toList()),
+                        logEntries);
+    Assert.assertEquals(new HashSet<>(Arrays.asList(topicId, logTopicId)), processedTopics);
+  }
+
+  @Test
+  public void testMultiTopicPartialFailure() throws Exception {
+    ProgramRunId programRunId = NamespaceId.DEFAULT.app("app").workflow("workflow").run(RunIds.generate());
+    TopicId topicId = NamespaceId.SYSTEM.topic(TEST_TOPIC);
+    TopicId logTopicId = NamespaceId.SYSTEM.topic(cConf.get(Constants.Logging.TMS_TOPIC_PREFIX) + "0");
+
+    // Publishing to the second topic fails after the logs of the first topic are processed
+    messagingService.deleteTopic(topicId);
+    List<Message> logMessages = IntStream.range(0, 10).mapToObj(this::createMessage).collect(Collectors.toList());
+    Map<TopicId, Iterator<Message>> topicMessages = new LinkedHashMap<>();
+    topicMessages.put(logTopicId, logMessages.iterator());
+    topicMessages.put(topicId, Collections.singletonList(createMessage(10)).iterator());
+
+    Set<TopicId> processedTopics = new HashSet<>();
+    try {
+      runtimeClient.sendMessages(programRunId, topicMessages, processedTopics::add);
+      Assert.fail("Expected the request to fail for the deleted topic");
+    } catch (BadRequestException e) {
+      // expected
+    }
+    Assert.assertEquals(Collections.singleton(logTopicId), processedTopics);
+    Assert.assertEquals(10, logEntries.size());
+  }
+
+  @Test
+  public void testMultiTopicRequestTooLarge() throws Exception {
+    ProgramRunId programRunId = NamespaceId.DEFAULT.app("app").workflow("workflow").run(RunIds.generate());
+    TopicId topicId = NamespaceId.SYSTEM.topic(TEST_TOPIC);
+
+    // The request is larger than the maximum size of 1MB
+    List<Message> messages = IntStream.range(0, 40)
+      .mapToObj(i -> createMessage(RuntimeClient.CHUNK_SIZE))
+      .collect(Collectors.toList());
+    Set<TopicId> processedTopics = new HashSet<>();
+    try {
+      runtimeClient.sendMessages(programRunId, Collections.singletonMap(topicId, messages.iterator()),
+                                 processedTopics::add);
+      Assert.fail("Expected the request to be rejected");
+    } catch (IOException e) {
+      Assert.assertTrue(e.getMessage().contains("413"));
+    }
+    Assert.assertTrue(processedTopics.isEmpty());
+    assertMessages(topicId, Collections.emptyList());
+  }
+
   @Test
   public void testFutureIsNotBlockingWhenValueIsSet() throws Exception {
     CountDownLatch countDownLatch = new CountDownLatch(1);
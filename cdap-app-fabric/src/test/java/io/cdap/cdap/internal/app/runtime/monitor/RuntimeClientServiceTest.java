@@ -306,6 +306,13 @@ public class RuntimeClientServiceTest {
     programStateWriter.completed(PROGRAM_RUN_ID);
   }
 
+  @Test
+  public void testBasicRelayPerTopic() throws Exception {
+    // Relay each topic with a separate request
+    clientCConf.setBoolean(Constants.RuntimeMonitor.MULTI_TOPIC_RELAY_ENABLED, false);
+    testBasicRelay();
+  }
+
   @Test
   public void testRelayWithAggregation() throws Exception {
     TypeToken<MetricValues> metricValueType = TypeToken.of(MetricValues.class);
@@ -23,6 +23,7 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
 import io.cdap.cdap.api.dataset.lib.CloseableIterator;
+import io.cdap.cdap.api.dataset.lib.PartitionKey;
 import io.cdap.cdap.api.schedule.Trigger;
 import io.cdap.cdap.common.conf.CConfiguration;
 import io.cdap.cdap.internal.app.runtime.schedule.ProgramSchedule;
@@ -43,6 +44,7 @@ import io.cdap.cdap.spi.data.transaction.TransactionRunners;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -292,6 +294,43 @@ public abstract class JobQueueTableTest {
     });
   }
 
+  @Test
+  public void testAddBatchNotifications() {
+    TransactionRunners.run(transactionRunner, context -> {
+      JobQueueTable jobQueue = JobQueueTable.getJobQueue(context, getCConf());
+      Notification empty = Notification.forPartitions(DATASET_ID, ImmutableList.of());
+      Notification partition1 = Notification.forPartitions(
+        DATASET_ID, ImmutableList.of(PartitionKey.builder().addStringField("k", "1").build()));
+      Notification partition2 = Notification.forPartitions(
+        DATASET_ID, ImmutableList.of(PartitionKey.builder().addStringField("k", "2").build()));
+
+      // SCHED1 is triggered by one partition, hence the batch should be split into two jobs, as if the
+      // notifications were added one by one
+      jobQueue.addNotifications(
+        new ProgramScheduleRecord(SCHED1, new ProgramScheduleMeta(ProgramScheduleStatus.SCHEDULED, 0L)),
+        ImmutableList.of(empty, partition1, partition2, empty));
+
+      List<Job> jobs = new ArrayList<>(toSet(jobQueue.getJobsForSchedule(SCHED1.getScheduleId())));
+      jobs.sort(Comparator.comparingInt(Job::getGenerationId));
+      Assert.assertEquals(3, jobs.size());
+      Assert.assertEquals(ImmutableList.of(empty, partition1), jobs.get(0).getNotifications());
+      Assert.assertEquals(Job.State.PENDING_CONSTRAINT, jobs.get(0).getState());
+      Assert.assertEquals(ImmutableList.of(partition2), jobs.get(1).getNotifications());
+      Assert.assertEquals(Job.State.PENDING_CONSTRAINT, jobs.get(1).getState());
+      Assert.assertEquals(ImmutableList.of(empty), jobs.get(2).getNotifications());
+      Assert.assertEquals(Job.State.PENDING_TRIGGER, jobs.get(2).getState());
+
+      // Another batch should be added to the job that is pending trigger
+      jobQueue.addNotifications(
+        new ProgramScheduleRecord(SCHED1, new ProgramScheduleMeta(ProgramScheduleStatus.SCHEDULED, 0L)),
+        ImmutableList.of(empty, partition1));
+      Job job = jobQueue.getJob(jobs.get(2).getJobKey());
+      Assert.assertEquals(ImmutableList.of(empty, empty, partition1), job.getNotifications());
+      Assert.assertEquals(Job.State.PENDING_CONSTRAINT, job.getState());
+      Assert.assertEquals(3, toSet(jobQueue.getJobsForSchedule(SCHED1.getScheduleId())).size());
+    });
+  }
+
   @Test
   public void testAddConcurrentNotifications() throws Exception {
     TransactionRunners.run(transactionRunner, context -> {
@@ -409,6 +448,38 @@ public abstract class JobQueueTableTest {
     Assert.assertEquals(1, deletedJobs);
     Assert.assertTrue(activeJobs <= 1);
   }
+  @Test
+  public void testDelayLaunch() {
+    Job launchJob = new SimpleJob(SCHED1, 0, System.currentTimeMillis(), ImmutableList.of(),
+                                  Job.State.PENDING_LAUNCH, 0L);
+    long retryTime = System.currentTimeMillis() + 10000L;
+    TransactionRunners.run(transactionRunner, context -> {
+      JobQueueTable jobQueue = JobQueueTable.getJobQueue(context, getCConf());
+      jobQueue.put(launchJob);
+      Assert.assertNull(jobQueue.getJob(launchJob.getJobKey()).getLaunchRetryTimeMillis());
+      jobQueue.delayLaunch(launchJob, retryTime);
+    });
+
+    // The retry time is read back from the JobQueue, as it is after the scheduler restarts
+    TransactionRunners.run(transactionRunner, context -> {
+      JobQueueTable jobQueue = JobQueueTable.getJobQueue(context, getCConf());
+      Job delayedJob = jobQueue.getJob(launchJob.getJobKey());
+      Assert.assertEquals(Job.State.PENDING_LAUNCH, delayedJob.getState());
+      Assert.assertEquals(Long.valueOf(retryTime), delayedJob.getLaunchRetryTimeMillis());
+      Assert.assertEquals(ImmutableSet.of(delayedJob), getAllJobs(jobQueue));
+    });
+
+    // Only jobs pending launch can be delayed
+    TransactionRunners.run(transactionRunner, context -> {
+      JobQueueTable jobQueue = JobQueueTable.getJobQueue(context, getCConf());
+      try {
+        jobQueue.delayLaunch(SCHED2_JOB, retryTime);
+        Assert.fail("Expected delaying a job that is not pending launch to fail");
+      } catch (IllegalArgumentException e) {
+        // expected
+      }
+    });
+  }
 
   @Test
   public void testJobTimeout() {
@@ -0,0 +1,142 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.internal.app.services;
+
+import io.cdap.cdap.app.runtime.ProgramRuntimeService;
+import io.cdap.cdap.common.app.RunIds;
+import io.cdap.cdap.common.conf.CConfiguration;
+import io.cdap.cdap.common.conf.Constants;
+import io.cdap.cdap.common.metrics.NoOpMetricsCollectionService;
+import io.cdap.cdap.proto.id.NamespaceId;
+import io.cdap.cdap.proto.id.ProgramId;
+import io.cdap.cdap.proto.id.ProgramRunId;
+import io.cdap.cdap.proto.id.ScheduleId;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+/**
+ * Unit tests for the launch queue of {@link RunRecordMonitorService}.
+ */
+public class RunRecordMonitorServiceTest {
+
+  private static final ProgramId PROGRAM = NamespaceId.DEFAULT.app("app").workflow("wf");
+
+  @Test
+  public void testInteractiveRejectedRightAway() throws Exception {
+    RunRecordMonitorService service = createService(1, 10);
+    RunRecordMonitorService.Counter counter = service.addRequestAndGetCount(newRunId(PROGRAM));
+    Assert.assertEquals(1, counter.getLaunchingCount());
+    Assert.assertEquals(0, counter.getQueuePosition());
+
+    // No capacity, the request is added without queuing for the caller to reject it
+    counter = service.addRequestAndGetCount(newRunId(PROGRAM));
+    Assert.assertEquals(2, counter.getLaunchingCount());
+    Assert.assertEquals(0, counter.getQueuePosition());
+    Assert.assertEquals(0, service.getQueuedCount());
+
+    // A rejected interactive request carries the length of the launch queue
+    addScheduled(service, PROGRAM.getParent().schedule("sched"), "ns");
+    counter = service.addRequestAndGetCount(newRunId(PROGRAM));
+    Assert.assertEquals(0, counter.getQueuePosition());
+    Assert.assertEquals(1, counter.getQueuedCount());
+  }
+
+  @Test
+  public void testScheduledQueuedRoundRobin() throws Exception {
+    RunRecordMonitorService service = createService(1, 10);
+    ProgramRunId first = newRunId(PROGRAM);
+    service.addRequestAndGetCount(first);
+
+    // Queue two schedules from ns1 before one from ns2. None of them blocks or is added.
+    ScheduleId schedule1 = PROGRAM.getParent().schedule("sched1");
+    ScheduleId schedule2 = PROGRAM.getParent().schedule("sched2");
+    ScheduleId schedule3 = PROGRAM.getParent().schedule("sched3");
+    Assert.assertEquals(1, addScheduled(service, schedule1, "ns1").getQueuePosition());
+    Assert.assertEquals(2, addScheduled(service, schedule2, "ns1").getQueuePosition());
+    RunRecordMonitorService.Counter counter = addScheduled(service, schedule3, "ns2");
+    Assert.assertEquals(2, counter.getQueuePosition());
+    Assert.assertEquals(3, counter.getQueuedCount());
+    Assert.assertEquals(1, counter.getLaunchingCount());
+    Assert.assertEquals(3, service.getQueuedCount());
+
+    // Once there is capacity, only the head of the queue is admitted. The second ns1 schedule is after the ns2 one.
+    service.removeRequest(first, false);
+    Assert.assertEquals(3, addScheduled(service, schedule2, "ns1").getQueuePosition());
+    ProgramRunId second = newRunId(PROGRAM);
+    counter = service.addRequestAndGetCount(second, "ns1", schedule1);
+    Assert.assertEquals(0, counter.getQueuePosition());
+    Assert.assertEquals(1, counter.getLaunchingCount());
+
+    // The ns2 schedule is admitted before the second ns1 schedule
+    service.removeRequest(second, false);
+    Assert.assertEquals(2, addScheduled(service, schedule2, "ns1").getQueuePosition());
+    ProgramRunId third = newRunId(PROGRAM);
+    Assert.assertEquals(0, service.addRequestAndGetCount(third, "ns2", schedule3).getQueuePosition());
+
+    service.removeRequest(third, false);
+    Assert.assertEquals(0, addScheduled(service, schedule2, "ns1").getQueuePosition());
+    Assert.assertEquals(0, service.getQueuedCount());
+  }
+
+  @Test
+  public void testSchedulesOfSameProgramQueuedSeparately() throws Exception {
+    // Each schedule of a program keeps its own position, so the retry of one doesn't move the other
+    RunRecordMonitorService service = createService(1, 10);
+    service.addRequestAndGetCount(newRunId(PROGRAM));
+    ScheduleId schedule1 = PROGRAM.getParent().schedule("sched1");
+    ScheduleId schedule2 = PROGRAM.getParent().schedule("sched2");
+    Assert.assertEquals(1, addScheduled(service, schedule1, "ns").getQueuePosition());
+    Assert.assertEquals(2, addScheduled(service, schedule2, "ns").getQueuePosition());
+    Assert.assertEquals(1, addScheduled(service, schedule1, "ns").getQueuePosition());
+    Assert.assertEquals(2, addScheduled(service, schedule2, "ns").getQueuePosition());
+    Assert.assertEquals(2, service.getQueuedCount());
+  }
+
+  @Test
+  public void testQueuedExpiry() throws Exception {
+    // Programs that are not retried within the retry delay are removed from the queue
+    RunRecordMonitorService service = createService(1, 0);
+    service.addRequestAndGetCount(newRunId(PROGRAM));
+    ScheduleId schedule1 = PROGRAM.getParent().schedule("sched1");
+    ScheduleId schedule2 = PROGRAM.getParent().schedule("sched2");
+    Assert.assertEquals(1, addScheduled(service, schedule1, "ns").getQueuePosition());
+    TimeUnit.MILLISECONDS.sleep(10);
+    Assert.assertEquals(1, addScheduled(service, schedule2, "ns").getQueuePosition());
+    Assert.assertEquals(1, service.getQueuedCount());
+  }
+
+  private RunRecordMonitorService.Counter addScheduled(RunRecordMonitorService service,
+                                                       ScheduleId scheduleId, String queueKey) throws Exception {
+    return service.addRequestAndGetCount(newRunId(PROGRAM), queueKey, scheduleId);
+  }
+
+  private RunRecordMonitorService createService(int maxLaunching, long retryDelaySecs) {
+    CConfiguration cConf = CConfiguration.create();
+    cConf.setInt(Constants.AppFabric.MAX_CONCURRENT_LAUNCHING, maxLaunching);
+    cConf.setLong(Constants.AppFabric.LAUNCH_QUEUE_RETRY_DELAY_SECONDS, retryDelaySecs);
+    ProgramRuntimeService runtimeService = Mockito.mock(ProgramRuntimeService.class);
+    Mockito.when(runtimeService.listAll(Mockito.any())).thenReturn(Collections.emptyList());
+    return new RunRecordMonitorService(cConf, runtimeService, new NoOpMetricsCollectionService());
+  }
+
+  private ProgramRunId newRunId(ProgramId programId) {
+    return programId.run(RunIds.generate());
+  }
+}
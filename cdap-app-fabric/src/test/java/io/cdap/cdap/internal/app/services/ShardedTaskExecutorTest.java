@@ -0,0 +1,171 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.internal.app.services;
+
+import io.cdap.cdap.api.retry.RetryableException;
+import io.cdap.cdap.common.ServiceUnavailableException;
+import io.cdap.cdap.common.service.RetryStrategies;
+import io.cdap.cdap.common.utils.Tasks;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link ShardedTaskExecutor}.
+ */
+public class ShardedTaskExecutorTest {
+
+  @Test
+  public void testOrderPerKey() throws InterruptedException {
+    ShardedTaskExecutor executor = new ShardedTaskExecutor("test", 3, RetryStrategies.noRetry());
+    Map<String, List<Integer>> executed = new HashMap<>();
+    List<String> keys = Arrays.asList("run1", "run2", "run3", "run4", "run5");
+    keys.forEach(key -> executed.put(key, Collections.synchronizedList(new ArrayList<>())));
+
+    for (int i = 0; i < 50; i++) {
+      int sequence = i;
+      for (String key : keys) {
+        executor.execute(key, () -> {
+          sleepQuietly(ThreadLocalRandom.current().nextInt(2));
+          executed.get(key).add(sequence);
+        });
+      }
+    }
+    Assert.assertTrue(executor.shutdown(1, TimeUnit.MINUTES));
+
+    List<Integer> expected = IntStream.range(0, 50).boxed().collect(Collectors.toList());
+    for (String key : keys) {
+      Assert.assertEquals(expected, executed.get(key));
+    }
+  }
+
+  @Test
+  public void testRetryBeforeNextTask() throws InterruptedException {
+    ShardedTaskExecutor executor = new ShardedTaskExecutor(
+        "test", 1, RetryStrategies.fixDelay(10, TimeUnit.MILLISECONDS));
+    AtomicInteger attempts = new AtomicInteger();
+    List<String> executed = Collections.synchronizedList(new ArrayList<>());
+
+    executor.execute("run", () -> {
+      if (attempts.incrementAndGet() < 3) {
+        throw new ServiceUnavailableException("test");
+      }
+      executed.add("first");
+    });
+    executor.execute("run", () -> executed.add("second"));
+    Assert.assertTrue(executor.shutdown(1, TimeUnit.MINUTES));
+
+    Assert.assertEquals(3, attempts.get());
+    Assert.assertEquals(Arrays.asList("first", "second"), executed);
+  }
+
+  @Test
+  public void testFailedTaskDoesNotBlockShard() throws InterruptedException {
+    ShardedTaskExecutor executor = new ShardedTaskExecutor(
+        "test", 1, RetryStrategies.limit(2, RetryStrategies.fixDelay(10, TimeUnit.MILLISECONDS)));
+    AtomicInteger attempts = new AtomicInteger();
+    List<String> executed = Collections.synchronizedList(new ArrayList<>());
+
+    executor.execute("run1", () -> {
+      attempts.incrementAndGet();
+      throw new RetryableException("Failure");
+    });
+    executor.execute("run2", () -> executed.add("run2"));
+    Assert.assertTrue(executor.shutdown(1, TimeUnit.MINUTES));
+
+    // One attempt plus two retries, after which the next task still runs
+    Assert.assertEquals(3, attempts.get());
+    Assert.assertEquals(Collections.singletonList("run2"), executed);
+  }
+
+  @Test
+  public void testNonRetryableFailureNotRetried() throws InterruptedException {
+    ShardedTaskExecutor executor = new ShardedTaskExecutor(
+        "test", 1, RetryStrategies.fixDelay(10, TimeUnit.MILLISECONDS));
+    AtomicInteger attempts = new AtomicInteger();
+    List<String> executed = Collections.synchronizedList(new ArrayList<>());
+
+    // A task such as starting a program run must not be repeated on a non-transient failure
+    executor.execute("run", () -> {
+      attempts.incrementAndGet();
+      throw new IllegalStateException("Failure");
+    });
+    executor.execute("run", () -> executed.add("second"));
+    Assert.assertTrue(executor.shutdown(1, TimeUnit.MINUTES));
+
+    Assert.assertEquals(1, attempts.get());
+    Assert.assertEquals(Collections.singletonList("second"), executed);
+  }
+
+  @Test
+  public void testShutdownTimeout() throws Exception {
+    ShardedTaskExecutor executor = new ShardedTaskExecutor("test", 1, RetryStrategies.noRetry());
+    CountDownLatch started = new CountDownLatch(1);
+    AtomicBoolean interrupted = new AtomicBoolean();
+    AtomicInteger executed = new AtomicInteger();
+
+    executor.execute("run1", () -> {
+      started.countDown();
+      try {
+        TimeUnit.MINUTES.sleep(1);
+      } catch (InterruptedException e) {
+        interrupted.set(true);
+      }
+    });
+    executor.execute("run2", executed::incrementAndGet);
+    Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+
+    // The running task is interrupted and the queued one is discarded
+    Assert.assertFalse(executor.shutdown(100, TimeUnit.MILLISECONDS));
+    Tasks.waitFor(true, interrupted::get, 10, TimeUnit.SECONDS);
+    Assert.assertEquals(0, executed.get());
+  }
+
+  @Test
+  public void testShutdownDrainsQueuedTasks() throws InterruptedException {
+    ShardedTaskExecutor executor = new ShardedTaskExecutor("test", 2, RetryStrategies.noRetry());
+    AtomicInteger executed = new AtomicInteger();
+    for (int i = 0; i < 20; i++) {
+      executor.execute("run" + i, () -> {
+        sleepQuietly(10);
+        executed.incrementAndGet();
+      });
+    }
+    Assert.assertTrue(executor.shutdown(1, TimeUnit.MINUTES));
+    Assert.assertEquals(20, executed.get());
+  }
+
+  private static void sleepQuietly(long millis) {
+    try {
+      TimeUnit.MILLISECONDS.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
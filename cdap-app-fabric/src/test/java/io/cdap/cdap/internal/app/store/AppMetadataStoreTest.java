@@ -24,11 +24,14 @@ import io.cdap.cdap.api.app.ApplicationSpecification;
 import io.cdap.cdap.api.artifact.ArtifactId;
 import io.cdap.cdap.app.store.ScanApplicationsRequest;
 import io.cdap.cdap.common.app.RunIds;
+import io.cdap.cdap.common.conf.CConfiguration;
+import io.cdap.cdap.common.conf.Constants;
 import io.cdap.cdap.common.utils.ProjectInfo;
 import io.cdap.cdap.internal.AppFabricTestHelper;
 import io.cdap.cdap.internal.app.DefaultApplicationSpecification;
 import io.cdap.cdap.internal.app.deploy.Specifications;
 import io.cdap.cdap.internal.app.runtime.SystemArguments;
+import io.cdap.cdap.proto.ProgramRunClusterStatus;
 import io.cdap.cdap.proto.ProgramRunStatus;
 import io.cdap.cdap.proto.ProgramType;
 import io.cdap.cdap.proto.artifact.ChangeDetail;
@@ -123,6 +126,38 @@ public abstract class AppMetadataStoreTest {
     assertPersistedStatus(1L, 10L, 100L, ProgramRunStatus.KILLED);
   }
 
+  @Test
+  public void testRunRecordFormats() {
+    CConfiguration binaryConf = CConfiguration.create();
+    binaryConf.setBoolean(Constants.AppFabric.RUN_RECORDS_BINARY_FORMAT_ENABLED, true);
+    ProgramId program = NamespaceId.DEFAULT.app("app").program(ProgramType.WORKFLOW, "program");
+    ProgramRunId programRunId = program.run(RunIds.generate(runIdTime.incrementAndGet()));
+    Map<String, String> runtimeArgs = ImmutableMap.of("k", "v");
+
+    // Each write replaces the run record in the other format, so the latest write is always read
+    TransactionRunners.run(transactionRunner, context -> {
+      AppMetadataStore.create(context, binaryConf).recordProgramProvisioning(
+        programRunId, runtimeArgs, SINGLETON_PROFILE_MAP,
+        AppFabricTestHelper.createSourceId(sourceId.incrementAndGet()), ARTIFACT_ID);
+      RunRecordDetail runRecord = AppMetadataStore.create(context).getRun(programRunId);
+      Assert.assertEquals(ProgramRunStatus.PENDING, runRecord.getStatus());
+      Assert.assertEquals(runtimeArgs, runRecord.getUserArgs());
+
+      AppMetadataStore.create(context).recordProgramProvisioned(
+        programRunId, 0, AppFabricTestHelper.createSourceId(sourceId.incrementAndGet()));
+      runRecord = AppMetadataStore.create(context, binaryConf).getRun(programRunId);
+      Assert.assertEquals(ProgramRunStatus.PENDING, runRecord.getStatus());
+      Assert.assertEquals(ProgramRunClusterStatus.PROVISIONED, runRecord.getCluster().getStatus());
+
+      AppMetadataStore.create(context, binaryConf).recordProgramStart(
+        programRunId, null, ImmutableMap.of(), AppFabricTestHelper.createSourceId(sourceId.incrementAndGet()));
+      runRecord = AppMetadataStore.create(context).getRun(programRunId);
+      Assert.assertEquals(ProgramRunStatus.STARTING, runRecord.getStatus());
+      Assert.assertEquals(programRunId, runRecord.getProgramRunId());
+      Assert.assertEquals(runtimeArgs, runRecord.getUserArgs());
+    });
+  }
+
   @Test
   public void testPendingToCompletedIsIgnored() throws Exception {
     ApplicationId application = NamespaceId.DEFAULT.app("app");
@@ -0,0 +1,114 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.internal.app.store;
+
+import io.cdap.cdap.api.app.ApplicationSpecification;
+import io.cdap.cdap.api.artifact.ArtifactId;
+import io.cdap.cdap.api.artifact.ArtifactScope;
+import io.cdap.cdap.api.artifact.ArtifactVersion;
+import io.cdap.cdap.internal.app.DefaultApplicationSpecification;
+import io.cdap.cdap.proto.id.ApplicationId;
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link ApplicationMetaCache}.
+ */
+public class ApplicationMetaCacheTest {
+
+  @Test
+  public void testCacheByContent() {
+    ApplicationMetaCache cache = new ApplicationMetaCache();
+    AtomicInteger decodeCount = new AtomicInteger();
+    Function<String, ApplicationMeta> decoder = json -> {
+      decodeCount.incrementAndGet();
+      return new ApplicationMeta(json, null, null);
+    };
+
+    ApplicationId appId = new ApplicationId("ns", "app", "v1");
+    ApplicationMeta meta = cache.get(appId, "{\"a\":1}", decoder, null);
+    Assert.assertEquals(meta.getId(), cache.get(appId, "{\"a\":1}", decoder, null).getId());
+    Assert.assertEquals(1, decodeCount.get());
+
+    // Different content for the same application must be decoded again
+    Assert.assertEquals("{\"a\":2}", cache.get(appId, "{\"a\":2}", decoder, null).getId());
+    Assert.assertEquals(2, decodeCount.get());
+
+    // Same content for a different application must be decoded again
+    cache.get(new ApplicationId("ns", "app", "v2"), "{\"a\":1}", decoder, null);
+    Assert.assertEquals(3, decodeCount.get());
+  }
+
+  @Test
+  public void testUnmodifiable() {
+    ApplicationMetaCache cache = new ApplicationMetaCache();
+    ApplicationSpecification spec = new DefaultApplicationSpecification(
+        "app", null, "desc", null, new ArtifactId("artifact", new ArtifactVersion("1.0.0"), ArtifactScope.USER),
+        new HashMap<>(), new HashMap<>(), new HashMap<>(), new HashMap<>(), new HashMap<>(), new HashMap<>(),
+        new HashMap<>(), new HashMap<>(), new HashMap<>());
+    Function<String, ApplicationMeta> decoder = json -> new ApplicationMeta(json, spec, null);
+
+    ApplicationId appId = new ApplicationId("ns", "app", "v1");
+    ApplicationMeta meta = cache.get(appId, "1", decoder, null);
+    ApplicationMeta cached = cache.get(appId, "1", decoder, null);
+
+    // Each call returns a new instance that does not allow changing the cached specification
+    Assert.assertNotSame(meta, cached);
+    try {
+      cached.getSpec().getDatasetModules().put("module", "class");
+      Assert.fail("Expected the cached specification to be unmodifiable");
+    } catch (UnsupportedOperationException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testInvalidate() {
+    ApplicationMetaCache cache = new ApplicationMetaCache();
+    AtomicInteger decodeCount = new AtomicInteger();
+    Function<String, ApplicationMeta> decoder = json -> {
+      decodeCount.incrementAndGet();
+      return new ApplicationMeta(json, null, null);
+    };
+
+    ApplicationId appV1 = new ApplicationId("ns", "app", "v1");
+    ApplicationId appV2 = new ApplicationId("ns", "app", "v2");
+    ApplicationId other = new ApplicationId("ns2", "app", "v1");
+    cache.get(appV1, "1", decoder, null);
+    cache.get(appV2, "2", decoder, null);
+    cache.get(other, "3", decoder, null);
+    Assert.assertEquals(3, decodeCount.get());
+
+    cache.invalidate(appV1);
+    cache.get(appV1, "1", decoder, null);
+    cache.get(appV2, "2", decoder, null);
+    Assert.assertEquals(4, decodeCount.get());
+
+    cache.invalidate("ns", "app");
+    cache.get(appV1, "1", decoder, null);
+    cache.get(appV2, "2", decoder, null);
+    cache.get(other, "3", decoder, null);
+    Assert.assertEquals(6, decodeCount.get());
+
+    cache.invalidate("ns2");
+    cache.get(other, "3", decoder, null);
+    Assert.assertEquals(7, decodeCount.get());
+  }
+}
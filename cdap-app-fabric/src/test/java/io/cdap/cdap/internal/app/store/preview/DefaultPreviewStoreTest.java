@@ -16,12 +16,16 @@
 package io.cdap.cdap.internal.app.store.preview;
 
 import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
 import com.google.gson.reflect.TypeToken;
 import com.google.inject.Guice;
 import com.google.inject.Injector;
 import io.cdap.cdap.api.artifact.ArtifactSummary;
 import io.cdap.cdap.api.common.Bytes;
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
 import io.cdap.cdap.app.preview.PreviewConfigModule;
 import io.cdap.cdap.app.preview.PreviewRequest;
 import io.cdap.cdap.app.preview.PreviewStatus;
@@ -30,6 +34,7 @@ import io.cdap.cdap.common.conf.CConfiguration;
 import io.cdap.cdap.common.conf.Constants;
 import io.cdap.cdap.common.conf.SConfiguration;
 import io.cdap.cdap.internal.AppFabricTestHelper;
+import io.cdap.cdap.internal.io.SchemaTypeAdapter;
 import io.cdap.cdap.proto.NamespaceMeta;
 import io.cdap.cdap.proto.ProgramType;
 import io.cdap.cdap.proto.artifact.AppRequest;
@@ -39,6 +44,7 @@ import io.cdap.cdap.proto.id.ProgramRunId;
 import io.cdap.cdap.proto.security.Credential;
 import io.cdap.cdap.proto.security.Principal;
 import java.io.IOException;
+import java.io.StringWriter;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -60,7 +66,9 @@ public class DefaultPreviewStoreTest {
   @ClassRule
   public static final TemporaryFolder TEMP_FOLDER = new TemporaryFolder();
 
-  private static final Gson GSON = new Gson();
+  private static final Gson GSON = new GsonBuilder()
+    .registerTypeAdapter(Schema.class, new SchemaTypeAdapter())
+    .create();
   private static DefaultPreviewStore store;
 
   @BeforeClass
@@ -126,6 +134,54 @@ public class DefaultPreviewStoreTest {
     Assert.assertEquals(0, firstApplicationData.size());
   }
 
+  @Test
+  public void testPreviewRecords() throws IOException {
+    ApplicationId applicationId = new ApplicationId(NamespaceMeta.DEFAULT.getName(), RunIds.generate().getId());
+    Schema schema = Schema.recordOf("record",
+                                    Schema.Field.of("name", Schema.of(Schema.Type.STRING)),
+                                    Schema.Field.of("count", Schema.of(Schema.Type.INT)));
+    for (int i = 0; i < 3; i++) {
+      store.put(applicationId, "stage", "records.in",
+                StructuredRecord.builder(schema).set("name", "name" + i).set("count", i).build());
+    }
+    // Records received from the preview runner are already deserialized
+    Object record = GSON.fromJson(GSON.toJson(store.get(applicationId, "stage").get("records.in").get(0)),
+                                  Object.class);
+    store.put(applicationId, "stage", "records.out", record);
+    // Values of different properties interleaved in the table are still written together
+    store.put(applicationId, "stage", "errors", "error");
+    store.put(applicationId, "stage", "records.out", "value");
+
+    Map<String, List<JsonElement>> data = store.get(applicationId, "stage");
+    Assert.assertEquals(3, data.get("records.in").size());
+    Assert.assertEquals(1, data.get("errors").size());
+    for (int i = 0; i < 3; i++) {
+      JsonObject json = data.get("records.in").get(i).getAsJsonObject();
+      Assert.assertEquals(schema, GSON.fromJson(json.get("schema"), Schema.class));
+      Assert.assertEquals("name" + i, json.getAsJsonObject("fields").get("name").getAsString());
+      Assert.assertEquals(i, json.getAsJsonObject("fields").get("count").getAsInt());
+    }
+    Assert.assertEquals(data.get("records.in").get(0), data.get("records.out").get(0));
+    Assert.assertEquals("value", data.get("records.out").get(1).getAsString());
+
+    // Writing the data should produce the same json
+    StringWriter writer = new StringWriter();
+    store.write(applicationId, "stage", writer);
+    Assert.assertEquals(data, GSON.fromJson(writer.toString(),
+                                            new TypeToken<Map<String, List<JsonElement>>>() { }.getType()));
+
+    store.remove(applicationId);
+    writer = new StringWriter();
+    store.write(applicationId, "stage", writer);
+    Assert.assertEquals("{}", writer.toString());
+
+    // The schema is stored again for records traced after the removal
+    store.put(applicationId, "stage", "records.in",
+              StructuredRecord.builder(schema).set("name", "name").set("count", 0).build());
+    JsonObject json = store.get(applicationId, "stage").get("records.in").get(0).getAsJsonObject();
+    Assert.assertEquals(schema, GSON.fromJson(json.get("schema"), Schema.class));
+  }
+
   @Test
   public void testPreviewInfo() throws IOException {
     // test non existing preview
@@ -154,6 +154,25 @@ public abstract class RemotePermissionsTestBase {
     permissionManager.revoke(Authorizable.fromEntityId(NS, EntityType.PROFILE));
   }
 
+  @Test
+  public void testBulkEnforce() throws Exception {
+    ApplicationId app1 = NS.app("app1");
+    ApplicationId app2 = NS.app("app2");
+    permissionManager.grant(Authorizable.fromEntityId(APP), ALICE, Collections.singleton(StandardPermission.GET));
+    permissionManager.grant(Authorizable.fromEntityId(app1), ALICE, Collections.singleton(StandardPermission.GET));
+
+    Set<StandardPermission> get = Collections.singleton(StandardPermission.GET);
+    accessEnforcer.enforce(ImmutableSet.of(APP, app1), ALICE, get);
+    accessEnforcer.enforce(ImmutableSet.<EntityId>of(), BOB, get);
+    // Enforce again with one entity that is not authorized, some of the results may come from the cache
+    assertUnauthorized(() -> accessEnforcer.enforce(ImmutableSet.of(APP, app1, app2), ALICE, get));
+    assertUnauthorized(() -> accessEnforcer.enforce(ImmutableSet.of(APP), BOB, get));
+    assertUnauthorized(() -> accessEnforcer.enforce(app2, ALICE, StandardPermission.GET));
+
+    permissionManager.revoke(Authorizable.fromEntityId(APP));
+    permissionManager.revoke(Authorizable.fromEntityId(app1));
+  }
+
   @Test
   public void testVisibility() throws Exception {
     ApplicationId app1 = NS.app("app1");
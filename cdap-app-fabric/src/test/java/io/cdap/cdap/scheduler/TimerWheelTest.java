@@ -0,0 +1,93 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.scheduler;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link TimerWheel}.
+ */
+public class TimerWheelTest {
+
+  @Test
+  public void testAddRemove() {
+    TimerWheel<String> wheel = new TimerWheel<>(10, 4, 1000);
+    wheel.add("past", 500);
+    wheel.add("near", 1025);
+    wheel.add("far", 5000);
+    wheel.add("removed", 2000);
+    Assert.assertEquals(4, wheel.size());
+
+    Assert.assertTrue(wheel.remove("removed"));
+    Assert.assertFalse(wheel.remove("removed"));
+    Assert.assertNull(wheel.getDueTime("removed"));
+    Assert.assertEquals(Long.valueOf(1030), wheel.getDueTime("near"));
+
+    Assert.assertEquals(ImmutableList.of("past"), wheel.advance(1000));
+    Assert.assertEquals(Collections.emptyList(), wheel.advance(1029));
+    Assert.assertEquals(ImmutableList.of("near"), wheel.advance(1030));
+
+    // Replacing the due time of a key
+    wheel.add("far", 1100);
+    Assert.assertEquals(1, wheel.size());
+    Assert.assertEquals(ImmutableList.of("far"), wheel.advance(1200));
+    Assert.assertEquals(0, wheel.size());
+    Assert.assertEquals(Collections.emptyList(), wheel.advance(10000));
+  }
+
+  @Test
+  public void testRandomDueTimes() {
+    Random random = new Random(0);
+    long now = 123456;
+    TimerWheel<Integer> wheel = new TimerWheel<>(10, 8, now);
+    Map<Integer, Long> dueTimes = new HashMap<>();
+    for (int i = 0; i < 10000; i++) {
+      long dueTime = now + random.nextInt(1000000);
+      wheel.add(i, dueTime);
+      dueTimes.put(i, dueTime);
+    }
+
+    // Advance in random steps and remove keys along the way. Keys must come out exactly when due.
+    List<Integer> expired = new ArrayList<>();
+    while (!dueTimes.isEmpty()) {
+      now += random.nextInt(5000);
+      if (random.nextInt(10) == 0) {
+        int key = random.nextInt(10000);
+        Assert.assertEquals(dueTimes.remove(key) != null, wheel.remove(key));
+      }
+      for (Integer key : wheel.advance(now)) {
+        Long dueTime = dueTimes.remove(key);
+        Assert.assertNotNull(dueTime);
+        Assert.assertTrue(dueTime <= now);
+        expired.add(key);
+      }
+      for (Long dueTime : dueTimes.values()) {
+        Assert.assertTrue((dueTime + 9) / 10 * 10 > now);
+      }
+    }
+    Assert.assertEquals(0, wheel.size());
+    Assert.assertFalse(expired.isEmpty());
+  }
+}
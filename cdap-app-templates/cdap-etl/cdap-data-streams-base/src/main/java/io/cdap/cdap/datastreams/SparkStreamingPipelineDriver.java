@@ -180,7 +180,8 @@ public class SparkStreamingPipelineDriver implements JavaSparkMain {
       }
     }
 
-    JavaStreamingContext jssc = run(pipelineSpec, pipelinePhase, sec, checkpointDir, context);
+    AtomicReference<SparkStreamingPipelineRunner> runnerRef = new AtomicReference<>();
+    JavaStreamingContext jssc = run(pipelineSpec, pipelinePhase, sec, checkpointDir, context, runnerRef);
     jssc.start();
 
     boolean stopped = false;
@@ -218,9 +219,9 @@ public class SparkStreamingPipelineDriver implements JavaSparkMain {
         if (terminationTimeout <= 0 || !pipelineSpec.isStopGracefully()) {
           LOG.info("Terminate the streaming job immediately due to {}.",
                    pipelineSpec.isStopGracefully() ? "not enough time till termination" : "configuration");
-          jssc.stop(true, false);
+          stop(jssc, runnerRef.get(), false, 0L);
         } else {
-          jssc.stop(true, true);
+          stop(jssc, runnerRef.get(), true, terminationTimeout);
 
           // After stopping the streaming context, checks if all received data has been processed.
           if (pipelineSpec.getStateSpec().getMode() == DataStreamsStateSpec.Mode.SPARK_CHECKPOINTING
@@ -243,15 +244,37 @@ public class SparkStreamingPipelineDriver implements JavaSparkMain {
             }
           }
         }
+      } else if (runnerRef.get() != null) {
+        // The streaming context terminated by itself, interrupt any batch sinks that are still running
+        runnerRef.get().stop(false, 0L);
       }
     }
   }
 
+  /**
+   * Stops the streaming context. Sinks of batches that are still running concurrently are stopped once the streaming
+   * context stopped submitting batches, but before the spark context they run on is stopped.
+   */
+  private void stop(JavaStreamingContext jssc, @Nullable SparkStreamingPipelineRunner runner,
+                    boolean gracefully, long timeoutMillis) throws InterruptedException {
+    if (runner == null) {
+      jssc.stop(true, gracefully);
+      return;
+    }
+    try {
+      jssc.stop(false, gracefully);
+      runner.stop(gracefully, timeoutMillis);
+    } finally {
+      jssc.sparkContext().stop();
+    }
+  }
+
   private JavaStreamingContext run(DataStreamsPipelineSpec pipelineSpec,
                                    PipelinePhase pipelinePhase,
                                    JavaSparkExecutionContext sec,
                                    @Nullable String checkpointDir,
-                                   @Nullable JavaSparkContext context) throws Exception {
+                                   @Nullable JavaSparkContext context,
+                                   AtomicReference<SparkStreamingPipelineRunner> runnerRef) throws Exception {
 
     PipelinePluginContext pluginContext = new PipelinePluginContext(sec.getPluginContext(), sec.getMetrics(),
                                                                     pipelineSpec.isStageLoggingEnabled(),
@@ -279,6 +302,7 @@ public class SparkStreamingPipelineDriver implements JavaSparkMain {
       JavaStreamingContext jssc = new JavaStreamingContext(
         javaSparkContext, Durations.milliseconds(pipelineSpec.getBatchIntervalMillis()));
       SparkStreamingPipelineRunner runner = new SparkStreamingPipelineRunner(sec, jssc, pipelineSpec);
+      runnerRef.set(runner);
 
       // TODO: figure out how to get partitions to use for aggregators and joiners.
       // Seems like they should be set at configure time instead of runtime? but that requires an API change.
@@ -70,12 +70,16 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import javax.annotation.Nullable;
+import org.apache.spark.SparkConf;
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.api.java.JavaSparkContext;
 import org.apache.spark.sql.SQLContext;
+import org.apache.spark.storage.StorageLevel;
 import org.apache.spark.streaming.api.java.JavaDStream;
 import org.apache.spark.streaming.api.java.JavaPairDStream;
 import org.apache.spark.streaming.api.java.JavaStreamingContext;
@@ -89,6 +93,7 @@ public class SparkStreamingPipelineRunner extends SparkPipelineRunner {
 
   private static final Logger LOG = LoggerFactory.getLogger(SparkStreamingPipelineRunner.class);
   private static final String BATCH_FAILED = "streaming.batch.failed";
+  private static final String BATCH_SINK_TIME = "streaming.batch.sink.time.ms";
 
   private final JavaSparkExecutionContext sec;
   private final JavaStreamingContext javaStreamingContext;
@@ -96,6 +101,9 @@ public class SparkStreamingPipelineRunner extends SparkPipelineRunner {
   private final boolean stateStoreEnabled;
   private final StreamingRetrySettings streamingRetrySettings;
   private final long batchIntervalMillis;
+  private final int maxInFlightBatches;
+  // Used when sinks of multiple batches are allowed to run concurrently
+  private StreamingBatchPipeliner pipeliner;
 
   public SparkStreamingPipelineRunner(JavaSparkExecutionContext sec, JavaStreamingContext javaStreamingContext,
                                       DataStreamsPipelineSpec spec) {
@@ -107,6 +115,21 @@ public class SparkStreamingPipelineRunner extends SparkPipelineRunner {
     this.streamingRetrySettings = spec.getStreamingRetrySettings();
     LOG.debug("State handling mode is : {}", spec.getStateSpec().getMode());
     batchIntervalMillis = this.spec.getBatchIntervalMillis();
+    this.maxInFlightBatches = getMaxInFlightBatches(sec.getRuntimeArguments());
+  }
+
+  /**
+   * Stops the sinks of batches that are still in flight. Must be called after the streaming context stopped
+   * submitting batches and before the spark context is stopped.
+   *
+   * @param gracefully whether to wait for the batches in flight
+   * @param timeoutMillis the maximum time to wait for the batches in flight when stopping gracefully
+   * @throws IllegalStateException if a batch that ran concurrently with the streaming context failed
+   */
+  public void stop(boolean gracefully, long timeoutMillis) throws InterruptedException {
+    if (pipeliner != null) {
+      pipeliner.stop(gracefully, timeoutMillis);
+    }
   }
 
   @Override
@@ -283,13 +306,21 @@ public class SparkStreamingPipelineRunner extends SparkPipelineRunner {
       return null;
     };
 
+    StreamingBatchPipeliner pipeliner = maxInFlightBatches > 1 ? new StreamingBatchPipeliner(maxInFlightBatches) : null;
+    this.pipeliner = pipeliner;
+
     dStream.foreachRDD((javaRDD, time) -> {
+      if (pipeliner != null) {
+        // Fail the batch before processing it if a batch that ran concurrently failed
+        pipeliner.checkFailure();
+      }
       // Starting the batch
       if (eventHandler != null) {
         eventHandler.onBatchStarted(streamingContext);
       }
 
-      Collection<Runnable> sinkRunnables = new ArrayList<>();
+      List<Runnable> sinkRunnables = new ArrayList<>();
+      AtomicReference<JavaRDD<?>> persistedBatch = new AtomicReference<>();
       SinkRunnableProvider sinkRunnableProvider = new StreamingSinkRunnableProvider(sec,
           stateStoreEnabled, streamingRetrySettings, batchRetryCallable, time.milliseconds());
       Transactionals.execute(sec, context -> {
@@ -301,6 +332,14 @@ public class SparkStreamingPipelineRunner extends SparkPipelineRunner {
         batchRDD = new CountingTransformFunction<>(stageSpec.getName(), sec.getMetrics(), "records.out", dataTracer)
             .call(batchRDD);
         JavaRDD<RecordInfo<Object>> wrapped = batchRDD.map(new WrapOutputTransformFunction<>(stageSpec.getName()));
+        if (pipeliner != null) {
+          // The sinks run after this function returns, when Spark Streaming may already have unpersisted the batch
+          // RDD and removed its received blocks. Materialize the batch into an RDD that stays persisted until all
+          // the sinks of the batch finished.
+          wrapped = wrapped.persist(getBatchStorageLevel());
+          wrapped.count();
+          persistedBatch.set(wrapped);
+        }
         RDDCollection<RecordInfo<Object>> rddCollection =
             new RDDCollection<RecordInfo<Object>>(sec, functionCacheFactory, javaStreamingContext.sparkContext(),
                 new SQLContext(javaStreamingContext.sparkContext()),
@@ -320,30 +359,75 @@ public class SparkStreamingPipelineRunner extends SparkPipelineRunner {
         }
       }, Exception.class);
 
-      // Exception is thrown from sink runnables to terminate the pipeline on a batch failure.
-      // But in most cases it was observed that the next pending batch starts processing while the shutdown is ongoing.
-      // Set the failure status in StreamingContext so that further batches do not save state even if they succeed.
-      // Without this, there is a risk of a batch being lost and at least once guarantee will fail.
-      try {
-        //We should have all the sink runnables at this point, execute them
-        executeSinkRunnables(sec, sinkRunnables);
-      } catch (Exception e) {
-        failedBatch.set(true);
-        LOG.debug("Batch failure flag set.");
-        throw e;
-      }
-
-      if (failedBatch.get()) {
-        LOG.info("Current batch succeeded, but state will not be saved since a previous batch failed.");
+      Collection<SparkCollection<?>> cachedCollections = drainCachedCollections();
+      if (pipeliner != null) {
+        // Blocks until there is room for another batch. Since the wait is part of this batch's processing time,
+        // sink latency is still visible to Spark's backpressure rate estimator.
+        pipeliner.submit(sinkRunnables, orderedSinks -> executeBatchSinks(orderedSinks, cachedCollections, failedBatch),
+                         () -> completeBatch(streamingContext, eventHandler, failedBatch),
+                         () -> Optional.ofNullable(persistedBatch.get()).ifPresent(rdd -> rdd.unpersist(false)));
         return;
       }
 
-      if (eventHandler != null) {
-        eventHandler.onBatchCompleted(streamingContext);
-      }
+      executeBatchSinks(sinkRunnables, cachedCollections, failedBatch);
+      completeBatch(streamingContext, eventHandler, failedBatch);
     });
   }
 
+  private void executeBatchSinks(Collection<Runnable> sinkRunnables, Collection<SparkCollection<?>> cachedCollections,
+                                 AtomicBoolean failedBatch) {
+    // Exception is thrown from sink runnables to terminate the pipeline on a batch failure.
+    // But in most cases it was observed that the next pending batch starts processing while the shutdown is ongoing.
+    // Set the failure status in StreamingContext so that further batches do not save state even if they succeed.
+    // Without this, there is a risk of a batch being lost and at least once guarantee will fail.
+    long startTime = System.currentTimeMillis();
+    try {
+      //We should have all the sink runnables at this point, execute them
+      executeSinkRunnables(sec, sinkRunnables, cachedCollections);
+    } catch (Exception e) {
+      failedBatch.set(true);
+      LOG.debug("Batch failure flag set.");
+      throw e;
+    } finally {
+      sec.getMetrics().gauge(BATCH_SINK_TIME, System.currentTimeMillis() - startTime);
+    }
+  }
+
+  private void completeBatch(StreamingContext streamingContext, @Nullable StreamingEventHandler eventHandler,
+                             AtomicBoolean failedBatch) {
+    if (failedBatch.get()) {
+      LOG.info("Current batch succeeded, but state will not be saved since a previous batch failed.");
+      return;
+    }
+
+    if (eventHandler != null) {
+      eventHandler.onBatchCompleted(streamingContext);
+    }
+  }
+
+  private StorageLevel getBatchStorageLevel() {
+    SparkConf sparkConf = javaStreamingContext.sparkContext().getConf();
+    return StorageLevel.fromString(sparkConf.get(Constants.SPARK_PIPELINE_CACHING_STORAGE_LEVEL,
+                                                 Constants.DEFAULT_CACHING_STORAGE_LEVEL));
+  }
+
+  private static int getMaxInFlightBatches(Map<String, String> arguments) {
+    String value = arguments.get(Constants.CDAP_STREAMING_MAX_IN_FLIGHT_BATCHES);
+    if (value == null) {
+      return 1;
+    }
+    try {
+      int maxInFlightBatches = Integer.parseInt(value.trim());
+      if (maxInFlightBatches > 0) {
+        return maxInFlightBatches;
+      }
+    } catch (NumberFormatException e) {
+      // fall through to the error below
+    }
+    throw new IllegalArgumentException(String.format("Invalid value '%s' for runtime argument '%s'. "
+                                                       + "It must be a positive integer.",
+                                                     value, Constants.CDAP_STREAMING_MAX_IN_FLIGHT_BATCHES));
+  }
 
   @Nullable
   private StreamingEventHandler getEventHandler(JavaDStream<Object> dStream) {
@@ -0,0 +1,174 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.datastreams;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the sinks of consecutive streaming batches concurrently, with at most a fixed number of batches in flight.
+ *
+ * <p>Sinks are identified by their position in the list of sinks of a batch, which follows the topological order of
+ * the pipeline and is the same for every batch. A sink of a batch only starts once the same sink of the previous
+ * batch succeeded, so each sink commits batches in order, while different sinks of consecutive batches can overlap.
+ * If a sink fails, the same sink fails in all later batches.</p>
+ *
+ * <p>The completion of each batch, which saves its state, only happens after the sinks of the batch succeeded
+ * and all previous batches have completed, so state is always saved in batch order. Once a batch failed, submitting
+ * another batch or stopping the pipeliner throws, so the failure fails the pipeline.</p>
+ *
+ * <p>Since the sinks of a batch keep running after the batch was submitted, the resources they read from, such as
+ * persisted RDDs, are only released once all the sinks of the batch finished, successfully or not.</p>
+ */
+final class StreamingBatchPipeliner {
+
+  private static final Logger LOG = LoggerFactory.getLogger(StreamingBatchPipeliner.class);
+
+  private final Semaphore inFlight;
+  private final ExecutorService sinkExecutor;
+  private final AtomicReference<Throwable> failure;
+  private List<CompletableFuture<Void>> lastSinks;
+  private CompletableFuture<Void> lastCompletion;
+
+  StreamingBatchPipeliner(int maxInFlightBatches) {
+    this.inFlight = new Semaphore(maxInFlightBatches);
+    this.sinkExecutor = Executors.newFixedThreadPool(maxInFlightBatches, new ThreadFactoryBuilder()
+      .setNameFormat("streaming-batch-sink-%d")
+      .setDaemon(true)
+      .build());
+    this.failure = new AtomicReference<>();
+    this.lastSinks = Collections.emptyList();
+    this.lastCompletion = CompletableFuture.completedFuture(null);
+  }
+
+  /**
+   * Runs the sinks of a batch asynchronously, followed by the completion of the batch once all previous
+   * batches have completed. Blocks until there is room for another batch in flight.
+   *
+   * @param sinks the sinks of the batch
+   * @param sinkExecution executes the given sinks, which are the batch sinks wrapped to keep the per sink ordering
+   * @param completion the completion of the batch
+   * @param release releases the resources of the batch once all its sinks finished, successfully or not
+   * @throws IllegalStateException if a previously submitted batch failed
+   */
+  void submit(List<Runnable> sinks, Consumer<List<Runnable>> sinkExecution,
+              Runnable completion, Runnable release) throws InterruptedException {
+    try {
+      checkFailure();
+      inFlight.acquire();
+    } catch (IllegalStateException | InterruptedException e) {
+      release.run();
+      throw e;
+    }
+    try {
+      checkFailure();
+    } catch (IllegalStateException e) {
+      inFlight.release();
+      release.run();
+      throw e;
+    }
+
+    List<CompletableFuture<Void>> previousSinks = lastSinks;
+    List<CompletableFuture<Void>> currentSinks = new ArrayList<>(sinks.size());
+    List<Runnable> orderedSinks = new ArrayList<>(sinks.size());
+    for (int i = 0; i < sinks.size(); i++) {
+      CompletableFuture<Void> previous = i < previousSinks.size()
+        ? previousSinks.get(i) : CompletableFuture.completedFuture(null);
+      CompletableFuture<Void> current = new CompletableFuture<>();
+      Runnable sink = sinks.get(i);
+      orderedSinks.add(() -> {
+        try {
+          // Fails with a CompletionException if the same sink failed in the previous batch
+          previous.join();
+          sink.run();
+          current.complete(null);
+        } catch (RuntimeException | Error e) {
+          current.completeExceptionally(e);
+          throw e;
+        }
+      });
+      currentSinks.add(current);
+    }
+    lastSinks = currentSinks;
+
+    CompletableFuture<Void> previousCompletion = lastCompletion;
+    lastCompletion = CompletableFuture.runAsync(() -> {
+      try {
+        sinkExecution.accept(orderedSinks);
+      } finally {
+        release.run();
+      }
+    }, sinkExecutor)
+      .whenComplete((result, t) -> {
+        // Sinks that did not run, for example because an earlier sink of the batch failed, must not let
+        // the same sinks of later batches commit
+        for (CompletableFuture<Void> sink : currentSinks) {
+          sink.completeExceptionally(new IllegalStateException("Sink did not run for a failed streaming batch", t));
+        }
+      })
+      .thenCombine(previousCompletion, (sinkResult, previousResult) -> sinkResult)
+      .thenRun(completion)
+      .whenComplete((result, t) -> {
+        if (t != null && failure.compareAndSet(null, t)) {
+          LOG.error("Streaming batch failed. The pipeline will fail when the next batch is submitted.", t);
+        }
+        inFlight.release();
+      });
+  }
+
+  /**
+   * Throws if a previously submitted batch failed.
+   *
+   * @throws IllegalStateException if a previously submitted batch failed
+   */
+  void checkFailure() {
+    Throwable t = failure.get();
+    if (t != null) {
+      throw new IllegalStateException("A previous streaming batch failed", t);
+    }
+  }
+
+  /**
+   * Stops running batches. When stopping gracefully, waits for the batches in flight to complete first,
+   * otherwise they are interrupted.
+   *
+   * @param gracefully whether to wait for the batches in flight
+   * @param timeoutMillis the maximum time to wait for the batches in flight when stopping gracefully
+   * @throws IllegalStateException if a submitted batch failed
+   */
+  void stop(boolean gracefully, long timeoutMillis) throws InterruptedException {
+    sinkExecutor.shutdown();
+    if (!gracefully || !sinkExecutor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+      if (gracefully) {
+        LOG.warn("Streaming batches did not complete within {} ms, interrupting them.", timeoutMillis);
+      }
+      sinkExecutor.shutdownNow();
+    }
+    checkFailure();
+  }
+}
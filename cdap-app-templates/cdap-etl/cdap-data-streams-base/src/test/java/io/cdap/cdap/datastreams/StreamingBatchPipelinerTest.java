@@ -0,0 +1,181 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.datastreams;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link StreamingBatchPipeliner}.
+ */
+public class StreamingBatchPipelinerTest {
+
+  private static final Runnable NOOP = () -> { };
+  private static final Consumer<List<Runnable>> SEQUENTIAL = sinks -> sinks.forEach(Runnable::run);
+  private static final Consumer<List<Runnable>> PARALLEL = sinks -> CompletableFuture.allOf(
+    sinks.stream().map(CompletableFuture::runAsync).toArray(CompletableFuture[]::new)).join();
+
+  @Test
+  public void testCompletionInBatchOrder() throws Exception {
+    StreamingBatchPipeliner pipeliner = new StreamingBatchPipeliner(3);
+    List<Integer> completed = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch firstBatchSink = new CountDownLatch(1);
+
+    pipeliner.submit(Collections.singletonList(() -> await(firstBatchSink)), SEQUENTIAL, () -> completed.add(1), NOOP);
+    pipeliner.submit(Collections.emptyList(), SEQUENTIAL, () -> completed.add(2), NOOP);
+    pipeliner.submit(Collections.emptyList(), SEQUENTIAL, () -> completed.add(3), NOOP);
+
+    // Later batches have nothing to write, but must not complete before the first batch
+    TimeUnit.MILLISECONDS.sleep(200);
+    Assert.assertTrue(completed.isEmpty());
+
+    firstBatchSink.countDown();
+    pipeliner.stop(true, TimeUnit.SECONDS.toMillis(10));
+    Assert.assertEquals(Arrays.asList(1, 2, 3), completed);
+  }
+
+  @Test
+  public void testSinkOrderAcrossBatches() throws Exception {
+    StreamingBatchPipeliner pipeliner = new StreamingBatchPipeliner(2);
+    List<String> written = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch firstBatchSink = new CountDownLatch(1);
+    CountDownLatch secondBatchOtherSink = new CountDownLatch(1);
+
+    pipeliner.submit(Arrays.asList(() -> {
+      await(firstBatchSink);
+      written.add("sink0-batch1");
+    }, () -> written.add("sink1-batch1")), PARALLEL, NOOP, NOOP);
+    pipeliner.submit(Arrays.asList(() -> written.add("sink0-batch2"), () -> {
+      written.add("sink1-batch2");
+      secondBatchOtherSink.countDown();
+    }), PARALLEL, NOOP, NOOP);
+
+    // The other sink of the second batch does not wait for the slow sink of the first batch
+    Assert.assertTrue(secondBatchOtherSink.await(10, TimeUnit.SECONDS));
+    Assert.assertFalse(written.contains("sink0-batch2"));
+
+    firstBatchSink.countDown();
+    pipeliner.stop(true, TimeUnit.SECONDS.toMillis(10));
+    List<String> firstSink = written.stream().filter(s -> s.startsWith("sink0")).collect(Collectors.toList());
+    Assert.assertEquals(Arrays.asList("sink0-batch1", "sink0-batch2"), firstSink);
+  }
+
+  @Test
+  public void testFailureFailsLaterBatches() throws Exception {
+    StreamingBatchPipeliner pipeliner = new StreamingBatchPipeliner(2);
+    List<String> events = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch firstBatchSink = new CountDownLatch(1);
+
+    pipeliner.submit(Collections.singletonList(() -> {
+      await(firstBatchSink);
+      throw new RuntimeException("sink failure");
+    }), SEQUENTIAL, () -> events.add("complete-batch1"), NOOP);
+    pipeliner.submit(Collections.singletonList(() -> events.add("sink-batch2")), SEQUENTIAL,
+                     () -> events.add("complete-batch2"), NOOP);
+    firstBatchSink.countDown();
+
+    // The failure is surfaced when the next batch is submitted
+    try {
+      for (int i = 0; i < 100; i++) {
+        pipeliner.submit(Collections.emptyList(), SEQUENTIAL, NOOP, NOOP);
+        TimeUnit.MILLISECONDS.sleep(100);
+      }
+      Assert.fail("Expected the failed batch to fail the next submit");
+    } catch (IllegalStateException e) {
+      // expected
+    }
+
+    // Stopping fails as well, so the failure is not lost if no other batch is submitted
+    try {
+      pipeliner.stop(true, TimeUnit.SECONDS.toMillis(10));
+      Assert.fail("Expected the failed batch to fail the stop");
+    } catch (IllegalStateException e) {
+      // expected
+    }
+
+    // Neither the failed batch nor later batches are completed, and the sink did not write the later batch
+    Assert.assertTrue(events.isEmpty());
+  }
+
+  @Test
+  public void testReleaseAfterSlowSink() throws Exception {
+    StreamingBatchPipeliner pipeliner = new StreamingBatchPipeliner(2);
+    List<String> events = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch slowSink = new CountDownLatch(1);
+    CountDownLatch secondBatchReleased = new CountDownLatch(1);
+
+    pipeliner.submit(Arrays.asList(() -> events.add("sink0-batch1"), () -> {
+      await(slowSink);
+      events.add("slow-sink1-batch1");
+    }), PARALLEL, NOOP, () -> events.add("release-batch1"));
+    pipeliner.submit(Collections.singletonList(() -> events.add("sink0-batch2")), PARALLEL, NOOP, () -> {
+      events.add("release-batch2");
+      secondBatchReleased.countDown();
+    });
+
+    // The next batch runs and releases its resources while the slow sink of the first batch is still running,
+    // which must keep the resources of the first batch
+    Assert.assertTrue(secondBatchReleased.await(10, TimeUnit.SECONDS));
+    Assert.assertFalse(events.contains("release-batch1"));
+
+    slowSink.countDown();
+    pipeliner.stop(true, TimeUnit.SECONDS.toMillis(10));
+    Assert.assertTrue(events.indexOf("slow-sink1-batch1") < events.indexOf("release-batch1"));
+  }
+
+  @Test
+  public void testReleaseOnFailure() throws Exception {
+    StreamingBatchPipeliner pipeliner = new StreamingBatchPipeliner(2);
+    CountDownLatch released = new CountDownLatch(2);
+
+    pipeliner.submit(Collections.singletonList(() -> {
+      throw new RuntimeException("sink failure");
+    }), SEQUENTIAL, NOOP, released::countDown);
+
+    // A batch submitted after the failure is not run, but its resources are still released
+    try {
+      for (int i = 0; i < 100; i++) {
+        pipeliner.submit(Collections.singletonList(() -> Assert.fail("Batch must not run")), SEQUENTIAL, NOOP,
+                         released::countDown);
+        TimeUnit.MILLISECONDS.sleep(100);
+      }
+      Assert.fail("Expected the failed batch to fail the next submit");
+    } catch (IllegalStateException e) {
+      // expected
+    }
+    Assert.assertTrue(released.await(10, TimeUnit.SECONDS));
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      if (!latch.await(10, TimeUnit.SECONDS)) {
+        throw new IllegalStateException("Timeout waiting for latch");
+      }
+    } catch (InterruptedException e) {
+      throw new RuntimeException(e);
+    }
+  }
+}
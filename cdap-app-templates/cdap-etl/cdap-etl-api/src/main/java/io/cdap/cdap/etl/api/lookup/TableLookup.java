@@ -18,10 +18,14 @@ package io.cdap.cdap.etl.api.lookup;
 
 import com.google.common.collect.ImmutableSet;
 import io.cdap.cdap.api.common.Bytes;
+import io.cdap.cdap.api.dataset.table.Get;
 import io.cdap.cdap.api.dataset.table.Row;
 import io.cdap.cdap.api.dataset.table.Table;
 import io.cdap.cdap.etl.api.Lookup;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -48,9 +52,16 @@ public class TableLookup implements Lookup<Row> {
 
   @Override
   public Map<String, Row> lookup(Set<String> keys) {
-    Map<String, Row> results = new HashMap<>();
+    // Issue all the gets as a single batch so that the table can fetch them in one round trip
+    List<Get> gets = new ArrayList<>(keys.size());
     for (String key : keys) {
-      results.put(key, lookup(key));
+      gets.add(new Get(key));
+    }
+
+    Map<String, Row> results = new HashMap<>();
+    Iterator<String> keyIterator = keys.iterator();
+    for (Row row : table.get(gets)) {
+      results.put(keyIterator.next(), row);
     }
     return results;
   }
@@ -16,6 +16,8 @@
 
 package io.cdap.cdap.etl.common;
 
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
 import io.cdap.cdap.etl.api.Lookup;
 import io.cdap.cdap.etl.api.LookupProvider;
 import io.cdap.cdap.etl.api.TransformContext;
@@ -23,6 +25,8 @@ import io.cdap.cdap.etl.api.lineage.field.FieldOperation;
 import io.cdap.cdap.etl.proto.v2.spec.StageSpec;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Base implementation of {@link TransformContext} for common functionality. This context scopes
@@ -33,16 +37,49 @@ public abstract class AbstractTransformContext extends AbstractStageContext impl
     TransformContext {
 
   private final LookupProvider lookup;
+  // Caching lookups by table and arguments, so that the cache is kept across calls to provide()
+  private final ConcurrentMap<Map.Entry<String, Map<String, String>>, Lookup<?>> cachingLookups;
 
   protected AbstractTransformContext(PipelineRuntime pipelineRuntime, StageSpec stageSpec,
       LookupProvider lookup) {
     super(pipelineRuntime, stageSpec);
     this.lookup = lookup;
+    this.cachingLookups = new ConcurrentHashMap<>();
   }
 
+  @SuppressWarnings("unchecked")
   @Override
   public <T> Lookup<T> provide(String table, Map<String, String> arguments) {
-    return lookup.provide(table, arguments);
+    long cacheSize = getLookupCacheSize();
+    if (cacheSize <= 0) {
+      return lookup.provide(table, arguments);
+    }
+    Map<String, String> lookupArguments = arguments == null
+        ? ImmutableMap.of() : ImmutableMap.copyOf(arguments);
+    return (Lookup<T>) cachingLookups.computeIfAbsent(
+        Maps.immutableEntry(table, lookupArguments),
+        key -> new CachingLookup<>(lookup.<T>provide(table, arguments), getMetrics(),
+            cacheSize));
+  }
+
+  /**
+   * Returns the size of the lookup cache from the runtime arguments, or {@code 0} if lookup
+   * caching is not enabled.
+   *
+   * @throws IllegalArgumentException if the runtime argument is not a number
+   */
+  private long getLookupCacheSize() {
+    String cacheSize = getArguments().get(Constants.LOOKUP_CACHE_SIZE);
+    if (cacheSize == null) {
+      return 0L;
+    }
+    try {
+      return Long.parseLong(cacheSize.trim());
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException(
+          String.format("Invalid value '%s' for runtime argument '%s'. It must be a number.",
+              cacheSize, Constants.LOOKUP_CACHE_SIZE), e);
+    }
   }
 
   @Override
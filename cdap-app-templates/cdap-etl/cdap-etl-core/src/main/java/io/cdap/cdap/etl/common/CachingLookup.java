@@ -0,0 +1,88 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.etl.common;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
+import io.cdap.cdap.etl.api.Lookup;
+import io.cdap.cdap.etl.api.StageMetrics;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A {@link Lookup} that keeps a size bounded LRU cache in front of another {@link Lookup}. Cache
+ * misses of a batch lookup are fetched from the delegate with a single batch lookup. Cache hits and
+ * misses are emitted as stage metrics.
+ *
+ * @param <T> the type of object that will be returned for a lookup
+ */
+public class CachingLookup<T> implements Lookup<T> {
+
+  private final Lookup<T> delegate;
+  private final StageMetrics metrics;
+  private final Cache<String, T> cache;
+
+  public CachingLookup(Lookup<T> delegate, StageMetrics metrics, long maxSize) {
+    this.delegate = delegate;
+    this.metrics = metrics;
+    this.cache = CacheBuilder.newBuilder().maximumSize(maxSize).build();
+  }
+
+  @Override
+  public T lookup(String key) {
+    T value = cache.getIfPresent(key);
+    if (value != null) {
+      metrics.count(Constants.Metrics.LOOKUP_CACHE_HITS, 1);
+      return value;
+    }
+    metrics.count(Constants.Metrics.LOOKUP_CACHE_MISSES, 1);
+    value = delegate.lookup(key);
+    if (value != null) {
+      cache.put(key, value);
+    }
+    return value;
+  }
+
+  @Override
+  public Map<String, T> lookup(String... keys) {
+    return lookup(ImmutableSet.copyOf(keys));
+  }
+
+  @Override
+  public Map<String, T> lookup(Set<String> keys) {
+    Map<String, T> result = new HashMap<>(cache.getAllPresent(keys));
+    Set<String> missing = new HashSet<>(keys);
+    missing.removeAll(result.keySet());
+
+    metrics.count(Constants.Metrics.LOOKUP_CACHE_HITS, result.size());
+    if (missing.isEmpty()) {
+      return result;
+    }
+
+    metrics.count(Constants.Metrics.LOOKUP_CACHE_MISSES, missing.size());
+    for (Map.Entry<String, T> entry : delegate.lookup(missing).entrySet()) {
+      if (entry.getValue() != null) {
+        cache.put(entry.getKey(), entry.getValue());
+      }
+      result.put(entry.getKey(), entry.getValue());
+    }
+    return result;
+  }
+}
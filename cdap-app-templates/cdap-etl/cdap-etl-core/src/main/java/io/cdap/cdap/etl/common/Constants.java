@@ -35,14 +35,20 @@ public final class Constants {
   public static final String FIELD_OPERATION_KEY_IN_WORKFLOW_TOKEN = "field.operations";
   public static final String SPARK_PIPELINE_AUTOCACHE_ENABLE_FLAG = "spark.cdap.pipeline.autocache.enable";
   public static final String SPARK_PIPELINE_CACHING_STORAGE_LEVEL = "spark.cdap.pipeline.caching.storage.level";
+  public static final String SPARK_PIPELINE_CACHING_ADAPTIVE_ENABLE =
+    "spark.cdap.pipeline.caching.adaptive.enable";
+  public static final String SPARK_PIPELINE_CACHING_MEMORY_MIN_CONSUMERS =
+    "spark.cdap.pipeline.caching.memory.min.consumers";
   public static final String CONSOLIDATE_STAGES = "spark.cdap.pipeline.consolidate.stages";
   public static final String CACHE_FUNCTIONS = "spark.cdap.pipeline.functioncache.enable";
+  public static final String LOOKUP_CACHE_SIZE = "cdap.pipeline.lookup.cache.size";
   public static final String DATASET_KRYO_ENABLED = "spark.cdap.pipeline.dataset.kryo.enable";
   public static final String DATASET_AGGREGATE_ENABLED = "spark.cdap.pipeline.aggregate.dataset.enable";
   public static final String DISABLE_ELT_PUSHDOWN = "cdap.pipeline.pushdown.disable";
   public static final String DATASET_AGGREGATE_IGNORE_PARTITIONS =
       "spark.cdap.pipeline.aggregate.dataset.partitions.ignore";
   public static final String DEFAULT_CACHING_STORAGE_LEVEL = "DISK_ONLY";
+  public static final int DEFAULT_CACHING_MEMORY_MIN_CONSUMERS = 3;
   // Can be used as a runtime argument for streaming pipeline to disable at least once processing.
   public static final String CDAP_STREAMING_ATLEASTONCE_ENABLED = "cdap.streaming.atleastonce.enabled";
   // Can be used as a runtime argument for streaming pipeline to set max retry time in minutes
@@ -51,6 +57,10 @@ public final class Constants {
   public static final String CDAP_STREAMING_BASE_RETRY_DELAY_IN_SECONDS = "cdap.streaming.baseRetryDelayInSeconds";
   // Can be used as a runtime argument for streaming pipeline to set max retry delay in seconds
   public static final String CDAP_STREAMING_MAX_RETRY_DELAY_IN_SECONDS = "cdap.streaming.maxRetryDelayInSeconds";
+  // Can be used as a runtime argument for streaming pipelines with at least once processing to let the sinks of up to
+  // this many batches run concurrently. The state of a batch is only saved once all previous batches have completed.
+  // Only safe for sources whose event handlers do not assume a batch completes before the next one starts.
+  public static final String CDAP_STREAMING_MAX_IN_FLIGHT_BATCHES = "cdap.streaming.maxInFlightBatches";
   // Can be used as a runtime argument for streaming pipelines to allow macros in the source,
   // even when using spark checkpointing.
   public static final String CDAP_STREAMING_ALLOW_SOURCE_MACROS = "cdap.streaming.allow.source.macros";
@@ -93,6 +103,8 @@ public final class Constants {
     public static final String DRAFT_COUNT = "draft.count";
     public static final String STAGES_COUNT = "stages.count";
     public static final String STAGES_COUNT_PREFIX = STAGES_COUNT + ".";
+    public static final String LOOKUP_CACHE_HITS = "lookup.cache.hits";
+    public static final String LOOKUP_CACHE_MISSES = "lookup.cache.misses";
 
     public static final class Connection {
 
@@ -0,0 +1,98 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.etl.common;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.cdap.cdap.etl.api.Lookup;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link CachingLookup}.
+ */
+public class CachingLookupTest {
+
+  @Test
+  public void testBatchLookupOnlyFetchesMisses() {
+    CountingLookup delegate = new CountingLookup(ImmutableMap.of("a", "1", "b", "2", "c", "3"));
+    MockMetrics metrics = new MockMetrics();
+    Lookup<String> lookup = new CachingLookup<>(delegate, new DefaultStageMetrics(metrics, "s"), 10);
+
+    Assert.assertEquals("1", lookup.lookup("a"));
+    Assert.assertEquals(ImmutableMap.of("a", "1", "b", "2"), lookup.lookup("a", "b"));
+    Assert.assertEquals(ImmutableMap.of("a", "1", "b", "2", "c", "3"), lookup.lookup(ImmutableSet.of("a", "b", "c")));
+
+    // Each key should only have been fetched from the delegate once
+    Assert.assertEquals(3, delegate.batches.size());
+    Assert.assertEquals(ImmutableSet.of("a"), delegate.batches.get(0));
+    Assert.assertEquals(ImmutableSet.of("b"), delegate.batches.get(1));
+    Assert.assertEquals(ImmutableSet.of("c"), delegate.batches.get(2));
+
+    Assert.assertEquals(3, metrics.getCount("s." + Constants.Metrics.LOOKUP_CACHE_HITS));
+    Assert.assertEquals(3, metrics.getCount("s." + Constants.Metrics.LOOKUP_CACHE_MISSES));
+  }
+
+  @Test
+  public void testMissingKeysAreNotCached() {
+    CountingLookup delegate = new CountingLookup(ImmutableMap.of("a", "1"));
+    Lookup<String> lookup = new CachingLookup<>(delegate, new DefaultStageMetrics(new MockMetrics(), "s"), 10);
+
+    Assert.assertNull(lookup.lookup("x"));
+    Assert.assertNull(lookup.lookup("x"));
+    Assert.assertEquals(2, delegate.batches.size());
+  }
+
+  /**
+   * A {@link Lookup} backed by a map that records every set of keys it was asked for.
+   */
+  private static final class CountingLookup implements Lookup<String> {
+
+    private final Map<String, String> data;
+    private final List<Set<String>> batches = new ArrayList<>();
+
+    private CountingLookup(Map<String, String> data) {
+      this.data = data;
+    }
+
+    @Override
+    public String lookup(String key) {
+      batches.add(ImmutableSet.of(key));
+      return data.get(key);
+    }
+
+    @Override
+    public Map<String, String> lookup(String... keys) {
+      return lookup(ImmutableSet.copyOf(keys));
+    }
+
+    @Override
+    public Map<String, String> lookup(Set<String> keys) {
+      batches.add(ImmutableSet.copyOf(keys));
+      Map<String, String> result = new HashMap<>();
+      for (String key : keys) {
+        result.put(key, data.get(key));
+      }
+      return result;
+    }
+  }
+}
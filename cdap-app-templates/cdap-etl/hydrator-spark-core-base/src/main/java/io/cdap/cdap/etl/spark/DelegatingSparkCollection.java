@@ -87,6 +87,16 @@ public abstract class DelegatingSparkCollection<T> implements SparkCollection<T>
     return getDelegate().cache();
   }
 
+  @Override
+  public SparkCollection<T> cache(int consumers) {
+    return getDelegate().cache(consumers);
+  }
+
+  @Override
+  public void unpersist() {
+    getDelegate().unpersist();
+  }
+
   @Override
   public SparkCollection union(SparkCollection other) {
     return getDelegate().union(other);
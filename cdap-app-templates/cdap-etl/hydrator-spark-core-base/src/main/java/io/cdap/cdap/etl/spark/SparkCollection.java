@@ -51,6 +51,22 @@ public interface SparkCollection<T> {
 
   SparkCollection<T> cache();
 
+  /**
+   * Caches this collection, knowing that it will be read by the given number of downstream consumers.
+   * Implementations may use the number of consumers to pick a storage level for the cached data.
+   */
+  default SparkCollection<T> cache(int consumers) {
+    return cache();
+  }
+
+  /**
+   * Releases any data cached for this collection. This should only be called once all consumers of the
+   * cached collection have been computed.
+   */
+  default void unpersist() {
+    // no-op by default
+  }
+
   SparkCollection<T> union(SparkCollection<T> other);
 
   SparkCollection<RecordInfo<Object>> transform(StageSpec stageSpec, StageStatisticsCollector collector);
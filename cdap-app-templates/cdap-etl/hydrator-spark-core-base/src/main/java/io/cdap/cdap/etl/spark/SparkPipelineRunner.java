@@ -114,6 +114,9 @@ public abstract class SparkPipelineRunner {
     BatchJoiner.PLUGIN_TYPE, BatchAggregator.PLUGIN_TYPE, Constants.Connector.PLUGIN_TYPE,
     SparkCompute.PLUGIN_TYPE, SparkSink.PLUGIN_TYPE, AlertPublisher.PLUGIN_TYPE);
 
+  // collections cached while processing the current dag, released once the sinks have been executed
+  private final List<SparkCollection<?>> cachedCollections = new ArrayList<>();
+
   protected abstract SparkCollection<RecordInfo<Object>> getSource(StageSpec stageSpec,
                                                                    FunctionCache.Factory functionCacheFactory,
                                                                    StageStatisticsCollector collector) throws Exception;
@@ -204,6 +207,23 @@ public abstract class SparkPipelineRunner {
   }
 
   protected void executeSinkRunnables(JavaSparkExecutionContext sec, Collection<Runnable> sinkRunnables) {
+    executeSinkRunnables(sec, sinkRunnables, drainCachedCollections());
+  }
+
+  /**
+   * Executes the sink runnables and then releases the given cached collections. Sinks are the only consumers that
+   * trigger computation of cached collections, so every cached collection can be released once all of them have run.
+   */
+  protected void executeSinkRunnables(JavaSparkExecutionContext sec, Collection<Runnable> sinkRunnables,
+                                      Collection<SparkCollection<?>> cachedCollections) {
+    try {
+      runSinkRunnables(sec, sinkRunnables);
+    } finally {
+      unpersist(cachedCollections);
+    }
+  }
+
+  private void runSinkRunnables(JavaSparkExecutionContext sec, Collection<Runnable> sinkRunnables) {
     boolean shouldWriteInParallel = Boolean.parseBoolean(
       sec.getRuntimeArguments().get("pipeline.spark.parallel.sinks.enabled"));
     if (!shouldWriteInParallel) {
@@ -534,7 +554,7 @@ public abstract class SparkPipelineRunner {
       SparkCollection<Object> records, CombinerDag groupedDag,
       Set<String> branchers, Set<String> shufflers, String stageName) {
     if (shouldCache(groupedDag, stageSpec.getName(), branchers, shufflers, records)) {
-      records = records.cache();
+      records = cache(groupedDag, stageName, records);
     }
     SparkCollection<RecordInfo<Object>> stageData = mapToRecordInfoCollection(stageName, records);
     EmittedRecords.Builder builder = EmittedRecords.builder();
@@ -1116,6 +1136,35 @@ public abstract class SparkPipelineRunner {
     return !Sets.intersection(dag.getSources(), parents).isEmpty();
   }
 
+  /**
+   * Caches the output of a stage. The number of stages consuming the output is used to pick the storage level,
+   * and the cached collection is remembered so that it can be released once all sinks have been executed.
+   */
+  private <T> SparkCollection<T> cache(Dag dag, String stageName, SparkCollection<T> stageData) {
+    SparkCollection<T> cached = stageData.cache(dag.getNodeOutputs(stageName).size());
+    cachedCollections.add(cached);
+    return cached;
+  }
+
+  /**
+   * Returns all collections cached while processing the current DAG and stops tracking them.
+   */
+  protected List<SparkCollection<?>> drainCachedCollections() {
+    List<SparkCollection<?>> result = new ArrayList<>(cachedCollections);
+    cachedCollections.clear();
+    return result;
+  }
+
+  private void unpersist(Collection<SparkCollection<?>> collections) {
+    for (SparkCollection<?> collection : collections) {
+      try {
+        collection.unpersist();
+      } catch (Exception e) {
+        LOG.warn("Failed to unpersist cached collection. It will be cleaned up by Spark eventually.", e);
+      }
+    }
+  }
+
   /**
    * Wraps a Spark Collection with RecordInfo for the stage.
    *
@@ -1143,7 +1192,7 @@ public abstract class SparkPipelineRunner {
     builder.setRawData(stageData);
 
     if (shouldCache(dag, stageSpec.getName(), branchers, shufflers, stageData)) {
-      stageData = stageData.cache();
+      stageData = cache(dag, stageSpec.getName(), stageData);
     }
 
     if (hasErrors) {
@@ -116,6 +116,11 @@ public class DataframeCollection extends DatasetCollection<StructuredRecord>
     return wrap(dataframe.persist(cacheStorageLevel), schema);
   }
 
+  @Override
+  public void unpersist() {
+    dataframe.unpersist(false);
+  }
+
   @Override
   public SparkCollection<StructuredRecord> join(JoinRequest joinRequest) {
     Map<String, Dataset> collections = new HashMap<>();
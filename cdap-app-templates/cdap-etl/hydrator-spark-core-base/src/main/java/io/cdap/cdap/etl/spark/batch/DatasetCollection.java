@@ -147,12 +147,14 @@ public abstract class DatasetCollection<T> extends DelegatingSparkCollection<T>
 
   @Override
   public SparkCollection<T> cache() {
+    return cache(1);
+  }
+
+  @Override
+  public SparkCollection<T> cache(int consumers) {
     SparkConf sparkConf = jsc.getConf();
     if (sparkConf.getBoolean(Constants.SPARK_PIPELINE_AUTOCACHE_ENABLE_FLAG, true)) {
-      String cacheStorageLevelString = sparkConf.get(Constants.SPARK_PIPELINE_CACHING_STORAGE_LEVEL,
-          Constants.DEFAULT_CACHING_STORAGE_LEVEL);
-      StorageLevel cacheStorageLevel = StorageLevel.fromString(cacheStorageLevelString);
-      return cache(cacheStorageLevel);
+      return cache(RDDUtils.getCacheStorageLevel(sparkConf, consumers));
     } else {
       return this;
     }
@@ -162,6 +164,11 @@ public abstract class DatasetCollection<T> extends DelegatingSparkCollection<T>
     return wrap(getDataset().persist(cacheStorageLevel));
   }
 
+  @Override
+  public void unpersist() {
+    getDataset().unpersist(false);
+  }
+
   @Override
   public SparkCollection union(SparkCollection other) {
     if (other instanceof DatasetCollection) {
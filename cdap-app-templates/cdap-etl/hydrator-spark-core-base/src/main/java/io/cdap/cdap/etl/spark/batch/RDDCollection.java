@@ -124,17 +124,24 @@ public class RDDCollection<T> implements BatchCollection<T> {
 
   @Override
   public SparkCollection<T> cache() {
+    return cache(1);
+  }
+
+  @Override
+  public SparkCollection<T> cache(int consumers) {
     SparkConf sparkConf = jsc.getConf();
     if (sparkConf.getBoolean(Constants.SPARK_PIPELINE_AUTOCACHE_ENABLE_FLAG, true)) {
-      String cacheStorageLevelString = sparkConf.get(Constants.SPARK_PIPELINE_CACHING_STORAGE_LEVEL,
-                                                     Constants.DEFAULT_CACHING_STORAGE_LEVEL);
-      StorageLevel cacheStorageLevel = StorageLevel.fromString(cacheStorageLevelString);
-      return wrap(rdd.persist(cacheStorageLevel));
+      return wrap(rdd.persist(RDDUtils.getCacheStorageLevel(sparkConf, consumers)));
     } else {
       return wrap(rdd);
     }
   }
 
+  @Override
+  public void unpersist() {
+    rdd.unpersist(false);
+  }
+
   @SuppressWarnings("unchecked")
   @Override
   public SparkCollection<T> union(SparkCollection<T> other) {
@@ -19,13 +19,16 @@ package io.cdap.cdap.etl.spark.batch;
 import com.google.common.base.Throwables;
 import io.cdap.cdap.api.data.batch.InputFormatProvider;
 import io.cdap.cdap.api.data.batch.OutputFormatProvider;
+import io.cdap.cdap.etl.common.Constants;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.mapred.JobConf;
 import org.apache.hadoop.mapreduce.InputFormat;
 import org.apache.hadoop.mapreduce.MRJobConfig;
 import org.apache.hadoop.security.UserGroupInformation;
+import org.apache.spark.SparkConf;
 import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaSparkContext;
+import org.apache.spark.storage.StorageLevel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -38,6 +41,25 @@ import java.util.Map;
 public class RDDUtils {
   private static final Logger LOG = LoggerFactory.getLogger(RDDUtils.class);
 
+  /**
+   * Returns the {@link StorageLevel} to use for a collection that is cached for the given number of consumers.
+   * An explicitly configured storage level always wins. Otherwise, if adaptive caching is enabled, collections
+   * read by many consumers are kept serialized in memory (spilling to disk), since they are re-read often,
+   * while other collections use the default disk based storage level to keep executor memory free.
+   */
+  public static StorageLevel getCacheStorageLevel(SparkConf sparkConf, int consumers) {
+    String configuredLevel = sparkConf.get(Constants.SPARK_PIPELINE_CACHING_STORAGE_LEVEL, null);
+    if (configuredLevel != null) {
+      return StorageLevel.fromString(configuredLevel);
+    }
+    if (sparkConf.getBoolean(Constants.SPARK_PIPELINE_CACHING_ADAPTIVE_ENABLE, false)
+      && consumers >= sparkConf.getInt(Constants.SPARK_PIPELINE_CACHING_MEMORY_MIN_CONSUMERS,
+                                       Constants.DEFAULT_CACHING_MEMORY_MIN_CONSUMERS)) {
+      return StorageLevel.MEMORY_AND_DISK_SER();
+    }
+    return StorageLevel.fromString(Constants.DEFAULT_CACHING_STORAGE_LEVEL);
+  }
+
   public static void saveUsingOutputFormat(OutputFormatProvider outputFormatProvider, JavaPairRDD<?, ?> rdd) {
     Configuration hConf = new Configuration();
     for (Map.Entry<String, String> entry : outputFormatProvider.getOutputFormatConfiguration().entrySet()) {
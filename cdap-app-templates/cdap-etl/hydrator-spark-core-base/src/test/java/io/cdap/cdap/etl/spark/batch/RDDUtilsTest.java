@@ -0,0 +1,67 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.etl.spark.batch;
+
+import io.cdap.cdap.etl.common.Constants;
+import org.apache.spark.SparkConf;
+import org.apache.spark.storage.StorageLevel;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link RDDUtils}
+ */
+public class RDDUtilsTest {
+
+  @Test
+  public void testDefaultStorageLevel() {
+    SparkConf sparkConf = new SparkConf(false);
+    StorageLevel defaultLevel = StorageLevel.fromString(Constants.DEFAULT_CACHING_STORAGE_LEVEL);
+    Assert.assertEquals(defaultLevel, RDDUtils.getCacheStorageLevel(sparkConf, 1));
+    // Without adaptive caching, the number of consumers doesn't matter
+    Assert.assertEquals(defaultLevel, RDDUtils.getCacheStorageLevel(sparkConf, 10));
+  }
+
+  @Test
+  public void testAdaptiveStorageLevel() {
+    SparkConf sparkConf = new SparkConf(false)
+      .set(Constants.SPARK_PIPELINE_CACHING_ADAPTIVE_ENABLE, "true")
+      .set(Constants.SPARK_PIPELINE_CACHING_MEMORY_MIN_CONSUMERS, "2");
+    Assert.assertEquals(StorageLevel.fromString(Constants.DEFAULT_CACHING_STORAGE_LEVEL),
+                        RDDUtils.getCacheStorageLevel(sparkConf, 1));
+    Assert.assertEquals(StorageLevel.MEMORY_AND_DISK_SER(), RDDUtils.getCacheStorageLevel(sparkConf, 2));
+    Assert.assertEquals(StorageLevel.MEMORY_AND_DISK_SER(), RDDUtils.getCacheStorageLevel(sparkConf, 5));
+
+    // The default min consumers is used when it is not set
+    sparkConf.remove(Constants.SPARK_PIPELINE_CACHING_MEMORY_MIN_CONSUMERS);
+    Assert.assertEquals(StorageLevel.fromString(Constants.DEFAULT_CACHING_STORAGE_LEVEL),
+                        RDDUtils.getCacheStorageLevel(sparkConf,
+                                                      Constants.DEFAULT_CACHING_MEMORY_MIN_CONSUMERS - 1));
+    Assert.assertEquals(StorageLevel.MEMORY_AND_DISK_SER(),
+                        RDDUtils.getCacheStorageLevel(sparkConf, Constants.DEFAULT_CACHING_MEMORY_MIN_CONSUMERS));
+  }
+
+  @Test
+  public void testConfiguredStorageLevel() {
+    SparkConf sparkConf = new SparkConf(false)
+      .set(Constants.SPARK_PIPELINE_CACHING_STORAGE_LEVEL, "MEMORY_ONLY")
+      .set(Constants.SPARK_PIPELINE_CACHING_ADAPTIVE_ENABLE, "true");
+    // An explicitly configured storage level always wins
+    Assert.assertEquals(StorageLevel.MEMORY_ONLY(), RDDUtils.getCacheStorageLevel(sparkConf, 1));
+    Assert.assertEquals(StorageLevel.MEMORY_ONLY(), RDDUtils.getCacheStorageLevel(sparkConf, 10));
+  }
+}
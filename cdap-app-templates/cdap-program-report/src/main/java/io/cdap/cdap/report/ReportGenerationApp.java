@@ -27,6 +27,7 @@ public class ReportGenerationApp extends AbstractApplication {
 
   public static final String NAME = "ReportGenerationApp";
   public static final String RUN_META_FILESET = "RunMetaFileset";
+  public static final String RUN_META_COLUMNAR_FILESET = "RunMetaColumnarFileset";
   public static final String REPORT_FILESET = "ReportFileset";
 
   @Override
@@ -36,5 +37,8 @@ public class ReportGenerationApp extends AbstractApplication {
     createDataset(REPORT_FILESET, FileSet.class, FileSetProperties.builder()
         .setDescription("fileSet")
         .build());
+    createDataset(RUN_META_COLUMNAR_FILESET, FileSet.class, FileSetProperties.builder()
+        .setDescription("Program run meta records compacted into parquet files")
+        .build());
   }
 }
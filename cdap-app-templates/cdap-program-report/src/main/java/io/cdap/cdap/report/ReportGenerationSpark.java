@@ -68,6 +68,7 @@ import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Base64;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -77,6 +78,8 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.annotation.Nullable;
@@ -218,6 +221,10 @@ public class ReportGenerationSpark extends AbstractExtendedSpark {
     private static final String START_FILE = "_START";
     private static final String FAILURE_FILE = "_FAILURE";
     private static final String SAVED_FILE = "_SAVED";
+    // Compaction of program run meta files takes the write lock, since it deletes the compacted
+    // files and appends to the compacted records. Report generation takes the read lock from
+    // listing the files until the report is generated, so files are not deleted while being read.
+    private static final ReadWriteLock COMPACTION_LOCK = new ReentrantReadWriteLock();
 
     private int readLimit;
     private SQLContext sqlContext;
@@ -978,9 +985,11 @@ public class ReportGenerationSpark extends AbstractExtendedSpark {
 
     /**
      * Generates report files according to the given request and write them to the given location.
-     * Program run meta files are first filtered to exclude unnecessary files for report generation,
-     * and send the paths of qualified run meta files to {@link ReportGenerationHelper#generateReport}
-     * that actually launches a Spark job to generate reports.
+     * Program run meta files that are no longer written to are first compacted into the run meta
+     * columnar fileset. The remaining program run meta files are filtered to exclude unnecessary
+     * files for report generation, and the paths of qualified run meta files are sent together with
+     * the location of the compacted records to {@link ReportGenerationHelper#generateReport} that
+     * actually launches a Spark job to generate reports.
      *
      * @param reportRequest the request to generate report
      * @param reportIdDir the location of the directory where the report files directory, COUNT
@@ -989,6 +998,30 @@ public class ReportGenerationSpark extends AbstractExtendedSpark {
     private void generateReport(ReportGenerationRequest reportRequest, Location reportIdDir)
         throws IOException {
       Location baseLocation = getDatasetBaseLocation(ReportGenerationApp.RUN_META_FILESET);
+      Location columnarLocation = getDatasetBaseLocation(
+          ReportGenerationApp.RUN_META_COLUMNAR_FILESET);
+      COMPACTION_LOCK.writeLock().lock();
+      try {
+        compactRunMetaFiles(baseLocation.list(), columnarLocation);
+        // Downgrade to the read lock, so that no compaction happens before the report is generated
+        COMPACTION_LOCK.readLock().lock();
+      } finally {
+        COMPACTION_LOCK.writeLock().unlock();
+      }
+      try {
+        generateReport(reportRequest, reportIdDir, baseLocation, columnarLocation);
+      } finally {
+        COMPACTION_LOCK.readLock().unlock();
+      }
+    }
+
+    /**
+     * Generates report files from the program run meta files under the given base location and the
+     * compacted records under the given columnar location. The caller must hold the read lock of
+     * {@link #COMPACTION_LOCK}.
+     */
+    private void generateReport(ReportGenerationRequest reportRequest, Location reportIdDir,
+        Location baseLocation, Location columnarLocation) throws IOException {
       // Get a list of directories of all namespaces under RunMetaFileset base location
       List<Location> nsLocations;
       nsLocations = baseLocation.list();
@@ -1021,11 +1054,58 @@ public class ReportGenerationSpark extends AbstractExtendedSpark {
             reportRequest.getEnd();
       }).map(location -> location.toURI().toString()).collect(Collectors.toList());
       LOG.debug("Filtered meta files {}", metaFilePaths);
-      // Generate the report with the request and program run meta files
-      ReportGenerationHelper.generateReport(sqlContext, reportRequest,
+      // Only read the compacted records if there is any
+      String compactedURI = !columnarLocation.exists() || columnarLocation.list().isEmpty()
+          ? null : columnarLocation.toURI().toString();
+      // Generate the report with the request, compacted records and program run meta files
+      ReportGenerationHelper.generateReport(sqlContext, reportRequest, compactedURI,
           metaFilePaths, reportIdDir, reportsExpiryTimeMillis);
     }
 
+    /**
+     * Compacts the program run meta files that are no longer written to into parquet files
+     * partitioned by namespace and day under the given location, then deletes the compacted files.
+     * In each namespace directory, the file created last may still be written by the TMS
+     * subscriber, hence it is left for a later compaction.
+     *
+     * @param nsLocations the namespace directories of program run meta files
+     * @param columnarLocation the location to write the compacted records to
+     */
+    private void compactRunMetaFiles(List<Location> nsLocations, Location columnarLocation)
+        throws IOException {
+      List<Location> compactFiles = new ArrayList<>();
+      for (Location nsLocation : nsLocations) {
+        List<Location> metaFiles = nsLocation.list().stream()
+            .filter(metaFile -> metaFile.getName().endsWith(".avro"))
+            .sorted(Comparator.comparingLong(metaFile -> getCreationTime(metaFile.getName())))
+            .collect(Collectors.toList());
+        compactFiles.addAll(metaFiles.subList(0, Math.max(0, metaFiles.size() - 1)));
+      }
+      if (compactFiles.isEmpty()) {
+        return;
+      }
+      LOG.debug("Compacting meta files {}", compactFiles);
+      ReportGenerationHelper.compactRunMetaFiles(sqlContext,
+          compactFiles.stream().map(location -> location.toURI().toString())
+              .collect(Collectors.toList()), columnarLocation.toURI().toString());
+      // A file failed to be deleted will be compacted again. It doesn't affect the reports
+      // since the duplicate records of a program run are merged when generating reports.
+      for (Location metaFile : compactFiles) {
+        if (!metaFile.delete()) {
+          LOG.warn("Failed to delete compacted meta file {}", metaFile);
+        }
+      }
+    }
+
+    /**
+     * Returns the creation time of a program run meta file from its name, which is of the format
+     * {@code <event-time-millis>-<creation-time-millis>.avro}.
+     */
+    private static long getCreationTime(String fileName) {
+      return Long.parseLong(fileName.substring(fileName.indexOf("-") + 1,
+          fileName.length() - ".avro".length()));
+    }
+
     /**
      * Get the value filter on namespace from the report generation request
      *
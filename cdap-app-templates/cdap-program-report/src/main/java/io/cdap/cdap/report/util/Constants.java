@@ -68,6 +68,8 @@ public final class Constants {
   public static final String NUM_RECORDS_OUT = "numRecordsOut";
   public static final String TIME = "time";
   public static final String START_INFO = "startInfo";
+  // partition column of the compacted program run meta records, in days since epoch
+  public static final String DAY = "day";
 
   /**
    * Constants used as location names for report generation app.
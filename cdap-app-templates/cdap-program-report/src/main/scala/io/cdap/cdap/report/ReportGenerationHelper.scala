@@ -17,15 +17,19 @@ package io.cdap.cdap.report
 
 import java.io.{IOException, OutputStreamWriter, PrintWriter}
 import java.nio.charset.StandardCharsets
+import java.util.concurrent.TimeUnit
 import java.util.stream.Collectors
 import io.cdap.cdap.report.proto.Sort.Order
 import io.cdap.cdap.report.proto.summary._
 import io.cdap.cdap.report.proto.{Sort, _}
+import io.cdap.cdap.report.main.ProgramRunInfoSerializer
 import io.cdap.cdap.report.util.Constants
 import com.google.gson._
 import org.apache.avro.mapred._
 import org.apache.spark.sql._
-import org.apache.spark.sql.functions.{avg, max, min}
+import org.apache.spark.sql.avro.SchemaConverters
+import org.apache.spark.sql.functions.{avg, col, floor, lit, max, min, struct, typedLit, when}
+import org.apache.spark.sql.types.{LongType, StructType}
 import org.apache.twill.filesystem.Location
 import org.slf4j.LoggerFactory
 
@@ -47,6 +51,32 @@ object ReportGenerationHelper {
   val FS_INPUT = classOf[FsInput]
   // the default name of the column created by calling aggregate function count
   val COUNT_COL = "count"
+  // the columns of program run meta records read by the RecordAggregator
+  val RUN_META_COLUMNS = Seq(Constants.NAMESPACE, Constants.APPLICATION_NAME, Constants.APPLICATION_VERSION,
+    Constants.PROGRAM_TYPE, Constants.PROGRAM, Constants.RUN, Constants.STATUS, Constants.TIME)
+  val DAY_MILLIS = TimeUnit.DAYS.toMillis(1)
+  // the schema of the compacted program run meta records, including the partition columns
+  lazy val COMPACTED_SCHEMA: StructType =
+    SchemaConverters.toSqlType(ProgramRunInfoSerializer.SCHEMA).dataType.asInstanceOf[StructType]
+      .add(Constants.DAY, LongType)
+
+  /**
+    * Compacts the given program run meta files into parquet files under the given location. The records are
+    * partitioned by namespace and by the day of their time, and sorted by program, program run ID and time
+    * in each partition, such that report generation can skip the partitions and columns not needed by a report,
+    * and the parquet readers can skip the row groups not needed with the min and max statistics.
+    *
+    * @param sql the SQL context to run the compaction with
+    * @param inputURIs URIs of the avro files containing program run meta records
+    * @param outputURI URI of the directory to append the compacted records to
+    */
+  def compactRunMetaFiles(sql: SQLContext, inputURIs: java.util.List[String], outputURI: String): Unit = {
+    val df = SparkCompat.readAvroFiles(sql, inputURIs)
+      .withColumn(Constants.DAY, floor(col(Constants.TIME) / DAY_MILLIS))
+    df.repartition(col(Constants.NAMESPACE), col(Constants.DAY))
+      .sortWithinPartitions(Constants.NAMESPACE, Constants.DAY, Constants.PROGRAM, Constants.RUN, Constants.TIME)
+      .write.mode(SaveMode.Append).partitionBy(Constants.NAMESPACE, Constants.DAY).parquet(outputURI)
+  }
 
   /**
     * Generates a report file according to the given request from the given program run meta files.
@@ -84,21 +114,25 @@ object ReportGenerationHelper {
     *
     * @param sql the SQL context to run report generation with
     * @param request the report generation request
+    * @param compactedURI URI of the directory containing program run meta records compacted by
+    *                     [[compactRunMetaFiles]], or `null` if there is no compacted record
     * @param inputURIs URIs of the avro files containing program run meta records
     * @param reportIdDir location of the directory where the report files directory, COUNT file,
     *                    and _SUCCESS file will be created.
     * @throws java.io.IOException when fails to write to the COUNT or _SUCCESS file
     */
   @throws(classOf[IOException])
-  def generateReport(sql: SQLContext, request: ReportGenerationRequest, inputURIs: java.util.List[String],
-                     reportIdDir: Location, reportExpiryDurationMillis : Long): Unit = {
-    if (inputURIs.isEmpty) {
+  def generateReport(sql: SQLContext, request: ReportGenerationRequest, compactedURI: String,
+                     inputURIs: java.util.List[String], reportIdDir: Location,
+                     reportExpiryDurationMillis : Long): Unit = {
+    if (compactedURI == null && inputURIs.isEmpty) {
       writeEmptySummaryFile(request, reportIdDir, reportExpiryDurationMillis);
       return
     }
-    val df = SparkCompat.readAvroFiles(sql, inputURIs)
     // Get the fields to be included in the final report and additional fields required for filtering and sorting
     val (reportFields: Set[String], additionalFields: Set[String]) = getReportAndAdditionalFields(request)
+    val df = readRunMeta(sql, request, compactedURI, inputURIs,
+      (reportFields ++ additionalFields).contains(Constants.RUNTIME_ARGUMENTS))
 
     // TODO: configure partitions. The default number of partitions is 200
     // Group the program run meta records by program runId's and aggregate the grouped data to get an
@@ -137,6 +171,45 @@ object ReportGenerationHelper {
     writeSummaryToFile(reportSummary, reportIdDir)
   }
 
+  /**
+    * Reads the program run meta records needed by the given request into a single [[DataFrame]].
+    * Compacted records are only read from the namespace partitions allowed by the namespace filter
+    * of the request, and from the day partitions not later than the end of the request time range.
+    * Only the columns read by the [[RecordAggregator]] are kept, and the runtime arguments are left empty
+    * if they are not needed.
+    *
+    * @param sql the SQL context to read the records with
+    * @param request the report generation request
+    * @param compactedURI URI of the directory containing compacted records, or `null` if there is none
+    * @param inputURIs URIs of the avro files containing program run meta records
+    * @param includeRuntimeArgs whether the runtime arguments are needed
+    * @return the [[DataFrame]] containing program run meta records
+    */
+  private def readRunMeta(sql: SQLContext, request: ReportGenerationRequest, compactedURI: String,
+                          inputURIs: java.util.List[String], includeRuntimeArgs: Boolean): DataFrame = {
+    val avroDf = if (inputURIs.isEmpty) None else Some(SparkCompat.readAvroFiles(sql, inputURIs))
+    val compactedDf = Option(compactedURI).map(uri => {
+      // read with the schema of the records, so that the partition values are not read with inferred types
+      val df = sql.read.schema(COMPACTED_SCHEMA).parquet(uri)
+      // the filter only involves the partition columns, hence it is applied by pruning partitions
+      val partitionFilter = Option(request.getFilters).map(_.toList).getOrElse(Nil)
+        .filter(_.getFieldName.equals(Constants.NAMESPACE))
+        .foldLeft(df(Constants.DAY).cast("long") <= TimeUnit.SECONDS.toDays(request.getEnd))(
+          (fCol: Column, filter: Filter[_]) => fCol && getValueFilter(filter, df(Constants.NAMESPACE)))
+      df.filter(partitionFilter)
+    })
+    (avroDf ++ compactedDf).map(df => {
+      val startInfo = df(Constants.START_INFO)
+      val startInfoCol = if (includeRuntimeArgs) startInfo else
+        when(startInfo.isNull, lit(null)).otherwise(struct(
+          startInfo.getField(Constants.USER).as(Constants.USER),
+          typedLit(Map.empty[String, String]).as(Constants.RUNTIME_ARGUMENTS),
+          startInfo.getField(Constants.ARTIFACT_ID).as(Constants.ARTIFACT_ID),
+          startInfo.getField(Constants.SYSTEM_ARGUMENTS).as(Constants.SYSTEM_ARGUMENTS)))
+      df.select(RUN_META_COLUMNS.map(df(_)) :+ startInfoCol.as(Constants.START_INFO): _*)
+    }).reduce(_ unionByName _)
+  }
+
   /**
     * From the filters in ReportGenerationRequest figure out namespaces if they are provided, get the start
     * and end time range of query and use default for all other fields of report summary and write to summary file
@@ -307,15 +380,7 @@ object ReportGenerationHelper {
             LOG.debug("Added RangeFilter {} for field {}", rangeFilter, filter.getFieldName: Any)
           }
           case valueFilter: ValueFilter[_] => {
-            val whitelist = valueFilter.getWhitelist
-            val blacklist = valueFilter.getBlacklist
-            // only either of whitelist or blacklist can be non empty,
-            // and a value filter will have one of them non empty
-            if (whitelist.size() > 0) {
-              newFilterCol &&= fieldCol.isin(whitelist.stream().collect(Collectors.toList()): _*)
-            } else if (blacklist.size() > 0) {
-              newFilterCol &&= !fieldCol.isin(blacklist.stream().collect(Collectors.toList()): _*)
-            }
+            newFilterCol &&= getValueFilter(valueFilter, fieldCol)
             // cast filter.getFieldName to Any to avoid ambiguous method reference error
             LOG.debug("Added ValueFilter {} for field {}", valueFilter, filter.getFieldName: Any)
           }
@@ -325,4 +390,26 @@ object ReportGenerationHelper {
     LOG.debug("Final filter column: {}", filterCol)
     filterCol
   }
+
+  /**
+    * Gets a filter on the given column constructed from the given [[ValueFilter]].
+    *
+    * @param filter the value filter
+    * @param fieldCol the column to apply filter on
+    * @return the filter
+    */
+  private def getValueFilter(filter: Filter[_], fieldCol: Column): Column = {
+    val valueFilter = filter.asInstanceOf[ValueFilter[_]]
+    val whitelist = valueFilter.getWhitelist
+    val blacklist = valueFilter.getBlacklist
+    // only either of whitelist or blacklist can be non empty,
+    // and a value filter will have one of them non empty
+    if (whitelist.size() > 0) {
+      fieldCol.isin(whitelist.stream().collect(Collectors.toList()): _*)
+    } else if (blacklist.size() > 0) {
+      !fieldCol.isin(blacklist.stream().collect(Collectors.toList()): _*)
+    } else {
+      lit(true)
+    }
+  }
 }
@@ -77,6 +77,7 @@ import java.net.URL;
 import java.net.URLConnection;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -84,6 +85,7 @@ import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
 import org.apache.avro.file.DataFileWriter;
 import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.GenericDatumWriter;
@@ -362,6 +364,105 @@ public class ReportGenerationAppTest extends TestBase {
     getNamespaceAdmin().delete(testNamespace);
   }
 
+  @Test
+  public void testCompaction() throws Exception {
+    NamespaceId testNamespace = new NamespaceId("compaction");
+    getNamespaceAdmin().create(new NamespaceMeta.Builder()
+                                 .setName(testNamespace)
+                                 .setDescription("Namespace used to test run meta files compaction")
+                                 .build());
+    DatasetId metaFileset = testNamespace.dataset(ReportGenerationApp.RUN_META_FILESET);
+    addDatasetInstance(metaFileset, FileSet.class.getName());
+    DataSetManager<FileSet> metaFilesetManager = getDataset(metaFileset);
+    Location nsLocation = metaFilesetManager.get().getBaseLocation().append("ns1");
+    nsLocation.mkdirs();
+
+    // The first run starts in the first file and completes in the second file
+    long currentTimeMillis = System.currentTimeMillis();
+    long duration = TimeUnit.MINUTES.toMillis(5);
+    String run1 = ReportIds.generate().toString();
+    Location firstFile = writeMetaFile(nsLocation, currentTimeMillis, 1, ImmutableList.of(
+      createRunRecord(run1, "STARTING", currentTimeMillis)));
+    Location secondFile = writeMetaFile(nsLocation, currentTimeMillis + 1000, 2, ImmutableList.of(
+      createRunRecord(run1, "COMPLETED", currentTimeMillis + duration)));
+
+    Map<String, String> runTimeArguments = new HashMap<>();
+    runTimeArguments.put(Constants.DISABLE_TMS_SUBSCRIBER_THREAD, "true");
+    SparkManager sparkManager = deployAndStartReportingApplication(testNamespace, runTimeArguments);
+    URL url = sparkManager.getServiceURL(1, TimeUnit.MINUTES);
+    Assert.assertNotNull(url);
+    URL reportURL = url.toURI().resolve("reports/").toURL();
+    long startSecs = TimeUnit.MILLISECONDS.toSeconds(currentTimeMillis);
+
+    // The first file is compacted, while the second file created last is kept in avro,
+    // hence the report is generated from both the compacted records and the avro file
+    validateCompactedReport(reportURL, startSecs, 1, duration);
+    Assert.assertFalse(firstFile.exists());
+    Assert.assertTrue(secondFile.exists());
+    DataSetManager<FileSet> columnarFileset =
+      getDataset(testNamespace.dataset(ReportGenerationApp.RUN_META_COLUMNAR_FILESET));
+    Location partition = columnarFileset.get().getBaseLocation().append("namespace=ns1")
+      .append("day=" + TimeUnit.MILLISECONDS.toDays(currentTimeMillis));
+    Assert.assertTrue(partition.exists());
+    Assert.assertFalse(partition.list().isEmpty());
+
+    // Another file makes the second file compacted as well, appending to the compacted records
+    String run2 = ReportIds.generate().toString();
+    Location thirdFile = writeMetaFile(nsLocation, currentTimeMillis + 2000, 3, ImmutableList.of(
+      createRunRecord(run2, "STARTING", currentTimeMillis + 2000),
+      createRunRecord(run2, "COMPLETED", currentTimeMillis + 2000 + duration)));
+    validateCompactedReport(reportURL, startSecs, 2, duration);
+    Assert.assertFalse(secondFile.exists());
+    Assert.assertTrue(thirdFile.exists());
+    Assert.assertEquals(Collections.singletonList(thirdFile.getName()),
+                        nsLocation.list().stream().map(Location::getName).collect(Collectors.toList()));
+
+    sparkManager.stop();
+    sparkManager.waitForStopped(60, TimeUnit.SECONDS);
+    deleteDatasetInstance(metaFileset);
+    getNamespaceAdmin().delete(testNamespace);
+  }
+
+  /**
+   * Generates a report of the runs in namespace ns1 and validates that it contains the given number of runs,
+   * all with the given duration.
+   */
+  private void validateCompactedReport(URL reportURL, long startSecs, int runs, long durationMillis)
+    throws Exception {
+    ReportGenerationRequest request =
+      new ReportGenerationRequest("ns1_report", startSecs, startSecs + 60,
+                                  new ArrayList<>(ReportField.FIELD_NAME_MAP.keySet()),
+                                  ImmutableList.of(new Sort(Constants.DURATION, Sort.Order.DESCENDING)),
+                                  ImmutableList.of(new ValueFilter<>(Constants.NAMESPACE, ImmutableSet.of("ns1"), null)));
+    HttpURLConnection urlConn = (HttpURLConnection) reportURL.openConnection();
+    urlConn.setDoOutput(true);
+    urlConn.setRequestMethod("POST");
+    urlConn.getOutputStream().write(GSON.toJson(request).getBytes(StandardCharsets.UTF_8));
+    if (urlConn.getErrorStream() != null) {
+      Assert.fail(Bytes.toString(ByteStreams.toByteArray(urlConn.getErrorStream())));
+    }
+    Assert.assertEquals(200, urlConn.getResponseCode());
+    Map<String, String> reportIdMap = getResponseObject(urlConn, STRING_STRING_MAP);
+    String reportId = reportIdMap.get("id");
+    Assert.assertNotNull(reportId);
+    URL reportIdURL = reportURL.toURI().resolve("info?report-id=" + reportId).toURL();
+    Tasks.waitFor(ReportStatus.COMPLETED, () -> {
+      ReportGenerationInfo info = getResponseObject(reportIdURL.openConnection(), REPORT_GEN_INFO_TYPE);
+      if (ReportStatus.FAILED.equals(info.getStatus())) {
+        Assert.fail("Report generation failed");
+      }
+      return info.getStatus();
+    }, 5, TimeUnit.MINUTES, 2, TimeUnit.SECONDS);
+
+    ReportGenerationInfo reportGenerationInfo = getResponseObject(reportIdURL.openConnection(),
+                                                                  REPORT_GEN_INFO_TYPE);
+    ReportSummary summary = reportGenerationInfo.getSummary();
+    Assert.assertEquals(Collections.singletonList(new NamespaceAggregate("ns1", runs)), summary.getNamespaces());
+    long durationSecs = TimeUnit.MILLISECONDS.toSeconds(durationMillis);
+    Assert.assertEquals(durationSecs, summary.getDurations().getMin());
+    Assert.assertEquals(durationSecs, summary.getDurations().getMax());
+  }
+
   private int getReportsList(URL url) throws IOException, URISyntaxException {
     URL reportURL = url.toURI().resolve("reports/").toURL();
     HttpURLConnection reportsUrl = (HttpURLConnection) reportURL.openConnection();
@@ -534,6 +635,32 @@ public class ReportGenerationAppTest extends TestBase {
     }
   }
 
+  /**
+   * Writes the given records to a program run meta file with the given event time and creation time.
+   */
+  private static Location writeMetaFile(Location nsLocation, long eventTime, long creationTime,
+                                        List<GenericData.Record> records) throws IOException {
+    //file name is of the format <event-time-millis>-<creation-time-millis>.avro
+    Location location = nsLocation.append(String.format("%d-%d.avro", eventTime, creationTime));
+    try (DataFileWriter<GenericRecord> dataFileWriter =
+           new DataFileWriter<>(new GenericDatumWriter<>(ProgramRunInfoSerializer.SCHEMA))) {
+      dataFileWriter.create(ProgramRunInfoSerializer.SCHEMA, location.getOutputStream());
+      for (GenericData.Record record : records) {
+        dataFileWriter.append(record);
+      }
+    }
+    return location;
+  }
+
+  private static GenericData.Record createRunRecord(String run, String status, long timestamp) {
+    ProgramStartInfo startInfo = "STARTING".equals(status)
+      ? new ProgramStartInfo(ImmutableMap.of(), new ArtifactId(TEST_ARTIFACT_NAME, new ArtifactVersion("1.0.0"),
+                                                               ArtifactScope.USER), USER_ALICE, ImmutableMap.of())
+      : null;
+    return createRecord("ns1", "Pipeline", "-SNAPSHOT", "WORKFLOW", "SmartWorkflow", run, status, timestamp,
+                        startInfo, Long.toString(timestamp));
+  }
+
   private static GenericData.Record createRecord(String namespace, String application, String version,
                                                  String type, String program, String run, String status,
                                                  Long timestamp, ProgramStartInfo startInfo, String messageId) {
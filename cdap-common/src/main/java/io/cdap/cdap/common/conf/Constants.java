@@ -232,6 +232,8 @@ public final class Constants {
     public static final String SERVER_ANNOUNCE_PORT = "app.announce.port";
     public static final String OUTPUT_DIR = "app.output.dir";
     public static final String TEMP_DIR = "app.temp.dir";
+    public static final String ARTIFACT_FOLDER_CACHE_DIR = "app.artifact.folder.cache.dir";
+    public static final String ARTIFACT_FOLDER_CACHE_SIZE_MB = "app.artifact.folder.cache.size.mb";
     public static final String REST_PORT = "app.rest.port";
     public static final String PROGRAM_JVM_OPTS = "app.program.jvm.opts";
     public static final String PROGRAM_JVM_OPTS_PREFIX = "app.program.jvm.opts.";
@@ -246,6 +248,10 @@ public final class Constants {
 
     public static final String STATUS_EVENT_TX_SIZE = "app.program.status.event.tx.size";
     public static final String STATUS_EVENT_POLL_DELAY_MILLIS = "app.program.status.event.poll.delay.millis";
+    public static final String PROGRAM_STATUS_EVENT_TASK_THREADS = "app.program.status.event.task.threads";
+    public static final String PROGRAM_STATUS_EVENT_TASK_RETRY_PREFIX = "app.program.status.event.task.";
+    public static final String PROGRAM_STATUS_EVENT_TASK_SHUTDOWN_TIMEOUT_SECONDS =
+        "app.program.status.event.task.shutdown.timeout.secs";
     public static final String MAPREDUCE_JOB_CLIENT_CONNECT_MAX_RETRIES = "mapreduce.jobclient.connect.max.retries";
     public static final String MAPREDUCE_INCLUDE_CUSTOM_CLASSES = "mapreduce.include.custom.format.classes";
     public static final String MAPREDUCE_STATUS_REPORT_INTERVAL_SECONDS = "mapreduce.status.report.interval.seconds";
@@ -262,6 +268,12 @@ public final class Constants {
     public static final String ARTIFACTS_COMPUTE_HASH = "app.artifact.compute.hash";
     public static final String ARTIFACTS_COMPUTE_HASH_TIME_BUCKET_DAYS = "app.artifact.compute.hash.time.bucket.days";
     public static final String ARTIFACTS_COMPUTE_HASH_SNAPSHOT = "app.artifact.compute.hash.snapshot";
+    public static final String PROGRAM_ARTIFACT_CACHE_EXPIRATION_SECS =
+        "app.program.artifact.cache.expiration.secs";
+    public static final String PROGRAM_ARTIFACT_CACHE_MAX_SIZE =
+        "app.program.artifact.cache.max.size";
+    public static final String ARTIFACT_PLUGIN_CATALOG_EXPIRATION_SECS =
+        "app.artifact.plugin.catalog.expiration.secs";
     public static final String SYSTEM_ARTIFACTS_DIR = "app.artifact.dir";
     public static final String SYSTEM_ARTIFACTS_MAX_PARALLELISM = "app.artifact.parallelism.max";
     public static final String PROGRAM_EXTRA_CLASSPATH = "app.program.extra.classpath";
@@ -284,6 +296,8 @@ public final class Constants {
         "run.record.monitor.record.age.threshold.seconds";
     public static final String MONITOR_CLEANUP_INTERVAL_SECONDS =
         "run.record.monitor.cleanup.interval.seconds";
+    public static final String LAUNCH_QUEUE_RETRY_DELAY_SECONDS =
+        "app.program.launch.queue.retry.delay.seconds";
     public static final String PROGRAM_LAUNCH_THREADS = "app.program.launch.threads";
     public static final String PROGRAM_KILL_THREADS = "app.program.kill.threads";
     public static final String RUN_DATA_CLEANUP_TTL_DAYS = "app.run.records.ttl.days";
@@ -291,6 +305,8 @@ public final class Constants {
         "app.run.records.ttl.frequency.hours";
     public static final String RUN_DATA_CLEANUP_TTL_INITIAL_DELAY_MINUTES =
         "app.run.records.ttl.initial.delay.minutes";
+    public static final String RUN_RECORDS_BINARY_FORMAT_ENABLED =
+        "app.run.records.binary.format.enabled";
 
     // A boolean value cConf entry to tell whether a ProgramRunner is running remotely (i.e. not inside app-fabric)
     // This config is not present in the cdap-default.xml as it is only set internally by CDAP.
@@ -454,6 +470,9 @@ public final class Constants {
     public static final String MESSAGING_TOPIC = "preview.messaging.topic";
     public static final String DATA_CLEANUP_INTERVAL_SECONDS = "preview.data.cleanup.interval.seconds";
     public static final String DATA_TTL_SECONDS = "preview.data.ttl.seconds";
+    public static final String ARTIFACT_FOLDER_CACHE_SIZE_MB = "preview.artifact.folder.cache.size.mb";
+    public static final String PROGRAM_ARTIFACT_CACHE_EXPIRATION_SECS =
+        "preview.program.artifact.cache.expiration.secs";
 
     public static final String CONTAINER_COUNT = "preview.runner.container.count";
     public static final String CONTAINER_DISK_SIZE_GB = "preview.runner.container.disk.size.gb";
@@ -615,6 +634,7 @@ public final class Constants {
     public static final String PROGRAM_STATUS_EVENT_FETCH_SIZE = "scheduler.program.status.event.fetch.size";
 
     public static final String JOB_QUEUE_NUM_PARTITIONS = "scheduler.job.queue.num.partitions";
+    public static final String JOB_QUEUE_SCAN_INTERVAL_SECS = "scheduler.job.queue.scan.interval.secs";
   }
 
   /**
@@ -855,6 +875,7 @@ public final class Constants {
     public static final String SERVER_BOSS_THREADS = "router.server.boss.threads";
     public static final String SERVER_WORKER_THREADS = "router.server.worker.threads";
     public static final String CONNECTION_TIMEOUT_SECS = "router.connection.idle.timeout.secs";
+    public static final String UPSTREAM_POOL_MAX_IDLE = "router.upstream.pool.max.idle";
     public static final String ROUTER_AUDIT_PATH_CHECK_ENABLED = "router.audit.path.check.enabled";
     public static final String ROUTER_AUDIT_LOG_ENABLED = "router.audit.log.enabled";
 
@@ -1138,6 +1159,7 @@ public final class Constants {
 
       public static final String LAUNCHING_COUNT = "flowcontrol.launching.count";
       public static final String RUNNING_COUNT = "flowcontrol.running.count";
+      public static final String QUEUED_COUNT = "flowcontrol.queued.count";
     }
 
     /**
@@ -1186,6 +1208,8 @@ public final class Constants {
     public static final class Preview {
 
       public static final String RUN_TIME_SECONDS = "preview.run.seconds";
+      public static final String QUEUE_WAIT_TIME_MS = "preview.queue.wait.millis";
+      public static final String STARTUP_TIME_MS = "preview.startup.millis";
     }
 
     /**
@@ -1288,6 +1312,8 @@ public final class Constants {
       public static final String DEPLOY_NEW_COUNT = "app.deploy.event.count.create";
       public static final String DEPLOY_EDIT_COUNT = "app.deploy.event.count.edit";
       public static final String DEPLOY_UPGRADE_COUNT = "app.deploy.event.count.upgrade";
+      public static final String APP_SPEC_CACHE_HIT = "app.spec.cache.hit";
+      public static final String APP_SPEC_CACHE_MISS = "app.spec.cache.miss";
     }
 
     /**
@@ -1385,6 +1411,11 @@ public final class Constants {
     public static final String SERVICE_DESCRIPTION = "Service for the program runtime system.";
     public static final String POLL_TIME_MS = "app.program.runtime.monitor.polltime.ms";
     public static final String BATCH_SIZE = "app.program.runtime.monitor.batch.size";
+    public static final String MAX_BATCH_SIZE = "app.program.runtime.monitor.max.batch.size";
+    public static final String MULTI_TOPIC_RELAY_ENABLED =
+        "app.program.runtime.monitor.multi.topic.relay.enabled";
+    public static final String MULTI_TOPIC_MAX_REQUEST_SIZE_MB =
+        "app.program.runtime.monitor.multi.topic.max.request.size.mb";
     public static final String TOPICS_CONFIGS = "app.program.runtime.monitor.topics.configs";
     public static final String GRACEFUL_SHUTDOWN_MS = "app.program.runtime.monitor.graceful.shutdown.ms";
     public static final String THREADS = "app.program.runtime.monitor.threads";
@@ -1519,6 +1550,16 @@ public final class Constants {
      * retired.
      */
     public static final String TOKEN_DIGEST_KEY_EXPIRATION = "security.token.digest.key.expiration.ms";
+    /**
+     * Maximum number of access tokens to cache the digest validation result for. A value of zero or
+     * less disables the cache.
+     */
+    public static final String TOKEN_VALIDATION_CACHE_SIZE = "security.token.validation.cache.size";
+    /**
+     * Time duration in milliseconds to cache access tokens that failed the digest validation.
+     */
+    public static final String TOKEN_VALIDATION_NEGATIVE_CACHE_EXPIRATION_MS =
+        "security.token.validation.negative.cache.expiration.ms";
     /**
      * Parent znode used for secret key distribution in ZooKeeper.
      */
@@ -1699,6 +1740,11 @@ public final class Constants {
        * Maximum number of entries the authorization cache will hold.
        */
       public static final String CACHE_MAX_ENTRIES = "security.authorization.cache.max.entries";
+      /**
+       * Time in seconds after which an entry in container's privilege cache is refreshed
+       * asynchronously when it is used.
+       */
+      public static final String CACHE_REFRESH_SECS = "security.authorization.cache.refresh.secs";
       /**
        * Batch size for query for the visibility of entities.
        */
@@ -2087,6 +2133,8 @@ public final class Constants {
 
     public static final String EXTENSIONS_DIR = "operational.stats.extensions.dir";
     public static final String REFRESH_INTERVAL_SECS = "operational.stats.refresh.interval.secs";
+    public static final String ENTITIES_RECONCILE_INTERVAL_SECS =
+        "operational.stats.entities.reconcile.interval.secs";
   }
 
   /**
@@ -2305,6 +2353,7 @@ public final class Constants {
     public static final String MAX_THREAD_TIMEOUT = "support.bundle.max.thread.timeout";
     public static final String SYSTEM_LOG_START_TIME = "support.bundle.system.log.start.time";
     public static final String SUPPORT_BUNDLE_TEMP_DIR = "support.bundle.temp.dir";
+    public static final String TASK_MAX_BYTES = "support.bundle.task.max.bytes";
   }
 
   /**
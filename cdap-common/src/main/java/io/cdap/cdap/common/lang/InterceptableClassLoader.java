@@ -16,22 +16,33 @@
 
 package io.cdap.cdap.common.lang;
 
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.io.ByteStreams;
 import io.cdap.cdap.common.lang.jar.BundleJarUtil;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.jar.Manifest;
+import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 
 /**
- * A {@link URLClassLoader} that can optionally rewrite the the bytecode.
+ * A {@link URLClassLoader} that can optionally rewrite the the bytecode. If the {@link
+ * RewrittenClassCache#CACHE_DIR_PROPERTY} system property is set, rewritten bytecode is cached on
+ * disk and reused by other instances of the same classloader class, including in other processes.
  */
 public abstract class InterceptableClassLoader extends URLClassLoader implements ClassRewriter {
 
   private final Map<String, Manifest> manifests = new HashMap<>();
+  // Created lazily since getRewriterKey() can depend on states of the subclass
+  private final Supplier<RewrittenClassCache> rewrittenClassCache =
+      Suppliers.memoize(() -> RewrittenClassCache.create(getRewriterKey()));
 
   public InterceptableClassLoader(URL[] urls, ClassLoader parent) {
     super(urls, parent);
@@ -50,7 +61,10 @@ public abstract class InterceptableClassLoader extends URLClassLoader implements
       throw new ClassNotFoundException("Failed to find resource for class " + name);
     }
     try (InputStream is = resource.openStream()) {
-      byte[] bytecode = rewriteClass(name, is);
+      RewrittenClassCache cache = rewrittenClassCache.get();
+      byte[] bytecode = cache == null
+          ? rewriteClass(name, is)
+          : cache.rewriteClass(name, ByteStreams.toByteArray(is), this);
 
       // If no rewriting is needed, just load the name normally.
       if (bytecode == null) {
@@ -80,6 +94,20 @@ public abstract class InterceptableClassLoader extends URLClassLoader implements
    */
   protected abstract boolean needIntercept(String className);
 
+  /**
+   * Returns a key that identifies the class rewriting performed by this classloader. Classes
+   * rewritten by classloaders with the same key share the same {@link RewrittenClassCache} entries.
+   * Subclasses with rewriting that depends on configurations should include them in the key.
+   */
+  protected String getRewriterKey() {
+    // The rewriting can depend on the class hierarchy, hence include the names of the jars,
+    // which normally carry the versions, but not the paths, which can be different for each process.
+    return getClass().getName() + ":" + Arrays.stream(getURLs())
+        .map(url -> new File(url.getPath()).getName())
+        .sorted()
+        .collect(Collectors.joining(","));
+  }
+
   /**
    * Returns the package name of the given class name or return {@code null} if the given class is
    * in default package.
@@ -0,0 +1,265 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.common.lang;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Strings;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import io.cdap.cdap.common.utils.ProjectInfo;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An on-disk cache of class bytecode produced by {@link ClassRewriter}. Entries are stored in a
+ * directory per rewriter key and CDAP version, with each entry named by the SHA-256 checksum of the
+ * original bytecode. A class that doesn't need rewriting is recorded as an entry without bytecode.
+ * The directory can be shared by multiple processes, since entries are written to a temporary file
+ * and published with an atomic rename.
+ *
+ * <p>Each entry starts with a checksum of the original bytecode and the cached bytecode, which is
+ * verified before the cached bytecode is used, so that a corrupted or misplaced entry is never
+ * defined as a class. The total size of the cache directory is bounded, with the least recently
+ * used entries evicted first, and temporary files left behind by processes that died while writing
+ * are deleted when a cache is created.</p>
+ */
+public final class RewrittenClassCache {
+
+  /**
+   * System property for the directory of the cache. The cache is disabled if it is not set.
+   */
+  public static final String CACHE_DIR_PROPERTY = "cdap.class.rewrite.cache.dir";
+
+  /**
+   * System property for the maximum size of the cache directory in megabytes. The size is not
+   * bounded if it is not positive.
+   */
+  public static final String CACHE_MAX_SIZE_MB_PROPERTY = "cdap.class.rewrite.cache.max.size.mb";
+
+  private static final Logger LOG = LoggerFactory.getLogger(RewrittenClassCache.class);
+  private static final long DEFAULT_MAX_SIZE_MB = 512L;
+  private static final String TEMP_FILE_PREFIX = ".tmp";
+  // Temporary files are only alive while an entry is written, hence older ones are orphaned
+  private static final long STALE_TEMP_FILE_AGE_MILLIS = TimeUnit.HOURS.toMillis(1);
+  private static final int CHECKSUM_SIZE = 32;
+  // Eviction goes down to this fraction of the maximum size, so that it doesn't run on every write
+  private static final double EVICTION_TARGET_RATIO = 0.8d;
+
+  private final Path cacheDir;
+  private final Path dir;
+  private final long maxBytes;
+  private final AtomicLong size;
+
+  /**
+   * Creates a {@link RewrittenClassCache} in the directory given by the {@link #CACHE_DIR_PROPERTY}
+   * system property, bounded by the {@link #CACHE_MAX_SIZE_MB_PROPERTY} system property.
+   *
+   * @param rewriterKey a key that identifies the rewriting being performed
+   * @return a {@link RewrittenClassCache} or {@code null} if the cache is disabled
+   */
+  @Nullable
+  public static RewrittenClassCache create(String rewriterKey) {
+    String cacheDir = System.getProperty(CACHE_DIR_PROPERTY);
+    if (Strings.isNullOrEmpty(cacheDir)) {
+      return null;
+    }
+    long maxSizeMb = Long.getLong(CACHE_MAX_SIZE_MB_PROPERTY, DEFAULT_MAX_SIZE_MB);
+    return new RewrittenClassCache(new File(cacheDir), rewriterKey,
+        maxSizeMb > 0 ? maxSizeMb * 1024L * 1024L : Long.MAX_VALUE);
+  }
+
+  RewrittenClassCache(File cacheDir, String rewriterKey, long maxBytes) {
+    // The CDAP version includes the build time, hence different builds of the rewriters never share entries
+    String key = ProjectInfo.getVersion() + ":" + rewriterKey;
+    this.cacheDir = cacheDir.toPath();
+    this.dir = this.cacheDir.resolve(
+        Hashing.sha256().hashBytes(key.getBytes(Charsets.UTF_8)).toString());
+    this.maxBytes = maxBytes;
+    this.size = new AtomicLong(cleanup(maxBytes));
+  }
+
+  /**
+   * Returns the rewritten bytecode of the given class from the cache, or rewrites it with the given
+   * {@link ClassRewriter} and caches the result if it is not cached.
+   *
+   * @param className name of the class
+   * @param bytecode the original bytecode of the class
+   * @param rewriter the {@link ClassRewriter} for rewriting the class if it is not cached
+   * @return the bytecode of the rewritten class or {@code null} to indicate no rewriting is needed
+   * @throws IOException if failed in rewriting the class
+   */
+  @Nullable
+  public byte[] rewriteClass(String className, byte[] bytecode,
+      ClassRewriter rewriter) throws IOException {
+    HashCode sourceHash = Hashing.sha256().hashBytes(bytecode);
+    Path file = dir.resolve(sourceHash.toString());
+    try {
+      byte[] cached = Files.readAllBytes(file);
+      byte[] rewritten = Arrays.copyOfRange(cached, Math.min(CHECKSUM_SIZE, cached.length),
+          cached.length);
+      if (cached.length >= CHECKSUM_SIZE && MessageDigest.isEqual(
+          Arrays.copyOf(cached, CHECKSUM_SIZE), checksum(sourceHash, rewritten))) {
+        touch(file);
+        return rewritten.length == 0 ? null : rewritten;
+      }
+      LOG.debug("Ignoring corrupted cached class {} in {}", className, file);
+      deleteQuietly(file);
+    } catch (NoSuchFileException e) {
+      // Not cached
+    } catch (IOException e) {
+      LOG.debug("Failed to read cached class {} from {}", className, file, e);
+    }
+
+    byte[] rewritten = rewriter.rewriteClass(className, new ByteArrayInputStream(bytecode));
+    store(className, file, sourceHash, rewritten == null ? new byte[0] : rewritten);
+    return rewritten;
+  }
+
+  private void store(String className, Path file, HashCode sourceHash, byte[] bytecode) {
+    Path tempFile = null;
+    try {
+      Files.createDirectories(dir);
+      tempFile = Files.createTempFile(dir, TEMP_FILE_PREFIX, null);
+      byte[] entry = new byte[CHECKSUM_SIZE + bytecode.length];
+      System.arraycopy(checksum(sourceHash, bytecode), 0, entry, 0, CHECKSUM_SIZE);
+      System.arraycopy(bytecode, 0, entry, CHECKSUM_SIZE, bytecode.length);
+      Files.write(tempFile, entry);
+      Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE);
+      if (size.addAndGet(entry.length) > maxBytes) {
+        evict();
+      }
+    } catch (IOException e) {
+      // Failure to cache is not fatal. The class will just be rewritten next time.
+      LOG.debug("Failed to cache class {} to {}", className, file, e);
+      if (tempFile != null) {
+        deleteQuietly(tempFile);
+      }
+    }
+  }
+
+  /**
+   * Returns the checksum that binds the cached bytecode to the hash of the original bytecode.
+   */
+  private static byte[] checksum(HashCode sourceHash, byte[] bytecode) {
+    return Hashing.sha256().newHasher()
+        .putBytes(sourceHash.asBytes())
+        .putBytes(bytecode)
+        .hash()
+        .asBytes();
+  }
+
+  /**
+   * Marks the given entry as recently used.
+   */
+  private static void touch(Path file) {
+    try {
+      Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+    } catch (IOException e) {
+      LOG.trace("Failed to update the last modified time of {}", file, e);
+    }
+  }
+
+  private synchronized void evict() {
+    if (size.get() > maxBytes) {
+      size.set(cleanup((long) (maxBytes * EVICTION_TARGET_RATIO)));
+    }
+  }
+
+  /**
+   * Deletes stale temporary files and evicts the least recently used entries of all rewriter keys
+   * until the cache directory is no larger than the given size.
+   *
+   * @return the size of the cache directory after the cleanup
+   */
+  private long cleanup(long targetBytes) {
+    List<Map.Entry<Path, BasicFileAttributes>> entries = new ArrayList<>();
+    long total = 0L;
+    long staleTime = System.currentTimeMillis() - STALE_TEMP_FILE_AGE_MILLIS;
+
+    try (DirectoryStream<Path> keyDirs = Files.newDirectoryStream(cacheDir, Files::isDirectory)) {
+      for (Path keyDir : keyDirs) {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(keyDir)) {
+          for (Path file : files) {
+            BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            if (file.getFileName().toString().startsWith(TEMP_FILE_PREFIX)) {
+              if (attrs.lastModifiedTime().toMillis() < staleTime) {
+                deleteQuietly(file);
+              }
+              continue;
+            }
+            entries.add(new AbstractMap.SimpleImmutableEntry<>(file, attrs));
+            total += attrs.size();
+          }
+        } catch (IOException e) {
+          // Entries can be deleted concurrently by other processes
+          LOG.trace("Failed to list cached classes in {}", keyDir, e);
+        }
+      }
+    } catch (NoSuchFileException e) {
+      return 0L;
+    } catch (IOException e) {
+      LOG.debug("Failed to list the class rewrite cache directory {}", cacheDir, e);
+      return 0L;
+    }
+
+    if (total <= targetBytes) {
+      return total;
+    }
+
+    entries.sort(Comparator.comparing(entry -> entry.getValue().lastModifiedTime()));
+    for (Map.Entry<Path, BasicFileAttributes> entry : entries) {
+      if (total <= targetBytes) {
+        break;
+      }
+      if (deleteQuietly(entry.getKey())) {
+        total -= entry.getValue().size();
+      }
+    }
+    LOG.debug("Evicted least recently used classes from {}, size is now {} bytes", cacheDir,
+        total);
+    return total;
+  }
+
+  private static boolean deleteQuietly(Path file) {
+    try {
+      return Files.deleteIfExists(file);
+    } catch (IOException e) {
+      LOG.trace("Failed to delete {}", file, e);
+      return false;
+    }
+  }
+}
@@ -34,6 +34,7 @@ public final class ClassLoaderFolder implements Closeable {
 
   private final File dir;
   private final boolean needDelete;
+  private final Closeable closer;
 
   ClassLoaderFolder(Location location, ThrowingSupplier<File, IOException> targetDirSupplier)
       throws IOException {
@@ -42,18 +43,36 @@ public final class ClassLoaderFolder implements Closeable {
       this.needDelete = false;
     } else {
       File targetDir = targetDirSupplier.get();
-      Files.createDirectories(targetDir.toPath());
-      BundleJarUtil.unJar(location, targetDir,
-          name -> name.equals(JarFile.MANIFEST_NAME) || name.endsWith(".jar"));
-
-      // Note: We start with space to ensure this file goes first in case resources order is important
-      File artifactTempName = File.createTempFile(" artifact", ".jar", targetDir);
-      artifactTempName.delete();
-      Locations.linkOrCopy(location, artifactTempName);
-
+      expand(location, targetDir);
       this.dir = targetDir;
       this.needDelete = true;
     }
+    this.closer = null;
+  }
+
+  /**
+   * Creates an instance for a directory that is already prepared, with the given {@link Closeable}
+   * to call when this folder is no longer used.
+   */
+  ClassLoaderFolder(File dir, Closeable closer) {
+    this.dir = dir;
+    this.needDelete = false;
+    this.closer = closer;
+  }
+
+  /**
+   * Expands the manifest and nested jars of the given jar into the given directory, and links the
+   * jar itself into the directory.
+   */
+  static void expand(Location location, File targetDir) throws IOException {
+    Files.createDirectories(targetDir.toPath());
+    BundleJarUtil.unJar(location, targetDir,
+        name -> name.equals(JarFile.MANIFEST_NAME) || name.endsWith(".jar"));
+
+    // Note: We start with space to ensure this file goes first in case resources order is important
+    File artifactTempName = File.createTempFile(" artifact", ".jar", targetDir);
+    artifactTempName.delete();
+    Locations.linkOrCopy(location, artifactTempName);
   }
 
   public File getDir() {
@@ -62,6 +81,9 @@ public final class ClassLoaderFolder implements Closeable {
 
   @Override
   public void close() throws IOException {
+    if (closer != null) {
+      closer.close();
+    }
     if (needDelete && dir.exists()) {
       DirUtils.deleteDirectoryContents(dir);
     }
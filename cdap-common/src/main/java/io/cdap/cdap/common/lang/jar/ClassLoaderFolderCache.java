@@ -0,0 +1,375 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.common.lang.jar;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import io.cdap.cdap.common.conf.CConfiguration;
+import io.cdap.cdap.common.conf.Constants;
+import io.cdap.cdap.common.lang.ThrowingSupplier;
+import io.cdap.cdap.common.utils.DirUtils;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import javax.annotation.Nullable;
+import org.apache.twill.filesystem.Location;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A content addressed on-disk cache of {@link ClassLoaderFolder}. Jars are expanded once into a
+ * directory named by the SHA-256 checksum of the jar and shared by all users of the same content in
+ * the process, including across process restarts. A directory is reference counted while it is
+ * being used and is deleted in least recently used order once the total size of the cache exceeds
+ * the size budget and it is no longer referenced. Directories are first expanded into a temporary
+ * directory and published with an atomic rename, hence a partially expanded jar is never visible.
+ *
+ * <p>Reference counts are only known to the process, hence the cache directory must not be shared
+ * between processes. The process holds an exclusive file lock on the directory for as long as it
+ * runs, and a process that cannot acquire the lock runs without the cache.</p>
+ */
+public final class ClassLoaderFolderCache {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ClassLoaderFolderCache.class);
+  private static final String TEMP_PREFIX = ".tmp-";
+  private static final String LOCK_FILE = ".lock";
+  // An empty value means the directory is locked by another process
+  private static final ConcurrentMap<File, Optional<ClassLoaderFolderCache>> INSTANCES =
+      new ConcurrentHashMap<>();
+
+  private final File cacheDir;
+  private final long maxSizeBytes;
+  // Access ordered for LRU eviction, guarded by this
+  private final LinkedHashMap<String, Entry> entries;
+  // Checksums of jars, so that an unmodified jar is only read once
+  private final Cache<ChecksumKey, String> checksums;
+  private long totalSize;
+
+  /**
+   * Returns the process wide {@link ClassLoaderFolderCache} as configured by the given {@link
+   * CConfiguration}, or {@code null} if the cache is disabled or if the cache directory is used by
+   * another process.
+   */
+  @Nullable
+  public static ClassLoaderFolderCache get(CConfiguration cConf) {
+    long maxSizeMb = cConf.getLong(Constants.AppFabric.ARTIFACT_FOLDER_CACHE_SIZE_MB, 0L);
+    if (maxSizeMb <= 0) {
+      return null;
+    }
+    File cacheDir = new File(cConf.get(Constants.CFG_LOCAL_DATA_DIR),
+        cConf.get(Constants.AppFabric.ARTIFACT_FOLDER_CACHE_DIR)).getAbsoluteFile();
+    return INSTANCES.computeIfAbsent(cacheDir, dir -> {
+      if (!lockDirectory(dir)) {
+        LOG.warn("Expanded artifact directory {} is used by another process. "
+            + "Artifacts will be expanded without caching.", dir);
+        return Optional.empty();
+      }
+      return Optional.of(new ClassLoaderFolderCache(dir, maxSizeMb * 1024 * 1024));
+    }).orElse(null);
+  }
+
+  /**
+   * Creates a cache in the given directory, which must not be used by any other cache instance.
+   */
+  @VisibleForTesting
+  ClassLoaderFolderCache(File cacheDir, long maxSizeBytes) {
+    this.cacheDir = cacheDir;
+    this.maxSizeBytes = maxSizeBytes;
+    this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    this.checksums = CacheBuilder.newBuilder().maximumSize(1000).build();
+    loadExisting();
+  }
+
+  /**
+   * Returns a {@link ClassLoaderFolder} for the given jar. If the location is a local directory, it
+   * is used as is like in {@link BundleJarUtil#prepareClassLoaderFolder(Location,
+   * ThrowingSupplier)}. Closing the returned {@link ClassLoaderFolder} releases the reference to
+   * the cached directory.
+   *
+   * @param jarLocation the location of the jar file or a local directory
+   * @return a {@link ClassLoaderFolder} ready for classloader creation
+   * @throws IOException if failed to read or expand the jar
+   */
+  public ClassLoaderFolder getFolder(Location jarLocation) throws IOException {
+    if ("file".equals(jarLocation.toURI().getScheme()) && jarLocation.isDirectory()) {
+      return BundleJarUtil.prepareClassLoaderFolder(jarLocation, () -> {
+        throw new IllegalStateException("Directory " + jarLocation + " doesn't need expansion");
+      });
+    }
+
+    String checksum = getChecksum(jarLocation);
+    File target = new File(cacheDir, checksum);
+    synchronized (this) {
+      Entry entry = entries.get(checksum);
+      if (entry != null && target.isDirectory()) {
+        return acquire(target, entry);
+      }
+      if (entry != null) {
+        // The directory was removed externally
+        entries.remove(checksum);
+        totalSize -= entry.size;
+      }
+    }
+
+    // Expand outside of the lock, since it can take a long time for large jars
+    File tempDir = new File(cacheDir, TEMP_PREFIX + UUID.randomUUID());
+    List<File> deletes = new ArrayList<>();
+    try {
+      ClassLoaderFolder.expand(jarLocation, tempDir);
+      synchronized (this) {
+        Entry entry = entries.get(checksum);
+        if (entry == null) {
+          if (!target.isDirectory()) {
+            try {
+              Files.move(tempDir.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileSystemException e) {
+              // Can happen if the directory was created after the cache was loaded
+              if (!target.isDirectory()) {
+                throw e;
+              }
+            }
+          }
+          entry = new Entry(getSize(target.toPath()));
+          entries.put(checksum, entry);
+          totalSize += entry.size;
+        }
+        ClassLoaderFolder folder = acquire(target, entry);
+        deletes.addAll(evict());
+        return folder;
+      }
+    } finally {
+      if (tempDir.exists()) {
+        deletes.add(tempDir);
+      }
+      delete(deletes);
+    }
+  }
+
+  /**
+   * Returns the total size in bytes of the cached directories.
+   */
+  @VisibleForTesting
+  synchronized long getTotalSize() {
+    return totalSize;
+  }
+
+  private ClassLoaderFolder acquire(File dir, Entry entry) {
+    entry.refCount++;
+    AtomicBoolean released = new AtomicBoolean();
+    return new ClassLoaderFolder(dir, () -> {
+      if (released.compareAndSet(false, true)) {
+        release(entry);
+      }
+    });
+  }
+
+  private void release(Entry entry) {
+    List<File> deletes;
+    synchronized (this) {
+      entry.refCount--;
+      deletes = evict();
+    }
+    delete(deletes);
+  }
+
+  /**
+   * Removes least recently used entries that are not referenced until the cache is within the size
+   * budget. The directories of the removed entries are renamed right away so that they can't be
+   * picked up again, and returned for deletion outside of the lock.
+   */
+  private List<File> evict() {
+    List<File> deletes = new ArrayList<>();
+    Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+    while (totalSize > maxSizeBytes && iterator.hasNext()) {
+      Map.Entry<String, Entry> entry = iterator.next();
+      if (entry.getValue().refCount > 0) {
+        continue;
+      }
+      iterator.remove();
+      totalSize -= entry.getValue().size;
+      File dir = new File(cacheDir, entry.getKey());
+      File deleteDir = new File(cacheDir, TEMP_PREFIX + UUID.randomUUID());
+      if (dir.renameTo(deleteDir)) {
+        deletes.add(deleteDir);
+      } else {
+        LOG.warn("Failed to remove expanded artifact directory {}", dir);
+      }
+    }
+    return deletes;
+  }
+
+  private void delete(List<File> dirs) {
+    for (File dir : dirs) {
+      try {
+        DirUtils.deleteDirectoryContents(dir);
+      } catch (IOException e) {
+        LOG.warn("Failed to delete expanded artifact directory {}", dir, e);
+      }
+    }
+  }
+
+  private String getChecksum(Location location) throws IOException {
+    ChecksumKey key = new ChecksumKey(location.toURI(), location.length(),
+        location.lastModified());
+    String checksum = checksums.getIfPresent(key);
+    if (checksum != null) {
+      return checksum;
+    }
+
+    Hasher hasher = Hashing.sha256().newHasher();
+    byte[] buffer = new byte[64 * 1024];
+    try (InputStream is = location.getInputStream()) {
+      int len = is.read(buffer);
+      while (len >= 0) {
+        hasher.putBytes(buffer, 0, len);
+        len = is.read(buffer);
+      }
+    }
+    checksum = hasher.hash().toString();
+    checksums.put(key, checksum);
+    return checksum;
+  }
+
+  /**
+   * Indexes directories left by previous processes and deletes incomplete ones. Since the directory
+   * is not shared, temporary directories can only be left by a previous process.
+   */
+  private void loadExisting() {
+    DirUtils.mkdirs(cacheDir);
+    List<File> deletes = new ArrayList<>();
+    for (File dir : DirUtils.listFiles(cacheDir, File::isDirectory)) {
+      if (dir.getName().startsWith(TEMP_PREFIX)) {
+        deletes.add(dir);
+        continue;
+      }
+      try {
+        Entry entry = new Entry(getSize(dir.toPath()));
+        entries.put(dir.getName(), entry);
+        totalSize += entry.size;
+      } catch (IOException e) {
+        LOG.warn("Failed to load expanded artifact directory {}", dir, e);
+      }
+    }
+    deletes.addAll(evict());
+    delete(deletes);
+  }
+
+  /**
+   * Acquires an exclusive lock on the given cache directory, which is held until the process exits.
+   *
+   * @return {@code true} if the lock was acquired, {@code false} if it is held by another process
+   */
+  @VisibleForTesting
+  static boolean lockDirectory(File dir) {
+    DirUtils.mkdirs(dir);
+    try {
+      // The channel is never closed, since closing it releases the lock
+      FileChannel channel = FileChannel.open(new File(dir, LOCK_FILE).toPath(),
+          StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+      FileLock lock;
+      try {
+        lock = channel.tryLock();
+      } catch (OverlappingFileLockException e) {
+        lock = null;
+      }
+      if (lock == null) {
+        channel.close();
+        return false;
+      }
+      return true;
+    } catch (IOException e) {
+      LOG.warn("Failed to lock expanded artifact directory {}", dir, e);
+      return false;
+    }
+  }
+
+  private static long getSize(Path dir) throws IOException {
+    try (Stream<Path> paths = Files.walk(dir)) {
+      return paths.map(Path::toFile).filter(File::isFile).mapToLong(File::length).sum();
+    }
+  }
+
+  /**
+   * A cached directory.
+   */
+  private static final class Entry {
+
+    private final long size;
+    private int refCount;
+
+    private Entry(long size) {
+      this.size = size;
+    }
+  }
+
+  /**
+   * Identifies a version of a jar for memoizing its checksum.
+   */
+  private static final class ChecksumKey {
+
+    private final URI uri;
+    private final long length;
+    private final long lastModified;
+
+    private ChecksumKey(URI uri, long length, long lastModified) {
+      this.uri = uri;
+      this.length = length;
+      this.lastModified = lastModified;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      ChecksumKey that = (ChecksumKey) o;
+      return length == that.length && lastModified == that.lastModified && uri.equals(that.uri);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(uri, length, lastModified);
+    }
+  }
+}
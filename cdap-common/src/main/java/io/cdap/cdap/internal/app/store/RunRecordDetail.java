@@ -73,9 +73,27 @@ public class RunRecordDetail extends RunRecord {
       @Nullable String twillRunId, ProgramRunCluster cluster, ProfileId profileId,
       @Nullable String peerName, byte[] sourceId, @Nullable ArtifactId artifactId,
       @Nullable String principal) {
+    this(programRunId, startTs, runTs, stopTs, suspendTs, resumeTs, stoppingTs, terminateTs,
+        status, properties, systemArgs, twillRunId, cluster, profileId, peerName, sourceId,
+        artifactId, principal, true);
+  }
+
+  /**
+   * Constructor that uses the given properties as is if {@code copyProperties} is {@code false},
+   * for properties that are immutable and decoded on demand.
+   */
+  RunRecordDetail(ProgramRunId programRunId, long startTs, @Nullable Long runTs,
+      @Nullable Long stopTs,
+      @Nullable Long suspendTs, @Nullable Long resumeTs, @Nullable Long stoppingTs,
+      @Nullable Long terminateTs, ProgramRunStatus status,
+      @Nullable Map<String, String> properties, @Nullable Map<String, String> systemArgs,
+      @Nullable String twillRunId, ProgramRunCluster cluster, ProfileId profileId,
+      @Nullable String peerName, byte[] sourceId, @Nullable ArtifactId artifactId,
+      @Nullable String principal, boolean copyProperties) {
     super(programRunId.getRun(), startTs, runTs, stopTs, suspendTs, resumeTs, stoppingTs,
         terminateTs,
-        status, properties, cluster, profileId, peerName, programRunId.getVersion());
+        status, properties, cluster, profileId, peerName, programRunId.getVersion(),
+        copyProperties);
     this.programRunId = programRunId;
     this.systemArgs = systemArgs;
     this.twillRunId = twillRunId;
@@ -0,0 +1,332 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.internal.app.store;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.io.ByteArrayDataOutput;
+import com.google.common.io.ByteStreams;
+import com.google.gson.Gson;
+import io.cdap.cdap.api.artifact.ArtifactId;
+import io.cdap.cdap.api.artifact.ArtifactScope;
+import io.cdap.cdap.api.artifact.ArtifactVersion;
+import io.cdap.cdap.api.common.Bytes;
+import io.cdap.cdap.proto.ProgramRunCluster;
+import io.cdap.cdap.proto.ProgramRunClusterStatus;
+import io.cdap.cdap.proto.ProgramRunStatus;
+import io.cdap.cdap.proto.id.ProfileId;
+import io.cdap.cdap.proto.id.ProgramId;
+import io.cdap.cdap.proto.id.ProgramRunId;
+import java.nio.ByteBuffer;
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
+
+/**
+ * Compact binary encoding of {@link RunRecordDetail} for storing in the run records table.
+ *
+ * <p>The encoding starts with a version byte, followed by the small fields of the run record
+ * (timestamps, status, cluster, profile, etc.). It ends with the properties, which carry the runtime
+ * arguments, and the system arguments, each in a length prefixed section. The
+ * {@link ProgramRunId} is not encoded since it is part of the row key. The properties and system
+ * arguments are only decoded when they are first accessed, so that reading the status and
+ * timestamps of a large number of runs doesn't pay for the arguments.</p>
+ *
+ * <p>A run record row has either the encoding or the JSON form, depending on whether the binary
+ * format was enabled when it was last written, see {@link #decode(ProgramId, String, byte[],
+ * String)}.</p>
+ */
+public final class RunRecordDetailCodec {
+
+  private static final Gson GSON = new Gson();
+  private static final byte VERSION = 1;
+
+  // Bits of the presence mask for the nullable timestamps
+  private static final int RUN_TS = 1;
+  private static final int STOP_TS = 1 << 1;
+  private static final int SUSPEND_TS = 1 << 2;
+  private static final int RESUME_TS = 1 << 3;
+  private static final int STOPPING_TS = 1 << 4;
+  private static final int TERMINATE_TS = 1 << 5;
+
+  private RunRecordDetailCodec() {
+    // no-op
+  }
+
+  /**
+   * Encodes the given {@link RunRecordDetail}.
+   *
+   * @param record the run record to encode
+   */
+  public static byte[] encode(RunRecordDetail record) {
+    ByteArrayDataOutput output = ByteStreams.newDataOutput();
+    output.writeByte(VERSION);
+
+    int mask = (record.getRunTs() == null ? 0 : RUN_TS)
+        | (record.getStopTs() == null ? 0 : STOP_TS)
+        | (record.getSuspendTs() == null ? 0 : SUSPEND_TS)
+        | (record.getResumeTs() == null ? 0 : RESUME_TS)
+        | (record.getStoppingTs() == null ? 0 : STOPPING_TS)
+        | (record.getTerminateTs() == null ? 0 : TERMINATE_TS);
+    output.writeByte(mask);
+    output.writeLong(record.getStartTs());
+    writeIfPresent(output, record.getRunTs());
+    writeIfPresent(output, record.getStopTs());
+    writeIfPresent(output, record.getSuspendTs());
+    writeIfPresent(output, record.getResumeTs());
+    writeIfPresent(output, record.getStoppingTs());
+    writeIfPresent(output, record.getTerminateTs());
+
+    writeString(output, record.getStatus() == null ? null : record.getStatus().name());
+
+    ProgramRunCluster cluster = record.getCluster();
+    output.writeBoolean(cluster != null);
+    if (cluster != null) {
+      writeString(output, cluster.getStatus() == null ? null : cluster.getStatus().name());
+      output.writeBoolean(cluster.getEnd() != null);
+      writeIfPresent(output, cluster.getEnd());
+      output.writeBoolean(cluster.getNumNodes() != null);
+      if (cluster.getNumNodes() != null) {
+        output.writeInt(cluster.getNumNodes());
+      }
+    }
+
+    ProfileId profileId = record.getProfileId();
+    output.writeBoolean(profileId != null);
+    if (profileId != null) {
+      writeString(output, profileId.getNamespace());
+      writeString(output, profileId.getProfile());
+    }
+
+    writeString(output, record.getPeerName());
+    writeString(output, record.getTwillRunId());
+    writeString(output, record.getPrincipal());
+    writeBytes(output, record.getSourceId());
+
+    ArtifactId artifactId = record.getArtifactId();
+    output.writeBoolean(artifactId != null);
+    if (artifactId != null) {
+      writeString(output, artifactId.getName());
+      writeString(output, artifactId.getVersion().getVersion());
+      writeString(output, artifactId.getScope().name());
+    }
+
+    writeMapSection(output, record.getProperties());
+    writeMapSection(output, record.getSystemArgs());
+    return output.toByteArray();
+  }
+
+  /**
+   * Decodes a run record read from the run records table. Rows last written with the binary
+   * format enabled only have the encoding, while rows written with it disabled, or by older
+   * versions, only have the JSON form.
+   *
+   * @param programId the program id of the run record, which is part of the row key
+   * @param runId the run id of the run record, which is part of the row key
+   * @param binary the encoded run record, or {@code null} if the row doesn't have one
+   * @param json the JSON form of the run record, used if there is no encoding
+   * @return the decoded {@link RunRecordDetail}
+   */
+  public static RunRecordDetail decode(ProgramId programId, String runId, @Nullable byte[] binary,
+      @Nullable String json) {
+    if (binary != null) {
+      return decode(programId.run(runId), binary);
+    }
+    RunRecordDetail existing = GSON.fromJson(json, RunRecordDetail.class);
+    return RunRecordDetail.builder(existing)
+        .setProgramRunId(programId.run(existing.getPid()))
+        .build();
+  }
+
+  /**
+   * Decodes a {@link RunRecordDetail} encoded by {@link #encode(RunRecordDetail)}.
+   *
+   * @param programRunId the program run id of the run record
+   * @param data the encoded run record
+   * @return the decoded {@link RunRecordDetail}
+   * @throws IllegalArgumentException if the data is not a supported encoding
+   */
+  public static RunRecordDetail decode(ProgramRunId programRunId, byte[] data) {
+    ByteBuffer buffer = ByteBuffer.wrap(data);
+    byte version = buffer.get();
+    if (version != VERSION) {
+      throw new IllegalArgumentException("Unsupported run record encoding version " + version
+          + " for run " + programRunId);
+    }
+
+    int mask = buffer.get();
+    long startTs = buffer.getLong();
+    Long runTs = readIfPresent(buffer, mask, RUN_TS);
+    Long stopTs = readIfPresent(buffer, mask, STOP_TS);
+    Long suspendTs = readIfPresent(buffer, mask, SUSPEND_TS);
+    Long resumeTs = readIfPresent(buffer, mask, RESUME_TS);
+    Long stoppingTs = readIfPresent(buffer, mask, STOPPING_TS);
+    Long terminateTs = readIfPresent(buffer, mask, TERMINATE_TS);
+
+    String status = readString(buffer);
+
+    ProgramRunCluster cluster = null;
+    if (buffer.get() != 0) {
+      String clusterStatus = readString(buffer);
+      Long end = buffer.get() != 0 ? buffer.getLong() : null;
+      Integer numNodes = buffer.get() != 0 ? buffer.getInt() : null;
+      cluster = new ProgramRunCluster(
+          clusterStatus == null ? null : ProgramRunClusterStatus.valueOf(clusterStatus), end,
+          numNodes);
+    }
+
+    ProfileId profileId = null;
+    if (buffer.get() != 0) {
+      profileId = new ProfileId(readString(buffer), readString(buffer));
+    }
+
+    String peerName = readString(buffer);
+    String twillRunId = readString(buffer);
+    String principal = readString(buffer);
+    byte[] sourceId = readBytes(buffer);
+
+    ArtifactId artifactId = null;
+    if (buffer.get() != 0) {
+      artifactId = new ArtifactId(readString(buffer), new ArtifactVersion(readString(buffer)),
+          ArtifactScope.valueOf(readString(buffer)));
+    }
+
+    byte[] properties = readBytes(buffer);
+    byte[] systemArgs = readBytes(buffer);
+
+    return new RunRecordDetail(programRunId, startTs, runTs, stopTs, suspendTs, resumeTs,
+        stoppingTs, terminateTs, status == null ? null : ProgramRunStatus.valueOf(status),
+        new LazyMap(properties), new LazyMap(systemArgs), twillRunId, cluster, profileId,
+        peerName, sourceId, artifactId, principal, false);
+  }
+
+  private static void writeMapSection(ByteArrayDataOutput output,
+      @Nullable Map<String, String> map) {
+    ByteArrayDataOutput section = ByteStreams.newDataOutput();
+    writeMap(section, map);
+    writeBytes(output, section.toByteArray());
+  }
+
+  private static void writeIfPresent(ByteArrayDataOutput output, @Nullable Long value) {
+    if (value != null) {
+      output.writeLong(value);
+    }
+  }
+
+  @Nullable
+  private static Long readIfPresent(ByteBuffer buffer, int mask, int bit) {
+    return (mask & bit) == 0 ? null : buffer.getLong();
+  }
+
+  private static void writeString(ByteArrayDataOutput output, @Nullable String value) {
+    writeBytes(output, value == null ? null : Bytes.toBytes(value));
+  }
+
+  @Nullable
+  private static String readString(ByteBuffer buffer) {
+    int len = buffer.getInt();
+    if (len < 0) {
+      return null;
+    }
+    String value = Bytes.toString(buffer.array(), buffer.arrayOffset() + buffer.position(), len);
+    buffer.position(buffer.position() + len);
+    return value;
+  }
+
+  private static void writeBytes(ByteArrayDataOutput output, @Nullable byte[] value) {
+    if (value == null) {
+      output.writeInt(-1);
+      return;
+    }
+    output.writeInt(value.length);
+    output.write(value);
+  }
+
+  @Nullable
+  private static byte[] readBytes(ByteBuffer buffer) {
+    int len = buffer.getInt();
+    if (len < 0) {
+      return null;
+    }
+    byte[] value = new byte[len];
+    buffer.get(value);
+    return value;
+  }
+
+  private static void writeMap(ByteArrayDataOutput output, @Nullable Map<String, String> map) {
+    if (map == null) {
+      output.writeInt(-1);
+      return;
+    }
+    output.writeInt(map.size());
+    for (Map.Entry<String, String> entry : map.entrySet()) {
+      writeString(output, entry.getKey());
+      writeString(output, entry.getValue());
+    }
+  }
+
+  @Nullable
+  private static Map<String, String> readMap(ByteBuffer buffer) {
+    int size = buffer.getInt();
+    if (size < 0) {
+      return null;
+    }
+    Map<String, String> map = new LinkedHashMap<>();
+    for (int i = 0; i < size; i++) {
+      map.put(readString(buffer), readString(buffer));
+    }
+    return map;
+  }
+
+  /**
+   * An immutable {@link Map} that is decoded from the encoded bytes on first access.
+   */
+  private static final class LazyMap extends AbstractMap<String, String> {
+
+    private final Supplier<Map<String, String>> map;
+
+    private LazyMap(@Nullable byte[] data) {
+      this.map = Suppliers.memoize(() -> {
+        Map<String, String> decoded = data == null ? null : readMap(ByteBuffer.wrap(data));
+        return decoded == null ? Collections.emptyMap() : Collections.unmodifiableMap(decoded);
+      });
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+      return map.get().entrySet();
+    }
+
+    @Override
+    public String get(Object key) {
+      return map.get().get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return map.get().containsKey(key);
+    }
+
+    @Override
+    public int size() {
+      return map.get().size();
+    }
+  }
+}
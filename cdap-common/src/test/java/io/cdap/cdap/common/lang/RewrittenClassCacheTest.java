@@ -0,0 +1,170 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.common.lang;
+
+import com.google.common.io.ByteStreams;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.Assert;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for {@link RewrittenClassCache}.
+ */
+public class RewrittenClassCacheTest {
+
+  @ClassRule
+  public static final TemporaryFolder TEMP_FOLDER = new TemporaryFolder();
+
+  @Test
+  public void testCache() throws IOException {
+    File cacheDir = TEMP_FOLDER.newFolder();
+    AtomicInteger rewrites = new AtomicInteger();
+    ClassRewriter rewriter = (className, input) -> {
+      rewrites.incrementAndGet();
+      byte[] bytes = ByteStreams.toByteArray(input);
+      // Only rewrite the "rewrite" class by reversing the bytes
+      if (!className.equals("rewrite")) {
+        return null;
+      }
+      byte[] result = new byte[bytes.length];
+      for (int i = 0; i < bytes.length; i++) {
+        result[i] = bytes[bytes.length - i - 1];
+      }
+      return result;
+    };
+
+    RewrittenClassCache cache = new RewrittenClassCache(cacheDir, "key", Long.MAX_VALUE);
+    Assert.assertArrayEquals(new byte[] {3, 2, 1},
+        cache.rewriteClass("rewrite", new byte[] {1, 2, 3}, rewriter));
+    Assert.assertNull(cache.rewriteClass("keep", new byte[] {4, 5, 6}, rewriter));
+    Assert.assertEquals(2, rewrites.get());
+
+    // Another instance with the same key should use the cached results
+    cache = new RewrittenClassCache(cacheDir, "key", Long.MAX_VALUE);
+    Assert.assertArrayEquals(new byte[] {3, 2, 1},
+        cache.rewriteClass("rewrite", new byte[] {1, 2, 3}, rewriter));
+    Assert.assertNull(cache.rewriteClass("keep", new byte[] {4, 5, 6}, rewriter));
+    Assert.assertEquals(2, rewrites.get());
+
+    // Different bytecode or a different key should not use the cached results
+    Assert.assertArrayEquals(new byte[] {2, 1},
+        cache.rewriteClass("rewrite", new byte[] {1, 2}, rewriter));
+    Assert.assertEquals(3, rewrites.get());
+    cache = new RewrittenClassCache(cacheDir, "key2", Long.MAX_VALUE);
+    Assert.assertArrayEquals(new byte[] {3, 2, 1},
+        cache.rewriteClass("rewrite", new byte[] {1, 2, 3}, rewriter));
+    Assert.assertEquals(4, rewrites.get());
+  }
+
+  @Test
+  public void testCorruptedEntry() throws IOException {
+    File cacheDir = TEMP_FOLDER.newFolder();
+    AtomicInteger rewrites = new AtomicInteger();
+    ClassRewriter rewriter = (className, input) -> {
+      rewrites.incrementAndGet();
+      return new byte[] {7, 8, 9};
+    };
+
+    RewrittenClassCache cache = new RewrittenClassCache(cacheDir, "key", Long.MAX_VALUE);
+    cache.rewriteClass("rewrite", new byte[] {1, 2, 3}, rewriter);
+    Assert.assertEquals(1, rewrites.get());
+
+    // Tamper the cached bytecode, which should not be used
+    List<Path> entries = listEntries(cacheDir);
+    Assert.assertEquals(1, entries.size());
+    byte[] entry = Files.readAllBytes(entries.get(0));
+    entry[entry.length - 1] = 0;
+    Files.write(entries.get(0), entry);
+
+    Assert.assertArrayEquals(new byte[] {7, 8, 9}, cache.rewriteClass("rewrite", new byte[] {1, 2, 3}, rewriter));
+    Assert.assertEquals(2, rewrites.get());
+
+    // An entry copied from another class should not be used either
+    byte[] valid = Files.readAllBytes(listEntries(cacheDir).get(0));
+    cache.rewriteClass("other", new byte[] {4, 5, 6}, rewriter);
+    Assert.assertEquals(3, rewrites.get());
+    for (Path path : listEntries(cacheDir)) {
+      Files.write(path, valid);
+    }
+    Assert.assertArrayEquals(new byte[] {7, 8, 9}, cache.rewriteClass("other", new byte[] {4, 5, 6}, rewriter));
+    Assert.assertEquals(4, rewrites.get());
+  }
+
+  @Test
+  public void testEviction() throws IOException {
+    File cacheDir = TEMP_FOLDER.newFolder();
+    AtomicInteger rewrites = new AtomicInteger();
+    ClassRewriter rewriter = (className, input) -> {
+      rewrites.incrementAndGet();
+      return new byte[100];
+    };
+
+    // Each entry is 132 bytes with the checksum, hence only three entries fit
+    RewrittenClassCache cache = new RewrittenClassCache(cacheDir, "key", 400);
+    cache.rewriteClass("c1", new byte[] {1}, rewriter);
+    cache.rewriteClass("c2", new byte[] {2}, rewriter);
+    cache.rewriteClass("c3", new byte[] {3}, rewriter);
+    Assert.assertEquals(3, listEntries(cacheDir).size());
+
+    // Make c1 the most recently used one, with timestamps far apart to not depend on the file system resolution
+    long now = System.currentTimeMillis();
+    List<Path> entries = listEntries(cacheDir);
+    for (Path entry : entries) {
+      Files.setLastModifiedTime(entry, FileTime.fromMillis(now - TimeUnit.HOURS.toMillis(1)));
+    }
+    cache.rewriteClass("c1", new byte[] {1}, rewriter);
+    Assert.assertEquals(3, rewrites.get());
+
+    // Adding one more evicts the least recently used ones down to the eviction target
+    cache.rewriteClass("c4", new byte[] {4}, rewriter);
+    Assert.assertEquals(2, listEntries(cacheDir).size());
+    cache.rewriteClass("c1", new byte[] {1}, rewriter);
+    cache.rewriteClass("c4", new byte[] {4}, rewriter);
+    Assert.assertEquals(4, rewrites.get());
+  }
+
+  @Test
+  public void testStaleTempFiles() throws IOException {
+    File cacheDir = TEMP_FOLDER.newFolder();
+    Path keyDir = Files.createDirectories(cacheDir.toPath().resolve("key"));
+    Path staleFile = Files.createTempFile(keyDir, ".tmp", null);
+    Files.setLastModifiedTime(staleFile, FileTime.fromMillis(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(1)));
+    Path activeFile = Files.createTempFile(keyDir, ".tmp", null);
+
+    // Only the temporary files that are too old to be still written are deleted
+    new RewrittenClassCache(cacheDir, "key", Long.MAX_VALUE);
+    Assert.assertFalse(Files.exists(staleFile));
+    Assert.assertTrue(Files.exists(activeFile));
+  }
+
+  private static List<Path> listEntries(File cacheDir) throws IOException {
+    try (Stream<Path> files = Files.walk(cacheDir.toPath())) {
+      return files.filter(Files::isRegularFile).collect(Collectors.toList());
+    }
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.common.lang.jar;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Strings;
+import com.google.common.io.Files;
+import io.cdap.cdap.common.io.Locations;
+import java.io.File;
+import java.io.IOException;
+import org.junit.Assert;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for {@link ClassLoaderFolderCache}.
+ */
+public class ClassLoaderFolderCacheTest {
+
+  @ClassRule
+  public static final TemporaryFolder TEMP_FOLDER = new TemporaryFolder();
+
+  @Test
+  public void testSharedByContent() throws IOException {
+    File cacheDir = TEMP_FOLDER.newFolder();
+    ClassLoaderFolderCache cache = new ClassLoaderFolderCache(cacheDir, Long.MAX_VALUE);
+
+    File jar1 = createJar("lib.jar", "content");
+    File jar2 = new File(TEMP_FOLDER.newFolder(), "copy.jar");
+    Files.copy(jar1, jar2);
+
+    try (ClassLoaderFolder folder1 = cache.getFolder(Locations.toLocation(jar1));
+        ClassLoaderFolder folder2 = cache.getFolder(Locations.toLocation(jar2))) {
+      Assert.assertEquals(folder1.getDir(), folder2.getDir());
+      Assert.assertTrue(new File(folder1.getDir(), "lib.jar").isFile());
+    }
+
+    // The expanded directory is kept after close and picked up by a new cache instance
+    Assert.assertEquals(1, cacheDir.list().length);
+    ClassLoaderFolderCache newCache = new ClassLoaderFolderCache(cacheDir, Long.MAX_VALUE);
+    Assert.assertEquals(cache.getTotalSize(), newCache.getTotalSize());
+    try (ClassLoaderFolder folder = newCache.getFolder(Locations.toLocation(jar1))) {
+      Assert.assertEquals(new File(cacheDir, folder.getDir().getName()), folder.getDir());
+    }
+    Assert.assertEquals(1, cacheDir.list().length);
+  }
+
+  @Test
+  public void testEviction() throws IOException {
+    File cacheDir = TEMP_FOLDER.newFolder();
+    File jar1 = createJar("lib1.jar", Strings.repeat("1", 1000));
+    File jar2 = createJar("lib2.jar", Strings.repeat("2", 1000));
+
+    // Budget only fits one expanded jar
+    ClassLoaderFolderCache probe = new ClassLoaderFolderCache(TEMP_FOLDER.newFolder(),
+        Long.MAX_VALUE);
+    probe.getFolder(Locations.toLocation(jar1)).close();
+    ClassLoaderFolderCache cache = new ClassLoaderFolderCache(cacheDir,
+        probe.getTotalSize() * 3 / 2);
+
+    ClassLoaderFolder folder1 = cache.getFolder(Locations.toLocation(jar1));
+    ClassLoaderFolder folder2 = cache.getFolder(Locations.toLocation(jar2));
+
+    // Both are in use, hence none can be removed
+    Assert.assertTrue(folder1.getDir().isDirectory());
+    Assert.assertTrue(folder2.getDir().isDirectory());
+
+    // Releasing the first one should have it removed
+    folder1.close();
+    Assert.assertFalse(folder1.getDir().exists());
+    Assert.assertTrue(folder2.getDir().isDirectory());
+
+    // Closing twice should only release once
+    folder1.close();
+    folder2.close();
+    Assert.assertTrue(folder2.getDir().isDirectory());
+    Assert.assertEquals(1, cacheDir.list().length);
+  }
+
+  @Test
+  public void testDirectoryLock() throws IOException {
+    File cacheDir = TEMP_FOLDER.newFolder();
+
+    // Only one holder can lock a cache directory
+    Assert.assertTrue(ClassLoaderFolderCache.lockDirectory(cacheDir));
+    Assert.assertFalse(ClassLoaderFolderCache.lockDirectory(cacheDir));
+  }
+
+  /**
+   * Creates a jar that contains a nested jar with the given name and content.
+   */
+  private File createJar(String nestedJarName, String content) throws IOException {
+    File dir = TEMP_FOLDER.newFolder();
+    Files.write(content, new File(dir, nestedJarName), Charsets.UTF_8);
+    File jar = new File(TEMP_FOLDER.newFolder(), "artifact.jar");
+    BundleJarUtil.createJar(dir, jar);
+    return jar;
+  }
+}
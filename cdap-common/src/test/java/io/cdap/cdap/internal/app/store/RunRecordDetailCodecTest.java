@@ -0,0 +1,111 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.internal.app.store;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.gson.Gson;
+import io.cdap.cdap.api.artifact.ArtifactId;
+import io.cdap.cdap.api.artifact.ArtifactScope;
+import io.cdap.cdap.api.artifact.ArtifactVersion;
+import io.cdap.cdap.common.app.RunIds;
+import io.cdap.cdap.proto.ProgramRunCluster;
+import io.cdap.cdap.proto.ProgramRunClusterStatus;
+import io.cdap.cdap.proto.ProgramRunStatus;
+import io.cdap.cdap.proto.ProgramType;
+import io.cdap.cdap.proto.id.NamespaceId;
+import io.cdap.cdap.proto.id.ProfileId;
+import io.cdap.cdap.proto.id.ProgramRunId;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link RunRecordDetailCodec}.
+ */
+public class RunRecordDetailCodecTest {
+
+  @Test
+  public void testEncodeDecode() {
+    ProgramRunId programRunId = NamespaceId.DEFAULT.app("app").program(ProgramType.WORKFLOW, "wf")
+        .run(RunIds.generate());
+    RunRecordDetail record = RunRecordDetail.builder()
+        .setProgramRunId(programRunId)
+        .setStartTime(1000L)
+        .setRunTime(1005L)
+        .setStopTime(2000L)
+        .setTerminateTs(2001L)
+        .setStatus(ProgramRunStatus.COMPLETED)
+        .setProperties(ImmutableMap.of("runtimeArgs", "{\"k\":\"v\"}", "wf.node", "run"))
+        .setSystemArgs(ImmutableMap.of("profile", "native", "principal", "été"))
+        .setCluster(new ProgramRunCluster(ProgramRunClusterStatus.DEPROVISIONED, 2002L, 3))
+        .setProfileId(new ProfileId("default", "native"))
+        .setTwillRunId("twill")
+        .setSourceId(new byte[] {1, 2, 3})
+        .setArtifactId(new ArtifactId("artifact", new ArtifactVersion("1.0.0"), ArtifactScope.USER))
+        .setPrincipal("alice")
+        .build();
+
+    RunRecordDetail decoded = RunRecordDetailCodec.decode(programRunId,
+        RunRecordDetailCodec.encode(record));
+    Assert.assertEquals(record, decoded);
+    Assert.assertEquals(record.getSystemArgs(), decoded.getSystemArgs());
+    Assert.assertEquals(record.getCluster(), decoded.getCluster());
+    Assert.assertEquals(record.getProfileId(), decoded.getProfileId());
+    Assert.assertEquals(ImmutableMap.of("k", "v"), decoded.getUserArgs());
+  }
+
+  @Test
+  public void testDecodeRow() {
+    ProgramRunId programRunId = NamespaceId.DEFAULT.app("app").spark("spark").run(RunIds.generate());
+    RunRecordDetail record = RunRecordDetail.builder()
+        .setProgramRunId(programRunId)
+        .setStartTime(1000L)
+        .setStatus(ProgramRunStatus.RUNNING)
+        .setProperties(ImmutableMap.of("runtimeArgs", "{\"k\":\"v\"}"))
+        .setSourceId(new byte[0])
+        .build();
+
+    // Rows written with the binary format disabled only have the JSON form
+    RunRecordDetail fromJson = RunRecordDetailCodec.decode(programRunId.getParent(),
+        programRunId.getRun(), null, new Gson().toJson(record));
+    Assert.assertEquals(record, fromJson);
+    Assert.assertEquals(programRunId, fromJson.getProgramRunId());
+
+    RunRecordDetail fromBinary = RunRecordDetailCodec.decode(programRunId.getParent(),
+        programRunId.getRun(), RunRecordDetailCodec.encode(record), null);
+    Assert.assertEquals(record, fromBinary);
+    Assert.assertEquals(ImmutableMap.of("k", "v"), fromBinary.getUserArgs());
+  }
+
+  @Test
+  public void testOptionalFields() {
+    ProgramRunId programRunId = NamespaceId.DEFAULT.app("app").spark("spark").run(RunIds.generate());
+    RunRecordDetail record = RunRecordDetail.builder()
+        .setProgramRunId(programRunId)
+        .setStartTime(1000L)
+        .setStatus(ProgramRunStatus.PENDING)
+        .setSourceId(new byte[0])
+        .build();
+
+    RunRecordDetail decoded = RunRecordDetailCodec.decode(programRunId,
+        RunRecordDetailCodec.encode(record));
+    Assert.assertEquals(record, decoded);
+    Assert.assertNull(decoded.getRunTs());
+    Assert.assertNull(decoded.getStopTs());
+    Assert.assertNull(decoded.getArtifactId());
+    Assert.assertTrue(decoded.getSystemArgs().isEmpty());
+  }
+}
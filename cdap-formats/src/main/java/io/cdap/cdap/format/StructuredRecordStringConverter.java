@@ -27,9 +27,13 @@ import io.cdap.cdap.format.io.JsonStructuredRecordDatumReader;
 import io.cdap.cdap.format.io.JsonStructuredRecordDatumWriter;
 import io.cdap.cdap.format.utils.FormatUtils;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
 import java.io.StringReader;
-import java.io.StringWriter;
+import java.io.Writer;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.Iterator;
 import java.util.stream.Collectors;
 
@@ -41,25 +45,61 @@ public class StructuredRecordStringConverter {
   private static final JsonStructuredRecordDatumWriter JSON_DATUM_WRITER = new JsonStructuredRecordDatumWriter();
   private static final JsonStructuredRecordDatumReader JSON_DATUM_READER = new JsonStructuredRecordDatumReader(
       true);
+  // Buffers larger than this are not kept for reuse, so that a single large record doesn't pin memory
+  private static final int MAX_REUSABLE_BUFFER_SIZE = 1024 * 1024;
+  private static final ThreadLocal<StringBuilderWriter> JSON_BUFFER =
+      ThreadLocal.withInitial(StringBuilderWriter::new);
 
   /**
    * Converts a {@link StructuredRecord} to a json string.
    */
   public static String toJsonString(StructuredRecord record) throws IOException {
-    StringWriter strWriter = new StringWriter();
-    try (JsonWriter writer = new JsonWriter(strWriter)) {
-      JSON_DATUM_WRITER.encode(record, new JsonEncoder(writer));
-      return strWriter.toString();
+    StringBuilderWriter buffer = JSON_BUFFER.get();
+    try {
+      writeJson(record, buffer);
+      return buffer.toString();
+    } finally {
+      if (buffer.capacity() > MAX_REUSABLE_BUFFER_SIZE) {
+        JSON_BUFFER.remove();
+      } else {
+        buffer.reset();
+      }
     }
   }
 
+  /**
+   * Writes a {@link StructuredRecord} as json to the given {@link Writer}, without creating any
+   * intermediate string. The writer is flushed but not closed.
+   */
+  public static void writeJson(StructuredRecord record, Writer writer) throws IOException {
+    JsonWriter jsonWriter = new JsonWriter(writer);
+    JSON_DATUM_WRITER.encode(record, new JsonEncoder(jsonWriter));
+    jsonWriter.flush();
+  }
+
+  /**
+   * Writes a {@link StructuredRecord} as UTF-8 encoded json to the given {@link OutputStream},
+   * without creating any intermediate string. The stream is flushed but not closed.
+   */
+  public static void writeJson(StructuredRecord record, OutputStream outputStream) throws IOException {
+    writeJson(record, new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+  }
+
   /**
    * Converts a json string to a {@link StructuredRecord} based on the schema.
    */
   public static StructuredRecord fromJsonString(String json, Schema schema) throws IOException {
-    try (JsonReader reader = new JsonReader(new StringReader(json))) {
-      return JSON_DATUM_READER.read(new JsonDecoder(reader), schema);
-    }
+    return fromJson(new StringReader(json), schema);
+  }
+
+  /**
+   * Reads a json object from the given {@link Reader} and converts it to a {@link StructuredRecord}
+   * based on the schema. Fields that are not in the schema are skipped without being parsed into
+   * intermediate objects. The reader is not closed.
+   */
+  public static StructuredRecord fromJson(Reader reader, Schema schema) throws IOException {
+    JsonReader jsonReader = new JsonReader(reader);
+    return JSON_DATUM_READER.read(new JsonDecoder(jsonReader), schema);
   }
 
   /**
@@ -193,4 +233,57 @@ public class StructuredRecordStringConverter {
   protected StructuredRecordStringConverter() {
     //inaccessible constructor for static class
   }
+
+  /**
+   * A non-synchronized {@link Writer} that writes to a {@link StringBuilder}, which can be reset
+   * for reuse.
+   */
+  private static final class StringBuilderWriter extends Writer {
+
+    private final StringBuilder builder = new StringBuilder();
+
+    @Override
+    public void write(int c) {
+      builder.append((char) c);
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) {
+      builder.append(cbuf, off, len);
+    }
+
+    @Override
+    public void write(String str, int off, int len) {
+      builder.append(str, off, off + len);
+    }
+
+    @Override
+    public Writer append(CharSequence csq) {
+      builder.append(csq);
+      return this;
+    }
+
+    @Override
+    public void flush() {
+      // no-op
+    }
+
+    @Override
+    public void close() {
+      // no-op
+    }
+
+    int capacity() {
+      return builder.capacity();
+    }
+
+    void reset() {
+      builder.setLength(0);
+    }
+
+    @Override
+    public String toString() {
+      return builder.toString();
+    }
+  }
 }
@@ -23,10 +23,13 @@ import com.google.gson.Gson;
 import io.cdap.cdap.api.common.Bytes;
 import io.cdap.cdap.api.data.format.StructuredRecord;
 import io.cdap.cdap.api.data.schema.Schema;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.StringReader;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
@@ -109,6 +112,31 @@ public class StructuredRecordStringConverterTest {
     Assert.assertNull(decoded.get("b"));
   }
 
+  @Test
+  public void testStreamingJson() throws Exception {
+    Schema inner = Schema.recordOf("inner", Schema.Field.of("x", Schema.of(Schema.Type.INT)));
+    Schema s = Schema.recordOf("streaming",
+                               Schema.Field.of("name", Schema.of(Schema.Type.STRING)),
+                               Schema.Field.of("inner", inner));
+    StructuredRecord record = StructuredRecord.builder(s)
+      .set("name", "n\u00e9")
+      .set("inner", StructuredRecord.builder(inner).set("x", 5).build())
+      .build();
+
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    StructuredRecordStringConverter.writeJson(record, os);
+    String json = new String(os.toByteArray(), StandardCharsets.UTF_8);
+    Assert.assertEquals(StructuredRecordStringConverter.toJsonString(record), json);
+
+    StructuredRecord decoded = StructuredRecordStringConverter.fromJson(new StringReader(json), s);
+    Assert.assertEquals(record, decoded);
+
+    // Fields that are not part of the schema are skipped
+    Schema nameOnly = Schema.recordOf("nameOnly", Schema.Field.of("name", Schema.of(Schema.Type.STRING)));
+    decoded = StructuredRecordStringConverter.fromJson(new StringReader(json), nameOnly);
+    Assert.assertEquals("n\u00e9", decoded.get("name"));
+  }
+
   @Test
   public void testNullableBytesDelimited() throws Exception {
     Schema s = Schema.recordOf("nullableBytes", Schema.Field.of("b", Schema.nullableOf(Schema.of(Schema.Type.BYTES))));
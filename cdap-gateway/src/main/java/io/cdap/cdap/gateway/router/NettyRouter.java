@@ -33,6 +33,7 @@ import io.cdap.cdap.gateway.router.handlers.AuthenticationHandler;
 import io.cdap.cdap.gateway.router.handlers.ConfigBasedRequestBlockingHandler;
 import io.cdap.cdap.gateway.router.handlers.HttpRequestRouter;
 import io.cdap.cdap.gateway.router.handlers.HttpStatusRequestHandler;
+import io.cdap.cdap.gateway.router.handlers.UpstreamChannelPool;
 import io.cdap.cdap.security.auth.TokenValidator;
 import io.cdap.cdap.security.auth.UserIdentityExtractor;
 import io.cdap.cdap.security.impersonation.SecurityUtil;
@@ -94,6 +95,7 @@ public class NettyRouter extends AbstractIdleService {
   private final UserIdentityExtractor userIdentityExtractor;
   private final boolean sslEnabled;
   private final DiscoveryServiceClient discoveryServiceClient;
+  private final UpstreamChannelPool upstreamChannelPool;
 
   private InetSocketAddress boundAddress;
   private Cancellable serverCancellable;
@@ -117,6 +119,7 @@ public class NettyRouter extends AbstractIdleService {
     this.tokenValidator = tokenValidator;
     this.userIdentityExtractor = userIdentityExtractor;
     this.discoveryServiceClient = discoveryServiceClient;
+    this.upstreamChannelPool = new UpstreamChannelPool(cConf);
     this.sslEnabled = cConf.getBoolean(Constants.Security.SSL.EXTERNAL_ENABLED);
     this.port = sslEnabled
         ? cConf.getInt(Constants.Router.ROUTER_SSL_PORT)
@@ -154,6 +157,7 @@ public class NettyRouter extends AbstractIdleService {
       tokenValidator.stopAndWait();
     }
 
+    LOG.debug("Upstream connection usage: {}", upstreamChannelPool);
     LOG.info("Stopped Netty Router.");
   }
 
@@ -237,7 +241,8 @@ public class NettyRouter extends AbstractIdleService {
             pipeline.addLast("expect-continue", new HttpServerExpectContinueHandler());
             // for now there's only one hardcoded rule, but if there will be more,
             // we may want it generic and configurable
-            pipeline.addLast("http-request-handler", new HttpRequestRouter(cConf, serviceLookup));
+            pipeline.addLast("http-request-handler", new HttpRequestRouter(cConf, serviceLookup,
+                upstreamChannelPool));
           }
         });
   }
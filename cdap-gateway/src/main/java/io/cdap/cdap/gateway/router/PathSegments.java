@@ -0,0 +1,142 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.gateway.router;
+
+import java.util.Arrays;
+
+/**
+ * The non-empty segments of a request path separated by {@code '/'}. The segments are kept as
+ * offsets into the path, hence comparing a segment doesn't create any string. An instance can be
+ * reused for another path by calling {@link #reset(CharSequence)}.
+ *
+ * <p>This class is not thread safe.</p>
+ */
+final class PathSegments {
+
+  private CharSequence path;
+  // Start and end offsets of each segment
+  private int[] bounds;
+  private int size;
+
+  PathSegments() {
+    this.path = "";
+    this.bounds = new int[32];
+  }
+
+  /**
+   * Creates an instance with the given segments, which must be non-empty and must not contain
+   * {@code '/'}.
+   */
+  static PathSegments of(String... segments) {
+    return new PathSegments().reset(String.join("/", segments));
+  }
+
+  /**
+   * Splits the given path into segments, omitting empty ones.
+   *
+   * @return this instance
+   */
+  PathSegments reset(CharSequence path) {
+    this.path = path;
+    this.size = 0;
+    int length = path.length();
+    int start = 0;
+    for (int i = 0; i <= length; i++) {
+      if (i == length || path.charAt(i) == '/') {
+        if (i > start) {
+          if (size * 2 == bounds.length) {
+            bounds = Arrays.copyOf(bounds, bounds.length * 2);
+          }
+          bounds[size * 2] = start;
+          bounds[size * 2 + 1] = i;
+          size++;
+        }
+        start = i + 1;
+      }
+    }
+    return this;
+  }
+
+  /**
+   * Returns the number of segments.
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Returns whether the segment at the given index is the same as the given string.
+   *
+   * @throws IndexOutOfBoundsException if there is no segment at the given index
+   */
+  boolean equals(int index, String expected) {
+    checkIndex(index);
+    int start = bounds[index * 2];
+    int length = bounds[index * 2 + 1] - start;
+    if (length != expected.length()) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (path.charAt(start + i) != expected.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the segment at the given index.
+   *
+   * @throws IndexOutOfBoundsException if there is no segment at the given index
+   */
+  String get(int index) {
+    checkIndex(index);
+    return path.subSequence(bounds[index * 2], bounds[index * 2 + 1]).toString();
+  }
+
+  /**
+   * Determines if the begin or end of the segments matches an expected sequence of strings. A
+   * {@code null} in the expected sequence accepts any segment in that position.
+   *
+   * @param expected the expected sequence to match
+   * @param matchEnd whether to match the end of the segments
+   * @return true if the begin or end of the segments matches {@code expected}
+   */
+  boolean matches(String[] expected, boolean matchEnd) {
+    if (size < expected.length) {
+      return false;
+    }
+    int offset = matchEnd ? size - expected.length : 0;
+    for (int i = 0; i < expected.length; i++) {
+      if (expected[i] != null && !equals(offset + i, expected[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Segment " + index + " out of " + size);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return path.toString();
+  }
+}
@@ -17,13 +17,11 @@
 package io.cdap.cdap.gateway.router;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.base.Splitter;
 import io.cdap.cdap.common.conf.Constants;
 import io.cdap.cdap.common.service.ServiceDiscoverable;
 import io.cdap.cdap.proto.ProgramType;
 import io.cdap.http.AbstractHttpHandler;
 import io.netty.handler.codec.http.HttpRequest;
-import java.util.stream.StreamSupport;
 import javax.annotation.Nullable;
 
 /**
@@ -62,6 +60,39 @@ public final class RouterPathLookup extends AbstractHttpHandler {
   public static final RouteDestination DONT_ROUTE = new RouteDestination(
       Constants.Router.DONT_ROUTE_SERVICE);
 
+  // Patterns of path segments, with null matching any segment
+  private static final String[] SYSTEM_SERVICE_LOGS = {"v3", "system", "services", null, "logs"};
+  private static final String[] NAMESPACE_SECURE_KEYS = {"v3", "namespaces", null, "securekeys"};
+  private static final String[] METADATA = {"metadata"};
+  private static final String[] METADATA_PROPERTIES = {"metadata", "properties"};
+  private static final String[] METADATA_PROPERTY = {"metadata", "properties", null};
+  private static final String[] METADATA_TAGS = {"metadata", "tags"};
+  private static final String[] METADATA_TAG = {"metadata", "tags", null};
+  private static final String[] METADATA_SEARCH = {"metadata", "search"};
+  private static final String[] DATASET_LINEAGE =
+      {"v3", "namespaces", null, "datasets", null, "lineage"};
+  private static final String[] RUN_ENDPOINTS = {"runs", null, "endpoints"};
+  private static final String[] V3_METADATA_SEARCH = {"v3", "metadata", "search"};
+  private static final String[] AUTHORIZATION = {"v3", "security", "authorization"};
+  private static final String[] SECURE_STORE =
+      {"v3", "security", "store", "namespaces", null};
+  private static final String[] DATASET_PROGRAMS =
+      {"v3", "namespaces", null, "data", "datasets", null, "programs"};
+  private static final String[] NAMESPACE_PROFILES = {"v3", "namespaces", null, "profiles"};
+  private static final String[] PROFILES = {"v3", "profiles"};
+  private static final String[] NAMESPACE_RUNS = {"v3", "namespaces", null, "runs"};
+  private static final String[] NAMESPACE_PREVIEWS = {"v3", "namespaces", null, "previews"};
+  private static final String[] SERVICE_PROVIDERS = {"v3", "system", "serviceproviders"};
+  private static final String[] SYSTEM_SERVICE_STATUS =
+      {"v3", "system", "services", null, "status"};
+  private static final String[] SYSTEM_SERVICE_STACKS =
+      {"v3", "system", "services", null, "stacks"};
+  private static final String[] SUPPORT_BUNDLES = {"v3", "support", "bundles"};
+
+  // Segments of the path being routed, reused across requests handled by the same thread
+  private static final ThreadLocal<PathSegments> PATH_SEGMENTS =
+      ThreadLocal.withInitial(PathSegments::new);
+
   /**
    * Returns the CDAP service which will handle the HttpRequest
    *
@@ -74,11 +105,9 @@ public final class RouterPathLookup extends AbstractHttpHandler {
     try {
       String method = httpRequest.method().name();
       AllowedMethod requestMethod = AllowedMethod.valueOf(method);
-      String[] uriParts = StreamSupport
-          .stream(Splitter.on('/').omitEmptyStrings().split(requestPath).spliterator(), false)
-          .toArray(String[]::new);
+      PathSegments uriParts = PATH_SEGMENTS.get().reset(requestPath);
 
-      if (uriParts[0].equals(Constants.Gateway.API_VERSION_3_TOKEN)) {
+      if (uriParts.equals(0, Constants.Gateway.API_VERSION_3_TOKEN)) {
         return getV3RoutingService(uriParts, requestMethod);
       }
     } catch (Exception e) {
@@ -87,9 +116,9 @@ public final class RouterPathLookup extends AbstractHttpHandler {
     return APP_FABRIC_HTTP;
   }
 
-  private boolean isUserServiceType(String uriPart) {
+  private boolean isUserServiceType(PathSegments uriParts, int index) {
     for (ProgramType type : ServiceDiscoverable.getUserServiceTypes()) {
-      if (type.getCategoryName().equals(uriPart)) {
+      if (uriParts.equals(index, type.getCategoryName())) {
         return true;
       }
     }
@@ -97,80 +126,79 @@ public final class RouterPathLookup extends AbstractHttpHandler {
   }
 
   @Nullable
-  private RouteDestination getV3RoutingService(String[] uriParts, AllowedMethod requestMethod) {
-    if ((uriParts.length >= 2) && uriParts[1].equals("feeds")) {
+  private RouteDestination getV3RoutingService(PathSegments uriParts,
+      AllowedMethod requestMethod) {
+    if ((uriParts.size() >= 2) && uriParts.equals(1, "feeds")) {
       // TODO(Rohit) find a better way to handle that - this looks hackish
       // This needs to now changed especially metadata since now it can have custom parts
       return null;
-    } else if ("bootstrap".equals(uriParts[1])) {
+    } else if (uriParts.equals(1, "bootstrap")) {
       return APP_FABRIC_HTTP;
-    } else if ((uriParts.length >= 11) && "versions".equals(uriParts[5]) && isUserServiceType(
-        uriParts[7])
-        && "methods".equals(uriParts[9])) {
+    } else if ((uriParts.size() >= 11) && uriParts.equals(5, "versions")
+        && isUserServiceType(uriParts, 7)
+        && uriParts.equals(9, "methods")) {
       // User defined services (version specific) handle methods on them:
       //Path: "/v3/namespaces/{namespace-id}/apps/{app-id}/versions/{version-id}/services/{service-id}/methods/
       //       <user-defined-method-path>"
-      String serviceName = ServiceDiscoverable.getName(uriParts[2], uriParts[4],
-          ProgramType.valueOfCategoryName(uriParts[7]), uriParts[8]);
-      String version = uriParts[6];
+      String serviceName = ServiceDiscoverable.getName(uriParts.get(2), uriParts.get(4),
+          ProgramType.valueOfCategoryName(uriParts.get(7)), uriParts.get(8));
+      String version = uriParts.get(6);
       return new RouteDestination(serviceName, version);
-    } else if ((uriParts.length >= 9) && isUserServiceType(uriParts[5]) && "methods".equals(
-        uriParts[7])) {
+    } else if ((uriParts.size() >= 9) && isUserServiceType(uriParts, 5)
+        && uriParts.equals(7, "methods")) {
       //User defined services handle methods on them:
       //Path: "/v3/namespaces/{namespace-id}/apps/{app-id}/services/{service-id}/methods/<user-defined-method-path>"
-      return new RouteDestination(ServiceDiscoverable.getName(uriParts[2], uriParts[4],
-          ProgramType.valueOfCategoryName(uriParts[5]),
-          uriParts[6]));
-    } else if (beginsWith(uriParts, "v3", "system", "services", null, "logs")) {
+      return new RouteDestination(ServiceDiscoverable.getName(uriParts.get(2), uriParts.get(4),
+          ProgramType.valueOfCategoryName(uriParts.get(5)),
+          uriParts.get(6)));
+    } else if (uriParts.matches(SYSTEM_SERVICE_LOGS, false)) {
       //Log Handler Path /v3/system/services/<service-id>/logs
       return LOG_QUERY;
-    } else if ((!beginsWith(uriParts, "v3", "namespaces", null, "securekeys")) && (
-        endsWith(uriParts, "metadata")
+    } else if ((!uriParts.matches(NAMESPACE_SECURE_KEYS, false)) && (
+        uriParts.matches(METADATA, true)
             ||
             // do no intercept the namespaces/<namespace-name>/securekeys/<key>/metadata as that is handled by the
             // SecureStoreHandler
-            endsWith(uriParts, "metadata", "properties") || endsWith(uriParts, "metadata",
-            "properties", null)
-            || endsWith(uriParts, "metadata", "tags") || endsWith(uriParts, "metadata", "tags",
-            null)
+            uriParts.matches(METADATA_PROPERTIES, true) || uriParts.matches(METADATA_PROPERTY, true)
+            || uriParts.matches(METADATA_TAGS, true) || uriParts.matches(METADATA_TAG, true)
 
-            || endsWith(uriParts, "metadata", "search")
-            || beginsWith(uriParts, "v3", "namespaces", null, "datasets", null, "lineage")
-            || endsWith(uriParts, "runs", null, "endpoints")
-            || beginsWith(uriParts, "v3", "metadata", "search"))) {
+            || uriParts.matches(METADATA_SEARCH, true)
+            || uriParts.matches(DATASET_LINEAGE, false)
+            || uriParts.matches(RUN_ENDPOINTS, true)
+            || uriParts.matches(V3_METADATA_SEARCH, false))) {
       return METADATA_SERVICE;
-    } else if (beginsWith(uriParts, "v3", "security", "authorization")
-        || beginsWith(uriParts, "v3", "namespaces", null, "securekeys")) {
+    } else if (uriParts.matches(AUTHORIZATION, false)
+        || uriParts.matches(NAMESPACE_SECURE_KEYS, false)) {
       // Authorization and Secure Store Handlers currently run in App Fabric
       return APP_FABRIC_HTTP;
-    } else if (beginsWith(uriParts, "v3", "security", "store", "namespaces", null)) {
+    } else if (uriParts.matches(SECURE_STORE, false)) {
       return APP_FABRIC_HTTP;
-    } else if (beginsWith(uriParts, "v3", "namespaces", null, "data", "datasets", null, "programs")
+    } else if (uriParts.matches(DATASET_PROGRAMS, false)
 
         && requestMethod.equals(AllowedMethod.GET)) {
       return APP_FABRIC_HTTP;
-    } else if (beginsWith(uriParts, "v3", "namespaces", null, "profiles")
-        || beginsWith(uriParts, "v3", "profiles")) {
+    } else if (uriParts.matches(NAMESPACE_PROFILES, false)
+        || uriParts.matches(PROFILES, false)) {
       return APP_FABRIC_HTTP;
-    } else if (beginsWith(uriParts, "v3", "namespaces", null, "runs")) {
+    } else if (uriParts.matches(NAMESPACE_RUNS, false)) {
       return APP_FABRIC_HTTP;
-    } else if (beginsWith(uriParts, "v3", "namespaces", null, "previews")) {
+    } else if (uriParts.matches(NAMESPACE_PREVIEWS, false)) {
       return PREVIEW_HTTP;
-    } else if (beginsWith(uriParts, "v3", "system", "serviceproviders")) {
+    } else if (uriParts.matches(SERVICE_PROVIDERS, false)) {
       return APP_FABRIC_HTTP;
-    } else if ((uriParts.length >= 8 && uriParts[7].equals("logs"))
-        || (uriParts.length >= 10 && uriParts[9].equals("logs"))
-        || (uriParts.length >= 6 && uriParts[5].equals("logs"))) {
+    } else if ((uriParts.size() >= 8 && uriParts.equals(7, "logs"))
+        || (uriParts.size() >= 10 && uriParts.equals(9, "logs"))
+        || (uriParts.size() >= 6 && uriParts.equals(5, "logs"))) {
       //Log Handler Paths:
       // /v3/namespaces/<namespaceid>/apps/<appid>/<programid-type>/<programid>/logs
       // /v3/namespaces/{namespace-id}/apps/{app-id}/{program-type}/{program-id}/runs/{run-id}/logs
       return LOG_QUERY;
-    } else if (uriParts.length >= 2 && uriParts[1].equals("metrics")) {
+    } else if (uriParts.size() >= 2 && uriParts.equals(1, "metrics")) {
       //Metrics Search Handler Path /v3/metrics
       return METRICS;
-    } else if (beginsWith(uriParts, "v3", "system", "services", null, "status")
-        || beginsWith(uriParts, "v3", "system", "services", null, "stacks")) {
-      switch (uriParts[3]) {
+    } else if (uriParts.matches(SYSTEM_SERVICE_STATUS, false)
+        || uriParts.matches(SYSTEM_SERVICE_STACKS, false)) {
+      switch (uriParts.get(3)) {
         case Constants.Service.LOGSAVER:
           return LOG_SAVER;
         case Constants.Service.TRANSACTION:
@@ -194,26 +222,27 @@ public final class RouterPathLookup extends AbstractHttpHandler {
         default:
           return null;
       }
-    } else if (uriParts.length == 7 && uriParts[3].equals("data") && uriParts[4].equals("datasets")
+    } else if (uriParts.size() == 7 && uriParts.equals(3, "data")
+        && uriParts.equals(4, "datasets")
 
-        && (uriParts[6].equals("flows") || uriParts[6].equals("workers") || uriParts[6].equals(
-        "mapreduce"))) {
+        && (uriParts.equals(6, "flows") || uriParts.equals(6, "workers")
+        || uriParts.equals(6, "mapreduce"))) {
       // namespaced app fabric data operations:
       // /v3/namespaces/{namespace-id}/data/datasets/{name}/flows
       // /v3/namespaces/{namespace-id}/data/datasets/{name}/workers
       // /v3/namespaces/{namespace-id}/data/datasets/{name}/mapreduce
       return APP_FABRIC_HTTP;
-    } else if ((uriParts.length >= 4) && uriParts[3].equals("data")) {
+    } else if ((uriParts.size() >= 4) && uriParts.equals(3, "data")) {
       // other data operations. For example:
       // /v3/namespaces/{namespace-id}/data/datasets
       // /v3/namespaces/{namespace-id}/data/datasets/{name}
       // /v3/namespaces/{namespace-id}/data/datasets/{name}/properties
       // /v3/namespaces/{namespace-id}/data/datasets/{name}/admin/{method}
       return DATASET_MANAGER;
-    } else if (beginsWith(uriParts, "v3", "support", "bundles")) {
+    } else if (uriParts.matches(SUPPORT_BUNDLES, false)) {
       // Support Bundle Handler Path /v3/support/bundles
       return SUPPORT_BUNDLE_SERVICE;
-    } else if ((uriParts.length == 3) && uriParts[1].equals("metadata-internals")) {
+    } else if ((uriParts.size() == 3) && uriParts.equals(1, "metadata-internals")) {
       // we don't want to expose endpoints for direct metadata mutation from CDAP master
       // /v3/metadata-internals/{mutation-type}
       return DONT_ROUTE;
@@ -236,7 +265,7 @@ public final class RouterPathLookup extends AbstractHttpHandler {
    */
   @VisibleForTesting
   static boolean beginsWith(String[] actual, String... expected) {
-    return matches(actual, expected, false);
+    return PathSegments.of(actual).matches(expected, false);
   }
 
   /**
@@ -254,33 +283,6 @@ public final class RouterPathLookup extends AbstractHttpHandler {
    */
   @VisibleForTesting
   static boolean endsWith(String[] actual, String... expected) {
-    return matches(actual, expected, true);
-  }
-
-  /**
-   * Determines if the begin or end of an array of strings matches an expected sequence of strings.
-   *
-   * <ul><li>
-   *   the actual sequence may be longer than the expected one as long as its begin or end matches;
-   * </li><li>
-   *   a null in the expected sequence means "accept any string" in that position.
-   * </li></ul>
-   *
-   * @param actual the actual string array to check; must not contain nulls.
-   * @param expected the expected string array to match; may contain nulls as wildcards.
-   * @param matchEnd whether to match the end of the actual sequence
-   * @return true if the end of {@code actual} matches {@code expected}
-   */
-  private static boolean matches(String[] actual, String[] expected, boolean matchEnd) {
-    if (actual.length < expected.length) {
-      return false;
-    }
-    int offset = matchEnd ? actual.length - expected.length : 0;
-    for (int i = 0; i < expected.length; i++) {
-      if (expected[i] != null && !expected[i].equals(actual[offset + i])) {
-        return false;
-      }
-    }
-    return true;
+    return PathSegments.of(actual).matches(expected, true);
   }
 }
@@ -79,14 +79,17 @@ public class HttpRequestRouter extends ChannelDuplexHandler {
 
   private final CConfiguration cConf;
   private final RouterServiceLookup serviceLookup;
+  private final UpstreamChannelPool channelPool;
   private final Map<Discoverable, Queue<MessageSender>> messageSenders;
   private int inflightRequests;
   private MessageSender currentMessageSender;
   private ChannelFutureListener failureResponseListener;
 
-  public HttpRequestRouter(CConfiguration cConf, RouterServiceLookup serviceLookup) {
+  public HttpRequestRouter(CConfiguration cConf, RouterServiceLookup serviceLookup,
+      UpstreamChannelPool channelPool) {
     this.cConf = cConf;
     this.serviceLookup = serviceLookup;
+    this.channelPool = channelPool;
     this.messageSenders = new HashMap<>();
   }
 
@@ -163,8 +166,9 @@ public class HttpRequestRouter extends ChannelDuplexHandler {
       }
       inflightRequests = 0;
 
-      // Recycle the message sender
+      // Return the outbound channel to the pool and recycle the message sender
       if (currentMessageSender != null) {
+        currentMessageSender.releaseChannel();
         messageSenders.get(currentMessageSender.getDiscoverable()).add(currentMessageSender);
       }
     }
@@ -252,7 +256,7 @@ public class HttpRequestRouter extends ChannelDuplexHandler {
     }
 
     // Create new MessageSender
-    sender = new MessageSender(cConf, inboundChannel, discoverable);
+    sender = new MessageSender(cConf, inboundChannel, discoverable, channelPool);
     LOG.trace("Create new message sender for {}", discoverable);
     return sender;
   }
@@ -282,12 +286,17 @@ public class HttpRequestRouter extends ChannelDuplexHandler {
 
   /**
    * For sending messages to outbound channel while maintaining the order of messages according to
-   * the order that {@link #send(Object, ChannelFutureListener)} method is called.
+   * the order that {@link #send(Object, ChannelFutureListener)} method is called. The outbound
+   * channel is taken from the {@link UpstreamChannelPool} if there is an idle one, and is returned
+   * to the pool when the response is completed.
    */
   private static final class MessageSender implements Flushable, Closeable {
 
     private final Discoverable discoverable;
+    private final Channel inboundChannel;
+    private final UpstreamChannelPool channelPool;
     private final Queue<OutboundMessage> pendingMessages;
+    private final ChannelFutureListener onCloseResetListener;
     private final Bootstrap clientBootstrap;
     private volatile SslContext sslContext;
     private Channel outboundChannel;
@@ -295,16 +304,20 @@ public class HttpRequestRouter extends ChannelDuplexHandler {
     private boolean connecting;
 
     private MessageSender(final CConfiguration cConf, final Channel inboundChannel,
-        final Discoverable discoverable) {
+        final Discoverable discoverable, final UpstreamChannelPool channelPool) {
       this.discoverable = discoverable;
+      this.inboundChannel = inboundChannel;
+      this.channelPool = channelPool;
       this.pendingMessages = new LinkedList<>();
 
       // A channel listener for resetting the state of this message sender on closing of outbound channel
-      final ChannelFutureListener onCloseResetListener = new ChannelFutureListener() {
+      this.onCloseResetListener = new ChannelFutureListener() {
         @Override
         public void operationComplete(ChannelFuture future) {
-          outboundChannel = null;
-          connecting = false;
+          if (outboundChannel == null || outboundChannel == future.channel()) {
+            outboundChannel = null;
+            connecting = false;
+          }
         }
       };
 
@@ -318,7 +331,9 @@ public class HttpRequestRouter extends ChannelDuplexHandler {
           .handler(new ChannelInitializer<SocketChannel>() {
             @Override
             protected void initChannel(SocketChannel ch) throws Exception {
+              channelPool.channelCreated();
               ch.closeFuture().addListener(onCloseResetListener);
+              ch.closeFuture().addListener(future -> channelPool.remove(discoverable, ch));
               ChannelPipeline pipeline = ch.pipeline();
 
               SslHandler sslHandler = getSslHandler(discoverable, ch.alloc());
@@ -342,6 +357,15 @@ public class HttpRequestRouter extends ChannelDuplexHandler {
      *     write completed
      */
     void send(Object msg, ChannelFutureListener writeCompletedListener) {
+      if (outboundChannel == null && !connecting) {
+        Channel channel = channelPool.acquire(inboundChannel.eventLoop(), discoverable);
+        if (channel != null) {
+          LOG.trace("Reuse pooled channel {} for {}", channel, discoverable);
+          channel.pipeline().get(OutboundHandler.class).setInboundChannel(inboundChannel);
+          channel.closeFuture().addListener(onCloseResetListener);
+          outboundChannel = channel;
+        }
+      }
       if (outboundChannel != null) {
         outboundChannel.write(msg).addListener(writeCompletedListener);
         return;
@@ -402,6 +426,24 @@ public class HttpRequestRouter extends ChannelDuplexHandler {
       }
     }
 
+    /**
+     * Returns the outbound channel to the {@link UpstreamChannelPool} if it can be reused by other
+     * requests. This method should be called when the response is completed.
+     */
+    void releaseChannel() {
+      Channel channel = outboundChannel;
+      if (channel == null || closed || connecting) {
+        return;
+      }
+      OutboundHandler handler = channel.pipeline().get(OutboundHandler.class);
+      if (handler == null || !handler.isReusable() || !channelPool.release(discoverable, channel)) {
+        return;
+      }
+      channel.closeFuture().removeListener(onCloseResetListener);
+      handler.setInboundChannel(null);
+      outboundChannel = null;
+    }
+
     Discoverable getDiscoverable() {
       return discoverable;
     }
@@ -27,29 +27,55 @@ import io.netty.handler.codec.http.HttpUtil;
 import io.netty.handler.codec.http.LastHttpContent;
 import io.netty.handler.timeout.IdleState;
 import io.netty.handler.timeout.IdleStateEvent;
+import io.netty.util.ReferenceCountUtil;
+import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * A {@link ChannelDuplexHandler} for forwarding requests/responses between the router and the
- * internal service. It also handle idle state event for closing idled internal connections.
+ * internal service. It also handle idle state event for closing idled internal connections. While
+ * the channel is idle in the {@link UpstreamChannelPool}, it is not associated with any inbound
+ * channel.
  */
 public class OutboundHandler extends ChannelDuplexHandler {
 
   private static final Logger LOG = LoggerFactory.getLogger(OutboundHandler.class);
 
-  private final Channel inboundChannel;
+  @Nullable
+  private Channel inboundChannel;
   private boolean requestInProgress;
+  private boolean requestSent;
   private boolean keepAlive;
 
   public OutboundHandler(Channel inboundChannel) {
     this.inboundChannel = inboundChannel;
   }
 
+  /**
+   * Sets the inbound channel to forward responses to, or {@code null} when the channel becomes
+   * idle in the pool.
+   */
+  void setInboundChannel(@Nullable Channel inboundChannel) {
+    this.inboundChannel = inboundChannel;
+  }
+
+  /**
+   * Returns {@code true} if the last request was fully sent, its response was fully received, and
+   * both sides agreed to keep the connection alive.
+   */
+  boolean isReusable() {
+    return !requestInProgress && requestSent && keepAlive;
+  }
+
   @Override
   public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
-    // One receiving messages from the internal service, forward it to the inbound channel
-    inboundChannel.write(msg);
+    if (inboundChannel == null) {
+      // Nothing is expected from an idle connection
+      ReferenceCountUtil.release(msg);
+      ctx.close();
+      return;
+    }
 
     if (msg instanceof HttpResponse) {
       keepAlive = HttpUtil.isKeepAlive((HttpResponse) msg);
@@ -59,11 +85,17 @@ public class OutboundHandler extends ChannelDuplexHandler {
     if (msg instanceof LastHttpContent) {
       requestInProgress = false;
     }
+
+    // One receiving messages from the internal service, forward it to the inbound channel.
+    // The state is updated before, since the channel can be released when the response is completed.
+    inboundChannel.write(msg);
   }
 
   @Override
   public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
-    inboundChannel.flush();
+    if (inboundChannel != null) {
+      inboundChannel.flush();
+    }
   }
 
   @Override
@@ -72,14 +104,19 @@ public class OutboundHandler extends ChannelDuplexHandler {
     // A request starts with a HttpRequest
     if (msg instanceof HttpRequest) {
       requestInProgress = true;
+      requestSent = false;
       keepAlive = HttpUtil.isKeepAlive((HttpRequest) msg);
     }
+    if (msg instanceof LastHttpContent) {
+      requestSent = true;
+    }
     ctx.write(msg, promise);
   }
 
   @Override
   public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
-    if (requestInProgress) {
+    Channel inboundChannel = this.inboundChannel;
+    if (requestInProgress && inboundChannel != null) {
       final Channel channel = ctx.channel();
       ctx.executor().execute(() -> {
         // If outboundChannel is not saturated anymore, continue accepting
@@ -100,7 +137,7 @@ public class OutboundHandler extends ChannelDuplexHandler {
   @Override
   public void channelInactive(ChannelHandlerContext ctx) throws Exception {
     // Close the inbound channel if there is request in progress, or the last request/response has keep-alive == false
-    if (requestInProgress || !keepAlive) {
+    if (inboundChannel != null && (requestInProgress || !keepAlive)) {
       Channels.closeOnFlush(inboundChannel);
     }
     ctx.fireChannelInactive();
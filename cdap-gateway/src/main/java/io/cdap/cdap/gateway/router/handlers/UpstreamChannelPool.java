@@ -0,0 +1,145 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.gateway.router.handlers;
+
+import io.cdap.cdap.common.conf.CConfiguration;
+import io.cdap.cdap.common.conf.Constants;
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoop;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+import org.apache.twill.discovery.Discoverable;
+
+/**
+ * A pool of idle keep-alive channels to the internal services, shared by all client connections
+ * served by the same {@link EventLoop}. Channels are kept per {@link EventLoop} so that a pooled
+ * channel is always used from the thread that owns it, hence other than the map of event loops, the
+ * pool doesn't need any synchronization. Channels are reused in last in first out order, so that
+ * excess channels stay idle and get closed by the idle timeout of the channel. Channels to an
+ * endpoint that is no longer discovered are never picked again and get closed the same way.
+ */
+public final class UpstreamChannelPool {
+
+  private final int maxIdlePerEndpoint;
+  private final ConcurrentMap<EventLoop, Map<Discoverable, Deque<Channel>>> idleChannels;
+  private final AtomicLong created;
+  private final AtomicLong reused;
+
+  public UpstreamChannelPool(CConfiguration cConf) {
+    this(cConf.getInt(Constants.Router.UPSTREAM_POOL_MAX_IDLE, 0));
+  }
+
+  UpstreamChannelPool(int maxIdlePerEndpoint) {
+    this.maxIdlePerEndpoint = maxIdlePerEndpoint;
+    this.idleChannels = new ConcurrentHashMap<>();
+    this.created = new AtomicLong();
+    this.reused = new AtomicLong();
+  }
+
+  /**
+   * Removes an idle channel to the given endpoint from the pool. This method must be called from
+   * the given {@link EventLoop}.
+   *
+   * @return an active channel or {@code null} if there is no idle channel to the endpoint
+   */
+  @Nullable
+  Channel acquire(EventLoop eventLoop, Discoverable discoverable) {
+    Map<Discoverable, Deque<Channel>> channels = idleChannels.get(eventLoop);
+    Deque<Channel> deque = channels == null ? null : channels.get(discoverable);
+    if (deque == null) {
+      return null;
+    }
+    Channel channel = deque.pollFirst();
+    while (channel != null && !channel.isActive()) {
+      channel = deque.pollFirst();
+    }
+    if (deque.isEmpty()) {
+      channels.remove(discoverable);
+    }
+    if (channel != null) {
+      reused.incrementAndGet();
+    }
+    return channel;
+  }
+
+  /**
+   * Adds an idle channel to the pool. This method must be called from the {@link EventLoop} of the
+   * channel.
+   *
+   * @return {@code true} if the channel is added to the pool, {@code false} if the pool is full
+   */
+  boolean release(Discoverable discoverable, Channel channel) {
+    if (maxIdlePerEndpoint <= 0 || !channel.isActive()) {
+      return false;
+    }
+    Deque<Channel> deque = idleChannels.computeIfAbsent(channel.eventLoop(), k -> new HashMap<>())
+        .computeIfAbsent(discoverable, k -> new ArrayDeque<>());
+    if (deque.size() >= maxIdlePerEndpoint) {
+      return false;
+    }
+    deque.addFirst(channel);
+    return true;
+  }
+
+  /**
+   * Removes a closed channel from the pool. This method must be called from the {@link EventLoop}
+   * of the channel.
+   */
+  void remove(Discoverable discoverable, Channel channel) {
+    Map<Discoverable, Deque<Channel>> channels = idleChannels.get(channel.eventLoop());
+    Deque<Channel> deque = channels == null ? null : channels.get(discoverable);
+    if (deque != null && deque.remove(channel) && deque.isEmpty()) {
+      channels.remove(discoverable);
+    }
+  }
+
+  /**
+   * Records that a new channel is created.
+   */
+  void channelCreated() {
+    created.incrementAndGet();
+  }
+
+  /**
+   * Returns the number of channels created.
+   */
+  public long getCreatedCount() {
+    return created.get();
+  }
+
+  /**
+   * Returns the number of times a channel was reused from the pool.
+   */
+  public long getReusedCount() {
+    return reused.get();
+  }
+
+  @Override
+  public String toString() {
+    return "UpstreamChannelPool{"
+        + "maxIdlePerEndpoint=" + maxIdlePerEndpoint
+        + ", created=" + created
+        + ", reused=" + reused
+        + '}';
+  }
+}
@@ -357,6 +357,27 @@ public abstract class NettyRouterTestBase {
     Assert.assertEquals(1, defaultServer1.getNumConnectionsClosed());
   }
 
+  @Test
+  public void testUpstreamConnectionReuse() throws Exception {
+    // Only use server1
+    defaultServer2.cancelRegistration();
+
+    URI uri = new URI(resolveURI("/v2/ping"));
+    int times = 20;
+    for (int i = 0; i < times; i++) {
+      try (Socket socket = getSocketFactory().createSocket(uri.getHost(), uri.getPort())) {
+        PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
+        Assert.assertEquals("HTTP/1.1 200 OK", makeRequest(uri, out, socket.getInputStream()));
+      }
+    }
+
+    // Client connections are served by the router worker threads in turn. Each thread should keep
+    // reusing its connection to the server.
+    Assert.assertEquals(times, defaultServer1.getNumRequests());
+    Assert.assertTrue(defaultServer1.getNumConnectionsOpened()
+                        <= CConfiguration.create().getInt(Constants.Router.SERVER_WORKER_THREADS));
+  }
+
   private String makeRequest(URI uri, PrintWriter out, InputStream inputStream) throws IOException {
     //Send request
     out.print("GET " + uri.getPath() + " HTTP/1.1\r\n"
@@ -0,0 +1,256 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.gateway.router;
+
+import com.google.common.base.Splitter;
+import io.cdap.cdap.common.conf.Constants;
+import io.cdap.cdap.common.service.ServiceDiscoverable;
+import io.cdap.cdap.proto.ProgramType;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpVersion;
+import java.util.Random;
+import java.util.stream.StreamSupport;
+import javax.annotation.Nullable;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests that {@link RouterPathLookup} routes the same way as the lookup that splits the path into
+ * an array of strings, which it replaced.
+ */
+public class RouterPathLookupEquivalenceTest {
+
+  private static final String[] SEGMENTS = {
+      "v3", "namespaces", "default", "apps", "app", "versions", "1.0", "services", "spark",
+      "workers", "workflows", "methods", "logs", "metadata", "properties", "tags", "search",
+      "datasets", "lineage", "runs", "endpoints", "security", "authorization", "store",
+      "securekeys", "data", "programs", "profiles", "previews", "system", "serviceproviders",
+      "metrics", "status", "stacks", "feeds", "bootstrap", "flows", "mapreduce", "support",
+      "bundles", "metadata-internals", "admin", "x", Constants.Service.LOGSAVER,
+      Constants.Service.TRANSACTION, Constants.Service.METRICS_PROCESSOR,
+      Constants.Service.METRICS, Constants.Service.APP_FABRIC_HTTP,
+      Constants.Service.DATASET_EXECUTOR, Constants.Service.METADATA_SERVICE,
+      Constants.Service.MESSAGING_SERVICE, Constants.Service.RUNTIME,
+      Constants.Service.SUPPORT_BUNDLE_SERVICE,
+  };
+  private static final String[] METHODS = {"GET", "PUT", "POST", "DELETE", "HEAD"};
+
+  @Test
+  public void testRandomPaths() {
+    RouterPathLookup lookup = new RouterPathLookup();
+    Random random = new Random(0);
+    for (int i = 0; i < 200000; i++) {
+      StringBuilder path = new StringBuilder();
+      int size = random.nextInt(13);
+      for (int j = 0; j < size; j++) {
+        // Mostly start with "v3" and sometimes have empty segments
+        path.append(random.nextInt(10) == 0 ? "//" : "/");
+        path.append(j == 0 && random.nextInt(10) > 0
+            ? "v3" : SEGMENTS[random.nextInt(SEGMENTS.length)]);
+      }
+      if (random.nextBoolean()) {
+        path.append('/');
+      }
+      HttpRequest request = new DefaultHttpRequest(HttpVersion.HTTP_1_1,
+          HttpMethod.valueOf(METHODS[random.nextInt(METHODS.length)]), path.toString());
+      Assert.assertEquals(path.toString(), route(path.toString(), request),
+          lookup.getRoutingService(path.toString(), request));
+    }
+  }
+
+  // The reference lookup below is RouterPathLookup as it was before matching over PathSegments
+
+  @SuppressWarnings("unused")
+  private enum AllowedMethod {
+    GET, PUT, POST, DELETE
+  }
+
+  @Nullable
+  private static RouteDestination route(String requestPath, HttpRequest httpRequest) {
+    try {
+      String method = httpRequest.method().name();
+      AllowedMethod requestMethod = AllowedMethod.valueOf(method);
+      String[] uriParts = StreamSupport
+          .stream(Splitter.on('/').omitEmptyStrings().split(requestPath).spliterator(), false)
+          .toArray(String[]::new);
+
+      if (uriParts[0].equals(Constants.Gateway.API_VERSION_3_TOKEN)) {
+        return getV3RoutingService(uriParts, requestMethod);
+      }
+    } catch (Exception e) {
+      // Ignore exception. Default routing to app-fabric.
+    }
+    return RouterPathLookup.APP_FABRIC_HTTP;
+  }
+
+  private static boolean isUserServiceType(String uriPart) {
+    for (ProgramType type : ServiceDiscoverable.getUserServiceTypes()) {
+      if (type.getCategoryName().equals(uriPart)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Nullable
+  private static RouteDestination getV3RoutingService(String[] uriParts, AllowedMethod requestMethod) {
+    if ((uriParts.length >= 2) && uriParts[1].equals("feeds")) {
+      // TODO(Rohit) find a better way to handle that - this looks hackish
+      // This needs to now changed especially metadata since now it can have custom parts
+      return null;
+    } else if ("bootstrap".equals(uriParts[1])) {
+      return RouterPathLookup.APP_FABRIC_HTTP;
+    } else if ((uriParts.length >= 11) && "versions".equals(uriParts[5]) && isUserServiceType(
+        uriParts[7])
+        && "methods".equals(uriParts[9])) {
+      // User defined services (version specific) handle methods on them:
+      //Path: "/v3/namespaces/{namespace-id}/apps/{app-id}/versions/{version-id}/services/{service-id}/methods/
+      //       <user-defined-method-path>"
+      String serviceName = ServiceDiscoverable.getName(uriParts[2], uriParts[4],
+          ProgramType.valueOfCategoryName(uriParts[7]), uriParts[8]);
+      String version = uriParts[6];
+      return new RouteDestination(serviceName, version);
+    } else if ((uriParts.length >= 9) && isUserServiceType(uriParts[5]) && "methods".equals(
+        uriParts[7])) {
+      //User defined services handle methods on them:
+      //Path: "/v3/namespaces/{namespace-id}/apps/{app-id}/services/{service-id}/methods/<user-defined-method-path>"
+      return new RouteDestination(ServiceDiscoverable.getName(uriParts[2], uriParts[4],
+          ProgramType.valueOfCategoryName(uriParts[5]),
+          uriParts[6]));
+    } else if (beginsWith(uriParts, "v3", "system", "services", null, "logs")) {
+      //Log Handler Path /v3/system/services/<service-id>/logs
+      return RouterPathLookup.LOG_QUERY;
+    } else if ((!beginsWith(uriParts, "v3", "namespaces", null, "securekeys")) && (
+        endsWith(uriParts, "metadata")
+            ||
+            // do no intercept the namespaces/<namespace-name>/securekeys/<key>/metadata as that is handled by the
+            // SecureStoreHandler
+            endsWith(uriParts, "metadata", "properties") || endsWith(uriParts, "metadata",
+            "properties", null)
+            || endsWith(uriParts, "metadata", "tags") || endsWith(uriParts, "metadata", "tags",
+            null)
+
+            || endsWith(uriParts, "metadata", "search")
+            || beginsWith(uriParts, "v3", "namespaces", null, "datasets", null, "lineage")
+            || endsWith(uriParts, "runs", null, "endpoints")
+            || beginsWith(uriParts, "v3", "metadata", "search"))) {
+      return RouterPathLookup.METADATA_SERVICE;
+    } else if (beginsWith(uriParts, "v3", "security", "authorization")
+        || beginsWith(uriParts, "v3", "namespaces", null, "securekeys")) {
+      // Authorization and Secure Store Handlers currently run in App Fabric
+      return RouterPathLookup.APP_FABRIC_HTTP;
+    } else if (beginsWith(uriParts, "v3", "security", "store", "namespaces", null)) {
+      return RouterPathLookup.APP_FABRIC_HTTP;
+    } else if (beginsWith(uriParts, "v3", "namespaces", null, "data", "datasets", null, "programs")
+
+        && requestMethod.equals(AllowedMethod.GET)) {
+      return RouterPathLookup.APP_FABRIC_HTTP;
+    } else if (beginsWith(uriParts, "v3", "namespaces", null, "profiles")
+        || beginsWith(uriParts, "v3", "profiles")) {
+      return RouterPathLookup.APP_FABRIC_HTTP;
+    } else if (beginsWith(uriParts, "v3", "namespaces", null, "runs")) {
+      return RouterPathLookup.APP_FABRIC_HTTP;
+    } else if (beginsWith(uriParts, "v3", "namespaces", null, "previews")) {
+      return RouterPathLookup.PREVIEW_HTTP;
+    } else if (beginsWith(uriParts, "v3", "system", "serviceproviders")) {
+      return RouterPathLookup.APP_FABRIC_HTTP;
+    } else if ((uriParts.length >= 8 && uriParts[7].equals("logs"))
+        || (uriParts.length >= 10 && uriParts[9].equals("logs"))
+        || (uriParts.length >= 6 && uriParts[5].equals("logs"))) {
+      //Log Handler Paths:
+      // /v3/namespaces/<namespaceid>/apps/<appid>/<programid-type>/<programid>/logs
+      // /v3/namespaces/{namespace-id}/apps/{app-id}/{program-type}/{program-id}/runs/{run-id}/logs
+      return RouterPathLookup.LOG_QUERY;
+    } else if (uriParts.length >= 2 && uriParts[1].equals("metrics")) {
+      //Metrics Search Handler Path /v3/metrics
+      return RouterPathLookup.METRICS;
+    } else if (beginsWith(uriParts, "v3", "system", "services", null, "status")
+        || beginsWith(uriParts, "v3", "system", "services", null, "stacks")) {
+      switch (uriParts[3]) {
+        case Constants.Service.LOGSAVER:
+          return RouterPathLookup.LOG_SAVER;
+        case Constants.Service.TRANSACTION:
+          return RouterPathLookup.TRANSACTION;
+        case Constants.Service.METRICS_PROCESSOR:
+          return RouterPathLookup.METRICS_PROCESSOR;
+        case Constants.Service.METRICS:
+          return RouterPathLookup.METRICS;
+        case Constants.Service.APP_FABRIC_HTTP:
+          return RouterPathLookup.APP_FABRIC_HTTP;
+        case Constants.Service.DATASET_EXECUTOR:
+          return RouterPathLookup.DATASET_EXECUTOR;
+        case Constants.Service.METADATA_SERVICE:
+          return RouterPathLookup.METADATA_SERVICE;
+        case Constants.Service.MESSAGING_SERVICE:
+          return RouterPathLookup.MESSAGING;
+        case Constants.Service.RUNTIME:
+          return RouterPathLookup.RUNTIME;
+        case Constants.Service.SUPPORT_BUNDLE_SERVICE:
+          return RouterPathLookup.SUPPORT_BUNDLE_SERVICE;
+        default:
+          return null;
+      }
+    } else if (uriParts.length == 7 && uriParts[3].equals("data") && uriParts[4].equals("datasets")
+
+        && (uriParts[6].equals("flows") || uriParts[6].equals("workers") || uriParts[6].equals(
+        "mapreduce"))) {
+      // namespaced app fabric data operations:
+      // /v3/namespaces/{namespace-id}/data/datasets/{name}/flows
+      // /v3/namespaces/{namespace-id}/data/datasets/{name}/workers
+      // /v3/namespaces/{namespace-id}/data/datasets/{name}/mapreduce
+      return RouterPathLookup.APP_FABRIC_HTTP;
+    } else if ((uriParts.length >= 4) && uriParts[3].equals("data")) {
+      // other data operations. For example:
+      // /v3/namespaces/{namespace-id}/data/datasets
+      // /v3/namespaces/{namespace-id}/data/datasets/{name}
+      // /v3/namespaces/{namespace-id}/data/datasets/{name}/properties
+      // /v3/namespaces/{namespace-id}/data/datasets/{name}/admin/{method}
+      return RouterPathLookup.DATASET_MANAGER;
+    } else if (beginsWith(uriParts, "v3", "support", "bundles")) {
+      // Support Bundle Handler Path /v3/support/bundles
+      return RouterPathLookup.SUPPORT_BUNDLE_SERVICE;
+    } else if ((uriParts.length == 3) && uriParts[1].equals("metadata-internals")) {
+      // we don't want to expose endpoints for direct metadata mutation from CDAP master
+      // /v3/metadata-internals/{mutation-type}
+      return RouterPathLookup.DONT_ROUTE;
+    }
+    return RouterPathLookup.APP_FABRIC_HTTP;
+  }
+
+  private static boolean beginsWith(String[] actual, String... expected) {
+    return matches(actual, expected, false);
+  }
+
+  private static boolean endsWith(String[] actual, String... expected) {
+    return matches(actual, expected, true);
+  }
+
+  private static boolean matches(String[] actual, String[] expected, boolean matchEnd) {
+    if (actual.length < expected.length) {
+      return false;
+    }
+    int offset = matchEnd ? actual.length - expected.length : 0;
+    for (int i = 0; i < expected.length; i++) {
+      if (expected[i] != null && !expected[i].equals(actual[offset + i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
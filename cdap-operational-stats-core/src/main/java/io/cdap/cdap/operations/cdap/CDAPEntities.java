@@ -16,26 +16,68 @@
 
 package io.cdap.cdap.operations.cdap;
 
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
 import com.google.inject.Injector;
+import io.cdap.cdap.api.app.ApplicationSpecification;
+import io.cdap.cdap.api.dataset.lib.CloseableIterator;
+import io.cdap.cdap.api.messaging.Message;
+import io.cdap.cdap.api.messaging.MessageFetcher;
 import io.cdap.cdap.app.store.ScanApplicationsRequest;
+import io.cdap.cdap.common.conf.CConfiguration;
+import io.cdap.cdap.common.conf.Constants;
 import io.cdap.cdap.common.namespace.NamespaceQueryAdmin;
 import io.cdap.cdap.data2.dataset2.DatasetFramework;
-import io.cdap.cdap.internal.app.runtime.artifact.ArtifactRepository;
+import io.cdap.cdap.data2.metadata.writer.MetadataMessage;
+import io.cdap.cdap.internal.app.ApplicationSpecificationAdapter;
+import io.cdap.cdap.internal.app.runtime.artifact.ArtifactStore;
 import io.cdap.cdap.internal.app.services.ApplicationLifecycleService;
+import io.cdap.cdap.messaging.MessagingService;
+import io.cdap.cdap.messaging.context.MultiThreadMessagingContext;
 import io.cdap.cdap.operations.OperationalStats;
 import io.cdap.cdap.proto.NamespaceMeta;
+import io.cdap.cdap.proto.codec.EntityIdTypeAdapter;
+import io.cdap.cdap.proto.id.ApplicationId;
+import io.cdap.cdap.proto.id.ApplicationReference;
+import io.cdap.cdap.proto.id.EntityId;
 import io.cdap.cdap.proto.id.NamespaceId;
+import io.cdap.cdap.proto.id.TopicId;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * {@link OperationalStats} for reporting CDAP entities.
+ *
+ * <p>The number of programs of each application is kept across collections and updated from the
+ * application creation and deletion events published to the metadata topic, so that application
+ * specifications are only scanned when reconciling the counts periodically. Artifacts are counted
+ * without reading them.</p>
  */
 public class CDAPEntities extends AbstractCDAPStats implements CDAPEntitiesMXBean {
 
+  private static final Logger LOG = LoggerFactory.getLogger(CDAPEntities.class);
+  private static final Gson GSON = ApplicationSpecificationAdapter.addTypeAdapters(
+      new GsonBuilder().registerTypeAdapter(EntityId.class, new EntityIdTypeAdapter())).create();
+  private static final int FETCH_LIMIT = 1000;
+
   private NamespaceQueryAdmin nsQueryAdmin;
   private ApplicationLifecycleService appLifecycleService;
-  private ArtifactRepository artifactRepository;
+  private ArtifactStore artifactStore;
   private DatasetFramework dsFramework;
+  private MessageFetcher messageFetcher;
+  private TopicId metadataTopic;
+  private long reconcileIntervalMillis;
+  // Number of programs of the latest version of each application
+  private final Map<ApplicationReference, Integer> appPrograms = new HashMap<>();
+  private long lastReconcileTime;
+  private long fetchStartTime;
+  private String lastMessageId;
   private int namespaces;
   private int artifacts;
   private int apps;
@@ -44,10 +86,16 @@ public class CDAPEntities extends AbstractCDAPStats implements CDAPEntitiesMXBea
 
   @Override
   public void initialize(Injector injector) {
+    CConfiguration cConf = injector.getInstance(CConfiguration.class);
     nsQueryAdmin = injector.getInstance(NamespaceQueryAdmin.class);
     appLifecycleService = injector.getInstance(ApplicationLifecycleService.class);
-    artifactRepository = injector.getInstance(ArtifactRepository.class);
+    artifactStore = injector.getInstance(ArtifactStore.class);
     dsFramework = injector.getInstance(DatasetFramework.class);
+    messageFetcher = new MultiThreadMessagingContext(
+        injector.getInstance(MessagingService.class)).getMessageFetcher();
+    metadataTopic = NamespaceId.SYSTEM.topic(cConf.get(Constants.Metadata.MESSAGING_TOPIC));
+    reconcileIntervalMillis = TimeUnit.SECONDS.toMillis(
+        cConf.getLong(Constants.OperationalStats.ENTITIES_RECONCILE_INTERVAL_SECS));
   }
 
   @Override
@@ -82,33 +130,105 @@ public class CDAPEntities extends AbstractCDAPStats implements CDAPEntitiesMXBea
 
   @Override
   public void collect() throws Exception {
-    reset();
     List<NamespaceMeta> namespaceMetas = nsQueryAdmin.list();
+    Set<NamespaceId> namespaceIds = namespaceMetas.stream()
+        .map(NamespaceMeta::getNamespaceId)
+        .collect(Collectors.toSet());
+
+    boolean reconcile = System.currentTimeMillis() - lastReconcileTime >= reconcileIntervalMillis;
+    if (!reconcile) {
+      try {
+        processAppEvents(namespaceIds);
+      } catch (Exception e) {
+        LOG.warn("Failed to process application events, reconciling entity counts", e);
+        reconcile = true;
+      }
+    }
+    if (reconcile) {
+      reconcileApps(namespaceMetas);
+    }
+    // Deleting a namespace deletes its applications, which is also covered by the events
+    appPrograms.keySet().removeIf(appRef -> !namespaceIds.contains(appRef.getNamespaceId()));
+
+    long artifactCount = artifactStore.getArtifactCount(NamespaceId.SYSTEM);
+    int datasetCount = 0;
+    for (NamespaceMeta meta : namespaceMetas) {
+      artifactCount += artifactStore.getArtifactCount(meta.getNamespaceId());
+      datasetCount += dsFramework.getInstances(meta.getNamespaceId()).size();
+    }
+
     namespaces = namespaceMetas.size();
-    artifacts += artifactRepository.getArtifactSummaries(NamespaceId.SYSTEM, false).size();
+    artifacts = (int) artifactCount;
+    apps = appPrograms.size();
+    programs = appPrograms.values().stream().mapToInt(Integer::intValue).sum();
+    datasets = datasetCount;
+  }
 
+  /**
+   * Recomputes the number of programs of each application by scanning all applications.
+   */
+  private void reconcileApps(List<NamespaceMeta> namespaceMetas) throws Exception {
+    // Events published from now on are applied on top of the scan result. Applying an event that
+    // is already reflected by the scan is harmless, since it sets the final state of an application.
+    long startTime = System.currentTimeMillis();
+    appPrograms.clear();
     for (NamespaceMeta meta : namespaceMetas) {
       // Scan the latest active versions for stats
       ScanApplicationsRequest scanApplicationsRequest =
           ScanApplicationsRequest.builder().setNamespaceId(meta.getNamespaceId()).setLatestOnly(true).build();
 
       appLifecycleService.scanApplications(scanApplicationsRequest,
-          d -> {
-            this.apps++;
-            programs += d.getPrograms().size();
-          }
+          d -> appPrograms.put(meta.getNamespaceId().appReference(d.getName()), d.getPrograms().size())
       );
+    }
+    lastReconcileTime = startTime;
+    fetchStartTime = startTime;
+    lastMessageId = null;
+  }
 
-      artifacts += artifactRepository.getArtifactSummaries(meta.getNamespaceId(), false).size();
-      datasets += dsFramework.getInstances(meta.getNamespaceId()).size();
+  /**
+   * Applies the application creation and deletion events published since the last call.
+   */
+  private void processAppEvents(Set<NamespaceId> namespaceIds) throws Exception {
+    int count = FETCH_LIMIT;
+    while (count == FETCH_LIMIT) {
+      count = 0;
+      try (CloseableIterator<Message> iterator = lastMessageId == null
+          ? messageFetcher.fetch(metadataTopic.getNamespace(), metadataTopic.getTopic(),
+          FETCH_LIMIT, fetchStartTime)
+          : messageFetcher.fetch(metadataTopic.getNamespace(), metadataTopic.getTopic(),
+              FETCH_LIMIT, lastMessageId)) {
+        while (iterator.hasNext()) {
+          Message message = iterator.next();
+          processAppEvent(message.decodePayload(r -> GSON.fromJson(r, MetadataMessage.class)),
+              namespaceIds);
+          lastMessageId = message.getId();
+          count++;
+        }
+      }
     }
   }
 
-  private void reset() {
-    namespaces = 0;
-    artifacts = 0;
-    apps = 0;
-    programs = 0;
-    datasets = 0;
+  private void processAppEvent(MetadataMessage message, Set<NamespaceId> namespaceIds) {
+    if (!(message.getEntityId() instanceof ApplicationId)) {
+      return;
+    }
+    ApplicationId appId = (ApplicationId) message.getEntityId();
+    if (!namespaceIds.contains(appId.getNamespaceId())) {
+      return;
+    }
+    switch (message.getType()) {
+      case ENTITY_CREATION:
+        ApplicationSpecification spec = message.getPayload(GSON, ApplicationSpecification.class);
+        appPrograms.put(appId.getAppReference(), spec.getMapReduce().size()
+            + spec.getSpark().size() + spec.getWorkflows().size() + spec.getServices().size()
+            + spec.getWorkers().size());
+        break;
+      case ENTITY_DELETION:
+        appPrograms.remove(appId.getAppReference());
+        break;
+      default:
+        // Other events don't change the entity counts
+    }
   }
 }
@@ -24,6 +24,7 @@ import io.cdap.cdap.common.id.Id;
 import io.cdap.cdap.common.namespace.NamespaceAdmin;
 import io.cdap.cdap.common.utils.Tasks;
 import io.cdap.cdap.internal.AppFabricTestHelper;
+import io.cdap.cdap.internal.app.services.ApplicationLifecycleService;
 import io.cdap.cdap.operations.OperationalStats;
 import io.cdap.cdap.proto.NamespaceMeta;
 import io.cdap.cdap.proto.id.NamespaceId;
@@ -85,6 +86,17 @@ public class CDAPOperationalStatsTest {
     Assert.assertEquals(1, entities.getApplications());
     Assert.assertEquals(6, entities.getPrograms());
     Assert.assertEquals(4, entities.getDatasets());
+    // application counts are updated from the application deletion and creation events
+    injector.getInstance(ApplicationLifecycleService.class)
+        .removeApplication(NAMESPACE.appReference(AllProgramsApp.NAME));
+    entities.collect();
+    Assert.assertEquals(0, entities.getApplications());
+    Assert.assertEquals(0, entities.getPrograms());
+    CConfiguration cConf = injector.getInstance(CConfiguration.class);
+    AppFabricTestHelper.deployApplication(Id.Namespace.fromEntityId(NAMESPACE), AllProgramsApp.class, null, cConf);
+    entities.collect();
+    Assert.assertEquals(1, entities.getApplications());
+    Assert.assertEquals(6, entities.getPrograms());
     final CDAPTransactions transactions = new CDAPTransactions();
     transactions.initialize(injector);
     Assert.assertEquals(AbstractCDAPStats.SERVICE_NAME, transactions.getServiceName());
@@ -92,6 +92,20 @@ public class RunRecord {
       @Nullable Long resumeTs, @Nullable Long stoppingTs, @Nullable Long terminateTs,
       ProgramRunStatus status, @Nullable Map<String, String> properties, ProgramRunCluster cluster,
       ProfileId profileId, @Nullable String peerName, @Nullable String version) {
+    this(pid, startTs, runTs, stopTs, suspendTs, resumeTs, stoppingTs, terminateTs, status,
+        properties, cluster, profileId, peerName, version, true);
+  }
+
+  /**
+   * Constructor for subclasses. If {@code copyProperties} is {@code false}, the given properties
+   * are used as is instead of being copied, in which case they must be immutable.
+   */
+  protected RunRecord(String pid, long startTs, @Nullable Long runTs, @Nullable Long stopTs,
+      @Nullable Long suspendTs,
+      @Nullable Long resumeTs, @Nullable Long stoppingTs, @Nullable Long terminateTs,
+      ProgramRunStatus status, @Nullable Map<String, String> properties, ProgramRunCluster cluster,
+      ProfileId profileId, @Nullable String peerName, @Nullable String version,
+      boolean copyProperties) {
     this.pid = pid;
     this.startTs = startTs;
     this.runTs = runTs;
@@ -101,8 +115,12 @@ public class RunRecord {
     this.stoppingTs = stoppingTs;
     this.terminateTs = terminateTs;
     this.status = status;
-    this.properties = properties == null ? Collections.emptyMap() :
-        Collections.unmodifiableMap(new LinkedHashMap<>(properties));
+    if (properties == null) {
+      this.properties = Collections.emptyMap();
+    } else {
+      this.properties = copyProperties
+          ? Collections.unmodifiableMap(new LinkedHashMap<>(properties)) : properties;
+    }
     this.cluster = cluster;
     this.profileId = profileId;
     this.peerName = peerName;
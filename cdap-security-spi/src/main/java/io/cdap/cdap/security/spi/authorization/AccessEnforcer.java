@@ -61,6 +61,24 @@ public interface AccessEnforcer {
   void enforce(EntityId entity, Principal principal, Set<? extends Permission> permissions)
       throws AccessException;
 
+  /**
+   * Enforces authorization for the specified {@link Principal} for the specified {@link Permission
+   * permissions} on all of the specified {@link EntityId entities}. Implementations that perform
+   * remote calls should override this method to check all entities in one call.
+   *
+   * @param entities the {@link EntityId entities} on which authorization is to be enforced
+   * @param principal the {@link Principal} that performs the permissions
+   * @param permissions the {@link Permission permissions} being performed
+   * @throws UnauthorizedException if the principal is not authorized to perform the specified
+   *     permissions on any of the entities
+   */
+  default void enforce(Set<? extends EntityId> entities, Principal principal,
+      Set<? extends Permission> permissions) throws AccessException {
+    for (EntityId entity : entities) {
+      enforce(entity, principal, permissions);
+    }
+  }
+
   /**
    * Enforces specific {@link Permission#isCheckedOnParent()} permission for {@link EntityType} on
    * it's parent {@link EntityId}. E.g. one can check if it's possible to {@link
@@ -45,6 +45,8 @@ public abstract class AbstractKeyManager extends AbstractIdleService implements
   private static final Logger LOG = LoggerFactory.getLogger(AbstractKeyManager.class);
 
   protected ThreadLocal<Mac> threadLocalMac;
+  // The key that the Mac of the current thread was initialized with
+  private ThreadLocal<SecretKey> threadLocalMacKey;
   protected KeyGenerator keyGenerator;
   protected volatile KeyIdentifier currentKey;
   protected final String keyAlgo;
@@ -72,6 +74,7 @@ public abstract class AbstractKeyManager extends AbstractIdleService implements
   @Override
   public final void startUp() throws NoSuchAlgorithmException, IOException {
     keyGenerator = createKeyGenerator();
+    threadLocalMacKey = new ThreadLocal<>();
     threadLocalMac = new ThreadLocal<Mac>() {
       @Override
       public Mac initialValue() {
@@ -91,11 +94,6 @@ public abstract class AbstractKeyManager extends AbstractIdleService implements
    */
   protected abstract void doInit() throws IOException;
 
-  /**
-   * Returns whether or not a key exists for the given unique ID.
-   */
-  protected abstract boolean hasKey(int id);
-
   /**
    * Returns the key instance matching a given unique ID.
    */
@@ -187,8 +185,12 @@ public abstract class AbstractKeyManager extends AbstractIdleService implements
 
   protected final byte[] generateMAC(SecretKey key, byte[] message) throws InvalidKeyException {
     Mac mac = threadLocalMac.get();
-    // TODO: should we only initialize when the key changes?
-    mac.init(key);
+    // The Mac is reset to the initialized state by doFinal, hence only initialize on key change
+    if (threadLocalMacKey.get() != key) {
+      threadLocalMacKey.remove();
+      mac.init(key);
+      threadLocalMacKey.set(key);
+    }
     return mac.doFinal(message);
   }
 }
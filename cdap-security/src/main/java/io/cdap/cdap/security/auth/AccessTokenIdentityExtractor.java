@@ -17,11 +17,8 @@
 package io.cdap.cdap.security.auth;
 
 import com.google.inject.Inject;
-import io.cdap.cdap.common.io.Codec;
 import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.handler.codec.http.HttpRequest;
-import java.io.IOException;
-import java.util.Base64;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -35,17 +32,11 @@ public class AccessTokenIdentityExtractor implements UserIdentityExtractor {
 
   private static final Logger LOG = LoggerFactory.getLogger(AccessTokenIdentityExtractor.class);
 
-  private final TokenValidator tokenValidator;
-  private final Codec<AccessToken> accessTokenCodec;
-  private final Codec<UserIdentity> userIdentityCodec;
+  private final AccessTokenValidator tokenValidator;
 
   @Inject
-  public AccessTokenIdentityExtractor(TokenValidator tokenValidator,
-      Codec<AccessToken> accessTokenCodec,
-      Codec<UserIdentity> userIdentityCodec) {
+  public AccessTokenIdentityExtractor(AccessTokenValidator tokenValidator) {
     this.tokenValidator = tokenValidator;
-    this.accessTokenCodec = accessTokenCodec;
-    this.userIdentityCodec = userIdentityCodec;
   }
 
   /**
@@ -55,11 +46,9 @@ public class AccessTokenIdentityExtractor implements UserIdentityExtractor {
    *
    * @param request The HTTP Request to extract the user identity from
    * @return the user identity backed by an access token
-   * @throws UserIdentityExtractionException on identity extraction failure
    */
   @Override
-  public UserIdentityExtractionResponse extract(HttpRequest request)
-      throws UserIdentityExtractionException {
+  public UserIdentityExtractionResponse extract(HttpRequest request) {
     String auth = request.headers().get(HttpHeaderNames.AUTHORIZATION);
     String accessToken = null;
     if (auth != null) {
@@ -77,26 +66,13 @@ public class AccessTokenIdentityExtractor implements UserIdentityExtractor {
           UserIdentityExtractionState.ERROR_MISSING_CREDENTIAL,
           "No access token found");
     }
-    TokenState state = tokenValidator.validate(accessToken);
-
-    if (!state.isValid()) {
+    try {
+      return new UserIdentityExtractionResponse(tokenValidator.getUserIdentity(accessToken));
+    } catch (InvalidTokenException e) {
+      LOG.debug("{} {}", e.getReason(), e);
       return new UserIdentityExtractionResponse(UserIdentityExtractionState.ERROR_INVALID_TOKEN,
           String.format("Failed to validate access token with reason: %s",
-              state));
-    }
-
-    byte[] decodedAccessToken = Base64.getDecoder().decode(accessToken);
-    try {
-      AccessToken accessTokenObj = accessTokenCodec.decode(decodedAccessToken);
-      UserIdentity userIdentityObj = accessTokenObj.getIdentifier();
-      byte[] encodedAccessTokenIdentifier = userIdentityCodec.encode(userIdentityObj);
-      UserIdentityPair pair = new UserIdentityPair(accessToken, userIdentityObj);
-      return new UserIdentityExtractionResponse(pair);
-    } catch (IOException e) {
-      // This shouldn't happen in normal case, since the token is already validated
-      LOG.warn("Exception raised when getting token information from a validated token", e);
-      throw new UserIdentityExtractionException("Failed to decode access token due to codec error",
-          e);
+              e.getReason()));
     }
   }
 }
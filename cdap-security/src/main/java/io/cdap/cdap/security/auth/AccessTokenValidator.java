@@ -16,27 +16,67 @@
 
 package io.cdap.cdap.security.auth;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.util.concurrent.AbstractIdleService;
 import com.google.inject.Inject;
+import io.cdap.cdap.common.conf.CConfiguration;
+import io.cdap.cdap.common.conf.Constants;
 import io.cdap.cdap.common.io.Codec;
 import java.io.IOException;
 import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * This class validates the accessToken and returns the different states of accessToken validation.
+ *
+ * <p>The identities of valid tokens are cached by the serialized token, so that a token that is
+ * sent with every request is only decoded and has its digest recomputed once. A cached token is
+ * still checked for expiration, and for the signing key being known to the {@link TokenManager},
+ * on every request. Tokens with a digest that doesn't match are cached for a short time.</p>
  */
 public class AccessTokenValidator extends AbstractIdleService implements TokenValidator {
 
   private static final Logger LOG = LoggerFactory.getLogger(AccessTokenValidator.class);
   private final TokenManager tokenManager;
   private final Codec<AccessToken> accessTokenCodec;
+  @Nullable
+  private final Cache<String, ValidToken> validTokens;
+  @Nullable
+  private final Cache<String, Boolean> invalidTokens;
 
-  @Inject
   public AccessTokenValidator(TokenManager tokenManager, Codec<AccessToken> accessTokenCodec) {
+    this(tokenManager, accessTokenCodec, 0, 0L, 0L);
+  }
+
+  @Inject
+  public AccessTokenValidator(CConfiguration cConf, TokenManager tokenManager,
+      Codec<AccessToken> accessTokenCodec) {
+    this(tokenManager, accessTokenCodec,
+        cConf.getInt(Constants.Security.TOKEN_VALIDATION_CACHE_SIZE, 0),
+        // No token is issued for longer than the extended expiration
+        Math.max(cConf.getLong(Constants.Security.TOKEN_EXPIRATION, 0L),
+            cConf.getLong(Constants.Security.EXTENDED_TOKEN_EXPIRATION, 0L)),
+        cConf.getLong(Constants.Security.TOKEN_VALIDATION_NEGATIVE_CACHE_EXPIRATION_MS, 0L));
+  }
+
+  private AccessTokenValidator(TokenManager tokenManager, Codec<AccessToken> accessTokenCodec,
+      int cacheSize, long maxTokenExpirationMs, long negativeCacheExpirationMs) {
     this.tokenManager = tokenManager;
     this.accessTokenCodec = accessTokenCodec;
+    this.validTokens = cacheSize <= 0 || maxTokenExpirationMs <= 0 ? null
+        : CacheBuilder.newBuilder()
+            .maximumSize(cacheSize)
+            .expireAfterWrite(maxTokenExpirationMs, TimeUnit.MILLISECONDS)
+            .<String, ValidToken>build();
+    this.invalidTokens = validTokens == null || negativeCacheExpirationMs <= 0 ? null
+        : CacheBuilder.newBuilder()
+            .maximumSize(cacheSize)
+            .expireAfterWrite(negativeCacheExpirationMs, TimeUnit.MILLISECONDS)
+            .<String, Boolean>build();
   }
 
   @Override
@@ -53,24 +93,81 @@ public class AccessTokenValidator extends AbstractIdleService implements TokenVa
 
   @Override
   public TokenState validate(String token) {
-    AccessToken accessToken;
-    TokenState state = TokenState.VALID;
     if (token == null) {
       LOG.debug("Token is missing");
       return TokenState.MISSING;
     }
-    byte[] decodedToken = Base64.getDecoder().decode(token);
 
     try {
-      accessToken = accessTokenCodec.decode(decodedToken);
-      tokenManager.validateSecret(accessToken);
+      getUserIdentity(token);
+      return TokenState.VALID;
+    } catch (InvalidTokenException ite) {
+      LOG.debug("{} {}", ite.getReason(), ite);
+      return ite.getReason();
+    }
+  }
+
+  /**
+   * Validates the given access token and returns the {@link UserIdentityPair} of it.
+   *
+   * @param token the base64-serialized {@link AccessToken}
+   * @return the {@link UserIdentityPair} of the token
+   * @throws InvalidTokenException if the token is not valid
+   */
+  public UserIdentityPair getUserIdentity(String token) throws InvalidTokenException {
+    if (validTokens != null) {
+      ValidToken validToken = validTokens.getIfPresent(token);
+      if (validToken != null) {
+        UserIdentityPair identity = validToken.identity;
+        if (identity.getUserIdentity().getExpireTimestamp() < System.currentTimeMillis()) {
+          validTokens.invalidate(token);
+          throw new InvalidTokenException(TokenState.EXPIRED, "Token is expired.");
+        }
+        if (tokenManager.hasKey(validToken.keyId)) {
+          return identity;
+        }
+        // The signing key was retired, hence the token is validated again
+        validTokens.invalidate(token);
+      }
+      if (invalidTokens != null && invalidTokens.getIfPresent(token) != null) {
+        throw new InvalidTokenException(TokenState.INVALID, "Token signature is not valid!");
+      }
+    }
+
+    AccessToken accessToken;
+    try {
+      accessToken = accessTokenCodec.decode(Base64.getDecoder().decode(token));
     } catch (IOException ioe) {
-      state = TokenState.INVALID;
-      LOG.debug("Unknown Schema version for Access Token. {}", ioe);
+      throw new InvalidTokenException(TokenState.INVALID,
+          "Unknown Schema version for Access Token.", ioe);
+    }
+    try {
+      tokenManager.validateSecret(accessToken);
     } catch (InvalidTokenException ite) {
-      state = ite.getReason();
-      LOG.debug("{} {}", state, ite);
+      if (invalidTokens != null && ite.getReason() == TokenState.INVALID) {
+        invalidTokens.put(token, Boolean.TRUE);
+      }
+      throw ite;
+    }
+
+    UserIdentityPair identity = new UserIdentityPair(token, accessToken.getIdentifier());
+    if (validTokens != null) {
+      validTokens.put(token, new ValidToken(identity, accessToken.getKeyId()));
+    }
+    return identity;
+  }
+
+  /**
+   * The identity of a valid token, with the id of the key that signed it.
+   */
+  private static final class ValidToken {
+
+    private final UserIdentityPair identity;
+    private final int keyId;
+
+    private ValidToken(UserIdentityPair identity, int keyId) {
+      this.identity = identity;
+      this.keyId = keyId;
     }
-    return state;
   }
 }
@@ -127,7 +127,7 @@ public class DistributedKeyManager extends AbstractKeyManager implements
   }
 
   @Override
-  protected boolean hasKey(int id) {
+  public boolean hasKey(int id) {
     return keyCache.getIfPresent(Integer.toString(id)) != null;
   }
 
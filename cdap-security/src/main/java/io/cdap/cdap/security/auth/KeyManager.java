@@ -69,4 +69,9 @@ public interface KeyManager extends Service {
   <T> void validateMAC(Codec<T> codec, Signed<T> signedMessage)
       throws InvalidDigestException, InvalidKeyException;
 
+  /**
+   * Returns whether or not a key exists for the given unique ID.
+   */
+  boolean hasKey(int id);
+
 }
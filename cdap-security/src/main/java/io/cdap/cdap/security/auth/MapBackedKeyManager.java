@@ -33,7 +33,7 @@ public abstract class MapBackedKeyManager extends AbstractKeyManager {
   }
 
   @Override
-  protected boolean hasKey(int id) {
+  public boolean hasKey(int id) {
     return allKeys.containsKey(id);
   }
 
@@ -93,4 +93,11 @@ public class TokenManager extends AbstractIdleService {
       throw new InvalidTokenException(TokenState.INTERNAL, "Invalid key for token.", ike);
     }
   }
+
+  /**
+   * Returns whether the key with the given id, which signed a token, is still known.
+   */
+  public boolean hasKey(int keyId) {
+    return keyManager.hasKey(keyId);
+  }
 }
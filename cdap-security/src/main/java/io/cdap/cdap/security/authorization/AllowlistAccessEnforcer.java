@@ -65,6 +65,17 @@ public class AllowlistAccessEnforcer extends AbstractAccessEnforcer {
     delegate.enforce(entity, principal, permissions);
   }
 
+  @Override
+  public void enforce(Set<? extends EntityId> entities, Principal principal,
+      Set<? extends Permission> permissions) throws AccessException {
+    if (principal != null && allowlistUsers.contains(principal.getName())) {
+      // skip authorization enforcement when user is yarn.
+      LOG.debug("Skipping authorization enforcement for user '{}'", principal.getName());
+      return;
+    }
+    delegate.enforce(entities, principal, permissions);
+  }
+
   @Override
   public void enforceOnParent(EntityType entityType, EntityId parentId, Principal principal,
       Permission permission) throws AccessException {
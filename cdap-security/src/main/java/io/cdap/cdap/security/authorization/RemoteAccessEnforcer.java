@@ -23,10 +23,13 @@ import com.google.common.base.Predicate;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
@@ -53,14 +56,21 @@ import io.cdap.common.http.HttpResponse;
 import java.io.IOException;
 import java.lang.reflect.Type;
 import java.net.HttpURLConnection;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
+import org.apache.twill.common.Threads;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -78,6 +88,10 @@ public class RemoteAccessEnforcer extends AbstractAccessEnforcer {
       .create();
   private static final Type SET_ENTITY_TYPE = new TypeToken<Set<EntityId>>() {
   }.getType();
+  private static final Type LIST_BOOLEAN_TYPE = new TypeToken<List<Boolean>>() {
+  }.getType();
+  // Number of threads for refreshing cache entries ahead of their expiration
+  private static final int REFRESH_THREADS = 2;
 
   private static final Function<VisibilityKey, EntityId> VISIBILITY_KEY_ENTITY_ID_FUNCTION =
       new Function<VisibilityKey, EntityId>() {
@@ -97,6 +111,8 @@ public class RemoteAccessEnforcer extends AbstractAccessEnforcer {
 
   private final RemoteClient remoteClient;
   private final boolean cacheEnabled;
+  @Nullable
+  private final Executor refreshExecutor;
 
   private class EnforcementResponse {
 
@@ -140,11 +156,25 @@ public class RemoteAccessEnforcer extends AbstractAccessEnforcer {
     int cacheMaxEntries = cConf.getInt(Constants.Security.Authorization.CACHE_MAX_ENTRIES);
     // Cache can be disabled by setting the number of entries to <= 0
     this.cacheEnabled = cacheMaxEntries > 0;
+    // Entries that are used after the refresh time are reloaded asynchronously, while the current
+    // value is still being served, so that hot entries never block on a remote call.
+    int cacheRefreshSecs = cConf.getInt(Constants.Security.Authorization.CACHE_REFRESH_SECS, 0);
+    this.refreshExecutor = cacheEnabled && cacheRefreshSecs > 0 && cacheRefreshSecs < cacheTTLSecs
+        ? createRefreshExecutor() : null;
 
     int perCacheSize = cacheMaxEntries / 3 + 1;
-    authPolicyCache = CacheBuilder.newBuilder()
+    CacheBuilder<Object, Object> authPolicyCacheBuilder = CacheBuilder.newBuilder()
         .expireAfterWrite(cacheTTLSecs, TimeUnit.SECONDS)
-        .maximumSize(perCacheSize)
+        .maximumSize(perCacheSize);
+    CacheBuilder<Object, Object> visibilityCacheBuilder = CacheBuilder.newBuilder()
+        .expireAfterAccess(cacheTTLSecs, TimeUnit.SECONDS)
+        .maximumSize(perCacheSize);
+    if (refreshExecutor != null) {
+      authPolicyCacheBuilder.refreshAfterWrite(cacheRefreshSecs, TimeUnit.SECONDS);
+      visibilityCacheBuilder.refreshAfterWrite(cacheRefreshSecs, TimeUnit.SECONDS);
+    }
+
+    authPolicyCache = authPolicyCacheBuilder
         .build(new CacheLoader<AuthorizationPrivilege, EnforcementResponse>() {
           @Override
           @ParametersAreNonnullByDefault
@@ -153,17 +183,43 @@ public class RemoteAccessEnforcer extends AbstractAccessEnforcer {
             LOG.trace("Cache miss for {}", authorizationPrivilege);
             return doEnforce(authorizationPrivilege);
           }
+
+          @Override
+          public Map<AuthorizationPrivilege, EnforcementResponse> loadAll(
+              Iterable<? extends AuthorizationPrivilege> authorizationPrivileges) throws Exception {
+            LOG.trace("Cache miss for {}", authorizationPrivileges);
+            return doEnforce(ImmutableList.copyOf(authorizationPrivileges));
+          }
+
+          @Override
+          public ListenableFuture<EnforcementResponse> reload(
+              final AuthorizationPrivilege authorizationPrivilege, EnforcementResponse oldValue)
+              throws Exception {
+            if (refreshExecutor == null) {
+              return super.reload(authorizationPrivilege, oldValue);
+            }
+            LOG.trace("Refreshing {}", authorizationPrivilege);
+            return reloadAsync(() -> doEnforce(authorizationPrivilege));
+          }
         });
 
-    visibilityCache = CacheBuilder.newBuilder()
-        .expireAfterAccess(cacheTTLSecs, TimeUnit.SECONDS)
-        .maximumSize(perCacheSize)
+    visibilityCache = visibilityCacheBuilder
         .build(new CacheLoader<VisibilityKey, Boolean>() {
           @Override
           @ParametersAreNonnullByDefault
           public Boolean load(VisibilityKey key) throws Exception {
             LOG.trace("Cache miss for {}", key);
-            return !loadVisibility(Collections.singleton(key)).isEmpty();
+            return loadVisibility(Collections.singleton(key)).get(key);
+          }
+
+          @Override
+          public ListenableFuture<Boolean> reload(final VisibilityKey key, Boolean oldValue)
+              throws Exception {
+            if (refreshExecutor == null) {
+              return super.reload(key, oldValue);
+            }
+            LOG.trace("Refreshing {}", key);
+            return reloadAsync(() -> loadVisibility(Collections.singleton(key)).get(key));
           }
 
           @Override
@@ -195,6 +251,31 @@ public class RemoteAccessEnforcer extends AbstractAccessEnforcer {
     }
   }
 
+  @Override
+  public void enforce(Set<? extends EntityId> entities, Principal principal,
+      Set<? extends Permission> permissions) throws AccessException {
+    if (!isSecurityAuthorizationEnabled() || entities.isEmpty()) {
+      return;
+    }
+    List<AuthorizationPrivilege> authorizationPrivileges = new ArrayList<>(entities.size());
+    for (EntityId entity : entities) {
+      authorizationPrivileges.add(new AuthorizationPrivilege(principal, entity, permissions, null));
+    }
+
+    try {
+      Map<AuthorizationPrivilege, EnforcementResponse> responses = cacheEnabled
+          ? authPolicyCache.getAll(authorizationPrivileges) : doEnforce(authorizationPrivileges);
+      for (AuthorizationPrivilege authorizationPrivilege : authorizationPrivileges) {
+        EnforcementResponse res = responses.get(authorizationPrivilege);
+        if (!res.isSuccess()) {
+          throw res.getException();
+        }
+      }
+    } catch (Exception e) {
+      throw AuthEnforceUtil.propagateAccessException(e);
+    }
+  }
+
   @Override
   public void enforceOnParent(EntityType entityType, EntityId parentId, Principal principal,
       Permission permission)
@@ -265,6 +346,61 @@ public class RemoteAccessEnforcer extends AbstractAccessEnforcer {
     }
   }
 
+  /**
+   * Enforces a list of {@link AuthorizationPrivilege} with one remote call.
+   */
+  private Map<AuthorizationPrivilege, EnforcementResponse> doEnforce(
+      List<AuthorizationPrivilege> authorizationPrivileges) throws IOException {
+    Map<AuthorizationPrivilege, EnforcementResponse> responses = new HashMap<>();
+    if (authorizationPrivileges.isEmpty()) {
+      return responses;
+    }
+    HttpRequest request = remoteClient.requestBuilder(HttpMethod.POST, "enforceAll")
+        .withBody(GSON.toJson(authorizationPrivileges))
+        .build();
+    LOG.trace("Remotely enforcing on authorization privileges {}", authorizationPrivileges);
+    HttpResponse response = remoteClient.execute(request);
+    if (response.getResponseCode() == HttpURLConnection.HTTP_NOT_FOUND) {
+      // The remote side doesn't support enforcing in batch, enforce one by one
+      for (AuthorizationPrivilege authorizationPrivilege : authorizationPrivileges) {
+        responses.put(authorizationPrivilege, doEnforce(authorizationPrivilege));
+      }
+      return responses;
+    }
+    if (response.getResponseCode() != HttpURLConnection.HTTP_OK) {
+      throw new IOException(String.format("Failed to enforce with code %d: %s",
+          response.getResponseCode(), response.getResponseBodyAsString()));
+    }
+    List<Boolean> results = GSON.fromJson(response.getResponseBodyAsString(), LIST_BOOLEAN_TYPE);
+    if (results == null || results.size() != authorizationPrivileges.size()) {
+      throw new IOException(String.format("Expected %d enforcement results but got %s",
+          authorizationPrivileges.size(), results));
+    }
+    for (int i = 0; i < results.size(); i++) {
+      AuthorizationPrivilege privilege = authorizationPrivileges.get(i);
+      responses.put(privilege, results.get(i)
+          ? new EnforcementResponse(true, null)
+          : new EnforcementResponse(false,
+              new UnauthorizedException(privilege.getPrincipal(), privilege.getPermissions(),
+                  privilege.getEntity(), privilege.getChildEntityType())));
+    }
+    return responses;
+  }
+
+  private <V> ListenableFuture<V> reloadAsync(Callable<V> loader) {
+    ListenableFutureTask<V> task = ListenableFutureTask.create(loader);
+    refreshExecutor.execute(task);
+    return task;
+  }
+
+  private static Executor createRefreshExecutor() {
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(REFRESH_THREADS, REFRESH_THREADS,
+        60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+        Threads.createDaemonThreadFactory("access-enforcer-cache-refresh-%d"));
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
   private Set<? extends EntityId> visibilityCheckCall(VisibilityRequest visibilityRequest)
       throws IOException, UnauthorizedException {
     HttpRequest request = remoteClient.requestBuilder(HttpMethod.POST, "isVisible")
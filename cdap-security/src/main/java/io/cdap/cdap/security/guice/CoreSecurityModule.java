@@ -52,9 +52,12 @@ public abstract class CoreSecurityModule extends PrivateModule {
 
     bindKeyManager(binder());
     bind(TokenManager.class).in(Scopes.SINGLETON);
+    // The validator is shared, so that there is one cache of validated tokens
+    bind(AccessTokenValidator.class).in(Scopes.SINGLETON);
     bind(TokenValidator.class).to(AccessTokenValidator.class);
 
     expose(TokenValidator.class);
+    expose(AccessTokenValidator.class);
     expose(TokenManager.class);
     expose(new TypeLiteral<Codec<AccessToken>>() {
     });
@@ -17,14 +17,19 @@
 package io.cdap.cdap.security.auth;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.fail;
 
 import com.google.common.collect.Lists;
 import io.cdap.cdap.api.common.Bytes;
+import io.cdap.cdap.common.conf.CConfiguration;
 import io.cdap.cdap.common.io.Codec;
 import io.cdap.cdap.common.utils.ImmutablePair;
+import java.io.IOException;
+import java.util.Base64;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.TimeUnit;
 import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -94,6 +99,58 @@ public abstract class TestTokenManager {
     tokenManager.stopAndWait();
   }
 
+  @Test
+  public void testCachedTokenValidation() throws Exception {
+    ImmutablePair<TokenManager, Codec<AccessToken>> pair = getTokenManagerAndCodec();
+    TokenManager tokenManager = pair.getFirst();
+    Codec<AccessToken> tokenCodec = pair.getSecond();
+    AccessTokenValidator validator = new AccessTokenValidator(CConfiguration.create(), tokenManager, tokenCodec);
+    validator.startAndWait();
+
+    long now = System.currentTimeMillis();
+    List<String> groups = Lists.newArrayList("users");
+    UserIdentity ident = new UserIdentity("testuser", UserIdentity.IdentifierType.EXTERNAL, groups,
+                                          now, now + 2000);
+    AccessToken token = tokenManager.signIdentifier(ident);
+    String encodedToken = encode(tokenCodec, token);
+    // validate multiple times, the later ones are served from the cache
+    UserIdentityPair identity = validator.getUserIdentity(encodedToken);
+    assertEquals(encodedToken, identity.getUserCredential());
+    assertEquals(ident, identity.getUserIdentity());
+    assertEquals(TokenState.VALID, validator.validate(encodedToken));
+    assertSame(identity, validator.getUserIdentity(encodedToken));
+
+    // the same identity with another digest must always be rejected
+    byte[] invalidDigest = token.getDigestBytes().clone();
+    invalidDigest[0]++;
+    String invalidToken = encode(tokenCodec, new AccessToken(ident, token.getKeyId(), invalidDigest));
+    for (int i = 0; i < 2; i++) {
+      assertEquals(TokenState.INVALID, validator.validate(invalidToken));
+    }
+    assertEquals(TokenState.VALID, validator.validate(encodedToken));
+
+    // a copy of the token with another identifier type must not be served from the cache of the original token
+    UserIdentity otherTypeIdent = new UserIdentity("testuser", UserIdentity.IdentifierType.INTERNAL, groups,
+                                                   now, now + 2000);
+    String otherTypeToken = encode(tokenCodec, new AccessToken(otherTypeIdent, token.getKeyId(),
+                                                               token.getDigestBytes()));
+    assertEquals(TokenState.INVALID, validator.validate(otherTypeToken));
+
+    // a cached token must still expire
+    while (System.currentTimeMillis() <= ident.getExpireTimestamp()) {
+      TimeUnit.MILLISECONDS.sleep(100);
+    }
+    assertEquals(TokenState.EXPIRED, validator.validate(encodedToken));
+    try {
+      validator.getUserIdentity(encodedToken);
+      fail("Token should have been expired but passed validation");
+    } catch (InvalidTokenException expected) {
+      assertEquals(TokenState.EXPIRED, expected.getReason());
+    }
+
+    validator.stopAndWait();
+  }
+
   @Test
   public void testTokenSerialization() throws Exception {
     ImmutablePair<TokenManager, Codec<AccessToken>> pair = getTokenManagerAndCodec();
@@ -118,4 +175,8 @@ public abstract class TestTokenManager {
 
     tokenManager.stopAndWait();
   }
+
+  private String encode(Codec<AccessToken> tokenCodec, AccessToken token) throws IOException {
+    return Base64.getEncoder().encodeToString(tokenCodec.encode(token));
+  }
 }
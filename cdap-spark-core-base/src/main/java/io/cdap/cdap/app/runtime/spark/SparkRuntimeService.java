@@ -50,6 +50,7 @@ import io.cdap.cdap.common.http.CommonNettyHttpServiceFactory;
 import io.cdap.cdap.common.io.Locations;
 import io.cdap.cdap.common.lang.ClassLoaders;
 import io.cdap.cdap.common.lang.PropertyFieldSetter;
+import io.cdap.cdap.common.lang.RewrittenClassCache;
 import io.cdap.cdap.common.lang.jar.BundleJarUtil;
 import io.cdap.cdap.common.logging.LoggingContextAccessor;
 import io.cdap.cdap.common.utils.DirUtils;
@@ -647,6 +648,17 @@ final class SparkRuntimeService extends AbstractExecutionThreadService {
     prependConfig(configs, "spark.driver.extraJavaOptions", sparkCheckpointTempRewrite, " ");
     prependConfig(configs, "spark.executor.extraJavaOptions", sparkCheckpointTempRewrite, " ");
 
+    String classRewriteCacheDir = cConf.get(SparkRuntimeUtils.SPARK_CLASS_REWRITE_CACHE_DIR);
+    if (!Strings.isNullOrEmpty(classRewriteCacheDir)) {
+      String classRewriteCache = String.format("-D%s=%s -D%s=%d", RewrittenClassCache.CACHE_DIR_PROPERTY,
+                                               classRewriteCacheDir,
+                                               RewrittenClassCache.CACHE_MAX_SIZE_MB_PROPERTY,
+                                               cConf.getLong(SparkRuntimeUtils.SPARK_CLASS_REWRITE_CACHE_MAX_SIZE_MB,
+                                                             512L));
+      prependConfig(configs, "spark.driver.extraJavaOptions", classRewriteCache, " ");
+      prependConfig(configs, "spark.executor.extraJavaOptions", classRewriteCache, " ");
+    }
+
     // Prepend the extra java opts
     if (!Strings.isNullOrEmpty(jvmOpts)) {
       prependConfig(configs, "spark.driver.extraJavaOptions", jvmOpts, " ");
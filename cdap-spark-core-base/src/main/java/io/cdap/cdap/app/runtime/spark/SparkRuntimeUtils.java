@@ -85,6 +85,11 @@ public final class SparkRuntimeUtils {
   // Configuration option used to control rewriting behavior in the cdap-site.xml file.
   public static final String SPARK_STREAMING_CHECKPOINT_REWRITE_ENABLED =
       "spark." + STREAMING_CHECKPOINT_REWRITE_ENABLED;
+  // Configuration option in the cdap-site.xml file for the directory to cache rewritten classes in Drivers and
+  // Executors.
+  public static final String SPARK_CLASS_REWRITE_CACHE_DIR = "spark.class.rewrite.cache.dir";
+  // Configuration option in the cdap-site.xml file for the maximum size of the rewritten classes cache directory.
+  public static final String SPARK_CLASS_REWRITE_CACHE_MAX_SIZE_MB = "spark.class.rewrite.cache.max.size.mb";
 
   private static final String LOCALIZED_RESOURCES = "spark.cdap.localized.resources";
   private static final int CHUNK_SIZE = 1 << 15;  // 32K
@@ -31,6 +31,7 @@ import javax.annotation.Nullable;
 public class SparkContainerClassLoader extends MainClassLoader {
 
   private final SparkClassRewriter sparkClassRewriter;
+  private final boolean rewriteCheckpointTempFileName;
 
   /**
    * Creates a new instance for the following set of {@link URL}.
@@ -42,6 +43,13 @@ public class SparkContainerClassLoader extends MainClassLoader {
     super(urls, parent);
     this.sparkClassRewriter = new SparkClassRewriter(name -> ClassLoaders.openResource(this, name), false,
                                                      rewriteCheckpointTempFileName);
+    this.rewriteCheckpointTempFileName = rewriteCheckpointTempFileName;
+  }
+
+  @Override
+  protected String getRewriterKey() {
+    // Includes the configurations that affects the SparkClassRewriter
+    return super.getRewriterKey() + ":" + rewriteCheckpointTempFileName + ":" + System.getenv("SPARK_YARN_MODE");
   }
 
   @Override
@@ -19,11 +19,16 @@ package io.cdap.cdap.support;
 import io.cdap.cdap.proto.ProgramType;
 import io.cdap.cdap.proto.id.NamespaceId;
 import io.cdap.cdap.support.job.SupportBundleJob;
+import io.cdap.cdap.support.lib.ByteLimitedSupportBundleOutput;
+import io.cdap.cdap.support.lib.LocalSupportBundleOutput;
+import io.cdap.cdap.support.lib.SupportBundleOutput;
 import io.cdap.cdap.support.status.SupportBundleConfiguration;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import javax.annotation.Nullable;
 
 /**
  * Support bundle state for handling all assisted parameters inside the task factories.
@@ -43,9 +48,28 @@ public class SupportBundleTaskConfiguration {
    */
   private final String run;
   /**
-   * support bundle base path
+   * support bundle base path, or null if the bundle is not stored locally
    */
+  @Nullable
   private final File basePath;
+  /**
+   * support bundle output that tasks write into
+   */
+  private final SupportBundleOutput output;
+  /**
+   * max num of bytes each task can write, non-positive for no limit
+   */
+  private final long maxBytesPerTask;
+  /**
+   * start time in seconds of the logs to collect
+   */
+  @Nullable
+  private final Long startTime;
+  /**
+   * end time in seconds of the logs to collect
+   */
+  @Nullable
+  private final Long endTime;
   /**
    * pipeline program name
    */
@@ -71,13 +95,25 @@ public class SupportBundleTaskConfiguration {
       String uuid,
       File basePath, List<NamespaceId> namespaces,
       SupportBundleJob supportBundleJob) {
+    this(supportBundleConfiguration, uuid, basePath, new LocalSupportBundleOutput(basePath),
+        Optional.ofNullable(supportBundleConfiguration.getMaxBytesPerTask()).orElse(0L),
+        namespaces, supportBundleJob);
+  }
+
+  public SupportBundleTaskConfiguration(SupportBundleConfiguration supportBundleConfiguration,
+      String uuid, @Nullable File basePath, SupportBundleOutput output, long maxBytesPerTask,
+      List<NamespaceId> namespaces, SupportBundleJob supportBundleJob) {
     this.app = supportBundleConfiguration.getApp();
     this.run = supportBundleConfiguration.getRun();
     this.programType = supportBundleConfiguration.getProgramType();
     this.programName = supportBundleConfiguration.getProgramName();
     this.maxRunsPerProgram = supportBundleConfiguration.getMaxRunsPerProgram();
+    this.startTime = supportBundleConfiguration.getStartTime();
+    this.endTime = supportBundleConfiguration.getEndTime();
     this.uuid = uuid;
     this.basePath = basePath;
+    this.output = output;
+    this.maxBytesPerTask = maxBytesPerTask;
     this.namespaces = Collections.unmodifiableList(new ArrayList<>(namespaces));
     this.supportBundleJob = supportBundleJob;
   }
@@ -104,12 +140,59 @@ public class SupportBundleTaskConfiguration {
   }
 
   /**
-   * Get support bundle base path
+   * Get support bundle base path, or {@code null} if the bundle is not stored locally
    */
+  @Nullable
   public File getBasePath() {
     return basePath;
   }
 
+  /**
+   * Get support bundle output shared by all the tasks
+   */
+  public SupportBundleOutput getOutput() {
+    return output;
+  }
+
+  /**
+   * Get max num of bytes each task can write, non-positive for no limit
+   */
+  public long getMaxBytesPerTask() {
+    return maxBytesPerTask;
+  }
+
+  /**
+   * Creates a new support bundle output for a task, which is limited by the max bytes per task
+   */
+  public SupportBundleOutput createTaskOutput() {
+    return createTaskOutput(output, maxBytesPerTask);
+  }
+
+  /**
+   * Creates a support bundle output for a task, which is limited by the given max bytes
+   */
+  public static SupportBundleOutput createTaskOutput(SupportBundleOutput output,
+      long maxBytesPerTask) {
+    return maxBytesPerTask > 0 ? new ByteLimitedSupportBundleOutput(output, maxBytesPerTask)
+        : output;
+  }
+
+  /**
+   * Get start time in seconds of the logs to collect
+   */
+  @Nullable
+  public Long getStartTime() {
+    return startTime;
+  }
+
+  /**
+   * Get end time in seconds of the logs to collect
+   */
+  @Nullable
+  public Long getEndTime() {
+    return endTime;
+  }
+
   /**
    * Get support bundle program type
    */
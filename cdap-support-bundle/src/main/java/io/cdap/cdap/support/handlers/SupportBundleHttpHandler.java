@@ -20,6 +20,7 @@ import com.google.gson.Gson;
 import com.google.inject.Inject;
 import io.cdap.cdap.common.BadRequestException;
 import io.cdap.cdap.common.NotFoundException;
+import io.cdap.cdap.common.TooManyRequestsException;
 import io.cdap.cdap.common.conf.CConfiguration;
 import io.cdap.cdap.common.conf.Constants;
 import io.cdap.cdap.common.utils.DirUtils;
@@ -34,15 +35,19 @@ import io.cdap.cdap.support.lib.SupportBundleRequestFileList;
 import io.cdap.cdap.support.services.SupportBundleGenerator;
 import io.cdap.cdap.support.status.SupportBundleConfiguration;
 import io.cdap.http.AbstractHttpHandler;
+import io.cdap.http.ChunkResponder;
 import io.cdap.http.HandlerContext;
 import io.cdap.http.HttpResponder;
+import io.netty.buffer.Unpooled;
 import io.netty.handler.codec.http.DefaultHttpHeaders;
 import io.netty.handler.codec.http.FullHttpRequest;
 import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
 import io.netty.handler.codec.http.HttpRequest;
 import io.netty.handler.codec.http.HttpResponseStatus;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.security.NoSuchAlgorithmException;
@@ -139,6 +144,59 @@ public class SupportBundleHttpHandler extends AbstractHttpHandler {
     }
   }
 
+  /**
+   * Generates a support bundle and streams it as a ZIP archive while it is being collected. The
+   * bundle is not stored locally, hence it is not listed with the other bundles.
+   *
+   * @param namespace the namespace id
+   * @param application the app id
+   * @param programType the program type
+   * @param programName the program name
+   * @param run the runid of the workflow uuid of this support bundle
+   * @param maxRunsPerProgram the max num of run log for each pipeline do they prefer
+   * @param startTime the start time in seconds of the logs to collect
+   * @param endTime the end time in seconds of the logs to collect
+   * @param maxBytesPerTask the max num of bytes each task can write into the bundle
+   */
+  @GET
+  @Path("/support/bundles/stream")
+  public void streamSupportBundle(HttpRequest request, HttpResponder responder,
+      @Nullable @QueryParam("namespace") String namespace,
+      @Nullable @QueryParam("application") String application,
+      @Nullable @QueryParam("programType") @DefaultValue("workflows") String programType,
+      @Nullable @QueryParam("programId") @DefaultValue("DataPipelineWorkflow")
+          String programName, @Nullable @QueryParam("run") String run,
+      @Nullable @QueryParam("maxRunsPerProgram") @DefaultValue("1")
+          Integer maxRunsPerProgram,
+      @Nullable @QueryParam("startTime") Long startTime,
+      @Nullable @QueryParam("endTime") Long endTime,
+      @Nullable @QueryParam("maxBytesPerTask") Long maxBytesPerTask) throws Exception {
+    // ensure the user is authorized to create supportBundle
+    contextAccessEnforcer.enforceOnParent(EntityType.SUPPORT_BUNDLE, InstanceId.SELF,
+        StandardPermission.CREATE);
+    if (startTime != null && endTime != null && startTime > endTime) {
+      throw new BadRequestException(
+          String.format("The startTime %d is after the endTime %d", startTime, endTime));
+    }
+    SupportBundleConfiguration bundleConfig =
+        new SupportBundleConfiguration(namespace, application, run,
+            ProgramType.valueOfCategoryName(programType),
+            programName, Optional.ofNullable(maxRunsPerProgram).orElse(1),
+            startTime, endTime, maxBytesPerTask);
+    // Only one bundle is collected at a time, the same as generating bundles locally
+    String prevInProgressUUID = bundleGenerator.getInProgressBundle();
+    if (prevInProgressUUID != null) {
+      throw new TooManyRequestsException(
+          String.format("The prev bundle id: %s is still running.", prevInProgressUUID));
+    }
+    HttpHeaders headers = new DefaultHttpHeaders()
+        .add(HttpHeaderNames.CONTENT_TYPE, APPLICATION_ZIP)
+        .add(HttpHeaderNames.CONTENT_DISPOSITION,
+            String.format(CONTENT_DISPOSITION_VALUE, System.currentTimeMillis()));
+    bundleGenerator.generate(bundleConfig, executorService,
+        new ChunkResponderOutputStream(responder, headers));
+  }
+
   /**
    * Get the list of bundle status from status.json.
    *
@@ -232,4 +290,74 @@ public class SupportBundleHttpHandler extends AbstractHttpHandler {
       Files.deleteIfExists(tmpPath);
     }
   }
+
+  /**
+   * An {@link OutputStream} that sends the content as chunks of the response. The response is
+   * only started when the first chunk is sent, so that failures before any content is written can
+   * still be responded with an error status.
+   */
+  private static final class ChunkResponderOutputStream extends OutputStream {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final HttpResponder responder;
+    private final HttpHeaders headers;
+    private final byte[] buffer;
+    private int count;
+    private ChunkResponder chunkResponder;
+    private boolean closed;
+
+    ChunkResponderOutputStream(HttpResponder responder, HttpHeaders headers) {
+      this.responder = responder;
+      this.headers = headers;
+      this.buffer = new byte[CHUNK_SIZE];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      if (count == buffer.length) {
+        sendChunk();
+      }
+      buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      while (len > 0) {
+        if (count == buffer.length) {
+          sendChunk();
+        }
+        int size = Math.min(len, buffer.length - count);
+        System.arraycopy(b, off, buffer, count, size);
+        count += size;
+        off += size;
+        len -= size;
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      try {
+        sendChunk();
+      } finally {
+        if (chunkResponder != null) {
+          chunkResponder.close();
+        }
+      }
+    }
+
+    private void sendChunk() throws IOException {
+      if (chunkResponder == null) {
+        chunkResponder = responder.sendChunkStart(HttpResponseStatus.OK, headers);
+      }
+      if (count > 0) {
+        chunkResponder.sendChunk(Unpooled.copiedBuffer(buffer, 0, count));
+        count = 0;
+      }
+    }
+  }
 }
@@ -16,12 +16,14 @@
 
 package io.cdap.cdap.support.job;
 
+import com.google.common.base.Throwables;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import io.cdap.cdap.common.conf.CConfiguration;
 import io.cdap.cdap.common.conf.Constants;
 import io.cdap.cdap.support.SupportBundleTaskConfiguration;
 import io.cdap.cdap.support.lib.SupportBundleFileNames;
+import io.cdap.cdap.support.lib.SupportBundleOutputLimitException;
 import io.cdap.cdap.support.status.CollectionState;
 import io.cdap.cdap.support.status.SupportBundleStatus;
 import io.cdap.cdap.support.status.SupportBundleTaskStatus;
@@ -32,6 +34,7 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
@@ -41,6 +44,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -77,16 +81,17 @@ public class SupportBundleJob {
    */
   public void generateBundle(SupportBundleTaskConfiguration bundleTaskConfig) {
     try {
-      File basePath = bundleTaskConfig.getBasePath();
+      String basePath = Optional.ofNullable(bundleTaskConfig.getBasePath()).map(File::getPath)
+          .orElse(null);
       supportBundleTasks.addAll(supportBundleTaskFactories.stream()
           .map(factory -> factory.create(bundleTaskConfig))
           .collect(Collectors.toList()));
       for (SupportBundleTask supportBundleTask : supportBundleTasks) {
         String className = supportBundleTask.getClass().getSimpleName();
         String taskName = bundleTaskConfig.getUuid().concat(": ").concat(className);
-        executeTask(supportBundleTask, basePath.getPath(), taskName, className);
+        executeTask(supportBundleTask, basePath, taskName, className);
       }
-      completeProcessing(basePath.getPath());
+      completeProcessing(basePath);
     } catch (Exception e) {
       LOG.warn("Failed to execute the tasks ", e);
     }
@@ -94,9 +99,12 @@ public class SupportBundleJob {
 
   /**
    * Execute each task to generate support bundle files
+   *
+   * @param basePath the directory to store the status file, or {@code null} to only keep the
+   *     status in memory
    */
-  public void executeTask(SupportBundleTask supportBundleTask, String basePath, String taskName,
-      String taskType) {
+  public void executeTask(SupportBundleTask supportBundleTask, @Nullable String basePath,
+      String taskName, String taskType) {
     SupportBundleTaskStatus taskStatus = initializeTask(taskName, taskType, basePath);
     executeTask(taskStatus, supportBundleTask, basePath, taskName, taskType, 0);
   }
@@ -161,6 +169,14 @@ public class SupportBundleJob {
         latestTaskStatus.set(
             updateTask(latestTaskStatus.get(), basePath, CollectionState.FINISHED));
       } catch (Exception e) {
+        if (Throwables.getCausalChain(e).stream()
+            .anyMatch(SupportBundleOutputLimitException.class::isInstance)) {
+          // The output collected up to the limit is kept, hence the task is not retried
+          LOG.warn("Task {} stopped after reaching the output limit", taskName);
+          latestTaskStatus.set(
+              updateTask(latestTaskStatus.get(), basePath, CollectionState.FINISHED));
+          return latestTaskStatus.get();
+        }
         LOG.warn("Failed to execute task with supportBundleTask {} ", taskName, e);
         executeTaskAgainAfterFailed(supportBundleTask, taskName, taskType, latestTaskStatus.get(),
             basePath,
@@ -197,7 +213,10 @@ public class SupportBundleJob {
   /**
    * Update status file
    */
-  private void addToStatus(SupportBundleStatus updatedBundleStatus, String basePath) {
+  private void addToStatus(SupportBundleStatus updatedBundleStatus, @Nullable String basePath) {
+    if (basePath == null) {
+      return;
+    }
     try (FileWriter statusFile = new FileWriter(
         new File(basePath, SupportBundleFileNames.STATUS_FILE_NAME))) {
       GSON.toJson(updatedBundleStatus, statusFile);
@@ -0,0 +1,152 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.support.lib;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link SupportBundleOutput} that limits the total number of bytes of all the entries written
+ * through it. Once the limit is reached, the entry being written is added with the content up to
+ * the limit, and a {@link SupportBundleOutputLimitException} is thrown to the writer, as well as
+ * for entries written afterward, so that the task stops collecting. Entries that failed to be
+ * written do not count toward the limit, so that retrying a task does not use up its limit.
+ */
+public class ByteLimitedSupportBundleOutput implements SupportBundleOutput {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ByteLimitedSupportBundleOutput.class);
+
+  private final SupportBundleOutput delegate;
+  private final long maxBytes;
+  private final AtomicLong remaining;
+  private final AtomicBoolean truncated;
+  private final Map<String, Long> entrySizes;
+
+  public ByteLimitedSupportBundleOutput(SupportBundleOutput delegate, long maxBytes) {
+    this.delegate = delegate;
+    this.maxBytes = maxBytes;
+    this.remaining = new AtomicLong(maxBytes);
+    this.truncated = new AtomicBoolean();
+    this.entrySizes = new ConcurrentHashMap<>();
+  }
+
+  @Override
+  public void writeEntry(String path, EntryWriter writer) throws IOException {
+    if (remaining.get() <= 0) {
+      throw limitExceeded(path);
+    }
+    LimitedEntryWriter entryWriter = new LimitedEntryWriter(path, writer);
+    try {
+      delegate.writeEntry(path, entryWriter);
+    } catch (IOException | RuntimeException e) {
+      // The entry is not added, hence its content doesn't count toward the limit
+      remaining.addAndGet(entryWriter.written);
+      throw e;
+    }
+    if (entryWriter.written > 0) {
+      entrySizes.put(path, entryWriter.written);
+    }
+    if (entryWriter.limitException != null) {
+      throw entryWriter.limitException;
+    }
+  }
+
+  @Override
+  public void createDirectory(String path) throws IOException {
+    delegate.createDirectory(path);
+  }
+
+  /**
+   * Reserves up to the given number of bytes from the remaining limit.
+   *
+   * @return the number of bytes that can be written
+   */
+  private long reserve(long size) {
+    while (true) {
+      long current = remaining.get();
+      long reserved = Math.max(0L, Math.min(current, size));
+      if (remaining.compareAndSet(current, current - reserved)) {
+        return reserved;
+      }
+    }
+  }
+
+  private SupportBundleOutputLimitException limitExceeded(String path) {
+    if (truncated.compareAndSet(false, true)) {
+      LOG.warn("Support bundle task output exceeded the limit of {} bytes. "
+          + "Truncating {} and skipping the entries after it.", maxBytes, path);
+    }
+    return new SupportBundleOutputLimitException(
+        String.format("Support bundle task output exceeded the limit of %d bytes at %s",
+            maxBytes, path));
+  }
+
+  /**
+   * An {@link EntryWriter} that writes through a stream that is limited by the remaining bytes.
+   */
+  private final class LimitedEntryWriter implements EntryWriter {
+
+    private final String path;
+    private final EntryWriter writer;
+    private long written;
+    private SupportBundleOutputLimitException limitException;
+
+    LimitedEntryWriter(String path, EntryWriter writer) {
+      this.path = path;
+      this.writer = writer;
+    }
+
+    @Override
+    public void write(OutputStream outputStream) throws IOException {
+      // Writing an entry again replaces the previous content
+      Long previousSize = entrySizes.remove(path);
+      if (previousSize != null) {
+        remaining.addAndGet(previousSize);
+      }
+      try {
+        writer.write(new FilterOutputStream(outputStream) {
+          @Override
+          public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+          }
+
+          @Override
+          public void write(byte[] b, int off, int len) throws IOException {
+            int size = (int) reserve(len);
+            written += size;
+            if (size > 0) {
+              out.write(b, off, size);
+            }
+            if (size < len) {
+              throw limitExceeded(path);
+            }
+          }
+        });
+      } catch (SupportBundleOutputLimitException e) {
+        // Keep the content up to the limit in the bundle
+        limitException = e;
+      }
+    }
+  }
+}
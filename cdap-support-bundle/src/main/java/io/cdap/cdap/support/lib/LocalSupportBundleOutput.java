@@ -0,0 +1,54 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.support.lib;
+
+import io.cdap.cdap.common.utils.DirUtils;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+
+/**
+ * A {@link SupportBundleOutput} that writes each entry as a file under a local directory. Writing
+ * an entry again replaces the existing file.
+ */
+public class LocalSupportBundleOutput implements SupportBundleOutput {
+
+  private final File baseDir;
+
+  public LocalSupportBundleOutput(File baseDir) {
+    this.baseDir = baseDir;
+  }
+
+  @Override
+  public void writeEntry(String path, EntryWriter writer) throws IOException {
+    File file = new File(baseDir, path);
+    DirUtils.mkdirs(file.getParentFile());
+    try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(file.toPath()))) {
+      writer.write(os);
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(file.toPath());
+      throw e;
+    }
+  }
+
+  @Override
+  public void createDirectory(String path) throws IOException {
+    DirUtils.mkdirs(new File(baseDir, path));
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.support.lib;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * The destination that support bundle tasks write their files into.
+ */
+public interface SupportBundleOutput {
+
+  /**
+   * Writes a new entry with the given writer. The entry is only added to the bundle if the writer
+   * completes without failure, so that a failed task can be retried without leaving partial
+   * entries behind. Outputs that cannot replace an entry once it is added, such as a zip stream,
+   * skip entries that are already added without calling the writer.
+   *
+   * @param path the path of the entry, relative to the root of the bundle and separated by
+   *     {@code '/'}
+   * @param writer the writer for writing the content of the entry
+   * @throws IOException if failed to write the entry
+   */
+  void writeEntry(String path, EntryWriter writer) throws IOException;
+
+  /**
+   * Creates a directory, which is also created implicitly by writing an entry under it.
+   *
+   * @param path the path of the directory, relative to the root of the bundle
+   * @throws IOException if failed to create the directory
+   */
+  void createDirectory(String path) throws IOException;
+
+  /**
+   * Writes the content of an entry.
+   */
+  interface EntryWriter {
+
+    /**
+     * Writes the content of the entry to the given stream, which can be closed once done.
+     */
+    void write(OutputStream outputStream) throws IOException;
+  }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.support.lib;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a task has written the maximum number of bytes allowed by a
+ * {@link ByteLimitedSupportBundleOutput}. The content written up to the limit is kept in the
+ * bundle, hence the task should stop collecting rather than being retried.
+ */
+public class SupportBundleOutputLimitException extends IOException {
+
+  public SupportBundleOutputLimitException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.support.lib;
+
+import io.cdap.cdap.common.utils.DirUtils;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link SupportBundleOutput} that writes entries into a zip stream, so that a bundle can be
+ * sent while it is being collected without keeping the whole bundle locally. Entries can be
+ * written concurrently by multiple tasks. The content of an entry is buffered in memory, or in a
+ * temporary file once it grows beyond a threshold, and is only copied into the zip stream when the
+ * entry is complete. This way slow writers, such as log fetches, never hold the zip stream, and
+ * the entries of failed writers are not added. Since the zip stream cannot be rewritten, writing
+ * an entry that is already added, such as by a retried task, is skipped.
+ */
+public class ZipSupportBundleOutput implements SupportBundleOutput, Closeable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ZipSupportBundleOutput.class);
+  private static final int ENTRY_BUFFER_SIZE = 1024 * 1024;
+
+  private final ZipOutputStream zipOut;
+  private final String rootDir;
+  private final File tempDir;
+  private final Lock lock;
+  private final Set<String> entryNames;
+  private boolean closed;
+
+  /**
+   * Creates an instance.
+   *
+   * @param outputStream the stream to write the zip content to. It is closed when this output
+   *     is closed
+   * @param rootDir the directory in the zip that all entries are placed under
+   * @param tempDir the directory for buffering the content of large entries
+   */
+  public ZipSupportBundleOutput(OutputStream outputStream, String rootDir, File tempDir) {
+    this.zipOut = new ZipOutputStream(outputStream);
+    this.rootDir = rootDir;
+    this.tempDir = tempDir;
+    this.lock = new ReentrantLock();
+    this.entryNames = new HashSet<>();
+  }
+
+  @Override
+  public void writeEntry(String path, EntryWriter writer) throws IOException {
+    String name = rootDir + "/" + path;
+    if (isAdded(name)) {
+      LOG.debug("Skipping support bundle entry {} that is already added", name);
+      return;
+    }
+    EntryBuffer buffer = new EntryBuffer();
+    try {
+      try (OutputStream os = buffer) {
+        writer.write(os);
+      }
+      lock.lock();
+      try {
+        checkNotClosed(name);
+        // Another writer of the same entry might have completed first
+        if (entryNames.add(name)) {
+          zipOut.putNextEntry(new ZipEntry(name));
+          buffer.copyTo(zipOut);
+          zipOut.closeEntry();
+        }
+      } finally {
+        lock.unlock();
+      }
+    } finally {
+      buffer.discard();
+    }
+  }
+
+  @Override
+  public void createDirectory(String path) throws IOException {
+    String name = rootDir + "/" + path + "/";
+    lock.lock();
+    try {
+      checkNotClosed(name);
+      if (entryNames.add(name)) {
+        zipOut.putNextEntry(new ZipEntry(name));
+        zipOut.closeEntry();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Finishes the zip content and closes the underlying stream. Entries that are still being
+   * written fail to be added afterward.
+   */
+  @Override
+  public void close() throws IOException {
+    lock.lock();
+    try {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      zipOut.close();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private boolean isAdded(String name) {
+    lock.lock();
+    try {
+      return entryNames.contains(name);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Fails if this output is closed. This method must be called with the lock held.
+   */
+  private void checkNotClosed(String name) throws IOException {
+    if (closed) {
+      throw new IOException("Support bundle output is already closed. Failed to add " + name);
+    }
+  }
+
+  /**
+   * The {@link OutputStream} for buffering the content of a single entry. The content is kept in
+   * memory until it grows beyond {@link #ENTRY_BUFFER_SIZE}, after which it is moved into a
+   * temporary file.
+   */
+  private final class EntryBuffer extends OutputStream {
+
+    private ByteArrayOutputStream memory;
+    private Path file;
+    private OutputStream fileOut;
+    private boolean bufferClosed;
+
+    EntryBuffer() {
+      this.memory = new ByteArrayOutputStream();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      if (bufferClosed) {
+        throw new IOException("Support bundle entry is already closed");
+      }
+      if (memory != null && memory.size() + len > ENTRY_BUFFER_SIZE) {
+        DirUtils.mkdirs(tempDir);
+        file = Files.createTempFile(tempDir.toPath(), "support-bundle-entry", ".tmp");
+        fileOut = new BufferedOutputStream(Files.newOutputStream(file));
+        memory.writeTo(fileOut);
+        memory = null;
+      }
+      if (memory != null) {
+        memory.write(b, off, len);
+      } else {
+        fileOut.write(b, off, len);
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (bufferClosed) {
+        return;
+      }
+      bufferClosed = true;
+      if (fileOut != null) {
+        fileOut.close();
+      }
+    }
+
+    /**
+     * Copies the buffered content to the given stream. This method must be called after closing.
+     */
+    void copyTo(OutputStream outputStream) throws IOException {
+      if (memory != null) {
+        memory.writeTo(outputStream);
+      } else {
+        Files.copy(file, outputStream);
+      }
+    }
+
+    /**
+     * Releases the buffered content.
+     */
+    void discard() {
+      memory = null;
+      if (file == null) {
+        return;
+      }
+      try {
+        close();
+        Files.deleteIfExists(file);
+      } catch (IOException e) {
+        LOG.warn("Failed to delete support bundle entry buffer {}", file, e);
+      }
+    }
+  }
+}
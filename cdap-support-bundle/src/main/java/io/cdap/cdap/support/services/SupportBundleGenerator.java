@@ -22,6 +22,7 @@ import com.google.inject.Inject;
 import com.google.inject.name.Named;
 import io.cdap.cdap.common.NamespaceNotFoundException;
 import io.cdap.cdap.common.NotFoundException;
+import io.cdap.cdap.common.TooManyRequestsException;
 import io.cdap.cdap.common.conf.CConfiguration;
 import io.cdap.cdap.common.conf.Constants;
 import io.cdap.cdap.common.lang.jar.BundleJarUtil;
@@ -34,6 +35,7 @@ import io.cdap.cdap.support.job.SupportBundleJob;
 import io.cdap.cdap.support.lib.SupportBundleFileNames;
 import io.cdap.cdap.support.lib.SupportBundleOperationStatus;
 import io.cdap.cdap.support.lib.SupportBundleRequestFileList;
+import io.cdap.cdap.support.lib.ZipSupportBundleOutput;
 import io.cdap.cdap.support.status.CollectionState;
 import io.cdap.cdap.support.status.SupportBundleConfiguration;
 import io.cdap.cdap.support.status.SupportBundleStatus;
@@ -42,7 +44,10 @@ import io.cdap.cdap.support.task.factory.SupportBundleTaskFactory;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Reader;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -60,6 +65,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
@@ -78,6 +84,8 @@ public class SupportBundleGenerator {
   private final CConfiguration cConf;
   private final RemoteNamespaceQueryClient namespaceQueryClient;
   private final String localDir;
+  // The id of the bundle being streamed, only one bundle is streamed at a time
+  private final AtomicReference<String> streamingBundle;
 
   @Inject
   SupportBundleGenerator(CConfiguration cConf, RemoteNamespaceQueryClient namespaceQueryClient,
@@ -86,6 +94,7 @@ public class SupportBundleGenerator {
     this.namespaceQueryClient = namespaceQueryClient;
     this.localDir = cConf.get(Constants.SupportBundle.LOCAL_DATA_DIR);
     this.taskFactories = taskFactories;
+    this.streamingBundle = new AtomicReference<>();
   }
 
   /**
@@ -93,17 +102,7 @@ public class SupportBundleGenerator {
    */
   public String generate(SupportBundleConfiguration config, ExecutorService executorService)
       throws Exception {
-    NamespaceId namespace = Optional.ofNullable(config.getNamespace()).map(NamespaceId::new)
-        .orElse(null);
-    List<NamespaceId> namespaces = new ArrayList<>();
-
-    if (namespace == null) {
-      namespaces.addAll(
-          namespaceQueryClient.list().stream().map(NamespaceMeta::getNamespaceId)
-              .collect(Collectors.toList()));
-    } else {
-      namespaces.add(validNamespace(namespace));
-    }
+    List<NamespaceId> namespaces = getNamespaces(config);
     // Puts all the files under the uuid path
     File baseDirectory = new File(localDir);
     DirUtils.mkdirs(baseDirectory);
@@ -123,6 +122,8 @@ public class SupportBundleGenerator {
 
     SupportBundleJob supportBundleJob =
         new SupportBundleJob(taskFactories, executorService, cConf, supportBundleStatus);
+    // The configured limit only applies to streamed bundles, local bundles are only limited on
+    // request
     SupportBundleTaskConfiguration supportBundleTaskConfiguration =
         new SupportBundleTaskConfiguration(config, uuid, uuidPath, namespaces, supportBundleJob);
 
@@ -142,11 +143,77 @@ public class SupportBundleGenerator {
     return uuid;
   }
 
+  /**
+   * Generates support bundle and writes it as a zip archive into the given stream while the tasks
+   * are running, without storing the bundle locally. This method blocks until all the tasks are
+   * completed. Nothing is written to the stream if the request is invalid, or if another bundle is
+   * being streamed.
+   *
+   * @param outputStream the stream to write the zip archive to. It is closed when this method
+   *     returns
+   * @return the bundle id, which is also the top level directory in the zip archive
+   * @throws TooManyRequestsException if another bundle is being streamed
+   */
+  public String generate(SupportBundleConfiguration config, ExecutorService executorService,
+      OutputStream outputStream) throws Exception {
+    List<NamespaceId> namespaces = getNamespaces(config);
+    String uuid = UUID.randomUUID().toString();
+    if (!streamingBundle.compareAndSet(null, uuid)) {
+      throw new TooManyRequestsException(
+          String.format("The prev bundle id: %s is still running.", streamingBundle.get()));
+    }
+    try {
+      writeBundle(config, executorService, outputStream, uuid, namespaces);
+    } finally {
+      streamingBundle.set(null);
+    }
+    return uuid;
+  }
+
+  /**
+   * Runs the tasks of a bundle and writes the bundle as a zip archive into the given stream
+   */
+  private void writeBundle(SupportBundleConfiguration config, ExecutorService executorService,
+      OutputStream outputStream, String uuid, List<NamespaceId> namespaces) throws IOException {
+    SupportBundleStatus supportBundleStatus = SupportBundleStatus.builder()
+        .setBundleId(uuid)
+        .setStartTimestamp(System.currentTimeMillis())
+        .setStatus(CollectionState.IN_PROGRESS)
+        .setParameters(config)
+        .build();
+    SupportBundleJob supportBundleJob =
+        new SupportBundleJob(taskFactories, executorService, cConf, supportBundleStatus);
+
+    File tempDir = new File(cConf.get(Constants.SupportBundle.SUPPORT_BUNDLE_TEMP_DIR))
+        .getAbsoluteFile();
+    try (ZipSupportBundleOutput output = new ZipSupportBundleOutput(outputStream, uuid, tempDir)) {
+      SupportBundleTaskConfiguration supportBundleTaskConfiguration =
+          new SupportBundleTaskConfiguration(config, uuid, null, output,
+              getMaxBytesPerTask(config), namespaces, supportBundleJob);
+      supportBundleJob.generateBundle(supportBundleTaskConfiguration);
+
+      // The status is written last so that it contains the final state of all the tasks
+      SupportBundleStatus finishBundleStatus = SupportBundleStatus.builder(supportBundleStatus)
+          .setStatus(CollectionState.FINISHED)
+          .setFinishTimestamp(System.currentTimeMillis())
+          .build();
+      output.writeEntry(SupportBundleFileNames.STATUS_FILE_NAME, os -> {
+        try (Writer writer = new OutputStreamWriter(os, StandardCharsets.UTF_8)) {
+          GSON.toJson(finishBundleStatus, writer);
+        }
+      });
+    }
+  }
+
   /**
    * Check whether the prev bundle is still processing or not
    */
   @Nullable
   public String getInProgressBundle() throws IOException {
+    String streamingBundleId = streamingBundle.get();
+    if (streamingBundleId != null) {
+      return streamingBundleId;
+    }
     File latestDirectory = getLatestFolder();
     if (latestDirectory == null) {
       return null;
@@ -340,6 +407,33 @@ public class SupportBundleGenerator {
     return bundleStatus;
   }
 
+  /**
+   * Get the namespaces to collect the bundle for
+   */
+  private List<NamespaceId> getNamespaces(SupportBundleConfiguration config) throws Exception {
+    NamespaceId namespace = Optional.ofNullable(config.getNamespace()).map(NamespaceId::new)
+        .orElse(null);
+    List<NamespaceId> namespaces = new ArrayList<>();
+
+    if (namespace == null) {
+      namespaces.addAll(
+          namespaceQueryClient.list().stream().map(NamespaceMeta::getNamespaceId)
+              .collect(Collectors.toList()));
+    } else {
+      namespaces.add(validNamespace(namespace));
+    }
+    return namespaces;
+  }
+
+  /**
+   * Get the max num of bytes each task of a streamed bundle can write, either from the request or
+   * the configuration
+   */
+  private long getMaxBytesPerTask(SupportBundleConfiguration config) {
+    return Optional.ofNullable(config.getMaxBytesPerTask())
+        .orElse(cConf.getLong(Constants.SupportBundle.TASK_MAX_BYTES, 0L));
+  }
+
   /**
    * valid if the namespace exists or not
    */
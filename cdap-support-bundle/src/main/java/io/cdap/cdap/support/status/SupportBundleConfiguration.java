@@ -51,16 +51,41 @@ public class SupportBundleConfiguration {
    * max num of run log customer request for each program run
    */
   private final int maxRunsPerProgram;
+  /**
+   * start time in seconds of the logs to collect
+   */
+  @Nullable
+  private final Long startTime;
+  /**
+   * end time in seconds of the logs to collect
+   */
+  @Nullable
+  private final Long endTime;
+  /**
+   * max num of bytes each task can write into the bundle
+   */
+  @Nullable
+  private final Long maxBytesPerTask;
 
   public SupportBundleConfiguration(@Nullable String namespace, @Nullable String app,
       @Nullable String run, ProgramType programType, String programName,
       int maxRunsPerProgram) {
+    this(namespace, app, run, programType, programName, maxRunsPerProgram, null, null, null);
+  }
+
+  public SupportBundleConfiguration(@Nullable String namespace, @Nullable String app,
+      @Nullable String run, ProgramType programType, String programName,
+      int maxRunsPerProgram, @Nullable Long startTime, @Nullable Long endTime,
+      @Nullable Long maxBytesPerTask) {
     this.namespace = namespace;
     this.app = app;
     this.run = run;
     this.programType = programType;
     this.programName = programName;
     this.maxRunsPerProgram = maxRunsPerProgram;
+    this.startTime = startTime;
+    this.endTime = endTime;
+    this.maxBytesPerTask = maxBytesPerTask;
   }
 
   /**
@@ -107,4 +132,28 @@ public class SupportBundleConfiguration {
   public Integer getMaxRunsPerProgram() {
     return maxRunsPerProgram;
   }
+
+  /**
+   * Get start time in seconds of the logs to collect, or {@code null} to use the default
+   */
+  @Nullable
+  public Long getStartTime() {
+    return startTime;
+  }
+
+  /**
+   * Get end time in seconds of the logs to collect, or {@code null} for the current time
+   */
+  @Nullable
+  public Long getEndTime() {
+    return endTime;
+  }
+
+  /**
+   * Get max num of bytes each task can write, or {@code null} to use the configured limit
+   */
+  @Nullable
+  public Long getMaxBytesPerTask() {
+    return maxBytesPerTask;
+  }
 }
@@ -19,7 +19,6 @@ package io.cdap.cdap.support.task;
 import com.google.common.base.Throwables;
 import com.google.gson.Gson;
 import io.cdap.cdap.common.NotFoundException;
-import io.cdap.cdap.common.utils.DirUtils;
 import io.cdap.cdap.internal.app.store.RunRecordDetail;
 import io.cdap.cdap.logging.gateway.handlers.RemoteLogsFetcher;
 import io.cdap.cdap.logging.gateway.handlers.RemoteProgramRunRecordFetcher;
@@ -33,14 +32,19 @@ import io.cdap.cdap.proto.id.ApplicationId;
 import io.cdap.cdap.proto.id.NamespaceId;
 import io.cdap.cdap.proto.id.ProgramId;
 import io.cdap.cdap.proto.id.ProgramRunId;
+import io.cdap.cdap.support.SupportBundleTaskConfiguration;
 import io.cdap.cdap.support.job.SupportBundleJob;
+import io.cdap.cdap.support.lib.SupportBundleOutput;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.stream.StreamSupport;
+import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -53,7 +57,15 @@ public class SupportBundlePipelineInfoTask implements SupportBundleTask {
   private static final Gson GSON = new Gson();
   private static final Integer BATCH_SIZE = 20;
 
+  @Nullable
   private final File basePath;
+  private final SupportBundleOutput bundleOutput;
+  private final SupportBundleOutput output;
+  private final long maxBytesPerTask;
+  @Nullable
+  private final Long startTime;
+  @Nullable
+  private final Long endTime;
   private final RemoteApplicationDetailFetcher remoteApplicationDetailFetcher;
   private final RemoteProgramRunRecordsFetcher remoteProgramRunRecordsFetcher;
   private final RemoteProgramRunRecordFetcher remoteProgramRunRecordFetcher;
@@ -70,15 +82,22 @@ public class SupportBundlePipelineInfoTask implements SupportBundleTask {
 
   public SupportBundlePipelineInfoTask(String uuid, List<NamespaceId> namespaces,
       String requestApplication,
-      String runId, File basePath,
+      String runId, @Nullable File basePath,
       RemoteApplicationDetailFetcher remoteApplicationDetailFetcher,
       RemoteProgramRunRecordsFetcher remoteProgramRunRecordsFetcher,
       RemoteLogsFetcher remoteLogsFetcher, ProgramType programType, String programName,
       RemoteMetricsSystemClient remoteMetricsSystemClient,
       SupportBundleJob supportBundleJob, int maxRunsPerProgram,
-      RemoteProgramRunRecordFetcher remoteProgramRunRecordFetcher) {
+      RemoteProgramRunRecordFetcher remoteProgramRunRecordFetcher,
+      SupportBundleOutput bundleOutput, long maxBytesPerTask,
+      @Nullable Long startTime, @Nullable Long endTime) {
     this.uuid = uuid;
     this.basePath = basePath;
+    this.bundleOutput = bundleOutput;
+    this.output = SupportBundleTaskConfiguration.createTaskOutput(bundleOutput, maxBytesPerTask);
+    this.maxBytesPerTask = maxBytesPerTask;
+    this.startTime = startTime;
+    this.endTime = endTime;
     this.namespaces = namespaces;
     this.requestApplication = requestApplication;
     this.runId = runId;
@@ -122,11 +141,13 @@ public class SupportBundlePipelineInfoTask implements SupportBundleTask {
     ApplicationId applicationId = new ApplicationId(namespaceId.getNamespace(), application,
         appDetail.getAppVersion());
 
-    File appFolderPath = new File(basePath, appDetail.getName());
-    DirUtils.mkdirs(appFolderPath);
-    try (FileWriter file = new FileWriter(new File(appFolderPath, appDetail.getName() + ".json"))) {
-      GSON.toJson(appDetail, file);
-    }
+    String appFolder = appDetail.getName();
+    output.createDirectory(appFolder);
+    output.writeEntry(appFolder + "/" + appDetail.getName() + ".json", os -> {
+      try (Writer file = new OutputStreamWriter(os, StandardCharsets.UTF_8)) {
+        GSON.toJson(appDetail, file);
+      }
+    });
     ProgramId programId = applicationId.program(programType, programName);
     Iterable<RunRecord> runRecordList;
     if (runId != null) {
@@ -139,24 +160,27 @@ public class SupportBundlePipelineInfoTask implements SupportBundleTask {
     }
 
     SupportBundleRuntimeInfoTask supportBundleRuntimeInfoTask =
-        new SupportBundleRuntimeInfoTask(appFolderPath, namespaceId, applicationId, programType,
-            programId,
+        new SupportBundleRuntimeInfoTask(
+            SupportBundleTaskConfiguration.createTaskOutput(bundleOutput, maxBytesPerTask),
+            appFolder, namespaceId, applicationId, programType, programId,
             remoteMetricsSystemClient, runRecordList);
     SupportBundlePipelineRunLogTask supportBundlePipelineRunLogTask =
-        new SupportBundlePipelineRunLogTask(appFolderPath, programId, remoteLogsFetcher,
-            runRecordList);
+        new SupportBundlePipelineRunLogTask(
+            SupportBundleTaskConfiguration.createTaskOutput(bundleOutput, maxBytesPerTask),
+            appFolder, programId, remoteLogsFetcher, runRecordList, startTime, endTime);
+    String statusPath = basePath == null ? null : basePath.getPath();
 
     String runtimeInfoClassName = supportBundleRuntimeInfoTask.getClass().getSimpleName();
     String runtimeInfoTaskName =
         uuid.concat(": ").concat(runtimeInfoClassName).concat(": ").concat(appDetail.getName());
-    supportBundleJob.executeTask(supportBundleRuntimeInfoTask, basePath.getPath(),
+    supportBundleJob.executeTask(supportBundleRuntimeInfoTask, statusPath,
         runtimeInfoTaskName,
         runtimeInfoClassName);
 
     String runtimeLogClassName = supportBundlePipelineRunLogTask.getClass().getSimpleName();
     String runtimeLogTaskName = uuid.concat(": ").concat(runtimeLogClassName).concat(": ")
         .concat(appDetail.getName());
-    supportBundleJob.executeTask(supportBundlePipelineRunLogTask, basePath.getPath(),
+    supportBundleJob.executeTask(supportBundlePipelineRunLogTask, statusPath,
         runtimeLogTaskName,
         runtimeLogClassName);
   }
@@ -167,8 +191,19 @@ public class SupportBundlePipelineInfoTask implements SupportBundleTask {
         remoteProgramRunRecordsFetcher.getProgramRuns(programId, 0, Long.MAX_VALUE, 100);
     return () -> StreamSupport.stream(allRunRecordList.spliterator(), false)
         .filter(run -> run.getStatus().isEndState())
+        .filter(this::isInTimeRange)
         .sorted(Comparator.comparing(RunRecord::getStartTs).reversed())
         .limit(maxRunsPerProgram)
         .iterator();
   }
+
+  /**
+   * Returns whether the given run overlaps with the requested time range.
+   */
+  private boolean isInTimeRange(RunRecord run) {
+    if (endTime != null && run.getStartTs() > endTime) {
+      return false;
+    }
+    return startTime == null || run.getStopTs() == null || run.getStopTs() >= startTime;
+  }
 }
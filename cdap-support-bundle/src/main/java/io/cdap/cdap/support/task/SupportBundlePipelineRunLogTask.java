@@ -21,36 +21,49 @@ import io.cdap.cdap.logging.gateway.handlers.RemoteLogsFetcher;
 import io.cdap.cdap.proto.RunRecord;
 import io.cdap.cdap.proto.id.ProgramId;
 import io.cdap.cdap.support.lib.SupportBundleFileNames;
-import java.io.File;
+import io.cdap.cdap.support.lib.SupportBundleOutput;
 import java.io.IOException;
 import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
 
 /**
  * Collects pipeline run info.
  */
 public class SupportBundlePipelineRunLogTask implements SupportBundleTask {
 
-  private final File appFolderPath;
+  private final SupportBundleOutput output;
+  private final String appFolder;
   private final RemoteLogsFetcher remoteLogsFetcher;
   private final ProgramId programName;
   private final Iterable<RunRecord> runRecordList;
+  @Nullable
+  private final Long startTime;
+  @Nullable
+  private final Long endTime;
 
-  public SupportBundlePipelineRunLogTask(File appFolderPath, ProgramId programName,
-      RemoteLogsFetcher remoteLogsFetcher,
-      Iterable<RunRecord> runRecordList) {
-    this.appFolderPath = appFolderPath;
+  public SupportBundlePipelineRunLogTask(SupportBundleOutput output, String appFolder,
+      ProgramId programName, RemoteLogsFetcher remoteLogsFetcher,
+      Iterable<RunRecord> runRecordList, @Nullable Long startTime, @Nullable Long endTime) {
+    this.output = output;
+    this.appFolder = appFolder;
     this.remoteLogsFetcher = remoteLogsFetcher;
     this.programName = programName;
     this.runRecordList = runRecordList;
+    this.startTime = startTime;
+    this.endTime = endTime;
   }
 
   @Override
   public void collect() throws IOException, NotFoundException {
+    long start = startTime == null ? 0L : startTime;
+    long stop = endTime == null
+        ? TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()) : endTime;
     for (RunRecord runRecord : runRecordList) {
       String runId = runRecord.getPid();
-      File file = new File(appFolderPath, runId + SupportBundleFileNames.LOG_SUFFIX_NAME);
-      remoteLogsFetcher.writeProgramRunLogs(programName, runId, 0L,
-          TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()), file);
+      // Only fetch the part of the run that overlaps with the requested time range
+      output.writeEntry(appFolder + "/" + runId + SupportBundleFileNames.LOG_SUFFIX_NAME,
+          os -> remoteLogsFetcher.writeProgramRunLogs(programName, runId,
+              Math.max(start, runRecord.getStartTs()), stop, os));
     }
   }
 }
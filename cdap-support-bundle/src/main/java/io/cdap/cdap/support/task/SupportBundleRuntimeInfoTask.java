@@ -31,9 +31,11 @@ import io.cdap.cdap.proto.RunRecord;
 import io.cdap.cdap.proto.id.ApplicationId;
 import io.cdap.cdap.proto.id.NamespaceId;
 import io.cdap.cdap.proto.id.ProgramId;
-import java.io.File;
-import java.io.FileWriter;
+import io.cdap.cdap.support.lib.SupportBundleOutput;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -55,10 +57,12 @@ public class SupportBundleRuntimeInfoTask implements SupportBundleTask {
   private final ProgramType programType;
   private final ProgramId programName;
   private final RemoteMetricsSystemClient remoteMetricsSystemClient;
-  private final File appPath;
+  private final SupportBundleOutput output;
+  private final String appFolder;
   private final Iterable<RunRecord> runRecordList;
 
-  public SupportBundleRuntimeInfoTask(File appPath, NamespaceId namespaceId, ApplicationId appId,
+  public SupportBundleRuntimeInfoTask(SupportBundleOutput output, String appFolder,
+      NamespaceId namespaceId, ApplicationId appId,
       ProgramType programType, ProgramId programName,
       RemoteMetricsSystemClient remoteMetricsSystemClient,
       Iterable<RunRecord> runRecordList) {
@@ -66,7 +70,8 @@ public class SupportBundleRuntimeInfoTask implements SupportBundleTask {
     this.appId = appId;
     this.programType = programType;
     this.programName = programName;
-    this.appPath = appPath;
+    this.output = output;
+    this.appFolder = appFolder;
     this.remoteMetricsSystemClient = remoteMetricsSystemClient;
     this.runRecordList = runRecordList;
   }
@@ -75,15 +80,17 @@ public class SupportBundleRuntimeInfoTask implements SupportBundleTask {
   public void collect() throws IOException, NotFoundException {
     for (RunRecord runRecord : runRecordList) {
       String runId = runRecord.getPid();
-      try (FileWriter file = new FileWriter(new File(appPath, runId + ".json"))) {
-        JsonElement jsonElement = GSON.toJsonTree(runRecord);
-        JsonObject jsonObject = (JsonObject) jsonElement;
-        JsonObject metrics =
-            queryMetrics(runId, runRecord.getStartTs(),
-                runRecord.getStopTs() != null ? runRecord.getStopTs() : System.currentTimeMillis());
-        jsonObject.add("metrics", metrics);
-        GSON.toJson(jsonObject, file);
-      }
+      JsonElement jsonElement = GSON.toJsonTree(runRecord);
+      JsonObject jsonObject = (JsonObject) jsonElement;
+      JsonObject metrics =
+          queryMetrics(runId, runRecord.getStartTs(),
+              runRecord.getStopTs() != null ? runRecord.getStopTs() : System.currentTimeMillis());
+      jsonObject.add("metrics", metrics);
+      output.writeEntry(appFolder + "/" + runId + ".json", os -> {
+        try (Writer file = new OutputStreamWriter(os, StandardCharsets.UTF_8)) {
+          GSON.toJson(jsonObject, file);
+        }
+      });
     }
   }
 
@@ -19,31 +19,38 @@ package io.cdap.cdap.support.task;
 import io.cdap.cdap.common.NotFoundException;
 import io.cdap.cdap.common.conf.CConfiguration;
 import io.cdap.cdap.common.conf.Constants;
-import io.cdap.cdap.common.utils.DirUtils;
 import io.cdap.cdap.logging.gateway.handlers.RemoteLogsFetcher;
 import io.cdap.cdap.proto.SystemServiceMeta;
 import io.cdap.cdap.support.lib.SupportBundleFileNames;
+import io.cdap.cdap.support.lib.SupportBundleOutput;
 import io.cdap.cdap.support.metadata.RemoteMonitorServicesFetcher;
-import java.io.File;
 import java.io.IOException;
 import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
 
 /**
  * Collects support bundle system log from data fusion instance.
  */
 public class SupportBundleSystemLogTask implements SupportBundleTask {
 
-  private final File basePath;
+  private final SupportBundleOutput output;
   private final RemoteLogsFetcher remoteLogsFetcher;
   private final RemoteMonitorServicesFetcher remoteMonitorServicesFetcher;
   private final CConfiguration cConf;
+  @Nullable
+  private final Long startTime;
+  @Nullable
+  private final Long endTime;
 
-  public SupportBundleSystemLogTask(File basePath, RemoteLogsFetcher remoteLogsFetcher,
-      CConfiguration cConf, RemoteMonitorServicesFetcher remoteMonitorServicesFetcher) {
-    this.basePath = basePath;
+  public SupportBundleSystemLogTask(SupportBundleOutput output, RemoteLogsFetcher remoteLogsFetcher,
+      CConfiguration cConf, RemoteMonitorServicesFetcher remoteMonitorServicesFetcher,
+      @Nullable Long startTime, @Nullable Long endTime) {
+    this.output = output;
     this.remoteLogsFetcher = remoteLogsFetcher;
     this.remoteMonitorServicesFetcher = remoteMonitorServicesFetcher;
     this.cConf = cConf;
+    this.startTime = startTime;
+    this.endTime = endTime;
   }
 
   /**
@@ -51,19 +58,20 @@ public class SupportBundleSystemLogTask implements SupportBundleTask {
    */
   @Override
   public void collect() throws IOException, NotFoundException {
-    File systemLogPath = new File(basePath, "system-log");
-    DirUtils.mkdirs(systemLogPath);
+    output.createDirectory("system-log");
     String componentId = "services";
     Iterable<SystemServiceMeta> serviceMetaList = remoteMonitorServicesFetcher.listSystemServices();
     for (SystemServiceMeta serviceMeta : serviceMetaList) {
-      long currentTimeMillis = System.currentTimeMillis();
-      long fromMillis =
-          currentTimeMillis - TimeUnit.DAYS.toMillis(
-              cConf.getInt(Constants.SupportBundle.SYSTEM_LOG_START_TIME));
-      File file = new File(systemLogPath,
-          serviceMeta.getName() + SupportBundleFileNames.SYSTEM_LOG_SUFFIX_NAME);
-      remoteLogsFetcher.writeSystemServiceLog(componentId, serviceMeta.getName(), fromMillis / 1000,
-          currentTimeMillis / 1000, file);
+      long currentTimeSecs = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+      long stopSecs = endTime == null ? currentTimeSecs : endTime;
+      long fromSecs = startTime == null
+          ? currentTimeSecs - TimeUnit.DAYS.toSeconds(
+          cConf.getInt(Constants.SupportBundle.SYSTEM_LOG_START_TIME))
+          : startTime;
+      output.writeEntry(
+          "system-log/" + serviceMeta.getName() + SupportBundleFileNames.SYSTEM_LOG_SUFFIX_NAME,
+          os -> remoteLogsFetcher.writeSystemServiceLog(componentId, serviceMeta.getName(),
+              fromSecs, stopSecs, os));
     }
   }
 }
@@ -21,15 +21,14 @@ import io.cdap.cdap.common.NotFoundException;
 import io.cdap.cdap.common.ServiceUnavailableException;
 import io.cdap.cdap.common.healthcheck.VMInformation;
 import io.cdap.cdap.common.healthcheck.VMInformationFetcher;
-import io.cdap.cdap.common.utils.DirUtils;
 import io.cdap.cdap.proto.SystemServiceMeta;
+import io.cdap.cdap.support.lib.SupportBundleOutput;
 import io.cdap.cdap.support.metadata.RemoteMonitorServicesFetcher;
-import java.io.File;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.lang.management.MemoryUsage;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.util.HashMap;
 import java.util.Map;
 import org.slf4j.Logger;
@@ -45,40 +44,40 @@ public class SupportBundleVMInfoTask implements SupportBundleTask {
 
   private final RemoteMonitorServicesFetcher servicesFetcher;
   private final VMInformationFetcher vmInfoFetcher;
-  private final File baseDir;
+  private final SupportBundleOutput output;
 
   public SupportBundleVMInfoTask(RemoteMonitorServicesFetcher servicesFetcher,
       VMInformationFetcher vmInfoFetcher,
-      File baseDir) {
+      SupportBundleOutput output) {
     this.servicesFetcher = servicesFetcher;
     this.vmInfoFetcher = vmInfoFetcher;
-    this.baseDir = baseDir;
+    this.output = output;
   }
 
   @Override
   public void collect() throws IOException, NotFoundException {
     for (SystemServiceMeta serviceMeta : servicesFetcher.listSystemServices()) {
       String service = serviceMeta.getName();
-      File vmInfoDir = new File(new File(baseDir, "vminfo"), service);
-      DirUtils.mkdirs(vmInfoDir);
+      String vmInfoDir = "vminfo/" + service;
+      output.createDirectory(vmInfoDir);
 
       try {
         VMInformation vmInfo = vmInfoFetcher.getVMInformation(service);
 
-        File memoryUsageFile = new File(vmInfoDir, "memory.txt");
-        try (Writer writer = Files.newBufferedWriter(memoryUsageFile.toPath(),
-            StandardCharsets.UTF_8)) {
-          Map<String, MemoryUsage> memoryUsages = new HashMap<>();
-          memoryUsages.put("heap", vmInfo.getHeapMemoryUsage());
-          memoryUsages.put("nonheap", vmInfo.getNonHeapMemoryUsage());
-          GSON.toJson(memoryUsages, writer);
-        }
+        Map<String, MemoryUsage> memoryUsages = new HashMap<>();
+        memoryUsages.put("heap", vmInfo.getHeapMemoryUsage());
+        memoryUsages.put("nonheap", vmInfo.getNonHeapMemoryUsage());
+        output.writeEntry(vmInfoDir + "/memory.txt", os -> {
+          try (Writer writer = new OutputStreamWriter(os, StandardCharsets.UTF_8)) {
+            GSON.toJson(memoryUsages, writer);
+          }
+        });
 
-        File threadDumpFile = new File(vmInfoDir, "threadDump.txt");
-        try (Writer writer = Files.newBufferedWriter(threadDumpFile.toPath(),
-            StandardCharsets.UTF_8)) {
-          writer.write(vmInfo.getThreads());
-        }
+        output.writeEntry(vmInfoDir + "/threadDump.txt", os -> {
+          try (Writer writer = new OutputStreamWriter(os, StandardCharsets.UTF_8)) {
+            writer.write(vmInfo.getThreads());
+          }
+        });
       } catch (ServiceUnavailableException e) {
         LOG.warn("Service {} is not available. Skipping VM information.", service);
         LOG.debug("Service {} is not available", service, e);
@@ -60,6 +60,8 @@ public class SupportBundlePipelineInfoTaskFactory implements SupportBundleTaskFa
         remoteProgramRunRecordsFetcher, remoteLogsFetcher,
         taskConfiguration.getProgramType(), taskConfiguration.getProgramName(),
         remoteMetricsSystemClient, taskConfiguration.getSupportBundleJob(),
-        taskConfiguration.getMaxRunsPerProgram(), remoteProgramRunRecordFetcher);
+        taskConfiguration.getMaxRunsPerProgram(), remoteProgramRunRecordFetcher,
+        taskConfiguration.getOutput(), taskConfiguration.getMaxBytesPerTask(),
+        taskConfiguration.getStartTime(), taskConfiguration.getEndTime());
   }
 }
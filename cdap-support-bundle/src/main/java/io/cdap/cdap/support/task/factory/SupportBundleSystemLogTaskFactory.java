@@ -43,7 +43,8 @@ public class SupportBundleSystemLogTaskFactory implements SupportBundleTaskFacto
 
   @Override
   public SupportBundleSystemLogTask create(SupportBundleTaskConfiguration taskConfiguration) {
-    return new SupportBundleSystemLogTask(taskConfiguration.getBasePath(), remoteLogsFetcher, cConf,
-        remoteMonitorServicesFetcher);
+    return new SupportBundleSystemLogTask(taskConfiguration.createTaskOutput(), remoteLogsFetcher,
+        cConf, remoteMonitorServicesFetcher, taskConfiguration.getStartTime(),
+        taskConfiguration.getEndTime());
   }
 }
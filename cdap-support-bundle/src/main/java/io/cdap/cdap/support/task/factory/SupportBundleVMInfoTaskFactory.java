@@ -40,6 +40,7 @@ public class SupportBundleVMInfoTaskFactory implements SupportBundleTaskFactory
 
   @Override
   public SupportBundleTask create(SupportBundleTaskConfiguration taskConfiguration) {
-    return new SupportBundleVMInfoTask(servicesFetcher, fetcher, taskConfiguration.getBasePath());
+    return new SupportBundleVMInfoTask(servicesFetcher, fetcher,
+        taskConfiguration.createTaskOutput());
   }
 }
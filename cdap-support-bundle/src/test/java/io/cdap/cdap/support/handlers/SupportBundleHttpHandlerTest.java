@@ -18,6 +18,7 @@ package io.cdap.cdap.support.handlers;
 
 import com.google.common.io.Files;
 import io.cdap.cdap.SupportBundleTestBase;
+import io.cdap.cdap.common.conf.CConfiguration;
 import io.cdap.cdap.common.conf.Constants;
 import io.cdap.cdap.common.discovery.RandomEndpointStrategy;
 import io.cdap.cdap.common.discovery.URIScheme;
@@ -28,6 +29,7 @@ import io.cdap.cdap.proto.id.NamespaceId;
 import io.cdap.common.http.HttpRequest;
 import io.cdap.common.http.HttpRequests;
 import io.cdap.common.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
 import java.io.File;
 import java.io.IOException;
 import java.net.HttpURLConnection;
@@ -35,6 +37,7 @@ import java.net.URLEncoder;
 import java.security.MessageDigest;
 import java.util.Base64;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
@@ -86,6 +89,52 @@ public class SupportBundleHttpHandlerTest extends SupportBundleTestBase {
     Assert.assertTrue(new File(bundleExport, "system-log").isDirectory());
   }
 
+  @Test
+  public void testStreamSupportBundle() throws Exception {
+    long maxBytesPerTask = 1024;
+    Map<String, String> params = new HashMap<>();
+    params.put("namespace", NAMESPACE.getNamespace());
+    params.put("maxBytesPerTask", Long.toString(maxBytesPerTask));
+    HttpResponse response = requestStreamBundle(params);
+    Assert.assertEquals(HttpURLConnection.HTTP_OK, response.getResponseCode());
+
+    File bundleFile = TEMP_FOLDER.newFile();
+    bundleFile.delete();
+    Files.write(response.getResponseBody(), bundleFile);
+
+    File bundleDir = TEMP_FOLDER.newFolder();
+    BundleJarUtil.unJar(bundleFile, bundleDir);
+
+    File[] bundleExports = bundleDir.listFiles();
+    Assert.assertNotNull(bundleExports);
+    Assert.assertEquals(1, bundleExports.length);
+    File bundleExport = bundleExports[0];
+    Assert.assertTrue(new File(bundleExport, "status.json").isFile());
+
+    // All the system logs are written by one task, hence they are limited together
+    File[] systemLogs = new File(bundleExport, "system-log").listFiles();
+    Assert.assertNotNull(systemLogs);
+    Assert.assertTrue(systemLogs.length > 0);
+    long systemLogSize = 0;
+    for (File systemLog : systemLogs) {
+      systemLogSize += systemLog.length();
+    }
+    Assert.assertTrue(systemLogSize <= maxBytesPerTask);
+
+    // The streamed bundle is not stored locally
+    CConfiguration cConf = getInjector().getInstance(CConfiguration.class);
+    Assert.assertFalse(
+      new File(cConf.get(Constants.SupportBundle.LOCAL_DATA_DIR), bundleExport.getName()).exists());
+  }
+
+  @Test
+  public void testStreamSupportBundleInvalidTimeRange() throws Exception {
+    Map<String, String> params = new HashMap<>();
+    params.put("startTime", "100");
+    params.put("endTime", "10");
+    Assert.assertEquals(HttpURLConnection.HTTP_BAD_REQUEST, requestStreamBundle(params).getResponseCode());
+  }
+
   @Before
   public void setup() throws Exception {
     Assert.assertEquals(HttpURLConnection.HTTP_OK, createNamespace(NAMESPACE).getResponseCode());
@@ -158,4 +207,43 @@ public class SupportBundleHttpHandlerTest extends SupportBundleTestBase {
     HttpRequest request = HttpRequest.post(URIScheme.createURI(discoverable, path).toURL()).build();
     return HttpRequests.execute(request, new DefaultHttpRequestConfig(false));
   }
+
+  /**
+   * Requests a support bundle streamed while it is being generated.
+   *
+   * @param params a map of query parameters
+   * @return HTTPResponse
+   * @throws IOException if failed to request the bundle
+   */
+  private HttpResponse requestStreamBundle(Map<String, String> params)
+    throws IOException, ExecutionException, InterruptedException, TimeoutException {
+    DiscoveryServiceClient discoveryServiceClient = getInjector().getInstance(DiscoveryServiceClient.class);
+    Discoverable discoverable =
+      new RandomEndpointStrategy(() -> discoveryServiceClient.discover(Constants.Service.SUPPORT_BUNDLE_SERVICE)).pick(
+        5, TimeUnit.SECONDS);
+
+    Assert.assertNotNull("No service for support bundle", discoverable);
+
+    StringBuilder queryBuilder = new StringBuilder();
+    String sep = "?";
+    for (Map.Entry<String, String> entry : params.entrySet()) {
+      queryBuilder.append(sep)
+        .append(URLEncoder.encode(entry.getKey(), "UTF-8"))
+        .append("=")
+        .append(URLEncoder.encode(entry.getValue(), "UTF-8"));
+      sep = "&";
+    }
+
+    String path = String.format("%s/support/bundles/stream%s", Constants.Gateway.API_VERSION_3, queryBuilder);
+
+    HttpRequest request = HttpRequest.get(URIScheme.createURI(discoverable, path).toURL()).build();
+    AtomicReference<HttpResponse> response = new AtomicReference<>();
+
+    // Wait for the previous bundle to complete, since only one bundle is collected at a time
+    Tasks.waitFor(true, () -> {
+      response.set(HttpRequests.execute(request, new DefaultHttpRequestConfig(false)));
+      return response.get().getResponseCode() != HttpResponseStatus.TOO_MANY_REQUESTS.code();
+    }, 60, TimeUnit.SECONDS, 1, TimeUnit.SECONDS);
+    return response.get();
+  }
 }
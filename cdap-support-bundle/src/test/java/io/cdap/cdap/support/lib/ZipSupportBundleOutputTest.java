@@ -0,0 +1,165 @@
+/*
+ * Copyright © 2023 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.support.lib;
+
+import com.google.common.io.ByteStreams;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import org.junit.Assert;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for {@link ZipSupportBundleOutput} and {@link ByteLimitedSupportBundleOutput}.
+ */
+public class ZipSupportBundleOutputTest {
+
+  @ClassRule
+  public static final TemporaryFolder TEMP_FOLDER = new TemporaryFolder();
+
+  @Test
+  public void testFailedEntryNotAdded() throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ZipSupportBundleOutput output = new ZipSupportBundleOutput(bytes, "root", TEMP_FOLDER.newFolder())) {
+      try {
+        output.writeEntry("a.txt", os -> {
+          os.write("partial".getBytes(StandardCharsets.UTF_8));
+          throw new IOException("Failure");
+        });
+        Assert.fail("Expected the entry to fail");
+      } catch (IOException e) {
+        // expected
+      }
+      // The retry writes the entry once, and entries that are already added are skipped
+      output.writeEntry("a.txt", os -> os.write("complete".getBytes(StandardCharsets.UTF_8)));
+      output.writeEntry("a.txt", os -> Assert.fail("Entry is already added"));
+    }
+
+    Map<String, byte[]> entries = readZip(bytes.toByteArray());
+    Assert.assertEquals(1, entries.size());
+    Assert.assertEquals("complete", new String(entries.get("root/a.txt"), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testLargeEntryDoesNotBlock() throws Exception {
+    File tempDir = TEMP_FOLDER.newFolder();
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    byte[] content = new byte[3 * 1024 * 1024];
+    CountDownLatch written = new CountDownLatch(1);
+    CountDownLatch finish = new CountDownLatch(1);
+
+    try (ZipSupportBundleOutput output = new ZipSupportBundleOutput(bytes, "root", tempDir)) {
+      CompletableFuture<Void> largeEntry = CompletableFuture.runAsync(() -> {
+        try {
+          output.writeEntry("large.txt", os -> {
+            os.write(content);
+            written.countDown();
+            try {
+              Assert.assertTrue(finish.await(10, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+              throw new IOException(e);
+            }
+          });
+        } catch (IOException e) {
+          throw new RuntimeException(e);
+        }
+      });
+
+      // A small entry is added while the large entry is still being written
+      Assert.assertTrue(written.await(10, TimeUnit.SECONDS));
+      output.writeEntry("small.txt", os -> os.write("small".getBytes(StandardCharsets.UTF_8)));
+      finish.countDown();
+      largeEntry.get(10, TimeUnit.SECONDS);
+    }
+
+    Map<String, byte[]> entries = readZip(bytes.toByteArray());
+    Assert.assertEquals("small", new String(entries.get("root/small.txt"), StandardCharsets.UTF_8));
+    Assert.assertArrayEquals(content, entries.get("root/large.txt"));
+
+    // The buffer of the large entry is removed
+    String[] tempFiles = tempDir.list();
+    Assert.assertNotNull(tempFiles);
+    Assert.assertEquals(0, tempFiles.length);
+  }
+
+  @Test
+  public void testByteLimit() throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ZipSupportBundleOutput output = new ZipSupportBundleOutput(bytes, "root", TEMP_FOLDER.newFolder())) {
+      SupportBundleOutput limitedOutput = new ByteLimitedSupportBundleOutput(output, 10);
+
+      // A failed entry doesn't count toward the limit
+      try {
+        limitedOutput.writeEntry("a.txt", os -> {
+          os.write(new byte[8]);
+          throw new IOException("Failure");
+        });
+        Assert.fail("Expected the entry to fail");
+      } catch (IOException e) {
+        Assert.assertFalse(e instanceof SupportBundleOutputLimitException);
+      }
+      limitedOutput.writeEntry("a.txt", os -> os.write(new byte[6]));
+
+      // The entry that reaches the limit is truncated and the writer is stopped
+      try {
+        limitedOutput.writeEntry("b.txt", os -> {
+          os.write(new byte[6]);
+          Assert.fail("Expected the write to fail");
+        });
+        Assert.fail("Expected the limit to be reached");
+      } catch (SupportBundleOutputLimitException e) {
+        // expected
+      }
+
+      // Entries after the limit is reached are not written
+      try {
+        limitedOutput.writeEntry("c.txt", os -> Assert.fail("Limit is already reached"));
+        Assert.fail("Expected the limit to be reached");
+      } catch (SupportBundleOutputLimitException e) {
+        // expected
+      }
+    }
+
+    Map<String, byte[]> entries = readZip(bytes.toByteArray());
+    Assert.assertEquals(2, entries.size());
+    Assert.assertEquals(6, entries.get("root/a.txt").length);
+    Assert.assertEquals(4, entries.get("root/b.txt").length);
+  }
+
+  private Map<String, byte[]> readZip(byte[] bytes) throws IOException {
+    Map<String, byte[]> entries = new HashMap<>();
+    try (ZipInputStream zipIn = new ZipInputStream(new ByteArrayInputStream(bytes))) {
+      ZipEntry entry = zipIn.getNextEntry();
+      while (entry != null) {
+        entries.put(entry.getName(), ByteStreams.toByteArray(zipIn));
+        entry = zipIn.getNextEntry();
+      }
+    }
+    return entries;
+  }
+}
@@ -43,6 +43,7 @@ import io.cdap.cdap.proto.id.NamespaceId;
 import io.cdap.cdap.proto.id.ProfileId;
 import io.cdap.cdap.proto.id.ProgramId;
 import io.cdap.cdap.support.job.SupportBundleJob;
+import io.cdap.cdap.support.lib.LocalSupportBundleOutput;
 import io.cdap.cdap.support.lib.SupportBundleFileNames;
 import io.cdap.cdap.support.status.CollectionState;
 import io.cdap.cdap.support.status.SupportBundleConfiguration;
@@ -150,7 +151,8 @@ public class SupportBundlePipelineInfoTaskTest extends SupportBundleTestBase {
                                         application, null, uuidFile,
                                         remoteApplicationDetailFetcher, remoteProgramRunRecordsFetcher,
                                         remoteLogsFetcher, programType, workflowName, remoteMetricsSystemClient,
-                                        supportBundleJob, 1, remoteProgramRunRecordFetcher);
+                                        supportBundleJob, 1, remoteProgramRunRecordFetcher,
+                                        new LocalSupportBundleOutput(uuidFile), 0L, null, null);
     supportBundlePipelineInfoTask.collect();
 
     Set<SupportBundleTaskStatus> supportBundleTaskStatusList = supportBundleStatus.getTasks();
@@ -36,6 +36,7 @@ import io.cdap.cdap.proto.RunRecord;
 import io.cdap.cdap.proto.id.NamespaceId;
 import io.cdap.cdap.proto.id.ProfileId;
 import io.cdap.cdap.proto.id.ProgramId;
+import io.cdap.cdap.support.lib.LocalSupportBundleOutput;
 import io.cdap.cdap.support.metadata.RemoteMonitorServicesFetcher;
 import io.cdap.cdap.support.task.SupportBundleSystemLogTask;
 import io.cdap.common.http.HttpResponse;
@@ -78,7 +79,8 @@ public class SupportBundleSystemLogTaskTest extends SupportBundleTestBase {
     File tempFolder = new File(configuration.get(Constants.SupportBundle.LOCAL_DATA_DIR));
     File uuidFile = new File(tempFolder, uuid);
     SupportBundleSystemLogTask systemLogTask =
-      new SupportBundleSystemLogTask(uuidFile, remoteLogsFetcher, configuration, remoteMonitorServicesFetcher);
+      new SupportBundleSystemLogTask(new LocalSupportBundleOutput(uuidFile), remoteLogsFetcher, configuration,
+                                     remoteMonitorServicesFetcher, null, null);
     systemLogTask.collect();
 
     File systemLogFolder = new File(uuidFile, "system-log");
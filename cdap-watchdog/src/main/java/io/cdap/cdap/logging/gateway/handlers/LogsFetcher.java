@@ -21,6 +21,7 @@ import io.cdap.cdap.security.spi.authentication.UnauthenticatedException;
 import io.cdap.cdap.security.spi.authorization.UnauthorizedException;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 
 /**
  * Interface for fetching Program logs
@@ -56,4 +57,40 @@ public interface LogsFetcher {
    */
   void writeSystemServiceLog(String componentId, String serviceId, long start, long stop, File file)
       throws IOException, UnauthenticatedException, UnauthorizedException;
+
+  /**
+   * Gets the run logs of a program and writes them to the given {@link OutputStream}. The stream
+   * is not closed by this method.
+   *
+   * @param program the program
+   * @param runId pipeline run id
+   * @param start start time of the time range of desired logs
+   * @param stop end time of the time range of desired logs
+   * @param outputStream the stream to write the log into
+   * @throws IOException if a network error occurred, or if failed to write to the stream, in
+   *     which case fetching stops and the failure from the stream is thrown
+   * @throws UnauthenticatedException if the request is not authorized successfully in the
+   *     gateway server
+   */
+  void writeProgramRunLogs(ProgramId program, String runId, long start, long stop,
+      OutputStream outputStream)
+      throws IOException, UnauthenticatedException, UnauthorizedException;
+
+  /**
+   * Gets the logs of a system service and writes them to the given {@link OutputStream}. The
+   * stream is not closed by this method.
+   *
+   * @param componentId component id
+   * @param serviceId service id
+   * @param start start time of the time range of desired logs
+   * @param stop end time of the time range of desired logs
+   * @param outputStream the stream to write the log into
+   * @throws IOException if a network error occurred, or if failed to write to the stream, in
+   *     which case fetching stops and the failure from the stream is thrown
+   * @throws UnauthenticatedException if the request is not authorized successfully in the
+   *     gateway server
+   */
+  void writeSystemServiceLog(String componentId, String serviceId, long start, long stop,
+      OutputStream outputStream)
+      throws IOException, UnauthenticatedException, UnauthorizedException;
 }
@@ -31,9 +31,13 @@ import io.cdap.common.http.HttpRequest;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URL;
 import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
 import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.atomic.AtomicReference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -69,11 +73,14 @@ public class RemoteLogsFetcher implements LogsFetcher {
   @Override
   public void writeProgramRunLogs(ProgramId program, String runId, long start, long stop, File file)
       throws IOException, UnauthenticatedException, UnauthorizedException {
+    execute(getProgramRunLogsPath(program, runId, start, stop), file);
+  }
 
-    String path = String.format("namespaces/%s/apps/%s/%s/%s/runs/%s/logs?start=%d&stop=%d",
-        program.getNamespaceId().getNamespace(), program.getApplication(),
-        program.getType().getCategoryName(), program.getProgram(), runId, start, stop);
-    execute(path, file);
+  @Override
+  public void writeProgramRunLogs(ProgramId program, String runId, long start, long stop,
+      OutputStream outputStream)
+      throws IOException, UnauthenticatedException, UnauthorizedException {
+    execute(getProgramRunLogsPath(program, runId, start, stop), outputStream);
   }
 
   /**
@@ -92,9 +99,26 @@ public class RemoteLogsFetcher implements LogsFetcher {
   public void writeSystemServiceLog(String componentId, String serviceId, long start, long stop,
       File file)
       throws IOException, UnauthenticatedException, UnauthorizedException {
-    String path = String.format("system/%s/%s/logs?start=%d&stop=%d", componentId, serviceId, start,
+    execute(getSystemServiceLogPath(componentId, serviceId, start, stop), file);
+  }
+
+  @Override
+  public void writeSystemServiceLog(String componentId, String serviceId, long start, long stop,
+      OutputStream outputStream)
+      throws IOException, UnauthenticatedException, UnauthorizedException {
+    execute(getSystemServiceLogPath(componentId, serviceId, start, stop), outputStream);
+  }
+
+  private String getProgramRunLogsPath(ProgramId program, String runId, long start, long stop) {
+    return String.format("namespaces/%s/apps/%s/%s/%s/runs/%s/logs?start=%d&stop=%d",
+        program.getNamespaceId().getNamespace(), program.getApplication(),
+        program.getType().getCategoryName(), program.getProgram(), runId, start, stop);
+  }
+
+  private String getSystemServiceLogPath(String componentId, String serviceId, long start,
+      long stop) {
+    return String.format("system/%s/%s/logs?start=%d&stop=%d", componentId, serviceId, start,
         stop);
-    execute(path, file);
   }
 
   private void execute(String path, File file) throws IOException, UnauthorizedException {
@@ -120,4 +144,33 @@ public class RemoteLogsFetcher implements LogsFetcher {
       remoteClient.executeStreamingRequest(request);
     }
   }
+
+  private void execute(String path, OutputStream outputStream)
+      throws IOException, UnauthorizedException {
+    WritableByteChannel channel = Channels.newChannel(outputStream);
+    AtomicReference<IOException> writeFailure = new AtomicReference<>();
+    URL url = remoteClient.resolve(path);
+    HttpRequest request = HttpRequest.get(url).withContentConsumer(new HttpContentConsumer() {
+      @Override
+      public boolean onReceived(ByteBuffer buffer) {
+        try {
+          channel.write(buffer);
+        } catch (IOException e) {
+          // Stop fetching, the failure is rethrown to the caller
+          writeFailure.set(e);
+          return false;
+        }
+        return true;
+      }
+
+      @Override
+      public void onFinished() {
+        // The stream is owned by the caller
+      }
+    }).build();
+    remoteClient.executeStreamingRequest(request);
+    if (writeFailure.get() != null) {
+      throw writeFailure.get();
+    }
+  }
 }